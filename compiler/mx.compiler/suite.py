@@ -850,6 +850,18 @@ suite = {
       "isTestProject" : True,
     },
 
+    "org.graalvm.compiler.replacements.bench" : {
+      "subDir" : "src",
+      "sourceDirs" : ["src"],
+      "dependencies" : ["mx:JMH_1_18", "org.graalvm.compiler.microbenchmarks"],
+      "checkstyle" : "org.graalvm.compiler.graph",
+      "javaCompliance" : "1.8",
+      "annotationProcessors" : ["mx:JMH_1_18"],
+      "findbugsIgnoresGenerated" : True,
+      "workingSets" : "Graal,Bench",
+      "isTestProject" : True,
+    },
+
     "org.graalvm.compiler.microbenchmarks" : {
       "subDir" : "src",
       "sourceDirs" : ["src"],
@@ -1158,6 +1170,8 @@ suite = {
       "dependencies" : [
         "mx:JMH_1_18",
         "truffle:TRUFFLE_API",
+        "truffle:TRUFFLE_SL",
+        "org.graalvm.compiler.truffle",
       ],
       "checkstyle" : "org.graalvm.compiler.graph",
       "javaCompliance" : "1.8",
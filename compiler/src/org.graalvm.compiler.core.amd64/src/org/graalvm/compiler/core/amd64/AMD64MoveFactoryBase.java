@@ -66,7 +66,11 @@ public abstract class AMD64MoveFactoryBase implements MoveFactory {
             this.frameMapBuilder = frameMapBuilder;
         }
 
-        protected RegisterBackupPair getScratchRegister(PlatformKind kind) {
+        /**
+         * Synchronized since the trace register allocator may create stack moves for different
+         * traces concurrently.
+         */
+        protected synchronized RegisterBackupPair getScratchRegister(PlatformKind kind) {
             PlatformKind.Key key = kind.getKey();
             if (categorized == null) {
                 categorized = EconomicMap.create(Equivalence.DEFAULT);
@@ -22,12 +22,23 @@
  */
 package org.graalvm.compiler.core.amd64;
 
+import static org.graalvm.compiler.core.common.GraalOptions.OptLoopTransform;
+import static org.graalvm.compiler.core.common.GraalOptions.VectorizeLoops;
+
+import java.util.ListIterator;
+
 import org.graalvm.compiler.java.DefaultSuitesCreator;
+import org.graalvm.compiler.lir.amd64.AMD64VectorizedArrayOp;
 import org.graalvm.compiler.lir.amd64.phases.StackMoveOptimizationPhase;
 import org.graalvm.compiler.lir.phases.LIRSuites;
+import org.graalvm.compiler.loop.phases.LoopVectorizationPhase;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
 import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.common.LoweringPhase;
 import org.graalvm.compiler.phases.tiers.CompilerConfiguration;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+import org.graalvm.compiler.phases.tiers.Suites;
 
 public class AMD64SuitesCreator extends DefaultSuitesCreator {
 
@@ -35,6 +46,18 @@ public class AMD64SuitesCreator extends DefaultSuitesCreator {
         super(compilerConfiguration, plugins);
     }
 
+    @Override
+    public Suites createSuites(OptionValues options, CompilerConfiguration configuration) {
+        Suites suites = super.createSuites(options, configuration);
+        if (OptLoopTransform.getValue(options) && VectorizeLoops.getValue(options)) {
+            // vectorize before the array accesses are lowered
+            ListIterator<BasePhase<? super HighTierContext>> position = suites.getHighTier().findPhase(LoweringPhase.class);
+            position.previous();
+            position.add(new LoopVectorizationPhase(AMD64VectorizedArrayOp::isSupported));
+        }
+        return suites;
+    }
+
     @Override
     public LIRSuites createLIRSuites(OptionValues options) {
         LIRSuites lirSuites = super.createLIRSuites(options);
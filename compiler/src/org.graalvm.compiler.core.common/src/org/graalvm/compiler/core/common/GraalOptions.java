@@ -112,6 +112,9 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> PartialUnroll = new OptionKey<>(true);
 
+    @Option(help = "Compute element-wise operations of counted loops over primitive arrays with vector instructions on targets that support them.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> VectorizeLoops = new OptionKey<>(false);
+
     @Option(help = "", type = OptionType.Expert)
     public static final OptionKey<Float> MinimumPeelProbability = new OptionKey<>(0.35f);
 
@@ -201,6 +204,12 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> CanOmitFrame = new OptionKey<>(true);
 
+    @Option(help = "Emit blocks with a probability below ColdBlockProbability after all other blocks of a method.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> SplitColdBlocks = new OptionKey<>(false);
+
+    @Option(help = "Probability below which a block is considered cold by SplitColdBlocks.", type = OptionType.Expert)
+    public static final OptionKey<Double> ColdBlockProbability = new OptionKey<>(0.001D);
+
     // Ahead of time compilation
     @Option(help = "Try to avoid emitting code where patching is required", type = OptionType.Expert)
     public static final OptionKey<Boolean> ImmutableCode = new OptionKey<>(false);
@@ -51,6 +51,11 @@ import org.graalvm.compiler.core.common.cfg.Loop;
  * together in the schedule thus decreasing the probability for inserted phi moves. Also, the
  * algorithm sets the linear scan order number of the block that corresponds to its index in the
  * linear scan order.
+ *
+ * The code emission order can optionally be split into a hot and a cold part. Blocks whose
+ * probability is below a threshold are moved behind all other blocks, keeping their relative
+ * order. This keeps the hot code dense, while the rarely executed code (e.g., exception and
+ * deoptimization paths) forms an out-of-line section at the end of the method.
  */
 public final class ComputeBlockOrder {
 
@@ -86,14 +91,55 @@ public final class ComputeBlockOrder {
      * @return sorted list of blocks
      */
     public static <T extends AbstractBlockBase<T>> AbstractBlockBase<?>[] computeCodeEmittingOrder(int blockCount, T startBlock) {
+        return computeCodeEmittingOrder(blockCount, startBlock, 0.0);
+    }
+
+    /**
+     * Computes the block order used for code emission and moves all blocks that are
+     * {@linkplain #isColdBlock cold} with respect to {@code coldBlockProbability} to the end.
+     *
+     * @param coldBlockProbability probability below which a block is cold, {@code 0} disables
+     *            splitting
+     * @return sorted list of blocks
+     */
+    public static <T extends AbstractBlockBase<T>> AbstractBlockBase<?>[] computeCodeEmittingOrder(int blockCount, T startBlock, double coldBlockProbability) {
         List<T> order = new ArrayList<>();
         BitSet visitedBlocks = new BitSet(blockCount);
         PriorityQueue<T> worklist = initializeWorklist(startBlock, visitedBlocks);
         computeCodeEmittingOrder(order, worklist, visitedBlocks);
         assert checkOrder(order, blockCount);
+        if (coldBlockProbability > 0.0) {
+            order = splitColdBlocks(order, startBlock, coldBlockProbability);
+            assert checkOrder(order, blockCount);
+        }
         return order.toArray(new AbstractBlockBase<?>[0]);
     }
 
+    /**
+     * Determines if a block is executed so rarely that it should be emitted out of line.
+     */
+    public static boolean isColdBlock(AbstractBlockBase<?> block, double coldBlockProbability) {
+        return block.probability() < coldBlockProbability;
+    }
+
+    /**
+     * Moves all cold blocks behind the hot blocks without changing the relative order within the
+     * hot and the cold blocks. The start block is always hot.
+     */
+    private static <T extends AbstractBlockBase<T>> List<T> splitColdBlocks(List<T> order, T startBlock, double coldBlockProbability) {
+        List<T> result = new ArrayList<>(order.size());
+        List<T> coldBlocks = new ArrayList<>();
+        for (T block : order) {
+            if (block != startBlock && isColdBlock(block, coldBlockProbability)) {
+                coldBlocks.add(block);
+            } else {
+                result.add(block);
+            }
+        }
+        result.addAll(coldBlocks);
+        return result;
+    }
+
     /**
      * Iteratively adds paths to the code emission block order.
      */
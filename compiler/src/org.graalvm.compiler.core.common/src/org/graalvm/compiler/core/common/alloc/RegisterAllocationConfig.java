@@ -108,9 +108,10 @@ public class RegisterAllocationConfig {
 
     /**
      * Gets the set of registers that can be used by the register allocator for a value of a
-     * particular kind.
+     * particular kind. Synchronized since the trace register allocator may allocate traces
+     * concurrently with a shared configuration.
      */
-    public AllocatableRegisters getAllocatableRegisters(PlatformKind kind) {
+    public synchronized AllocatableRegisters getAllocatableRegisters(PlatformKind kind) {
         PlatformKind.Key key = kind.getKey();
         if (categorized.containsKey(key)) {
             AllocatableRegisters val = categorized.get(key);
@@ -148,7 +149,7 @@ public class RegisterAllocationConfig {
     /**
      * Gets the set of registers that can be used by the register allocator.
      */
-    public RegisterArray getAllocatableRegisters() {
+    public synchronized RegisterArray getAllocatableRegisters() {
         if (cachedRegisters == null) {
             cachedRegisters = initAllocatable(registerConfig.getAllocatableRegisters());
         }
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.common.util;
+
+import org.graalvm.compiler.debug.Management;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+
+/**
+ * Utility class that limits the time and memory a single compilation may spend on optional
+ * optimizations. Unlike {@link CompilationAlarm}, an exhausted budget does not cause the
+ * compilation to be abandoned. Instead, phases that only perform optional optimizations check the
+ * budget and skip their work once it is exhausted.
+ */
+public final class CompilationBudget implements AutoCloseable {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Time in milliseconds a compilation may take before optional optimization phases are skipped (0 to disable the limit).", type = OptionType.Expert)
+        public static final OptionKey<Integer> CompilationTimeBudget = new OptionKey<>(0);
+        @Option(help = "Memory in megabytes a compilation may allocate before optional optimization phases are skipped (0 to disable the limit).", type = OptionType.Expert)
+        public static final OptionKey<Integer> CompilationMemoryBudget = new OptionKey<>(0);
+        // @formatter:on
+    }
+
+    /**
+     * Thread local storage for the active compilation budget.
+     */
+    private static final ThreadLocal<CompilationBudget> currentBudget = new ThreadLocal<>();
+
+    private static final CompilationBudget UNLIMITED = new CompilationBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * The time at which the time budget is exhausted.
+     */
+    private final long timeLimit;
+
+    /**
+     * The value of {@link Management#getCurrentThreadAllocatedBytes()} at which the memory budget
+     * is exhausted.
+     */
+    private final long memoryLimit;
+
+    /**
+     * Once exhausted, a budget stays exhausted so that all remaining optional phases are skipped.
+     */
+    private boolean exhausted;
+
+    private CompilationBudget(long timeLimit, long memoryLimit) {
+        this.timeLimit = timeLimit;
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * Gets the current compilation budget. If there is no current budget, a non-null value is
+     * returned that will always return {@code false} for {@link #isExhausted()}.
+     */
+    public static CompilationBudget current() {
+        CompilationBudget budget = currentBudget.get();
+        return budget == null ? UNLIMITED : budget;
+    }
+
+    /**
+     * Determines if the current compilation has used up its time or memory budget.
+     */
+    public boolean isExhausted() {
+        if (this == UNLIMITED) {
+            return false;
+        }
+        if (!exhausted) {
+            exhausted = System.currentTimeMillis() > timeLimit || (memoryLimit != Long.MAX_VALUE && Management.getCurrentThreadAllocatedBytes() > memoryLimit);
+        }
+        return exhausted;
+    }
+
+    @Override
+    public void close() {
+        if (this != UNLIMITED) {
+            currentBudget.set(null);
+        }
+    }
+
+    /**
+     * Starts tracking the budget of a compilation if there isn't already an active budget and
+     * {@link Options#CompilationTimeBudget} or {@link Options#CompilationMemoryBudget} is set. The
+     * returned value can be used in a try-with-resource statement to stop tracking once the
+     * compilation is finished.
+     *
+     * @return a {@link CompilationBudget} if there was no current budget for the calling thread
+     *         before this call otherwise {@code null}
+     */
+    public static CompilationBudget trackCompilationBudget(OptionValues options) {
+        int time = Options.CompilationTimeBudget.getValue(options);
+        int memory = Options.CompilationMemoryBudget.getValue(options);
+        if ((time > 0 || memory > 0) && currentBudget.get() == null) {
+            long timeLimit = time > 0 ? System.currentTimeMillis() + time : Long.MAX_VALUE;
+            long memoryLimit = memory > 0 ? Management.getCurrentThreadAllocatedBytes() + memory * 1024L * 1024L : Long.MAX_VALUE;
+            CompilationBudget budget = new CompilationBudget(timeLimit, memoryLimit);
+            currentBudget.set(budget);
+            return budget;
+        }
+        return null;
+    }
+}
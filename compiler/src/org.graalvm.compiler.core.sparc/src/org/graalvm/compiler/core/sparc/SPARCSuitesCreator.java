@@ -41,8 +41,8 @@ public class SPARCSuitesCreator extends DefaultSuitesCreator {
     }
 
     @Override
-    public Suites createSuites(OptionValues options) {
-        Suites s = super.createSuites(options);
+    public Suites createSuites(OptionValues options, CompilerConfiguration configuration) {
+        Suites s = super.createSuites(options, configuration);
         ListIterator<BasePhase<? super LowTierContext>> l = s.getLowTier().findPhase(ExpandLogicPhase.class);
         while (PhaseSuite.findNextPhase(l, ExpandLogicPhase.class)) {
             // Search for last occurrence of ExpandLogicPhase
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import static org.graalvm.compiler.core.common.util.CompilationBudget.Options.CompilationTimeBudget;
+
+import org.graalvm.compiler.core.common.util.CompilationBudget;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.Phase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompilationBudgetTest extends GraalCompilerTest {
+
+    public static void snippet() {
+        // dummy snippet
+    }
+
+    private static class RecordingPhase extends Phase {
+
+        private final boolean optional;
+        boolean executed;
+
+        RecordingPhase(boolean optional) {
+            this.optional = optional;
+        }
+
+        @Override
+        protected void run(StructuredGraph graph) {
+            executed = true;
+        }
+
+        @Override
+        protected boolean isOptional() {
+            return optional;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            GraalError.shouldNotReachHere(e.getCause());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    public void testOptionalPhaseSkipped() {
+        OptionValues options = new OptionValues(getInitialOptions(), CompilationTimeBudget, 1/* ms */);
+        try (CompilationBudget budget = CompilationBudget.trackCompilationBudget(options)) {
+            StructuredGraph g = parseEager("snippet", AllowAssumptions.NO, options);
+            sleep(10);
+            Assert.assertTrue(CompilationBudget.current().isExhausted());
+
+            RecordingPhase optionalPhase = new RecordingPhase(true);
+            optionalPhase.apply(g);
+            Assert.assertFalse("optional phase must be skipped once the budget is exhausted", optionalPhase.executed);
+
+            RecordingPhase requiredPhase = new RecordingPhase(false);
+            requiredPhase.apply(g);
+            Assert.assertTrue("required phase must always be executed", requiredPhase.executed);
+        }
+        Assert.assertFalse(CompilationBudget.current().isExhausted());
+    }
+
+    @Test
+    public void testWithoutBudget() {
+        StructuredGraph g = parseEager("snippet", AllowAssumptions.NO);
+        RecordingPhase optionalPhase = new RecordingPhase(true);
+        optionalPhase.apply(g);
+        Assert.assertTrue(optionalPhase.executed);
+    }
+}
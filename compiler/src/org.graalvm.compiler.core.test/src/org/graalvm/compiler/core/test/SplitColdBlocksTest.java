@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import static org.graalvm.compiler.core.common.GraalOptions.ColdBlockProbability;
+import static org.graalvm.compiler.core.common.GraalOptions.SplitColdBlocks;
+
+import org.graalvm.compiler.api.directives.GraalDirectives;
+import org.graalvm.compiler.core.common.alloc.ComputeBlockOrder;
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.phases.LIRPhase;
+import org.graalvm.compiler.lir.phases.LIRSuites;
+import org.graalvm.compiler.lir.phases.PostAllocationOptimizationPhase.PostAllocationOptimizationContext;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+import jdk.vm.ci.code.TargetDescription;
+
+/**
+ * Tests that {@link org.graalvm.compiler.core.common.GraalOptions#SplitColdBlocks} emits all cold
+ * blocks after the hot blocks and that the compiled code still computes the right results.
+ */
+public class SplitColdBlocksTest extends GraalCompilerTest {
+
+    private LIR lir;
+
+    @Override
+    protected LIRSuites createLIRSuites(OptionValues options) {
+        LIRSuites suites = super.createLIRSuites(options);
+        suites.getPostAllocationOptimizationStage().appendPhase(new CheckPhase());
+        return suites;
+    }
+
+    public class CheckPhase extends LIRPhase<PostAllocationOptimizationContext> {
+        @Override
+        protected void run(TargetDescription target, LIRGenerationResult lirGenRes, PostAllocationOptimizationContext context) {
+            lir = lirGenRes.getLIR();
+        }
+    }
+
+    private static OptionValues splitOptions() {
+        return new OptionValues(getInitialOptions(), SplitColdBlocks, true);
+    }
+
+    /**
+     * Checks that no hot block follows a cold block in the code emitting order of the last
+     * compilation.
+     */
+    private void checkCodeEmittingOrder(OptionValues options, boolean expectColdBlocks) {
+        assertTrue("no LIR recorded", lir != null);
+        double coldBlockProbability = ColdBlockProbability.getValue(options);
+        AbstractBlockBase<?>[] order = lir.codeEmittingOrder();
+        AbstractBlockBase<?> firstColdBlock = null;
+        for (int i = 1; i < order.length; i++) {
+            AbstractBlockBase<?> block = order[i];
+            if (block == null) {
+                // removed by the control flow optimizer
+                continue;
+            }
+            boolean cold = ComputeBlockOrder.isColdBlock(block, coldBlockProbability);
+            if (firstColdBlock == null) {
+                if (cold) {
+                    firstColdBlock = block;
+                }
+            } else {
+                assertTrue(String.format("hot block %s emitted after cold block %s", block, firstColdBlock), cold);
+            }
+        }
+        if (expectColdBlocks) {
+            assertTrue("expected a cold block", firstColdBlock != null);
+        }
+    }
+
+    public static int exceptionHandlerSnippet(int[] array, int index) {
+        int sum = 0;
+        try {
+            for (int i = 0; i <= index; i++) {
+                sum += array[i];
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            sum = -sum;
+        }
+        return sum;
+    }
+
+    @Test
+    public void testExceptionHandler() {
+        OptionValues options = splitOptions();
+        int[] array = {1, 2, 3, 4, 5};
+        test(options, "exceptionHandlerSnippet", array, 3);
+        test(options, "exceptionHandlerSnippet", array, 7);
+        test(options, "exceptionHandlerSnippet", null, 1);
+        checkCodeEmittingOrder(options, false);
+    }
+
+    public static int throwSnippet(int a, int b) {
+        if (GraalDirectives.injectBranchProbability(GraalDirectives.SLOWPATH_PROBABILITY, b == 0)) {
+            throw new IllegalArgumentException("division by zero: " + a);
+        }
+        int result = a / b;
+        if (GraalDirectives.injectBranchProbability(GraalDirectives.SLOWPATH_PROBABILITY, result < 0)) {
+            throw new IllegalStateException("negative result: " + result);
+        }
+        return result + a % b;
+    }
+
+    @Test
+    public void testThrow() {
+        OptionValues options = splitOptions();
+        test(options, "throwSnippet", 17, 5);
+        test(options, "throwSnippet", 17, 0);
+        test(options, "throwSnippet", -17, 5);
+        checkCodeEmittingOrder(options, true);
+    }
+
+    public static int deoptSnippet(int x, int y) {
+        int result = 0;
+        for (int i = 0; i < x; i++) {
+            if (GraalDirectives.injectBranchProbability(GraalDirectives.SLOWPATH_PROBABILITY, i == y)) {
+                GraalDirectives.deoptimize();
+                result += 1000;
+            }
+            result += i;
+        }
+        return result;
+    }
+
+    @Test
+    public void testDeopt() {
+        OptionValues options = splitOptions();
+        test(options, "deoptSnippet", 10, -1);
+        test(options, "deoptSnippet", 10, 4);
+        checkCodeEmittingOrder(options, true);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import static org.graalvm.compiler.core.common.GraalOptions.TraceRA;
+import static org.graalvm.compiler.lir.alloc.trace.DefaultTraceRegisterAllocationPolicy.Options.TraceRAPolicy;
+import static org.graalvm.compiler.lir.alloc.trace.TraceRegisterAllocationPhase.Options.TraceRAParallel;
+
+import org.graalvm.compiler.lir.alloc.trace.DefaultTraceRegisterAllocationPolicy.TraceRAPolicies;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+/**
+ * Compiles methods with many traces and high register pressure with
+ * {@link org.graalvm.compiler.lir.alloc.trace.TraceRegisterAllocationPhase.Options#TraceRAParallel}
+ * enabled and checks the results against the interpreter.
+ */
+public class TraceRAParallelTest extends GraalCompilerTest {
+
+    private void testParallel(String name, Object... args) {
+        for (TraceRAPolicies policy : new TraceRAPolicies[]{TraceRAPolicies.Default, TraceRAPolicies.LinearScanOnly, TraceRAPolicies.BottomUpOnly}) {
+            OptionValues options = new OptionValues(getInitialOptions(), TraceRA, true, TraceRAParallel, true, TraceRAPolicy, policy);
+            test(options, name, args);
+        }
+    }
+
+    public static int branchesSnippet(int a, int b) {
+        int result = 0;
+        for (int i = 0; i < a; i++) {
+            switch ((i ^ b) & 7) {
+                case 0:
+                    result += i;
+                    break;
+                case 1:
+                    result -= b;
+                    break;
+                case 2:
+                    result *= 3;
+                    break;
+                case 3:
+                    result ^= i << 2;
+                    break;
+                case 4:
+                    if (result > b) {
+                        result >>= 1;
+                    } else {
+                        result += 17;
+                    }
+                    break;
+                case 5:
+                    result |= b;
+                    break;
+                case 6:
+                    result = result * 31 + i;
+                    break;
+                default:
+                    result = ~result;
+                    break;
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testBranches() {
+        testParallel("branchesSnippet", 100, 3);
+        testParallel("branchesSnippet", 1000, -5);
+    }
+
+    static volatile int sideEffect;
+
+    public static int spillSnippet(int a, int b) {
+        int v0 = a + 1;
+        int v1 = a * 3;
+        int v2 = b - a;
+        int v3 = b * 7;
+        int v4 = a ^ b;
+        int v5 = a | 5;
+        int v6 = b & 0xff;
+        int v7 = a - 11;
+        int v8 = b + 13;
+        int v9 = a * b;
+        int v10 = a << 3;
+        int v11 = b >> 2;
+        int v12 = a + b;
+        int v13 = a - b;
+        int v14 = a * a;
+        int v15 = b * b;
+        for (int i = 0; i < a; i++) {
+            if ((i & 1) == 0) {
+                sideEffect = v0 + v1 + v2 + v3;
+                v0 += v15;
+                v15 ^= v1;
+            } else if ((i & 2) == 0) {
+                sideEffect = v4 + v5 + v6 + v7;
+                v4 -= v14;
+                v14 += v2;
+            } else {
+                sideEffect = v8 + v9 + v10 + v11;
+                v8 *= v13;
+                v13 |= v3;
+            }
+            v12 += i;
+        }
+        return v0 + v1 + v2 + v3 + v4 + v5 + v6 + v7 + v8 + v9 + v10 + v11 + v12 + v13 + v14 + v15;
+    }
+
+    @Test
+    public void testSpill() {
+        testParallel("spillSnippet", 57, 9);
+        testParallel("spillSnippet", 3, -1);
+    }
+
+    public static double floatSnippet(float f, double d, int n) {
+        float f0 = f;
+        float f1 = f * 2;
+        float f2 = f + 3;
+        float f3 = f - 4;
+        double d0 = d;
+        double d1 = d * 5;
+        double d2 = d + 6;
+        double d3 = d - 7;
+        for (int i = 0; i < n; i++) {
+            if (i % 3 == 0) {
+                f0 += f3;
+                d0 *= 1.0001;
+            } else if (i % 3 == 1) {
+                f1 -= f2;
+                d1 += d3;
+            } else {
+                f2 *= 0.5f;
+                d2 -= d0;
+            }
+            sideEffect = i;
+        }
+        return f0 + f1 + f2 + f3 + d0 + d1 + d2 + d3;
+    }
+
+    @Test
+    public void testFloat() {
+        testParallel("floatSnippet", 1.5f, 2.25, 40);
+    }
+
+    /**
+     * Every trace uses values of all kinds, so the traces query the shared register allocation
+     * configuration for the int, long, float and double registers concurrently.
+     */
+    public static double mixedKindsSnippet(int n, long l, float f, double d) {
+        int i0 = n;
+        long l0 = l;
+        float f0 = f;
+        double d0 = d;
+        for (int i = 0; i < n; i++) {
+            switch (i & 3) {
+                case 0:
+                    i0 += (int) l0;
+                    f0 += d0;
+                    break;
+                case 1:
+                    l0 ^= i0;
+                    d0 *= f0;
+                    break;
+                case 2:
+                    f0 -= i0;
+                    l0 += (long) d0;
+                    break;
+                default:
+                    d0 += l0;
+                    i0 -= (int) f0;
+                    break;
+            }
+            sideEffect = i0;
+        }
+        return i0 + l0 + f0 + d0;
+    }
+
+    @Test
+    public void testMixedKinds() {
+        testParallel("mixedKindsSnippet", 23, 7L, 0.5f, 1.25);
+        testParallel("mixedKindsSnippet", 100, -3L, 2.5f, -0.75);
+    }
+}
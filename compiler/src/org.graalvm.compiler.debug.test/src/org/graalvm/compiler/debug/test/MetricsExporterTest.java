@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.debug.test;
+
+import static org.graalvm.compiler.debug.DebugContext.NO_DESCRIPTION;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugCloseable;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugHandlersFactory;
+import org.graalvm.compiler.debug.DebugOptions;
+import org.graalvm.compiler.debug.GlobalMetrics;
+import org.graalvm.compiler.debug.MemUseTrackerKey;
+import org.graalvm.compiler.debug.MetricsExporter;
+import org.graalvm.compiler.debug.TimerKey;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsExporterTest {
+
+    private static final CounterKey EXPORTED_COUNTER = DebugContext.counter("MetricsExporterTestCounter");
+    private static final TimerKey EXPORTED_TIMER = DebugContext.timer("MetricsExporterTestTimer");
+    private static final MemUseTrackerKey EXPORTED_MEM_USE_TRACKER = DebugContext.memUseTracker("MetricsExporterTestMemUseTracker");
+
+    private static void increment(OptionValues options, GlobalMetrics metrics, long delta) {
+        try (DebugContext debug = DebugContext.create(options, NO_DESCRIPTION, metrics, System.out, Collections.<DebugHandlersFactory> emptyList())) {
+            Assert.assertTrue("exporting must enable metrics without scopes", debug.areMetricsEnabled());
+            EXPORTED_COUNTER.add(debug, delta);
+        }
+    }
+
+    @Test
+    public void testExport() throws IOException {
+        Path dir = Files.createTempDirectory("MetricsExporterTest");
+        Path file = dir.resolve("metrics.csv");
+        try {
+            OptionValues options = new OptionValues(OptionValues.asMap(DebugOptions.MetricsExportFile, file.toString(), DebugOptions.MetricsExportInterval, 3600));
+            GlobalMetrics metrics = new GlobalMetrics();
+            MetricsExporter exporter = MetricsExporter.start(metrics, options);
+            Assert.assertNotNull(exporter);
+
+            increment(options, metrics, 5);
+            exporter.export();
+            Assert.assertTrue(exporter.getLatestSnapshot(), exporter.getLatestSnapshot().contains("\"MetricsExporterTestCounter\":{\"value\":5,\"delta\":5"));
+
+            increment(options, metrics, 3);
+            exporter.stop();
+            Assert.assertTrue(exporter.getLatestSnapshot(), exporter.getLatestSnapshot().contains("\"MetricsExporterTestCounter\":{\"value\":8,\"delta\":3"));
+
+            List<String> lines = Files.readAllLines(file);
+            Assert.assertEquals("timestamp;metric_name;metric_value;metric_delta;metric_unit", lines.get(0));
+            int rows = 0;
+            for (String line : lines) {
+                if (line.contains("MetricsExporterTestCounter")) {
+                    rows++;
+                }
+            }
+            Assert.assertEquals(2, rows);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testExportedMetricSelection() {
+        OptionValues options = new OptionValues(OptionValues.asMap(DebugOptions.MetricsExportFile, "metrics.json"));
+        try (DebugContext debug = DebugContext.create(options, NO_DESCRIPTION, new GlobalMetrics(), System.out, Collections.<DebugHandlersFactory> emptyList())) {
+            Assert.assertTrue(EXPORTED_COUNTER.isEnabled(debug));
+            try (DebugCloseable s = EXPORTED_TIMER.start(debug)) {
+                Assert.assertNotSame("timers are exported by default", DebugCloseable.VOID_CLOSEABLE, s);
+            }
+            try (DebugCloseable s = EXPORTED_MEM_USE_TRACKER.start(debug)) {
+                Assert.assertSame("memory use trackers must be selected explicitly", DebugCloseable.VOID_CLOSEABLE, s);
+            }
+        }
+
+        options = new OptionValues(options, DebugOptions.MemUseTrackers, "MetricsExporterTestMemUseTracker");
+        try (DebugContext debug = DebugContext.create(options, NO_DESCRIPTION, new GlobalMetrics(), System.out, Collections.<DebugHandlersFactory> emptyList())) {
+            try (DebugCloseable s = EXPORTED_MEM_USE_TRACKER.start(debug)) {
+                Assert.assertNotSame(DebugCloseable.VOID_CLOSEABLE, s);
+            }
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        Assert.assertNull(MetricsExporter.start(new GlobalMetrics(), new OptionValues(OptionValues.newOptionMap())));
+    }
+}
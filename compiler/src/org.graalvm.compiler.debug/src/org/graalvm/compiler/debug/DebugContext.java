@@ -33,6 +33,7 @@ import static org.graalvm.compiler.debug.DebugOptions.ListMetrics;
 import static org.graalvm.compiler.debug.DebugOptions.Log;
 import static org.graalvm.compiler.debug.DebugOptions.MemUseTrackers;
 import static org.graalvm.compiler.debug.DebugOptions.MethodFilter;
+import static org.graalvm.compiler.debug.DebugOptions.MetricsExportFile;
 import static org.graalvm.compiler.debug.DebugOptions.Time;
 import static org.graalvm.compiler.debug.DebugOptions.Timers;
 import static org.graalvm.compiler.debug.DebugOptions.TrackMemUse;
@@ -200,8 +201,11 @@ public final class DebugContext implements AutoCloseable {
 
         private Immutable(OptionValues options) {
             this.options = options;
-            this.unscopedCounters = parseUnscopedMetricSpec(Counters.getValue(options), "".equals(Count.getValue(options)), false);
-            this.unscopedTimers = parseUnscopedMetricSpec(Timers.getValue(options), "".equals(Time.getValue(options)), true);
+            // exporting metrics enables all counters and timers without requiring scopes but
+            // leaves the more expensive memory use trackers to be selected explicitly
+            boolean export = MetricsExportFile.getValue(options) != null;
+            this.unscopedCounters = parseUnscopedMetricSpec(Counters.getValue(options), export || "".equals(Count.getValue(options)), false);
+            this.unscopedTimers = parseUnscopedMetricSpec(Timers.getValue(options), export || "".equals(Time.getValue(options)), true);
             this.unscopedMemUseTrackers = parseUnscopedMetricSpec(MemUseTrackers.getValue(options), "".equals(TrackMemUse.getValue(options)), true);
 
             this.scopesEnabled = DumpOnError.getValue(options) ||
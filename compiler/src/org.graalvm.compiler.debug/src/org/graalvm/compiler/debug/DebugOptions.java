@@ -100,6 +100,16 @@ public class DebugOptions {
     @Option(help = "File to which aggregated metrics are dumped at shutdown. A CSV format is used if the file ends with .csv " +
                     "otherwise a more human readable format is used. If not specified, metrics are dumped to the console.", type = OptionType.Debug)
     public static final OptionKey<String> AggregatedMetricsFile = new OptionKey<>(null);
+    @Option(help = "File to which snapshots of the aggregated metrics are periodically exported while the VM is running. " +
+                    "A CSV format is used if the file ends with .csv otherwise one JSON object is written per snapshot. " +
+                    "Unless restricted by the Counters and Timers options, specifying this option enables all counters and timers " +
+                    "without requiring debug scopes. Memory use trackers are only exported if selected by MemUseTrackers or TrackMemUse. " +
+                    "The aggregated metrics are not dumped to the console at shutdown unless AggregatedMetricsFile or another metric option is specified.", type = OptionType.Debug)
+    public static final OptionKey<String> MetricsExportFile = new OptionKey<>(null);
+    @Option(help = "Interval in seconds between two snapshots exported to MetricsExportFile.", type = OptionType.Debug)
+    public static final OptionKey<Integer> MetricsExportInterval = new OptionKey<>(10);
+    @Option(help = "Size in kilobytes after which MetricsExportFile is rolled over to a file with a .1 suffix.", type = OptionType.Debug)
+    public static final OptionKey<Integer> MetricsExportFileSizeLimit = new OptionKey<>(10240);
 
     @Option(help = "Only report metrics for threads whose name matches the regular expression.", type = OptionType.Debug)
     public static final OptionKey<String> MetricsThreadFilter = new OptionKey<>(null);
@@ -47,6 +47,13 @@ public class GlobalMetrics {
         values = debug.addValuesTo(values);
     }
 
+    /**
+     * Gets a copy of the values in this object or {@code null} if no values have been added.
+     */
+    public synchronized long[] getValues() {
+        return values == null ? null : values.clone();
+    }
+
     /**
      * Clears all values in this object.
      */
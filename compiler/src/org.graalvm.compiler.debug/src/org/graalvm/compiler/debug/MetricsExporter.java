@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.debug;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.util.Pair;
+
+/**
+ * Periodically exports snapshots of the values in a {@link GlobalMetrics} object while the VM is
+ * running. Each snapshot contains the value of every non-zero metric together with its delta to
+ * the previous snapshot. Snapshots are appended to the file specified by
+ * {@link DebugOptions#MetricsExportFile} which is rolled over once it exceeds
+ * {@link DebugOptions#MetricsExportFileSizeLimit}. The most recent snapshot is also available via
+ * {@link #getLatestSnapshot()}.
+ */
+public final class MetricsExporter {
+
+    private final GlobalMetrics metrics;
+    private final Path file;
+    private final boolean csv;
+    private final long fileSizeLimit;
+    private final long intervalMillis;
+
+    /**
+     * The values of the previous snapshot used to compute deltas.
+     */
+    private long[] previousValues;
+    private volatile String latestSnapshot;
+    private volatile boolean stopped;
+    private Thread thread;
+
+    private MetricsExporter(GlobalMetrics metrics, Path file, long intervalMillis, long fileSizeLimit) {
+        this.metrics = metrics;
+        this.file = file;
+        String name = file.getFileName().toString();
+        this.csv = name.endsWith(".csv") || name.endsWith(".CSV");
+        this.intervalMillis = intervalMillis;
+        this.fileSizeLimit = fileSizeLimit;
+    }
+
+    /**
+     * Creates and starts an exporter for {@code metrics} if {@link DebugOptions#MetricsExportFile}
+     * is specified.
+     *
+     * @return the started exporter or {@code null} if exporting is disabled
+     */
+    public static MetricsExporter start(GlobalMetrics metrics, OptionValues options) {
+        String fileName = DebugOptions.MetricsExportFile.getValue(options);
+        if (fileName == null) {
+            return null;
+        }
+        long interval = Math.max(1, DebugOptions.MetricsExportInterval.getValue(options)) * 1000L;
+        long sizeLimit = Math.max(1, DebugOptions.MetricsExportFileSizeLimit.getValue(options)) * 1024L;
+        MetricsExporter exporter = new MetricsExporter(metrics, Paths.get(fileName), interval, sizeLimit);
+        Thread thread = new Thread("GraalMetricsExporter") {
+            @Override
+            public void run() {
+                while (!exporter.stopped) {
+                    try {
+                        Thread.sleep(exporter.intervalMillis);
+                    } catch (InterruptedException e) {
+                        // stop() interrupts the thread and writes the final snapshot itself
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (!exporter.stopped) {
+                        exporter.export();
+                    }
+                }
+            }
+        };
+        thread.setDaemon(true);
+        exporter.thread = thread;
+        thread.start();
+        return exporter;
+    }
+
+    /**
+     * Stops the periodic export and writes a final snapshot.
+     */
+    public void stop() {
+        stopped = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        export();
+    }
+
+    /**
+     * Gets the most recent snapshot in JSON format or {@code null} if no snapshot has been taken
+     * yet.
+     */
+    public String getLatestSnapshot() {
+        return latestSnapshot;
+    }
+
+    /**
+     * Takes a snapshot of the current metric values and appends it to the export file.
+     */
+    public synchronized void export() {
+        long timestamp = System.currentTimeMillis();
+        long[] values = metrics.getValues();
+        long[] previous = previousValues;
+        List<MetricKey> keys = KeyRegistry.getKeys();
+        Collections.sort(keys, MetricKey.NAME_COMPARATOR);
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"timestamp\":").append(timestamp).append(",\"metrics\":{");
+        StringBuilder rows = new StringBuilder();
+        String csvFormat = CSVUtil.buildFormatString("%s", "%s", "%s", "%s", "%s");
+        boolean first = true;
+        for (MetricKey key : keys) {
+            int index = ((AbstractKey) key).getIndex();
+            long value = valueAt(values, index);
+            long previousValue = valueAt(previous, index);
+            // a value smaller than the previous one means the metrics were cleared in between
+            long delta = value >= previousValue ? value - previousValue : value;
+            if (value == 0 && delta == 0) {
+                continue;
+            }
+            Pair<String, String> valueAndUnit = key.toCSVFormat(value);
+            String deltaValue = key.toCSVFormat(delta).getLeft();
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(escapeJSON(key.getName())).append("\":{\"value\":").append(valueAndUnit.getLeft());
+            json.append(",\"delta\":").append(deltaValue);
+            json.append(",\"unit\":\"").append(escapeJSON(valueAndUnit.getRight())).append("\"}");
+            if (csv) {
+                Object[] args = CSVUtil.Escape.escapeArgs(String.valueOf(timestamp), key.getName(), valueAndUnit.getLeft(), deltaValue, valueAndUnit.getRight());
+                rows.append(String.format(csvFormat, args)).append(System.lineSeparator());
+            }
+        }
+        json.append("}}");
+        previousValues = values;
+        latestSnapshot = json.toString();
+
+        try {
+            if (Files.exists(file) && Files.size(file) > fileSizeLimit) {
+                Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            boolean newFile = !Files.exists(file);
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+                if (csv) {
+                    if (newFile) {
+                        CSVUtil.Escape.println(out, csvFormat, "timestamp", "metric_name", "metric_value", "metric_delta", "metric_unit");
+                    }
+                    out.print(rows);
+                } else {
+                    out.println(latestSnapshot);
+                }
+            }
+        } catch (IOException e) {
+            TTY.println("Error exporting metrics to %s: %s", file, e);
+        }
+    }
+
+    private static long valueAt(long[] values, int index) {
+        return values == null || index >= values.length ? 0L : values[index];
+    }
+
+    private static String escapeJSON(String s) {
+        if (s.indexOf('"') < 0 && s.indexOf('\\') < 0) {
+            return s;
+        }
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -51,8 +51,8 @@ public class AArch64HotSpotSuitesProvider extends HotSpotSuitesProvider {
     }
 
     @Override
-    public Suites createSuites(OptionValues options) {
-        Suites suites = super.createSuites(options);
+    protected Suites completeSuites(Suites defaultSuites, OptionValues options) {
+        Suites suites = super.completeSuites(defaultSuites, options);
 
         ListIterator<BasePhase<? super LowTierContext>> findPhase = suites.getLowTier().findPhase(FixReadsPhase.class);
         if (findPhase == null) {
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import java.lang.reflect.Field;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.hotspot.AOTGraalHotSpotVMConfig;
+import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
+import org.graalvm.compiler.hotspot.HotSpotPersistentSnippetGraphCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.hotspot.HotSpotJVMCIRuntime;
+
+/**
+ * Tests that the configuration of a {@link HotSpotPersistentSnippetGraphCache} does not depend on
+ * addresses that differ between VM executions.
+ */
+public class HotSpotPersistentSnippetGraphCacheTest extends GraalCompilerTest {
+
+    private static GraalHotSpotVMConfig createConfig() {
+        return new AOTGraalHotSpotVMConfig(HotSpotJVMCIRuntime.runtime().getConfigStore());
+    }
+
+    private static void setField(GraalHotSpotVMConfig config, String name, Object value) throws ReflectiveOperationException {
+        Field field = GraalHotSpotVMConfig.class.getField(name);
+        field.setAccessible(true);
+        field.set(config, value);
+    }
+
+    private String key(GraalHotSpotVMConfig config) {
+        return HotSpotPersistentSnippetGraphCache.configurationKey(getTarget().arch, config, getInitialOptions());
+    }
+
+    @Test
+    public void testAddressesAreIgnored() throws ReflectiveOperationException {
+        GraalHotSpotVMConfig config = createConfig();
+        GraalHotSpotVMConfig moved = createConfig();
+        setField(moved, "heapTopAddress", config.heapTopAddress + 0x10000000L);
+        setField(moved, "cardtableStartAddress", config.cardtableStartAddress + 0x10000000L);
+        setField(moved, "crcTableAddress", config.crcTableAddress + 0x1000L);
+        setField(moved, "newInstanceAddress", config.newInstanceAddress + 0x1000L);
+        setField(moved, "jintArraycopy", config.jintArraycopy + 0x1000L);
+        Assert.assertEquals(key(config), key(moved));
+    }
+
+    @Test
+    public void testLayoutIsIncluded() throws ReflectiveOperationException {
+        GraalHotSpotVMConfig config = createConfig();
+        GraalHotSpotVMConfig changed = createConfig();
+        setField(changed, "markOopDescHashMask", config.markOopDescHashMask >>> 1);
+        Assert.assertNotEquals(key(config), key(changed));
+
+        changed = createConfig();
+        setField(changed, "useTLAB", !config.useTLAB);
+        Assert.assertNotEquals(key(config), key(changed));
+    }
+}
@@ -56,6 +56,7 @@ import jdk.vm.ci.meta.ResolvedJavaType;
 import jdk.vm.ci.runtime.JVMCI;
 
 import org.graalvm.compiler.debug.DebugOptions;
+import org.graalvm.compiler.debug.MetricsExporter;
 import org.graalvm.compiler.options.OptionDescriptor;
 import org.graalvm.compiler.options.OptionDescriptors;
 import org.graalvm.compiler.options.OptionKey;
@@ -75,6 +76,7 @@ public final class HotSpotGraalMBean implements DynamicMBean {
     private volatile EconomicSet<Reference<ClassLoader>> loaders;
     private ObjectName registered;
     private OptionValues cachedOptions;
+    private volatile MetricsExporter metricsExporter;
 
     private HotSpotGraalMBean(HotSpotGraalCompiler compiler, OptionValues options) {
         this.compiler = compiler;
@@ -113,6 +115,24 @@ public final class HotSpotGraalMBean implements DynamicMBean {
         return mbean;
     }
 
+    /**
+     * Sets the exporter whose snapshots are returned by the {@code metrics} operation.
+     */
+    void setMetricsExporter(MetricsExporter exporter) {
+        this.metricsExporter = exporter;
+    }
+
+    /**
+     * Gets the most recent metrics snapshot in JSON format.
+     *
+     * @return {@code null} if {@link DebugOptions#MetricsExportFile} was not specified or no
+     *         snapshot has been taken yet
+     */
+    public String getMetricsSnapshot() {
+        MetricsExporter exporter = metricsExporter;
+        return exporter == null ? null : exporter.getLatestSnapshot();
+    }
+
     public ObjectName ensureRegistered(boolean check) {
         for (int cnt = 0;; cnt++) {
             if (registered != null) {
@@ -243,6 +263,8 @@ public final class HotSpotGraalMBean implements DynamicMBean {
             } catch (Exception ex) {
                 throw new ReflectionException(ex);
             }
+        } else if ("metrics".equals(actionName)) {
+            return getMetricsSnapshot();
         }
         return null;
     }
@@ -321,7 +343,9 @@ public final class HotSpotGraalMBean implements DynamicMBean {
                                         new MBeanParameterInfo("filter", "java.lang.String", "The parameter for Dump option"),
                                         new MBeanParameterInfo("host", "java.lang.String", "The host where the IGV tool is running at"),
                                         new MBeanParameterInfo("port", "int", "The port where the IGV tool is listening at"),
-                        }, "void", MBeanOperationInfo.ACTION)
+                        }, "void", MBeanOperationInfo.ACTION),
+                        new MBeanOperationInfo("metrics", "Most recent snapshot of the compiler metrics exported to MetricsExportFile", new MBeanParameterInfo[0],
+                                        "java.lang.String", MBeanOperationInfo.INFO)
         };
 
         return new MBeanInfo(
@@ -41,8 +41,10 @@ import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.DebugContext.Description;
 import org.graalvm.compiler.debug.DebugHandlersFactory;
 import org.graalvm.compiler.debug.DiagnosticsOutputDirectory;
+import org.graalvm.compiler.debug.DebugOptions;
 import org.graalvm.compiler.debug.GlobalMetrics;
 import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.debug.MetricsExporter;
 import org.graalvm.compiler.debug.TTY;
 import org.graalvm.compiler.hotspot.CompilationStatistics.Options;
 import org.graalvm.compiler.hotspot.CompilerConfigurationFactory.BackendMap;
@@ -96,6 +98,8 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
     private final OptionValues options;
     private final DiagnosticsOutputDirectory outputDirectory;
     private final HotSpotGraalMBean mBean;
+    private final HotSpotPersistentSnippetGraphCache snippetGraphCache;
+    private final MetricsExporter metricsExporter;
 
     /**
      * @param compilerConfigurationFactory factory for the compiler configuration
@@ -147,6 +151,8 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
             }
         }
 
+        snippetGraphCache = HotSpotPersistentSnippetGraphCache.install(hostBackend, config, options);
+
         // Complete initialization of backends
         try (InitTimer st = timer(hostBackend.getTarget().arch.getName(), ".completeInitialization")) {
             hostBackend.completeInitialization(jvmciRuntime, options);
@@ -161,6 +167,9 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
 
         BenchmarkCounters.initialize(jvmciRuntime, options);
 
+        metricsExporter = MetricsExporter.start(metricValues, options);
+        mBean.setMetricsExporter(metricsExporter);
+
         assert checkArrayIndexScaleInvariants();
 
         runtimeStartTime = System.nanoTime();
@@ -259,7 +268,12 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
 
     void shutdown() {
         shutdown = true;
-        metricValues.print(options);
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+        }
+        if (shouldPrintMetrics(options)) {
+            metricValues.print(options);
+        }
 
         phaseTransition("final");
 
@@ -270,9 +284,25 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
         }
         BenchmarkCounters.shutdown(runtime(), options, runtimeStartTime);
 
+        if (snippetGraphCache != null) {
+            snippetGraphCache.save();
+        }
+
         outputDirectory.close();
     }
 
+    /**
+     * Determines if the aggregated metrics are printed at shutdown. Metrics that were only enabled
+     * by {@link DebugOptions#MetricsExportFile} are not dumped to the console.
+     */
+    private static boolean shouldPrintMetrics(OptionValues options) {
+        if (DebugOptions.MetricsExportFile.getValue(options) == null || DebugOptions.AggregatedMetricsFile.getValue(options) != null) {
+            return true;
+        }
+        return DebugOptions.Counters.getValue(options) != null || DebugOptions.Timers.getValue(options) != null || DebugOptions.MemUseTrackers.getValue(options) != null ||
+                        DebugOptions.Count.getValue(options) != null || DebugOptions.Time.getValue(options) != null || DebugOptions.TrackMemUse.getValue(options) != null;
+    }
+
     void clearMetrics() {
         metricValues.clear();
     }
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.graalvm.compiler.hotspot.meta.HotSpotProviders;
+import org.graalvm.compiler.hotspot.nodes.type.KlassPointerStamp;
+import org.graalvm.compiler.hotspot.nodes.type.MethodPointerStamp;
+import org.graalvm.compiler.hotspot.replacements.HotSpotReplacementsUtil;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.replacements.PersistentSnippetGraphCache;
+import org.graalvm.compiler.replacements.ReplacementsImpl;
+import org.graalvm.util.UnmodifiableMapCursor;
+
+import jdk.vm.ci.code.Architecture;
+
+/**
+ * A {@link PersistentSnippetGraphCache} for the snippets and method substitutions of a HotSpot
+ * backend. The cache is only valid for the VM, the VM configuration, the compiler code and the
+ * options with which it was written. The addresses in the VM configuration differ between VM
+ * executions, so they are not part of the configuration but are written symbolically where they
+ * are folded into graphs.
+ */
+public final class HotSpotPersistentSnippetGraphCache extends PersistentSnippetGraphCache {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "File in which prepared snippet and method substitution graphs are kept across " +
+                       "VM executions to reduce compiler warmup. The file is read at startup and written " +
+                       "at shutdown. An empty value disables the file.", type = OptionType.Expert)
+        public static final OptionKey<String> SnippetGraphCacheFile = new OptionKey<>("");
+        // @formatter:on
+    }
+
+    private static final byte KLASS_POINTER_STAMP = 1;
+    private static final byte METHOD_POINTER_STAMP = 2;
+
+    /**
+     * The {@code long} fields of {@link GraalHotSpotVMConfig} that describe the object layout. All
+     * other {@code long} fields hold addresses.
+     */
+    private static final Set<String> LAYOUT_LONG_FIELDS = new HashSet<>(Arrays.asList("markOopDescHashShift", "markOopDescHashMask", "markOopDescHashMaskInPlace", "verifyOopMask",
+                    "verifyOopBits", "narrowOopBase", "narrowKlassBase"));
+
+    private static boolean isAddressField(Field field) {
+        return field.getType() == long.class && !LAYOUT_LONG_FIELDS.contains(field.getName());
+    }
+
+    private HotSpotPersistentSnippetGraphCache(String file, String configuration, Architecture architecture, HotSpotProviders providers, GraalHotSpotVMConfig config) {
+        super(Paths.get(file), configuration, architecture, providers.getMetaAccess(), HotSpotPersistentSnippetGraphCache.class.getClassLoader());
+        for (Field field : config.getClass().getFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && isAddressField(field)) {
+                try {
+                    registerRunSpecificValue(field.getName(), field.getLong(config));
+                } catch (IllegalAccessException e) {
+                    // a graph folding this address will not be stored
+                }
+            }
+        }
+        registerRunSpecificValue("gcTotalCollectionsAddress()", config.gcTotalCollectionsAddress());
+        registerContextObject("metaAccess", providers.getMetaAccess());
+        registerContextObject("codeCache", providers.getCodeCache());
+        registerContextObject("constantReflection", providers.getConstantReflection());
+        registerContextObject("constantFieldProvider", providers.getConstantFieldProvider());
+        registerContextObject("foreignCalls", providers.getForeignCalls());
+        registerContextObject("lowerer", providers.getLowerer());
+        registerContextObject("replacements", providers.getReplacements());
+        registerContextObject("stampProvider", providers.getStampProvider());
+        registerContextObject("registers", providers.getRegisters());
+        registerContextObject("snippetReflection", providers.getSnippetReflection());
+        registerContextObject("wordTypes", providers.getWordTypes());
+        registerHolderClass(HotSpotReplacementsUtil.class);
+        registerHolderClass(HotSpotBackend.class);
+    }
+
+    /**
+     * Creates the cache for a backend, loads it and installs it in the backend's replacements.
+     *
+     * @return {@code null} if {@link Options#SnippetGraphCacheFile} is not set
+     */
+    static HotSpotPersistentSnippetGraphCache install(HotSpotBackend backend, GraalHotSpotVMConfig config, OptionValues options) {
+        String file = Options.SnippetGraphCacheFile.getValue(options);
+        HotSpotProviders providers = backend.getProviders();
+        if (file.isEmpty() || !(providers.getReplacements() instanceof ReplacementsImpl)) {
+            return null;
+        }
+        Architecture architecture = backend.getTarget().arch;
+        HotSpotPersistentSnippetGraphCache cache = new HotSpotPersistentSnippetGraphCache(file, configurationKey(architecture, config, options), architecture, providers, config);
+        cache.load();
+        ((ReplacementsImpl) providers.getReplacements()).setPersistentGraphCache(cache);
+        return cache;
+    }
+
+    /**
+     * Computes a digest of everything that influences the preparation of snippet graphs except for
+     * the addresses in {@code config}.
+     */
+    public static String configurationKey(Architecture architecture, GraalHotSpotVMConfig config, OptionValues options) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(System.getProperty("java.vm.version")).append('|');
+        sb.append(System.getProperty("java.home")).append('|');
+        sb.append(architecture.getName()).append('|');
+        sb.append(codeFingerprint()).append('|');
+        for (Field field : config.getClass().getFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !isAddressField(field)) {
+                try {
+                    sb.append(field.getName()).append('=').append(field.get(config)).append(';');
+                } catch (IllegalAccessException e) {
+                    // not part of the key
+                }
+            }
+        }
+        Map<String, Object> values = new TreeMap<>();
+        UnmodifiableMapCursor<OptionKey<?>, Object> cursor = options.getMap().getEntries();
+        while (cursor.advance()) {
+            if (cursor.getKey() != Options.SnippetGraphCacheFile) {
+                values.put(cursor.getKey().getName(), cursor.getValue());
+            }
+        }
+        sb.append(values);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b & 0xff));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Identifies the compiler code by the size and modification time of the jar it was loaded
+     * from, or of all files in the directory it was loaded from.
+     */
+    private static String codeFingerprint() {
+        CodeSource codeSource = HotSpotGraalRuntime.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            return "builtin";
+        }
+        try {
+            File location = new File(codeSource.getLocation().toURI());
+            if (!location.isDirectory()) {
+                return location + ":" + location.length() + ":" + location.lastModified();
+            }
+            StringBuilder sb = new StringBuilder(location.toString());
+            try (Stream<Path> files = Files.walk(location.toPath())) {
+                Iterator<Path> iterator = files.sorted().iterator();
+                while (iterator.hasNext()) {
+                    File file = iterator.next().toFile();
+                    if (file.isFile()) {
+                        sb.append(':').append(file).append(':').append(file.length()).append(':').append(file.lastModified());
+                    }
+                }
+            }
+            return sb.toString();
+        } catch (URISyntaxException | IOException | IllegalArgumentException | SecurityException e) {
+            // the code cannot be identified, so never reuse a stored cache
+            return codeSource.getLocation() + ":" + System.nanoTime();
+        }
+    }
+
+    @Override
+    protected boolean writeCustomObject(DataOutputStream out, Object object) throws IOException {
+        if (object instanceof KlassPointerStamp && !((KlassPointerStamp) object).isCompressed()) {
+            KlassPointerStamp stamp = (KlassPointerStamp) object;
+            out.writeByte(KLASS_POINTER_STAMP);
+            out.writeBoolean(stamp.nonNull());
+            out.writeBoolean(stamp.alwaysNull());
+            return true;
+        } else if (object instanceof MethodPointerStamp) {
+            MethodPointerStamp stamp = (MethodPointerStamp) object;
+            out.writeByte(METHOD_POINTER_STAMP);
+            out.writeBoolean(stamp.nonNull());
+            out.writeBoolean(stamp.alwaysNull());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected Object readCustomObject(DataInputStream in) throws IOException, UnresolvedObjectException {
+        byte kind = in.readByte();
+        boolean nonNull = in.readBoolean();
+        boolean alwaysNull = in.readBoolean();
+        switch (kind) {
+            case KLASS_POINTER_STAMP:
+                return nonNull ? KlassPointerStamp.klassNonNull() : alwaysNull ? KlassPointerStamp.klassAlwaysNull() : KlassPointerStamp.klass();
+            case METHOD_POINTER_STAMP:
+                return nonNull ? MethodPointerStamp.methodNonNull() : alwaysNull ? MethodPointerStamp.method().asAlwaysNull() : MethodPointerStamp.method();
+            default:
+                throw new IOException("unknown pointer stamp " + kind);
+        }
+    }
+}
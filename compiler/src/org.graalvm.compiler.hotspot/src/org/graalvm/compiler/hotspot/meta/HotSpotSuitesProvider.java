@@ -55,6 +55,7 @@ import org.graalvm.compiler.phases.PhaseSuite;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
 import org.graalvm.compiler.phases.common.LoweringPhase;
 import org.graalvm.compiler.phases.common.inlining.InliningPhase;
+import org.graalvm.compiler.phases.tiers.CompilerConfiguration;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 import org.graalvm.compiler.phases.tiers.MidTierContext;
 import org.graalvm.compiler.phases.tiers.Suites;
@@ -79,7 +80,18 @@ public class HotSpotSuitesProvider extends SuitesProviderBase {
 
     @Override
     public Suites createSuites(OptionValues options) {
-        Suites ret = defaultSuitesCreator.createSuites(options);
+        return completeSuites(defaultSuitesCreator.createSuites(options), options);
+    }
+
+    @Override
+    public Suites createSuites(OptionValues options, CompilerConfiguration compilerConfiguration) {
+        return completeSuites(defaultSuitesCreator.createSuites(options, compilerConfiguration), options);
+    }
+
+    /**
+     * Adds the HotSpot specific phases to suites created by the default suites creator.
+     */
+    protected Suites completeSuites(Suites ret, OptionValues options) {
 
         if (ImmutableCode.getValue(options)) {
             // lowering introduces class constants, therefore it must be after lowering
@@ -80,11 +80,9 @@ import static org.graalvm.compiler.core.common.GraalOptions.SupportJsrBytecodes;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.TreeSet;
 
 import org.graalvm.compiler.bytecode.Bytecode;
 import org.graalvm.compiler.bytecode.BytecodeLookupSwitch;
@@ -95,6 +93,7 @@ import org.graalvm.compiler.bytecode.Bytecodes;
 import org.graalvm.compiler.core.common.PermanentBailoutException;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.util.EconomicIntSet;
 import org.graalvm.util.EconomicMap;
 import org.graalvm.util.Equivalence;
 
@@ -676,11 +675,13 @@ public final class BciBlockMapping {
 
     private void addSwitchSuccessors(BciBlock[] blockMap, int predBci, BytecodeSwitch bswitch) {
         // adds distinct targets to the successor list
-        Collection<Integer> targets = new TreeSet<>();
+        EconomicIntSet distinctTargets = EconomicIntSet.create();
         for (int i = 0; i < bswitch.numberOfCases(); i++) {
-            targets.add(bswitch.targetAt(i));
+            distinctTargets.add(bswitch.targetAt(i));
         }
-        targets.add(bswitch.defaultTarget());
+        distinctTargets.add(bswitch.defaultTarget());
+        int[] targets = distinctTargets.toArray();
+        Arrays.sort(targets);
         for (int targetBci : targets) {
             addSuccessor(blockMap, predBci, makeBlock(blockMap, targetBci));
         }
@@ -43,7 +43,12 @@ public class DefaultSuitesCreator extends SuitesProviderBase {
 
     @Override
     public Suites createSuites(OptionValues options) {
-        return Suites.createSuites(compilerConfiguration, options);
+        return createSuites(options, compilerConfiguration);
+    }
+
+    @Override
+    public Suites createSuites(OptionValues options, CompilerConfiguration configuration) {
+        return Suites.createSuites(configuration, options);
     }
 
     protected PhaseSuite<HighTierContext> createGraphBuilderSuite(Plugins plugins) {
@@ -25,6 +25,7 @@ package org.graalvm.compiler.java;
 import org.graalvm.compiler.lir.phases.LIRSuites;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.PhaseSuite;
+import org.graalvm.compiler.phases.tiers.CompilerConfiguration;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 import org.graalvm.compiler.phases.tiers.Suites;
 import org.graalvm.compiler.phases.tiers.SuitesCreator;
@@ -38,6 +39,11 @@ public abstract class SuitesProviderBase implements SuitesCreator {
         return createSuites(options);
     }
 
+    @Override
+    public final Suites getSuites(OptionValues options, CompilerConfiguration compilerConfiguration) {
+        return createSuites(options, compilerConfiguration);
+    }
+
     @Override
     public PhaseSuite<HighTierContext> getDefaultGraphBuilderSuite() {
         return defaultGraphBuilderSuite;
@@ -53,4 +59,7 @@ public abstract class SuitesProviderBase implements SuitesCreator {
 
     @Override
     public abstract Suites createSuites(OptionValues options);
+
+    @Override
+    public abstract Suites createSuites(OptionValues options, CompilerConfiguration compilerConfiguration);
 }
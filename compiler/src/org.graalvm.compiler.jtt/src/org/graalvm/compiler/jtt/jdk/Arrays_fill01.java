@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.jtt.jdk;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import org.graalvm.compiler.jtt.JTTTest;
+
+/*
+ * Tests Arrays.fill for all primitive kinds the intrinsic supports, with lengths around the
+ * vector and tail store sizes.
+ */
+public class Arrays_fill01 extends JTTTest {
+
+    private static final int[] LENGTHS = {0, 1, 2, 3, 4, 5, 7, 8, 9, 15, 16, 17, 31, 32, 33, 100};
+
+    public static boolean[] testBoolean(int length, boolean value) {
+        boolean[] a = new boolean[length];
+        Arrays.fill(a, value);
+        return a;
+    }
+
+    public static byte[] testByte(int length, byte value) {
+        byte[] a = new byte[length];
+        Arrays.fill(a, value);
+        return a;
+    }
+
+    public static char[] testChar(int length, char value) {
+        char[] a = new char[length];
+        Arrays.fill(a, value);
+        return a;
+    }
+
+    public static short[] testShort(int length, short value) {
+        short[] a = new short[length];
+        Arrays.fill(a, value);
+        return a;
+    }
+
+    public static int[] testInt(int length, int value) {
+        int[] a = new int[length];
+        Arrays.fill(a, value);
+        return a;
+    }
+
+    public static long[] testLong(int length, long value) {
+        long[] a = new long[length];
+        Arrays.fill(a, value);
+        return a;
+    }
+
+    public static int testNull(int[] a) {
+        Arrays.fill(a, 42);
+        return a.length;
+    }
+
+    @Test
+    public void run0() throws Throwable {
+        for (int length : LENGTHS) {
+            runTest("testBoolean", length, true);
+            runTest("testByte", length, (byte) -17);
+            runTest("testChar", length, (char) 0xFEDC);
+        }
+    }
+
+    @Test
+    public void run1() throws Throwable {
+        for (int length : LENGTHS) {
+            runTest("testShort", length, (short) -1234);
+            runTest("testInt", length, 0x12345678);
+            runTest("testLong", length, 0x123456789abcdef0L);
+        }
+    }
+
+    @Test
+    public void run2() throws Throwable {
+        runTest("testNull", (Object) null);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.jtt.jdk;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import org.graalvm.compiler.jtt.JTTTest;
+
+/*
+ * Tests Arrays.hashCode with lengths around the vector width of the intrinsic and with negative
+ * elements, which must be sign extended for byte and short but not for char.
+ */
+public class Arrays_hashCode01 extends JTTTest {
+
+    private static final int[] LENGTHS = {0, 1, 2, 3, 4, 5, 7, 8, 9, 15, 16, 17, 31, 32, 33, 100};
+
+    public static int testByte(int length) {
+        byte[] a = new byte[length];
+        for (int i = 0; i < length; i++) {
+            a[i] = (byte) (i * 37 - 100);
+        }
+        return Arrays.hashCode(a);
+    }
+
+    public static int testChar(int length) {
+        char[] a = new char[length];
+        for (int i = 0; i < length; i++) {
+            a[i] = (char) (i * 4099 + 0x8000);
+        }
+        return Arrays.hashCode(a);
+    }
+
+    public static int testShort(int length) {
+        short[] a = new short[length];
+        for (int i = 0; i < length; i++) {
+            a[i] = (short) (i * 4099 - 30000);
+        }
+        return Arrays.hashCode(a);
+    }
+
+    public static int testInt(int length) {
+        int[] a = new int[length];
+        for (int i = 0; i < length; i++) {
+            a[i] = i * 0x9E3779B9;
+        }
+        return Arrays.hashCode(a);
+    }
+
+    public static int testNull() {
+        return Arrays.hashCode((int[]) null);
+    }
+
+    @Test
+    public void run0() throws Throwable {
+        for (int length : LENGTHS) {
+            runTest("testByte", length);
+            runTest("testChar", length);
+        }
+    }
+
+    @Test
+    public void run1() throws Throwable {
+        for (int length : LENGTHS) {
+            runTest("testShort", length);
+            runTest("testInt", length);
+        }
+    }
+
+    @Test
+    public void run2() throws Throwable {
+        runTest("testNull");
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.jtt.lang;
+
+import org.junit.Test;
+
+import org.graalvm.compiler.jtt.JTTTest;
+
+/*
+ * Tests String.compareTo on strings whose first difference is at various positions relative to
+ * the vector width of the intrinsic.
+ */
+public class String_compareTo01 extends JTTTest {
+
+    private static final int[] LENGTHS = {0, 1, 3, 7, 8, 9, 15, 16, 17, 31, 32, 33, 63, 64, 65, 100};
+
+    public static int test(String s1, String s2) {
+        return s1.compareTo(s2);
+    }
+
+    private static String string(int length, int mismatchIndex, char mismatchChar) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(i == mismatchIndex ? mismatchChar : (char) ('a' + i % 26));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void run0() throws Throwable {
+        for (int length : LENGTHS) {
+            runTest("test", string(length, -1, ' '), string(length, -1, ' '));
+        }
+    }
+
+    @Test
+    public void run1() throws Throwable {
+        for (int length : LENGTHS) {
+            for (int mismatch = 0; mismatch < length; mismatch += 3) {
+                runTest("test", string(length, -1, ' '), string(length, mismatch, 'A'));
+                runTest("test", string(length, mismatch, (char) 0xFFFF), string(length, -1, ' '));
+            }
+        }
+    }
+
+    @Test
+    public void run2() throws Throwable {
+        for (int length : LENGTHS) {
+            runTest("test", string(length, -1, ' '), string(length + 1, -1, ' '));
+            runTest("test", string(length + 5, -1, ' '), string(length, -1, ' '));
+        }
+    }
+
+    @Test
+    public void run3() throws Throwable {
+        runTest("test", "abc", null);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import java.lang.reflect.Array;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.NumUtil;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code which stores a value into the first {@code length} elements of a primitive array.
+ * The value is replicated into a 64-bit pattern and a 128-bit SSE2 vector, so the bulk of the
+ * array is written with 16-byte stores and the remainder with the widest store that still fits.
+ */
+@Opcode("ARRAY_FILL")
+public final class AMD64ArrayFillOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayFillOp> TYPE = LIRInstructionClass.create(AMD64ArrayFillOp.class);
+
+    private static final int VECTOR_SIZE = 16;
+
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final int arrayIndexShift;
+
+    @Alive({REG}) protected Value arrayValue;
+    @Alive({REG}) protected Value lengthValue;
+    @Alive({REG}) protected Value valueValue;
+    @Temp({REG}) protected Value temp1;
+    @Temp({REG}) protected Value temp2;
+    @Temp({REG}) protected Value temp3;
+    @Temp({REG}) protected Value temp4;
+    @Temp({REG}) protected Value vectorTemp;
+
+    public AMD64ArrayFillOp(LIRGeneratorTool tool, JavaKind kind, Value array, Value length, Value value) {
+        super(TYPE);
+        assert kind.isPrimitive() && kind != JavaKind.Void;
+        this.kind = kind;
+
+        Class<?> arrayClass = Array.newInstance(kind.toJavaClass(), 0).getClass();
+        this.arrayBaseOffset = UnsafeAccess.UNSAFE.arrayBaseOffset(arrayClass);
+        this.arrayIndexShift = NumUtil.log2Ceil(UnsafeAccess.UNSAFE.arrayIndexScale(arrayClass));
+
+        this.arrayValue = array;
+        this.lengthValue = length;
+        this.valueValue = value;
+
+        // Allocate some temporaries.
+        this.temp1 = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.temp2 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp3 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp4 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.vectorTemp = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register array = asRegister(temp1);
+        Register index = asRegister(temp2);
+        Register pattern = asRegister(temp3);
+        Register vector = asRegister(vectorTemp, AMD64Kind.DOUBLE);
+
+        Label loop = new Label();
+        Label tail = new Label();
+        Label done = new Label();
+
+        emitPattern(masm, pattern);
+        masm.movdq(vector, pattern);
+        masm.pshufd(vector, vector, 0x44);
+
+        // Point at the end of the array and count a negative byte index up to zero.
+        masm.movl(index, asRegister(lengthValue));
+        if (arrayIndexShift != 0) {
+            masm.shlq(index, arrayIndexShift);
+        }
+        masm.leaq(array, new AMD64Address(asRegister(arrayValue), index, Scale.Times1, arrayBaseOffset));
+        masm.negq(index);
+        masm.jcc(ConditionFlag.Zero, done);
+
+        // Align the main loop
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        masm.cmpq(index, -VECTOR_SIZE);
+        masm.jccb(ConditionFlag.Greater, tail);
+        masm.movdqu(new AMD64Address(array, index, Scale.Times1, 0), vector);
+        masm.addq(index, VECTOR_SIZE);
+        masm.jmpb(loop);
+
+        masm.bind(tail);
+        emitTailStores(masm, array, index, pattern, done);
+        masm.bind(done);
+    }
+
+    /**
+     * Replicates the element value over all bytes of a 64-bit register.
+     */
+    private void emitPattern(AMD64MacroAssembler masm, Register pattern) {
+        Register value = asRegister(valueValue);
+        Register temp = asRegister(temp4);
+        if (kind == JavaKind.Long) {
+            masm.movq(pattern, value);
+            return;
+        }
+
+        long multiplier;
+        masm.movl(pattern, value);
+        switch (kind.getByteCount()) {
+            case 1:
+                masm.andl(pattern, 0xFF);
+                multiplier = 0x0101010101010101L;
+                break;
+            case 2:
+                masm.andl(pattern, 0xFFFF);
+                multiplier = 0x0001000100010001L;
+                break;
+            default:
+                // movl already cleared the upper half.
+                multiplier = 0x0000000100000001L;
+                break;
+        }
+        masm.movq(temp, multiplier);
+        masm.imulq(pattern, temp);
+    }
+
+    /**
+     * Emits code to store the remaining 1 to 15 bytes. The array end is aligned to the element
+     * size, so the pattern always starts with the first byte of an element.
+     */
+    private void emitTailStores(AMD64MacroAssembler masm, Register array, Register index, Register pattern, Label done) {
+        Label store4Bytes = new Label();
+        Label store2Bytes = new Label();
+        Label store1Byte = new Label();
+
+        masm.cmpq(index, -8);
+        masm.jccb(ConditionFlag.Greater, store4Bytes);
+        masm.movq(new AMD64Address(array, index, Scale.Times1, 0), pattern);
+        masm.addq(index, 8);
+
+        masm.bind(store4Bytes);
+        if (kind.getByteCount() <= 4) {
+            masm.cmpq(index, -4);
+            masm.jccb(ConditionFlag.Greater, store2Bytes);
+            masm.movl(new AMD64Address(array, index, Scale.Times1, 0), pattern);
+            masm.addq(index, 4);
+        }
+
+        masm.bind(store2Bytes);
+        if (kind.getByteCount() <= 2) {
+            masm.cmpq(index, -2);
+            masm.jccb(ConditionFlag.Greater, store1Byte);
+            masm.movw(new AMD64Address(array, index, Scale.Times1, 0), pattern);
+            masm.addq(index, 2);
+        }
+
+        masm.bind(store1Byte);
+        if (kind.getByteCount() <= 1) {
+            masm.testq(index, index);
+            masm.jccb(ConditionFlag.Zero, done);
+            masm.movb(new AMD64Address(array, index, Scale.Times1, 0), pattern);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.asm.amd64.AMD64Assembler.AMD64RMOp.IMUL;
+import static org.graalvm.compiler.asm.amd64.AMD64Assembler.OperandSize.DWORD;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import java.lang.reflect.Array;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code which computes the polynomial hash {@code h = 31 * h + a[i]} over the first
+ * {@code length} elements of an array, starting from an initial value. This is the hash used by
+ * {@link java.util.Arrays#hashCode(int[])} and its overloads for the other integral array kinds.
+ * <p>
+ * Four elements are processed per iteration with SSE4.1: each lane accumulates every fourth
+ * element scaled by {@code 31^4} per step, and the lanes are folded into the scalar hash with the
+ * weights {@code 31^3, 31^2, 31, 1} once the loop is done. The initial value is scaled by
+ * {@code 31^n} for the {@code n} elements consumed by the vector loop.
+ */
+@Opcode("ARRAY_HASH_CODE")
+public final class AMD64ArrayHashCodeOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayHashCodeOp> TYPE = LIRInstructionClass.create(AMD64ArrayHashCodeOp.class);
+
+    private static final int ELEMENTS_PER_VECTOR = 4;
+    private static final int POW31_1 = 31;
+    private static final int POW31_2 = 31 * 31;
+    private static final int POW31_3 = 31 * 31 * 31;
+    private static final int POW31_4 = 31 * 31 * 31 * 31;
+
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final Scale arrayIndexScale;
+
+    @Def({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value arrayValue;
+    @Alive({REG}) protected Value lengthValue;
+    @Alive({REG}) protected Value initialValue;
+    @Temp({REG}) protected Value temp1;
+    @Temp({REG}) protected Value temp2;
+    @Temp({REG}) protected Value temp3;
+    @Temp({REG}) protected Value temp4;
+    @Temp({REG}) protected Value vectorTemp1;
+    @Temp({REG}) protected Value vectorTemp2;
+    @Temp({REG}) protected Value vectorTemp3;
+
+    public AMD64ArrayHashCodeOp(LIRGeneratorTool tool, JavaKind kind, Value result, Value array, Value length, Value initial) {
+        super(TYPE);
+        assert kind == JavaKind.Byte || kind == JavaKind.Short || kind == JavaKind.Char || kind == JavaKind.Int : kind;
+        this.kind = kind;
+
+        Class<?> arrayClass = Array.newInstance(kind.toJavaClass(), 0).getClass();
+        this.arrayBaseOffset = UnsafeAccess.UNSAFE.arrayBaseOffset(arrayClass);
+        this.arrayIndexScale = Scale.fromInt(UnsafeAccess.UNSAFE.arrayIndexScale(arrayClass));
+
+        this.resultValue = result;
+        this.arrayValue = array;
+        this.lengthValue = length;
+        this.initialValue = initial;
+
+        // Allocate some temporaries.
+        this.temp1 = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.temp2 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp3 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp4 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.vectorTemp1 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+        this.vectorTemp2 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+        this.vectorTemp3 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register array = asRegister(temp1);
+        Register index = asRegister(temp2);
+        Register vectorLength = asRegister(temp3);
+        Register temp = asRegister(temp4);
+        Register accumulator = asRegister(vectorTemp1, AMD64Kind.DOUBLE);
+        Register multiplier = asRegister(vectorTemp2, AMD64Kind.DOUBLE);
+        Register elements = asRegister(vectorTemp3, AMD64Kind.DOUBLE);
+
+        Label vectorLoop = new Label();
+        Label scalarLoop = new Label();
+        Label scalarLoopHead = new Label();
+        Label done = new Label();
+
+        masm.leaq(array, new AMD64Address(asRegister(arrayValue), arrayBaseOffset));
+        masm.movl(result, asRegister(initialValue));
+        masm.xorl(index, index);
+        masm.movl(vectorLength, asRegister(lengthValue));
+        masm.andl(vectorLength, ~(ELEMENTS_PER_VECTOR - 1));
+        masm.jcc(ConditionFlag.Zero, scalarLoop);
+
+        masm.pxor(accumulator, accumulator);
+        masm.movl(temp, POW31_4);
+        masm.movdl(multiplier, temp);
+        masm.pshufd(multiplier, multiplier, 0);
+        // 31^n for the elements consumed by the vector loop.
+        masm.movl(temp, 1);
+
+        // Align the main loop
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(vectorLoop);
+        emitLoadElements(masm, elements, new AMD64Address(array, index, arrayIndexScale, 0));
+        masm.pmulld(accumulator, multiplier);
+        masm.paddd(accumulator, elements);
+        masm.imull(temp, temp, POW31_4);
+        masm.addq(index, ELEMENTS_PER_VECTOR);
+        masm.cmpq(index, vectorLength);
+        masm.jcc(ConditionFlag.Less, vectorLoop);
+
+        // result = result * 31^n + lane0 * 31^3 + lane1 * 31^2 + lane2 * 31 + lane3
+        IMUL.emit(masm, DWORD, result, temp);
+        emitAddLane(masm, result, temp, accumulator, elements, 0, POW31_3);
+        emitAddLane(masm, result, temp, accumulator, elements, 1, POW31_2);
+        emitAddLane(masm, result, temp, accumulator, elements, 2, POW31_1);
+        emitAddLane(masm, result, temp, accumulator, elements, 3, 1);
+
+        // Hash the remaining 0 to 3 elements.
+        masm.bind(scalarLoop);
+        masm.movl(vectorLength, asRegister(lengthValue));
+        masm.bind(scalarLoopHead);
+        masm.cmpq(index, vectorLength);
+        masm.jccb(ConditionFlag.GreaterEqual, done);
+        masm.imull(result, result, POW31_1);
+        emitLoadElement(masm, temp, new AMD64Address(array, index, arrayIndexScale, 0));
+        masm.addl(result, temp);
+        masm.incq(index);
+        masm.jmpb(scalarLoopHead);
+
+        masm.bind(done);
+    }
+
+    private void emitLoadElements(AMD64MacroAssembler masm, Register dst, AMD64Address src) {
+        switch (kind) {
+            case Byte:
+                masm.pmovsxbd(dst, src);
+                break;
+            case Short:
+                masm.pmovsxwd(dst, src);
+                break;
+            case Char:
+                masm.pmovzxwd(dst, src);
+                break;
+            case Int:
+                masm.movdqu(dst, src);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+
+    private void emitLoadElement(AMD64MacroAssembler masm, Register dst, AMD64Address src) {
+        switch (kind) {
+            case Byte:
+                masm.movsbl(dst, src);
+                break;
+            case Short:
+                masm.movswl(dst, src);
+                break;
+            case Char:
+                masm.movzwl(dst, src);
+                break;
+            case Int:
+                masm.movl(dst, src);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+
+    private static void emitAddLane(AMD64MacroAssembler masm, Register result, Register temp, Register accumulator, Register scratch, int lane, int weight) {
+        masm.pshufd(scratch, accumulator, lane);
+        masm.movdl(temp, scratch);
+        if (weight != 1) {
+            masm.imull(temp, temp, weight);
+        }
+        masm.addl(result, temp);
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.asm.amd64.AMD64Assembler.AMD64BinaryArithmetic.XOR;
+import static org.graalvm.compiler.asm.amd64.AMD64Assembler.AMD64RMOp.BSF;
+import static org.graalvm.compiler.asm.amd64.AMD64Assembler.OperandSize.DWORD;
+import static org.graalvm.compiler.asm.amd64.AMD64Assembler.OperandSize.QWORD;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.ILLEGAL;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import java.lang.reflect.Array;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.NumUtil;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code which finds the index of the first element that differs between two arrays. Both
+ * arrays are scanned byte-wise, using 32-byte AVX2 or 16-byte SSE2 compares for the bulk of the
+ * arrays, so the result is the same for every element kind. The result is -1 if the first
+ * {@code length} elements of both arrays are equal.
+ */
+@Opcode("ARRAY_MISMATCH")
+public final class AMD64ArrayMismatchOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayMismatchOp> TYPE = LIRInstructionClass.create(AMD64ArrayMismatchOp.class);
+
+    private final int arrayBaseOffset;
+    private final int arrayIndexShift;
+
+    @Def({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value array1Value;
+    @Alive({REG}) protected Value array2Value;
+    @Alive({REG}) protected Value lengthValue;
+    @Temp({REG}) protected Value temp1;
+    @Temp({REG}) protected Value temp2;
+    @Temp({REG}) protected Value temp3;
+    @Temp({REG}) protected Value temp4;
+    @Temp({REG}) protected Value temp5;
+    @Temp({REG, ILLEGAL}) protected Value vectorTemp1;
+    @Temp({REG, ILLEGAL}) protected Value vectorTemp2;
+
+    public AMD64ArrayMismatchOp(LIRGeneratorTool tool, JavaKind kind, Value result, Value array1, Value array2, Value length) {
+        super(TYPE);
+        assert kind.isPrimitive() && kind != JavaKind.Void;
+
+        Class<?> arrayClass = Array.newInstance(kind.toJavaClass(), 0).getClass();
+        this.arrayBaseOffset = UnsafeAccess.UNSAFE.arrayBaseOffset(arrayClass);
+        this.arrayIndexShift = NumUtil.log2Ceil(UnsafeAccess.UNSAFE.arrayIndexScale(arrayClass));
+
+        this.resultValue = result;
+        this.array1Value = array1;
+        this.array2Value = array2;
+        this.lengthValue = length;
+
+        // Allocate some temporaries.
+        this.temp1 = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.temp2 = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.temp3 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp4 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp5 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+
+        // SSE2 is part of the AMD64 baseline, so the vector temporaries are always needed.
+        this.vectorTemp1 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+        this.vectorTemp2 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register array1 = asRegister(temp1);
+        Register array2 = asRegister(temp2);
+        Register length = asRegister(temp3);
+        Register index = asRegister(temp4);
+
+        Label found = new Label();
+        Label noMismatch = new Label();
+        Label done = new Label();
+
+        // Get array length in bytes.
+        masm.movl(length, asRegister(lengthValue));
+        if (arrayIndexShift != 0) {
+            masm.shlq(length, arrayIndexShift);
+        }
+
+        // Point both arrays at their end and count a negative byte index up to zero.
+        masm.leaq(array1, new AMD64Address(asRegister(array1Value), length, Scale.Times1, arrayBaseOffset));
+        masm.leaq(array2, new AMD64Address(asRegister(array2Value), length, Scale.Times1, arrayBaseOffset));
+        masm.movq(index, length);
+        masm.negq(index);
+        masm.jcc(ConditionFlag.Zero, noMismatch);
+
+        if (supportsAVX2(crb.target)) {
+            emitVectorCompare(crb, masm, AVX_VECTOR_SIZE, result, array1, array2, index, found);
+        }
+        emitVectorCompare(crb, masm, SSE_VECTOR_SIZE, result, array1, array2, index, found);
+        emit8ByteCompare(crb, masm, result, array1, array2, index, found);
+        emitByteCompare(masm, result, array1, array2, index, found, noMismatch);
+
+        // All bytes are equal.
+        masm.bind(noMismatch);
+        masm.movl(result, -1);
+        masm.jmpb(done);
+
+        // The index register points at the mismatching chunk, the result holds the byte offset of
+        // the first difference within that chunk.
+        masm.bind(found);
+        masm.addq(index, result);
+        masm.leaq(result, new AMD64Address(length, index, Scale.Times1, 0));
+        if (arrayIndexShift != 0) {
+            masm.shrq(result, arrayIndexShift);
+        }
+
+        masm.bind(done);
+    }
+
+    private static boolean supportsAVX2(TargetDescription target) {
+        AMD64 arch = (AMD64) target.arch;
+        return arch.getFeatures().contains(CPUFeature.AVX2);
+    }
+
+    private static final int AVX_VECTOR_SIZE = 32;
+    private static final int SSE_VECTOR_SIZE = 16;
+
+    /**
+     * Emits a loop comparing {@code vectorSize} bytes per iteration. On a mismatch the result
+     * register holds the offset of the first differing byte in the current chunk.
+     */
+    private void emitVectorCompare(CompilationResultBuilder crb, AMD64MacroAssembler masm, int vectorSize, Register result, Register array1, Register array2, Register index, Label found) {
+        Register vector1 = asRegister(vectorTemp1, AMD64Kind.DOUBLE);
+        Register vector2 = asRegister(vectorTemp2, AMD64Kind.DOUBLE);
+
+        Label loop = new Label();
+        Label mismatch = new Label();
+        Label tail = new Label();
+
+        // Align the main loop
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        masm.cmpq(index, -vectorSize);
+        masm.jcc(ConditionFlag.Greater, tail);
+        if (vectorSize == AVX_VECTOR_SIZE) {
+            masm.vmovdqu(vector1, new AMD64Address(array1, index, Scale.Times1, 0));
+            masm.vmovdqu(vector2, new AMD64Address(array2, index, Scale.Times1, 0));
+            masm.vpcmpeqb(vector1, vector1, vector2);
+            masm.vpmovmskb(result, vector1);
+            masm.cmpl(result, -1);
+        } else {
+            masm.movdqu(vector1, new AMD64Address(array1, index, Scale.Times1, 0));
+            masm.movdqu(vector2, new AMD64Address(array2, index, Scale.Times1, 0));
+            masm.pcmpeqb(vector1, vector2);
+            masm.pmovmskb(result, vector1);
+            masm.cmpl(result, 0xFFFF);
+        }
+        masm.jcc(ConditionFlag.NotEqual, mismatch);
+        masm.addq(index, vectorSize);
+        masm.jmp(loop);
+
+        // The lowest clear bit of the equality mask is the first differing byte.
+        masm.bind(mismatch);
+        masm.notl(result);
+        BSF.emit(masm, DWORD, result, result);
+        masm.jmp(found);
+
+        masm.bind(tail);
+    }
+
+    /**
+     * Emits a loop comparing 8 bytes per iteration using general purpose registers.
+     */
+    private void emit8ByteCompare(CompilationResultBuilder crb, AMD64MacroAssembler masm, Register result, Register array1, Register array2, Register index, Label found) {
+        Label loop = new Label();
+        Label mismatch = new Label();
+        Label tail = new Label();
+
+        // Align the main loop
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        masm.cmpq(index, -8);
+        masm.jccb(ConditionFlag.Greater, tail);
+        masm.movq(result, new AMD64Address(array1, index, Scale.Times1, 0));
+        XOR.getRMOpcode(QWORD).emit(masm, QWORD, result, new AMD64Address(array2, index, Scale.Times1, 0));
+        masm.jccb(ConditionFlag.NotZero, mismatch);
+        masm.addq(index, 8);
+        masm.jmpb(loop);
+
+        // The lowest set bit of the difference is in the first differing byte (little endian).
+        masm.bind(mismatch);
+        BSF.emit(masm, QWORD, result, result);
+        masm.shrl(result, 3);
+        masm.jmp(found);
+
+        masm.bind(tail);
+    }
+
+    /**
+     * Emits code to compare the remaining 1 to 7 bytes.
+     */
+    private void emitByteCompare(AMD64MacroAssembler masm, Register result, Register array1, Register array2, Register index, Label found, Label noMismatch) {
+        Label loop = new Label();
+        Label mismatch = new Label();
+
+        Register temp = asRegister(temp5);
+
+        masm.bind(loop);
+        masm.testq(index, index);
+        masm.jccb(ConditionFlag.Zero, noMismatch);
+        masm.movzbl(result, new AMD64Address(array1, index, Scale.Times1, 0));
+        masm.movzbl(temp, new AMD64Address(array2, index, Scale.Times1, 0));
+        masm.cmpl(result, temp);
+        masm.jccb(ConditionFlag.NotEqual, mismatch);
+        masm.incq(index);
+        masm.jmpb(loop);
+
+        masm.bind(mismatch);
+        masm.xorl(result, result);
+        masm.jmp(found);
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static jdk.vm.ci.code.ValueUtil.isIllegal;
+import static org.graalvm.compiler.asm.amd64.AMD64Assembler.OperandSize.PD;
+import static org.graalvm.compiler.asm.amd64.AMD64Assembler.OperandSize.PS;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.ILLEGAL;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import java.lang.reflect.Array;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.SSEOp;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits a vector loop which computes {@code result[i] = x[i] op y[i]}, or
+ * {@code result[i] = x[i]} if there is no operation, for the whole 16-byte vectors in the index
+ * range {@code [index, index + length)}. If {@code y} is a primitive value instead of an array, it
+ * is replicated into all lanes and used as the second operand of every element. The op defines
+ * the index of the first element which was not computed so that a scalar loop can finish the
+ * remaining elements.
+ * <p>
+ * All vectors are moved with unaligned loads and stores, so no alignment is required. Every
+ * element is loaded before it is stored and only the element at the same index is read, so the
+ * result array may be the same array as either of the inputs.
+ */
+@Opcode("VECTORIZED_ARRAY_OP")
+public final class AMD64VectorizedArrayOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64VectorizedArrayOp> TYPE = LIRInstructionClass.create(AMD64VectorizedArrayOp.class);
+
+    private static final int VECTOR_SIZE = 16;
+
+    private final JavaKind kind;
+    private final BinaryOp<?> op;
+    private final int arrayBaseOffset;
+    private final Scale arrayIndexScale;
+    private final int elementsPerVector;
+    private final boolean broadcast;
+
+    @Def({REG}) protected Value resultIndexValue;
+    @Alive({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value xValue;
+    @Alive({REG, ILLEGAL}) protected Value yValue;
+    @Alive({REG}) protected Value indexValue;
+    @Alive({REG}) protected Value lengthValue;
+    @Temp({REG}) protected Value temp1;
+    @Temp({REG}) protected Value temp2;
+    @Temp({REG}) protected Value vectorTemp1;
+    @Temp({REG}) protected Value vectorTemp2;
+
+    public AMD64VectorizedArrayOp(LIRGeneratorTool tool, JavaKind kind, BinaryOp<?> op, Value resultIndex, Value result, Value x, Value y, Value index, Value length) {
+        super(TYPE);
+        assert isSupported(kind, op) : kind + " " + op;
+        assert (op == null) == isIllegal(y);
+        this.kind = kind;
+        this.op = op;
+
+        Class<?> arrayClass = Array.newInstance(kind.toJavaClass(), 0).getClass();
+        this.arrayBaseOffset = UnsafeAccess.UNSAFE.arrayBaseOffset(arrayClass);
+        this.arrayIndexScale = Scale.fromInt(UnsafeAccess.UNSAFE.arrayIndexScale(arrayClass));
+        this.elementsPerVector = VECTOR_SIZE / kind.getByteCount();
+        this.broadcast = op != null && LIRKind.isValue(y);
+
+        this.resultIndexValue = resultIndex;
+        this.resultValue = result;
+        this.xValue = x;
+        this.yValue = y;
+        this.indexValue = index;
+        this.lengthValue = length;
+
+        // Allocate some temporaries.
+        this.temp1 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.temp2 = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.vectorTemp1 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+        this.vectorTemp2 = tool.newVariable(LIRKind.value(AMD64Kind.DOUBLE));
+    }
+
+    /**
+     * Determines if this op can compute an operation on arrays of {@code kind}. A {@code null}
+     * operation denotes a copy.
+     */
+    public static boolean isSupported(JavaKind kind, BinaryOp<?> op) {
+        switch (kind) {
+            case Int:
+                return op == null || isBitwise(op) || op instanceof BinaryOp.Add || op instanceof BinaryOp.Sub || op instanceof BinaryOp.Mul;
+            case Long:
+                // there is no packed 64-bit multiplication before AVX-512
+                return op == null || isBitwise(op) || op instanceof BinaryOp.Add || op instanceof BinaryOp.Sub;
+            case Float:
+            case Double:
+                return op == null || op instanceof BinaryOp.Add || op instanceof BinaryOp.Sub || op instanceof BinaryOp.Mul || op instanceof BinaryOp.Div;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Determines if the CPU features required by this op are available on {@code arch}.
+     */
+    public static boolean isSupported(AMD64 arch, JavaKind kind, BinaryOp<?> op) {
+        if (kind == JavaKind.Int && op instanceof BinaryOp.Mul) {
+            return arch.getFeatures().contains(CPUFeature.SSE4_1);
+        }
+        return isSupported(kind, op);
+    }
+
+    private static boolean isBitwise(BinaryOp<?> op) {
+        return op instanceof BinaryOp.And || op instanceof BinaryOp.Or || op instanceof BinaryOp.Xor;
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register index = asRegister(temp1);
+        Register end = asRegister(temp2);
+        Register vector1 = asRegister(vectorTemp1, AMD64Kind.DOUBLE);
+        Register vector2 = asRegister(vectorTemp2, AMD64Kind.DOUBLE);
+
+        Label loop = new Label();
+        Label done = new Label();
+
+        // The index and length are non-negative ints, so they can be zero extended.
+        masm.movl(index, asRegister(indexValue));
+        masm.movl(end, asRegister(lengthValue));
+        masm.andl(end, -elementsPerVector);
+        masm.jcc(ConditionFlag.Zero, done);
+        masm.addq(end, index);
+
+        if (broadcast) {
+            emitBroadcast(masm, vector2);
+        }
+
+        // Align the main loop
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        masm.movdqu(vector1, elementAddress(xValue, index));
+        if (op != null) {
+            if (!broadcast) {
+                masm.movdqu(vector2, elementAddress(yValue, index));
+            }
+            emitOperation(masm, vector1, vector2);
+        }
+        masm.movdqu(elementAddress(resultValue, index), vector1);
+        masm.addq(index, elementsPerVector);
+        masm.cmpq(index, end);
+        masm.jcc(ConditionFlag.Less, loop);
+
+        masm.bind(done);
+        masm.movl(asRegister(resultIndexValue), index);
+    }
+
+    private AMD64Address elementAddress(Value array, Register index) {
+        return new AMD64Address(asRegister(array), index, arrayIndexScale, arrayBaseOffset);
+    }
+
+    /**
+     * Replicates the primitive {@code y} operand into all lanes of {@code vector}.
+     */
+    private void emitBroadcast(AMD64MacroAssembler masm, Register vector) {
+        Register value = asRegister(yValue);
+        switch (kind) {
+            case Int:
+                masm.movdl(vector, value);
+                masm.pshufd(vector, vector, 0x00);
+                break;
+            case Long:
+                masm.movdq(vector, value);
+                masm.pshufd(vector, vector, 0x44);
+                break;
+            case Float:
+                masm.pshufd(vector, value, 0x00);
+                break;
+            case Double:
+                masm.pshufd(vector, value, 0x44);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+
+    private void emitOperation(AMD64MacroAssembler masm, Register dst, Register src) {
+        switch (kind) {
+            case Int:
+            case Long:
+                emitIntegerOperation(masm, dst, src);
+                break;
+            case Float:
+                floatingOperation().emit(masm, PS, dst, src);
+                break;
+            case Double:
+                floatingOperation().emit(masm, PD, dst, src);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+
+    private void emitIntegerOperation(AMD64MacroAssembler masm, Register dst, Register src) {
+        boolean isInt = kind == JavaKind.Int;
+        if (op instanceof BinaryOp.Add) {
+            if (isInt) {
+                masm.paddd(dst, src);
+            } else {
+                masm.paddq(dst, src);
+            }
+        } else if (op instanceof BinaryOp.Sub) {
+            if (isInt) {
+                masm.psubd(dst, src);
+            } else {
+                masm.psubq(dst, src);
+            }
+        } else if (op instanceof BinaryOp.Mul) {
+            assert isInt;
+            masm.pmulld(dst, src);
+        } else if (op instanceof BinaryOp.And) {
+            masm.pand(dst, src);
+        } else if (op instanceof BinaryOp.Or) {
+            masm.por(dst, src);
+        } else if (op instanceof BinaryOp.Xor) {
+            masm.pxor(dst, src);
+        } else {
+            throw GraalError.shouldNotReachHere(String.valueOf(op));
+        }
+    }
+
+    private SSEOp floatingOperation() {
+        if (op instanceof BinaryOp.Add) {
+            return SSEOp.ADD;
+        } else if (op instanceof BinaryOp.Sub) {
+            return SSEOp.SUB;
+        } else if (op instanceof BinaryOp.Mul) {
+            return SSEOp.MUL;
+        } else if (op instanceof BinaryOp.Div) {
+            return SSEOp.DIV;
+        } else {
+            throw GraalError.shouldNotReachHere(String.valueOf(op));
+        }
+    }
+}
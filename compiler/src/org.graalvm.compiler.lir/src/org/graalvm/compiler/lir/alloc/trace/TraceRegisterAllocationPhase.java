@@ -22,6 +22,12 @@
  */
 package org.graalvm.compiler.lir.alloc.trace;
 
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
 import org.graalvm.compiler.core.common.alloc.RegisterAllocationConfig;
 import org.graalvm.compiler.core.common.alloc.Trace;
 import org.graalvm.compiler.core.common.alloc.TraceBuilderResult;
@@ -59,6 +65,8 @@ public final class TraceRegisterAllocationPhase extends AllocationPhase {
         public static final OptionKey<Boolean> TraceRAreuseStackSlotsForMoveResolutionCycleBreaking = new OptionKey<>(true);
         @Option(help = "Cache stack slots globally (i.e. a variable always gets the same slot in every trace).", type = OptionType.Debug)
         public static final OptionKey<Boolean> TraceRACacheStackSlots = new OptionKey<>(true);
+        @Option(help = "Allocate independent traces concurrently on the common fork/join pool (ignored if debug scopes or metrics are enabled).", type = OptionType.Debug)
+        public static final OptionKey<Boolean> TraceRAParallel = new OptionKey<>(false);
         // @formatter:on
     }
 
@@ -83,25 +91,125 @@ public final class TraceRegisterAllocationPhase extends AllocationPhase {
         // currently this is not supported
         boolean neverSpillConstant = false;
 
-        final TraceRegisterAllocationPolicy plan = DefaultTraceRegisterAllocationPolicy.allocationPolicy(target, lirGenRes, spillMoveFactory, registerAllocationConfig, cachedStackSlots, resultTraces,
-                        neverSpillConstant, livenessInfo, lir.getOptions());
+        if (Options.TraceRAParallel.getValue(lir.getOptions()) && !debug.areScopesEnabled() && !debug.areMetricsEnabled()) {
+            try (DebugContext.Scope s0 = debug.scope("AllocateTraces", resultTraces, livenessInfo)) {
+                // exceptions of the tasks are rethrown by the fork/join pool in this thread
+                allocateTracesParallel(target, lirGenRes, traceContext, cachedStackSlots, neverSpillConstant);
+            } catch (Throwable e) {
+                throw debug.handle(e);
+            }
+        } else {
+            final TraceRegisterAllocationPolicy plan = DefaultTraceRegisterAllocationPolicy.allocationPolicy(target, lirGenRes, spillMoveFactory, registerAllocationConfig, cachedStackSlots,
+                            resultTraces, neverSpillConstant, livenessInfo, lir.getOptions());
 
-        try (DebugContext.Scope s0 = debug.scope("AllocateTraces", resultTraces, livenessInfo)) {
-            for (Trace trace : resultTraces.getTraces()) {
-                tracesCounter.increment(debug);
-                TraceAllocationPhase<TraceAllocationContext> allocator = plan.selectStrategy(trace);
-                try (Indent i = debug.logAndIndent("Allocating Trace%d: %s (%s)", trace.getId(), trace, allocator); DebugContext.Scope s = debug.scope("AllocateTrace", trace)) {
-                    allocator.apply(target, lirGenRes, trace, traceContext);
+            try (DebugContext.Scope s0 = debug.scope("AllocateTraces", resultTraces, livenessInfo)) {
+                for (Trace trace : resultTraces.getTraces()) {
+                    tracesCounter.increment(debug);
+                    TraceAllocationPhase<TraceAllocationContext> allocator = plan.selectStrategy(trace);
+                    try (Indent i = debug.logAndIndent("Allocating Trace%d: %s (%s)", trace.getId(), trace, allocator); DebugContext.Scope s = debug.scope("AllocateTrace", trace)) {
+                        allocator.apply(target, lirGenRes, trace, traceContext);
+                    }
                 }
+            } catch (Throwable e) {
+                throw debug.handle(e);
             }
-        } catch (Throwable e) {
-            throw debug.handle(e);
         }
 
         TraceGlobalMoveResolutionPhase.resolve(target, lirGenRes, traceContext);
         deconstructSSAForm(lir);
     }
 
+    /**
+     * Allocates the traces concurrently. A trace only waits for the traces with a lower
+     * {@linkplain Trace#getId() id} that contain a predecessor of one of its blocks, so it observes
+     * the same {@linkplain GlobalLivenessInfo#getOutLocation outgoing locations} (used for
+     * inter-trace hints and trivial traces) as in the sequential order. The allocation strategies
+     * are stateful, so every worker takes its own {@link TraceRegisterAllocationPolicy} from a pool.
+     * Stack slots might differ from a sequential allocation but the mismatches are fixed by
+     * {@link TraceGlobalMoveResolutionPhase} like any other inter-trace mismatch.
+     */
+    private static void allocateTracesParallel(TargetDescription target, LIRGenerationResult lirGenRes, TraceAllocationContext traceContext, AllocatableValue[] cachedStackSlots,
+                    boolean neverSpillConstant) {
+        TraceBuilderResult resultTraces = traceContext.resultTraces;
+        ConcurrentLinkedQueue<TraceRegisterAllocationPolicy> plans = new ConcurrentLinkedQueue<>();
+        ArrayList<Trace> traces = resultTraces.getTraces();
+        AllocateTraceTask[] tasks = new AllocateTraceTask[traces.size()];
+        for (Trace trace : traces) {
+            AllocateTraceTask task = new AllocateTraceTask(target, lirGenRes, traceContext, cachedStackSlots, neverSpillConstant, plans, trace, dependencies(resultTraces, trace, tasks));
+            tasks[trace.getId()] = task;
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                // fork in trace order so that the dependencies of a task are always forked before it
+                for (AllocateTraceTask task : tasks) {
+                    task.fork();
+                }
+                for (AllocateTraceTask task : tasks) {
+                    task.join();
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the tasks of the already created (i.e., lower numbered) traces that contain a
+     * predecessor of a block in {@code trace}.
+     */
+    private static AllocateTraceTask[] dependencies(TraceBuilderResult resultTraces, Trace trace, AllocateTraceTask[] tasks) {
+        ArrayList<AllocateTraceTask> dependencies = new ArrayList<>();
+        for (AbstractBlockBase<?> block : trace.getBlocks()) {
+            for (AbstractBlockBase<?> pred : block.getPredecessors()) {
+                int predTraceId = resultTraces.getTraceForBlock(pred).getId();
+                if (predTraceId < trace.getId() && !dependencies.contains(tasks[predTraceId])) {
+                    dependencies.add(tasks[predTraceId]);
+                }
+            }
+        }
+        return dependencies.toArray(new AllocateTraceTask[dependencies.size()]);
+    }
+
+    private static final class AllocateTraceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TargetDescription target;
+        private final LIRGenerationResult lirGenRes;
+        private final TraceAllocationContext traceContext;
+        private final AllocatableValue[] cachedStackSlots;
+        private final boolean neverSpillConstant;
+        private final ConcurrentLinkedQueue<TraceRegisterAllocationPolicy> plans;
+        private final Trace trace;
+        private final AllocateTraceTask[] dependencies;
+
+        AllocateTraceTask(TargetDescription target, LIRGenerationResult lirGenRes, TraceAllocationContext traceContext, AllocatableValue[] cachedStackSlots, boolean neverSpillConstant,
+                        ConcurrentLinkedQueue<TraceRegisterAllocationPolicy> plans, Trace trace, AllocateTraceTask[] dependencies) {
+            this.target = target;
+            this.lirGenRes = lirGenRes;
+            this.traceContext = traceContext;
+            this.cachedStackSlots = cachedStackSlots;
+            this.neverSpillConstant = neverSpillConstant;
+            this.plans = plans;
+            this.trace = trace;
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        protected void compute() {
+            for (ForkJoinTask<?> dependency : dependencies) {
+                dependency.join();
+            }
+            TraceRegisterAllocationPolicy plan = plans.poll();
+            if (plan == null) {
+                plan = DefaultTraceRegisterAllocationPolicy.allocationPolicy(target, lirGenRes, traceContext.spillMoveFactory, traceContext.registerAllocationConfig, cachedStackSlots,
+                                traceContext.resultTraces, neverSpillConstant, traceContext.livenessInfo, lirGenRes.getLIR().getOptions());
+            }
+            plan.selectStrategy(trace).apply(target, lirGenRes, trace, traceContext);
+            plans.add(plan);
+        }
+    }
+
     /**
      * Remove Phi In/Out.
      */
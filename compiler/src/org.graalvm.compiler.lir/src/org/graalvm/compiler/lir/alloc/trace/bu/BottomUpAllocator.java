@@ -159,16 +159,19 @@ public final class BottomUpAllocator extends TraceAllocationPhase<TraceAllocatio
      */
     private AllocatableValue allocateSpillSlot(Variable var) {
         int variableIndex = var.index;
-        AllocatableValue cachedStackSlot = stackSlots[variableIndex];
-        if (cachedStackSlot != null) {
-            TraceRegisterAllocationPhase.globalStackSlots.increment(debug);
-            assert cachedStackSlot.getValueKind().equals(var.getValueKind()) : "CachedStackSlot: kind mismatch? " + var.getValueKind() + " vs. " + cachedStackSlot.getValueKind();
-            return cachedStackSlot;
-        }
-        VirtualStackSlot slot = lirGenRes.getFrameMapBuilder().allocateSpillSlot(var.getValueKind());
-        stackSlots[variableIndex] = slot;
-        TraceRegisterAllocationPhase.allocatedStackSlots.increment(debug);
-        return slot;
+        // the cache may be shared with traces allocated concurrently
+        synchronized (stackSlots) {
+            AllocatableValue cachedStackSlot = stackSlots[variableIndex];
+            if (cachedStackSlot != null) {
+                TraceRegisterAllocationPhase.globalStackSlots.increment(debug);
+                assert cachedStackSlot.getValueKind().equals(var.getValueKind()) : "CachedStackSlot: kind mismatch? " + var.getValueKind() + " vs. " + cachedStackSlot.getValueKind();
+                return cachedStackSlot;
+            }
+            VirtualStackSlot slot = lirGenRes.getFrameMapBuilder().allocateSpillSlot(var.getValueKind());
+            stackSlots[variableIndex] = slot;
+            TraceRegisterAllocationPhase.allocatedStackSlots.increment(debug);
+            return slot;
+        }
     }
 
     @Override
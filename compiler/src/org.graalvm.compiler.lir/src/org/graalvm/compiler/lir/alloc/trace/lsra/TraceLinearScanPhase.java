@@ -337,17 +337,21 @@ public final class TraceLinearScanPhase extends TraceAllocationPhase<TraceAlloca
             int variableIndex = interval.splitParent().operandNumber;
             OptionValues options = getOptions();
             if (TraceRegisterAllocationPhase.Options.TraceRACacheStackSlots.getValue(options)) {
-                AllocatableValue cachedStackSlot = cachedStackSlots[variableIndex];
-                if (cachedStackSlot != null) {
-                    TraceRegisterAllocationPhase.globalStackSlots.increment(debug);
-                    assert cachedStackSlot.getValueKind().equals(getKind(interval)) : "CachedStackSlot: kind mismatch? " + getKind(interval) + " vs. " + cachedStackSlot.getValueKind();
-                    return cachedStackSlot;
+                // the cache is shared with traces that might be allocated concurrently
+                synchronized (cachedStackSlots) {
+                    AllocatableValue cachedStackSlot = cachedStackSlots[variableIndex];
+                    if (cachedStackSlot != null) {
+                        TraceRegisterAllocationPhase.globalStackSlots.increment(debug);
+                        assert cachedStackSlot.getValueKind().equals(getKind(interval)) : "CachedStackSlot: kind mismatch? " + getKind(interval) + " vs. " + cachedStackSlot.getValueKind();
+                        return cachedStackSlot;
+                    }
+                    VirtualStackSlot slot = frameMapBuilder.allocateSpillSlot(getKind(interval));
+                    cachedStackSlots[variableIndex] = slot;
+                    TraceRegisterAllocationPhase.allocatedStackSlots.increment(debug);
+                    return slot;
                 }
             }
             VirtualStackSlot slot = frameMapBuilder.allocateSpillSlot(getKind(interval));
-            if (TraceRegisterAllocationPhase.Options.TraceRACacheStackSlots.getValue(options)) {
-                cachedStackSlots[variableIndex] = slot;
-            }
             TraceRegisterAllocationPhase.allocatedStackSlots.increment(debug);
             return slot;
         }
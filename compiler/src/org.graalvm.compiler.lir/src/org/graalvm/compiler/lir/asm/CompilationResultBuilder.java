@@ -38,11 +38,14 @@ import org.graalvm.compiler.code.CompilationResult;
 import org.graalvm.compiler.code.CompilationResult.CodeAnnotation;
 import org.graalvm.compiler.code.DataSection.Data;
 import org.graalvm.compiler.code.DataSection.RawData;
+import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.NumUtil;
+import org.graalvm.compiler.core.common.alloc.ComputeBlockOrder;
 import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
 import org.graalvm.compiler.core.common.spi.ForeignCallsProvider;
 import org.graalvm.compiler.core.common.type.DataPointerConstant;
 import org.graalvm.compiler.debug.Assertions;
+import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.graph.NodeSourcePosition;
@@ -85,6 +88,9 @@ public class CompilationResultBuilder {
     public static final OptionKey<Boolean> PrintLIRWithAssembly = new OptionKey<>(false);
     // @formatter:on
 
+    private static final CounterKey HotCodeSize = DebugContext.counter("EmittedHotCodeSize");
+    private static final CounterKey ColdCodeSize = DebugContext.counter("EmittedColdCodeSize");
+
     private static class ExceptionInfo {
 
         public final int codeOffset;
@@ -449,12 +455,24 @@ public class CompilationResultBuilder {
         assert currentBlockIndex == 0;
         this.lir = lir;
         this.currentBlockIndex = 0;
+        int start = asm.position();
+        int coldCodeStart = -1;
+        double coldBlockProbability = GraalOptions.SplitColdBlocks.getValue(options) ? GraalOptions.ColdBlockProbability.getValue(options) : 0.0;
         frameContext.enter(this);
         for (AbstractBlockBase<?> b : lir.codeEmittingOrder()) {
             assert (b == null && lir.codeEmittingOrder()[currentBlockIndex] == null) || lir.codeEmittingOrder()[currentBlockIndex].equals(b);
+            if (coldCodeStart == -1 && b != null && currentBlockIndex != 0 && ComputeBlockOrder.isColdBlock(b, coldBlockProbability)) {
+                // the cold blocks were moved behind all hot blocks
+                coldCodeStart = asm.position();
+            }
             emitBlock(b);
             currentBlockIndex++;
         }
+        if (coldCodeStart == -1) {
+            coldCodeStart = asm.position();
+        }
+        HotCodeSize.add(debug, coldCodeStart - start);
+        ColdCodeSize.add(debug, asm.position() - coldCodeStart);
         this.lir = null;
         this.currentBlockIndex = 0;
     }
@@ -71,14 +71,14 @@ public class FrameMapBuilderImpl extends FrameMapBuilderTool {
     }
 
     @Override
-    public VirtualStackSlot allocateSpillSlot(ValueKind<?> kind) {
+    public synchronized VirtualStackSlot allocateSpillSlot(ValueKind<?> kind) {
         SimpleVirtualStackSlot slot = new SimpleVirtualStackSlot(numStackSlots++, kind);
         stackSlots.add(slot);
         return slot;
     }
 
     @Override
-    public VirtualStackSlot allocateStackSlots(int slots, BitSet objects, List<VirtualStackSlot> outObjectStackSlots) {
+    public synchronized VirtualStackSlot allocateStackSlots(int slots, BitSet objects, List<VirtualStackSlot> outObjectStackSlots) {
         if (slots == 0) {
             return null;
         }
@@ -111,7 +111,7 @@ public class FrameMapBuilderImpl extends FrameMapBuilderTool {
     }
 
     @Override
-    public void callsMethod(CallingConvention cc) {
+    public synchronized void callsMethod(CallingConvention cc) {
         calls.add(cc);
     }
 
@@ -29,6 +29,7 @@ import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
 import org.graalvm.compiler.core.common.spi.CodeGenProviders;
 import org.graalvm.compiler.core.common.spi.ForeignCallLinkage;
 import org.graalvm.compiler.core.common.spi.ForeignCallsProvider;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp;
 import org.graalvm.compiler.core.common.type.Stamp;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.graph.NodeSourcePosition;
@@ -256,6 +257,35 @@ public interface LIRGeneratorTool extends DiagnosticLIRGeneratorTool, ValueKindF
         throw GraalError.unimplemented();
     }
 
+    @SuppressWarnings("unused")
+    default Variable emitArrayMismatch(JavaKind kind, Value array1, Value array2, Value length) {
+        throw GraalError.unimplemented();
+    }
+
+    @SuppressWarnings("unused")
+    default void emitArrayFill(JavaKind kind, Value array, Value length, Value value) {
+        throw GraalError.unimplemented();
+    }
+
+    @SuppressWarnings("unused")
+    default Variable emitArrayHashCode(JavaKind kind, Value array, Value length, Value initialValue) {
+        throw GraalError.unimplemented();
+    }
+
+    /**
+     * Emits a loop which computes {@code result[i] = x[i] op y[i]}, or {@code result[i] = x[i]} if
+     * {@code op} is null, for a prefix of the index range {@code [index, index + length)} that is
+     * convenient for the target, e.g., a whole number of vectors. If {@code y} is not a reference
+     * it is used as the second operand for every element. The caller must guarantee that the whole
+     * index range is within the bounds of all arrays.
+     *
+     * @return the index of the first element which was not computed
+     */
+    @SuppressWarnings("unused")
+    default Variable emitVectorizedArrayOp(JavaKind kind, BinaryOp<?> op, Value result, Value x, Value y, Value index, Value length) {
+        throw GraalError.unimplemented();
+    }
+
     void emitBlackhole(Value operand);
 
     LIRKind getLIRKind(Stamp stamp);
@@ -80,4 +80,9 @@ public class LoopPartialUnrollPhase extends LoopPhase<LoopPolicies> {
     public boolean checkContract() {
         return false;
     }
+
+    @Override
+    protected boolean isOptional() {
+        return true;
+    }
 }
@@ -97,4 +97,9 @@ public class LoopUnswitchingPhase extends ContextlessLoopPhase<LoopPolicies> {
     public float codeSizeIncrease() {
         return 10.0f;
     }
+
+    @Override
+    protected boolean isOptional() {
+        return true;
+    }
 }
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.core.common.cfg.Loop;
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.NodeInputList;
+import org.graalvm.compiler.loop.BasicInductionVariable;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.AbstractEndNode;
+import org.graalvm.compiler.nodes.BeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.EndNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.MergeNode;
+import org.graalvm.compiler.nodes.PiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.BinaryArithmeticNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.calc.IsNullNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.cfg.Block;
+import org.graalvm.compiler.nodes.extended.BranchProbabilityNode;
+import org.graalvm.compiler.nodes.extended.VectorizedArrayOpNode;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.nodes.type.StampTool;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.tiers.PhaseContext;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Vectorizes innermost counted loops which apply an element-wise operation to primitive arrays,
+ * for example:
+ *
+ * <pre>
+ * for (int i = start; i &lt; limit; i++) {
+ *     a[i] = b[i] * c[i];
+ * }
+ * </pre>
+ *
+ * A {@link VectorizedArrayOpNode} is inserted in front of such a loop. It computes a prefix of the
+ * iteration range with vector instructions and returns the index of the first element it did not
+ * compute, which becomes the initial value of the induction variable. The loop itself is left in
+ * place as the scalar post loop that computes the remaining elements.
+ * <p>
+ * Every array is accessed at the induction variable itself, so an element is always loaded before
+ * it is stored and there are no loop carried dependencies even if the arrays alias. The vector
+ * node is only reached if all arrays are non-null and only gets a non-empty range if every
+ * iteration of the loop is within the bounds of all arrays. Otherwise the scalar loop computes all
+ * elements and throws the exception at the correct iteration.
+ */
+public class LoopVectorizationPhase extends BasePhase<PhaseContext> {
+
+    private static final CounterKey VECTORIZED_LOOPS = DebugContext.counter("VectorizedLoops");
+
+    /**
+     * Loops which are known to run fewer iterations are not worth vectorizing.
+     */
+    private static final int MINIMUM_TRIP_COUNT = 4;
+
+    /**
+     * Describes the operations a backend can emit for a {@link VectorizedArrayOpNode}.
+     */
+    public interface VectorSupport {
+
+        /**
+         * Determines if the backend supports {@code op} on arrays of {@code kind}. A {@code null}
+         * operation denotes a copy.
+         */
+        boolean isSupported(JavaKind kind, BinaryOp<?> op);
+    }
+
+    private final VectorSupport vectorSupport;
+
+    public LoopVectorizationPhase(VectorSupport vectorSupport) {
+        this.vectorSupport = vectorSupport;
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected void run(StructuredGraph graph, PhaseContext context) {
+        DebugContext debug = graph.getDebug();
+        if (graph.hasLoops()) {
+            LoopsData data = new LoopsData(graph);
+            try (DebugContext.Scope s = debug.scope("vectorization", data.getCFG())) {
+                data.detectedCountedLoops();
+                List<VectorizableLoop> candidates = new ArrayList<>();
+                for (LoopEx loop : data.countedLoops()) {
+                    VectorizableLoop candidate = match(loop);
+                    if (candidate != null) {
+                        candidates.add(candidate);
+                    }
+                }
+                for (VectorizableLoop candidate : candidates) {
+                    debug.log("Vectorizing %s", candidate.loop);
+                    candidate.vectorize(graph);
+                    VECTORIZED_LOOPS.increment(debug);
+                    debug.dump(DebugContext.DETAILED_LEVEL, graph, "Vectorized %s", candidate.loop);
+                }
+            } catch (Throwable t) {
+                throw debug.handle(t);
+            }
+        }
+    }
+
+    /**
+     * Checks if {@code loop} consists of nothing but a single {@code result[i] = x[i] op y[i]} or
+     * {@code result[i] = x[i]} statement, where {@code i} is the counter and {@code y} is either an
+     * array or a loop invariant value.
+     */
+    private VectorizableLoop match(LoopEx loop) {
+        Loop<Block> cfgLoop = loop.loop();
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        // innermost loops are disjoint, so transforming one does not affect the others
+        if (!cfgLoop.getChildren().isEmpty() || counted.isLimitIncluded() || counted.getDirection() != Direction.Up) {
+            return null;
+        }
+        if (counted.isConstantMaxTripCount() && counted.constantMaxTripCount() < MINIMUM_TRIP_COUNT) {
+            return null;
+        }
+        InductionVariable counter = counted.getCounter();
+        if (!(counter instanceof BasicInductionVariable) || !counter.isConstantStride() || counter.constantStride() != 1) {
+            return null;
+        }
+        ValuePhiNode phi = ((BasicInductionVariable) counter).valueNode();
+        if (phi.getStackKind() != JavaKind.Int || loopBegin.phis().count() != 1 || loopBegin.loopEnds().count() != 1 || loopBegin.loopExits().count() != 1) {
+            return null;
+        }
+        FrameState state = loopBegin.stateAfter();
+        if (state == null || state.virtualObjectMappingCount() != 0) {
+            return null;
+        }
+
+        StoreIndexedNode store = null;
+        int loads = 0;
+        for (Block block : cfgLoop.getBlocks()) {
+            for (FixedNode node : block.getNodes()) {
+                if (node instanceof StoreIndexedNode && store == null) {
+                    store = (StoreIndexedNode) node;
+                } else if (node instanceof LoadIndexedNode) {
+                    loads++;
+                } else if (node != loopBegin && node != counted.getLimitTest() && !(node instanceof BeginNode) && !(node instanceof LoopEndNode)) {
+                    return null;
+                }
+            }
+        }
+        if (store == null) {
+            return null;
+        }
+        JavaKind kind = store.elementKind();
+        if (!isVectorizableKind(kind) || store.index() != phi || !loop.isOutsideLoop(store.array()) || store.value().getStackKind() != kind) {
+            return null;
+        }
+
+        ValueNode value = store.value();
+        VectorizableLoop candidate;
+        if (isElementLoad(loop, phi, kind, value)) {
+            candidate = new VectorizableLoop(loop, kind, null, store.array(), (LoadIndexedNode) value, null, false);
+        } else if (value instanceof BinaryArithmeticNode<?>) {
+            BinaryArithmeticNode<?> arithmetic = (BinaryArithmeticNode<?>) value;
+            BinaryOp<?> op = arithmetic.getArithmeticOp();
+            ValueNode x = arithmetic.getX();
+            ValueNode y = arithmetic.getY();
+            if (!isElementLoad(loop, phi, kind, x) && op.isCommutative()) {
+                x = arithmetic.getY();
+                y = arithmetic.getX();
+            }
+            if (!isElementLoad(loop, phi, kind, x)) {
+                return null;
+            }
+            if (isElementLoad(loop, phi, kind, y)) {
+                candidate = new VectorizableLoop(loop, kind, op, store.array(), (LoadIndexedNode) x, y, true);
+            } else if (loop.isOutsideLoop(y) && y.getStackKind() == kind) {
+                candidate = new VectorizableLoop(loop, kind, op, store.array(), (LoadIndexedNode) x, y, false);
+            } else {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        // any other load could throw an exception for an index computed by the vector node
+        if (loads != candidate.loadCount() || !vectorSupport.isSupported(kind, candidate.op)) {
+            return null;
+        }
+        return candidate;
+    }
+
+    private static boolean isVectorizableKind(JavaKind kind) {
+        return kind == JavaKind.Int || kind == JavaKind.Long || kind == JavaKind.Float || kind == JavaKind.Double;
+    }
+
+    private static boolean isElementLoad(LoopEx loop, ValuePhiNode phi, JavaKind kind, ValueNode value) {
+        if (value instanceof LoadIndexedNode) {
+            LoadIndexedNode load = (LoadIndexedNode) value;
+            return load.index() == phi && load.elementKind() == kind && loop.isOutsideLoop(load.array());
+        }
+        return false;
+    }
+
+    private static final class VectorizableLoop {
+        final LoopEx loop;
+        final JavaKind kind;
+        final BinaryOp<?> op;
+        final ValueNode result;
+        final LoadIndexedNode xLoad;
+        /** The second operand, which is either an element load or a loop invariant value. */
+        final ValueNode y;
+        final boolean yIsElementLoad;
+
+        VectorizableLoop(LoopEx loop, JavaKind kind, BinaryOp<?> op, ValueNode result, LoadIndexedNode xLoad, ValueNode y, boolean yIsElementLoad) {
+            this.loop = loop;
+            this.kind = kind;
+            this.op = op;
+            this.result = result;
+            this.xLoad = xLoad;
+            this.y = y;
+            this.yIsElementLoad = yIsElementLoad;
+        }
+
+        int loadCount() {
+            return yIsElementLoad && y != xLoad ? 2 : 1;
+        }
+
+        /**
+         * Inserts the vector node between the predecessor of the loop and the loop. If an array
+         * might be null, the node is skipped in that case:
+         *
+         * <pre>
+         * if (result == null || x == null || y == null) {
+         *     start' = start;
+         * } else {
+         *     start' = vector(result, x, y, start, inBounds ? limit - start : 0);
+         * }
+         * loop with i = start'
+         * </pre>
+         */
+        void vectorize(StructuredGraph graph) {
+            LoopBeginNode loopBegin = loop.loopBegin();
+            CountedLoopInfo counted = loop.counted();
+            ValuePhiNode phi = ((BasicInductionVariable) counted.getCounter()).valueNode();
+            AbstractEndNode forwardEnd = loopBegin.forwardEnd();
+            FixedWithNextNode predecessor = (FixedWithNextNode) forwardEnd.predecessor();
+            ValueNode start = phi.valueAt(forwardEnd);
+            ValueNode limit = counted.getLimit();
+            predecessor.setNext(null);
+
+            ValueNode x = xLoad.array();
+            ValueNode yArray = yIsElementLoad ? ((LoadIndexedNode) y).array() : null;
+            List<ValueNode> arrays = new ArrayList<>(3);
+            arrays.add(result);
+            if (!arrays.contains(x)) {
+                arrays.add(x);
+            }
+            if (yArray != null && !arrays.contains(yArray)) {
+                arrays.add(yArray);
+            }
+
+            LogicNode isAnyNull = null;
+            for (ValueNode array : arrays) {
+                if (!StampTool.isPointerNonNull(array)) {
+                    LogicNode isNull = graph.addOrUniqueWithInputs(IsNullNode.create(array));
+                    isAnyNull = isAnyNull == null ? isNull : LogicNode.or(isAnyNull, isNull, BranchProbabilityNode.VERY_SLOW_PATH_PROBABILITY);
+                }
+            }
+
+            FixedWithNextNode last = predecessor;
+            EndNode skipEnd = null;
+            ValueNode[] nonNullArrays = arrays.toArray(new ValueNode[arrays.size()]);
+            if (isAnyNull != null) {
+                BeginNode skip = graph.add(new BeginNode());
+                BeginNode nonNull = graph.add(new BeginNode());
+                predecessor.setNext(graph.add(new IfNode(isAnyNull, skip, nonNull, BranchProbabilityNode.VERY_SLOW_PATH_PROBABILITY)));
+                skipEnd = graph.add(new EndNode());
+                skip.setNext(skipEnd);
+                for (int i = 0; i < nonNullArrays.length; i++) {
+                    nonNullArrays[i] = graph.addOrUniqueWithInputs(PiNode.create(nonNullArrays[i], nonNull));
+                }
+                last = nonNull;
+            }
+
+            // 0 <= start < limit <= length for all arrays, where limit |<=| length rules out a
+            // negative limit
+            ValueNode length = ConditionalNode.create(IntegerBelowNode.create(start, limit), SubNode.create(limit, start), ConstantNode.forInt(0, graph));
+            length = graph.addOrUniqueWithInputs(length);
+            for (ValueNode array : nonNullArrays) {
+                ArrayLengthNode arrayLength = graph.add(new ArrayLengthNode(array));
+                last.setNext(arrayLength);
+                last = arrayLength;
+                length = graph.addOrUniqueWithInputs(ConditionalNode.create(IntegerBelowNode.create(arrayLength, limit), ConstantNode.forInt(0, graph), length));
+            }
+
+            ValueNode resultArray = nonNullArrays[arrays.indexOf(result)];
+            ValueNode xArray = nonNullArrays[arrays.indexOf(x)];
+            ValueNode yValue = yArray != null ? nonNullArrays[arrays.indexOf(yArray)] : y;
+            VectorizedArrayOpNode vector = graph.add(new VectorizedArrayOpNode(kind, op, resultArray, xArray, yValue, start, length));
+            vector.setStateAfter(loopEntryState(loopBegin, phi, vector));
+            last.setNext(vector);
+
+            ValueNode newStart = vector;
+            if (skipEnd != null) {
+                EndNode vectorEnd = graph.add(new EndNode());
+                vector.setNext(vectorEnd);
+                MergeNode merge = graph.add(new MergeNode());
+                merge.addForwardEnd(skipEnd);
+                merge.addForwardEnd(vectorEnd);
+                ValuePhiNode startPhi = graph.addWithoutUnique(new ValuePhiNode(vector.stamp(), merge));
+                startPhi.addInput(start);
+                startPhi.addInput(vector);
+                merge.setStateAfter(loopEntryState(loopBegin, phi, startPhi));
+                merge.setNext(forwardEnd);
+                newStart = startPhi;
+            } else {
+                vector.setNext(forwardEnd);
+            }
+            phi.setValueAt(forwardEnd, newStart);
+        }
+
+        /**
+         * Creates the state of entering the loop with {@code start} as the value of the counter.
+         */
+        private static FrameState loopEntryState(LoopBeginNode loopBegin, ValuePhiNode phi, ValueNode start) {
+            FrameState state = loopBegin.stateAfter().duplicate();
+            NodeInputList<ValueNode> values = state.values();
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) == phi) {
+                    values.set(i, start);
+                }
+            }
+            return state;
+        }
+    }
+
+    @Override
+    public float codeSizeIncrease() {
+        return 2.0f;
+    }
+
+    @Override
+    protected boolean isOptional() {
+        return true;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import static org.graalvm.compiler.core.common.GraalOptions.VectorizeLoops;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.extended.VectorizedArrayOpNode;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class LoopVectorizationTest extends GraalCompilerTest {
+
+    private static final int[] LENGTHS = {0, 1, 3, 4, 5, 7, 8, 9, 15, 16, 17, 31, 32, 33, 100};
+
+    @Override
+    protected boolean checkHighTierGraph(StructuredGraph graph) {
+        if (isArchitecture("AMD64")) {
+            return graph.getNodes().filter(VectorizedArrayOpNode.class).count() == 1;
+        }
+        return true;
+    }
+
+    private void testVectorized(String name, Object... args) {
+        test(new OptionValues(getInitialOptions(), VectorizeLoops, true), name, args);
+    }
+
+    private static int[] ints(int length) {
+        int[] array = new int[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = i * 0x01010101 - 17;
+        }
+        return array;
+    }
+
+    private static long[] longs(int length) {
+        long[] array = new long[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = i * 0x0101010101010101L - 17;
+        }
+        return array;
+    }
+
+    private static float[] floats(int length) {
+        float[] array = new float[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = i * 1.25f - 3;
+        }
+        return array;
+    }
+
+    private static double[] doubles(int length) {
+        double[] array = new double[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = i * 1.25 - 3;
+        }
+        return array;
+    }
+
+    public static int[] intAddSnippet(int[] result, int[] x, int[] y, int n) {
+        for (int i = 0; i < n; i++) {
+            result[i] = x[i] + y[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testIntAdd() {
+        for (int length : LENGTHS) {
+            testVectorized("intAddSnippet", supply(() -> new int[length]), ints(length), ints(length), length);
+        }
+    }
+
+    @Test
+    public void testIntAddOutOfBounds() {
+        testVectorized("intAddSnippet", supply(() -> new int[20]), ints(20), ints(19), 20);
+        testVectorized("intAddSnippet", supply(() -> new int[19]), ints(20), ints(20), 20);
+        testVectorized("intAddSnippet", supply(() -> new int[20]), ints(20), ints(20), 21);
+    }
+
+    @Test
+    public void testIntAddNull() {
+        testVectorized("intAddSnippet", null, ints(20), ints(20), 20);
+        testVectorized("intAddSnippet", supply(() -> new int[20]), ints(20), null, 20);
+        testVectorized("intAddSnippet", null, null, null, 0);
+    }
+
+    public static int[] intMulRangeSnippet(int[] result, int[] x, int[] y, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = x[i] * y[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testIntMulRange() {
+        for (int from = 0; from < 6; from++) {
+            for (int to : LENGTHS) {
+                testVectorized("intMulRangeSnippet", supply(() -> new int[40]), ints(40), ints(40), from, to);
+            }
+        }
+        testVectorized("intMulRangeSnippet", supply(() -> new int[40]), ints(40), ints(40), -1, 20);
+    }
+
+    public static int[] intXorInPlaceSnippet(int[] array, int value) {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = value ^ array[i];
+        }
+        return array;
+    }
+
+    @Test
+    public void testIntXorInPlace() {
+        for (int length : LENGTHS) {
+            testVectorized("intXorInPlaceSnippet", supply(() -> ints(length)), 0x5555AAAA);
+        }
+    }
+
+    public static int[] intSquareSnippet(int[] array) {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = array[i] * array[i];
+        }
+        return array;
+    }
+
+    @Test
+    public void testIntSquare() {
+        for (int length : LENGTHS) {
+            testVectorized("intSquareSnippet", supply(() -> ints(length)));
+        }
+    }
+
+    public static long[] longSubSnippet(long[] result, long[] x, long[] y) {
+        for (int i = 0; i < result.length; i++) {
+            result[i] = x[i] - y[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testLongSub() {
+        for (int length : LENGTHS) {
+            testVectorized("longSubSnippet", supply(() -> new long[length]), longs(length), longs(length + 1));
+        }
+    }
+
+    public static float[] floatScaleSnippet(float[] result, float[] x, float factor) {
+        for (int i = 0; i < result.length; i++) {
+            result[i] = x[i] * factor;
+        }
+        return result;
+    }
+
+    @Test
+    public void testFloatScale() {
+        for (int length : LENGTHS) {
+            testVectorized("floatScaleSnippet", supply(() -> new float[length]), floats(length), 0.3f);
+        }
+        testVectorized("floatScaleSnippet", supply(() -> new float[9]), floats(9), Float.NaN);
+    }
+
+    public static double[] doubleDivSnippet(double[] result, double[] x, double[] y) {
+        for (int i = 0; i < result.length; i++) {
+            result[i] = x[i] / y[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testDoubleDiv() {
+        for (int length : LENGTHS) {
+            testVectorized("doubleDivSnippet", supply(() -> new double[length]), doubles(length), doubles(length));
+        }
+    }
+
+    public static long[] longCopySnippet(long[] result, long[] x, int n) {
+        for (int i = 0; i < n; i++) {
+            result[i] = x[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testLongCopy() {
+        for (int length : LENGTHS) {
+            testVectorized("longCopySnippet", supply(() -> new long[length]), longs(length), length);
+        }
+    }
+}
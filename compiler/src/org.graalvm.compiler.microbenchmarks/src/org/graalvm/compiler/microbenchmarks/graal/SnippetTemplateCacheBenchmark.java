@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.microbenchmarks.graal;
+
+import org.graalvm.compiler.microbenchmarks.graal.util.GraalState;
+import org.graalvm.compiler.microbenchmarks.graal.util.GraphState;
+import org.graalvm.compiler.microbenchmarks.graal.util.MethodSpec;
+import org.graalvm.compiler.phases.OptimisticOptimizations;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+import org.graalvm.compiler.phases.tiers.LowTierContext;
+import org.graalvm.compiler.phases.tiers.MidTierContext;
+import org.graalvm.compiler.phases.tiers.Suites;
+import org.graalvm.compiler.replacements.ConcurrentLRUCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the contention on the snippet template cache when several threads lower graphs at the
+ * same time.
+ */
+@Warmup(iterations = 10)
+public class SnippetTemplateCacheBenchmark extends GraalBenchmark {
+
+    static class Element {
+        int value;
+
+        Element(int value) {
+            this.value = value;
+        }
+    }
+
+    static final Object lock = new Object();
+
+    /**
+     * Method whose lowering instantiates allocation, monitor and type check snippets.
+     */
+    public static Object loweringSnippet(Object o, int n) {
+        Element[] elements = new Element[n];
+        synchronized (lock) {
+            for (int i = 0; i < n; i++) {
+                elements[i] = new Element(i);
+            }
+        }
+        if (o instanceof Element) {
+            return ((Element) o).value + elements.length;
+        }
+        return elements;
+    }
+
+    @MethodSpec(declaringClass = SnippetTemplateCacheBenchmark.class, name = "loweringSnippet")
+    public static class LoweringState extends GraphState {
+        final GraalState graal = new GraalState();
+        Suites suites;
+        HighTierContext highTierContext;
+        LowTierContext lowTierContext;
+
+        @Setup
+        public void setup() {
+            suites = graal.backend.getSuites().getDefaultSuites(graal.options).copy();
+            highTierContext = new HighTierContext(graal.providers, graal.backend.getSuites().getDefaultGraphBuilderSuite().copy(), OptimisticOptimizations.ALL);
+            lowTierContext = new LowTierContext(graal.providers, graal.backend);
+        }
+
+        void lower() {
+            suites.getHighTier().apply(graph, highTierContext);
+            suites.getMidTier().apply(graph, new MidTierContext(graal.providers, graal.backend, OptimisticOptimizations.ALL, graph.getProfilingInfo()));
+            suites.getLowTier().apply(graph, lowTierContext);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void lowering1(LoweringState s) {
+        s.lower();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void lowering4(LoweringState s) {
+        s.lower();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void loweringMax(LoweringState s) {
+        s.lower();
+    }
+
+    /**
+     * A cache shared by all benchmark threads, sized like a snippet template cache.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedCache {
+        static final int SIZE = 50;
+
+        final ConcurrentLRUCache<Integer, Object> cache = new ConcurrentLRUCache<>(SIZE);
+
+        @Setup
+        public void setup() {
+            for (int i = 0; i < SIZE; i++) {
+                cache.putIfAbsent(i, new Object());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Key {
+        int next;
+
+        Integer next() {
+            next = (next + 1) % SharedCache.SIZE;
+            return next;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object cacheHit1(SharedCache s, Key k) {
+        return s.cache.get(k.next());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object cacheHit4(SharedCache s, Key k) {
+        return s.cache.get(k.next());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object cacheHitMax(SharedCache s, Key k) {
+        return s.cache.get(k.next());
+    }
+}
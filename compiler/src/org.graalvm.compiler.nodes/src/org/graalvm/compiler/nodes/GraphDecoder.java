@@ -33,9 +33,6 @@ import java.util.BitSet;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import org.graalvm.compiler.core.common.Fields;
 import org.graalvm.compiler.core.common.PermanentBailoutException;
@@ -62,6 +59,7 @@ import org.graalvm.compiler.nodes.calc.FloatingNode;
 import org.graalvm.compiler.nodes.extended.IntegerSwitchNode;
 import org.graalvm.compiler.nodes.graphbuilderconf.LoopExplosionPlugin.LoopExplosionKind;
 import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.util.EconomicIntMap;
 import org.graalvm.util.EconomicMap;
 import org.graalvm.util.EconomicSet;
 import org.graalvm.util.Equivalence;
@@ -124,12 +122,7 @@ public class GraphDecoder {
                 reader = UnsafeArrayTypeReader.create(encodedGraph.getEncoding(), encodedGraph.getStartOffset(), architecture.supportsUnalignedMemoryAccess());
                 maxFixedNodeOrderId = reader.getUVInt();
                 if (encodedGraph.nodeStartOffsets == null) {
-                    int nodeCount = reader.getUVInt();
-                    int[] nodeStartOffsets = new int[nodeCount];
-                    for (int i = 0; i < nodeCount; i++) {
-                        nodeStartOffsets[i] = encodedGraph.getStartOffset() - reader.getUVInt();
-                    }
-                    encodedGraph.nodeStartOffsets = nodeStartOffsets;
+                    encodedGraph.nodeStartOffsets = readNodeStartOffsets(encodedGraph, reader);
                 }
             } else {
                 reader = null;
@@ -148,6 +141,29 @@ public class GraphDecoder {
         }
     }
 
+    private static int[] readNodeStartOffsets(EncodedGraph encodedGraph, TypeReader reader) {
+        int nodeCount = reader.getUVInt();
+        int[] nodeStartOffsets = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodeStartOffsets[i] = encodedGraph.getStartOffset() - reader.getUVInt();
+        }
+        return nodeStartOffsets;
+    }
+
+    /**
+     * Eagerly computes the table of contents of {@code encodedGraph} that is otherwise computed
+     * lazily by the first decoding. Must be called before an encoded graph is published to other
+     * threads that may decode it concurrently.
+     */
+    public static void prepareForConcurrentDecoding(EncodedGraph encodedGraph, Architecture architecture) {
+        if (encodedGraph.nodeStartOffsets == null) {
+            TypeReader reader = UnsafeArrayTypeReader.create(encodedGraph.getEncoding(), encodedGraph.getStartOffset(), architecture.supportsUnalignedMemoryAccess());
+            /* Skip maxFixedNodeOrderId. */
+            reader.getUVInt();
+            encodedGraph.nodeStartOffsets = readNodeStartOffsets(encodedGraph, reader);
+        }
+    }
+
     /** Decoding state maintained for each loop in the encoded graph. */
     protected static class LoopScope {
         public final MethodScope methodScope;
@@ -1768,7 +1784,7 @@ class LoopDetector implements Runnable {
         assert loopVariableIndex != -1;
 
         ValuePhiNode loopVariablePhi;
-        SortedMap<Integer, AbstractBeginNode> dispatchTable = new TreeMap<>();
+        EconomicIntMap<AbstractBeginNode> dispatchTable = EconomicIntMap.create();
         AbstractBeginNode unreachableDefaultSuccessor;
         if (irreducibleLoopSwitch == null) {
             /*
@@ -1886,7 +1902,7 @@ class LoopDetector implements Runnable {
         throw new PermanentBailoutException("Graal implementation restriction: Method with %s loop explosion %s", LoopExplosionKind.MERGE_EXPLODE, msg);
     }
 
-    private static IntegerSwitchNode createSwitch(ValuePhiNode switchedValue, SortedMap<Integer, AbstractBeginNode> dispatchTable, AbstractBeginNode defaultSuccessor) {
+    private static IntegerSwitchNode createSwitch(ValuePhiNode switchedValue, EconomicIntMap<AbstractBeginNode> dispatchTable, AbstractBeginNode defaultSuccessor) {
         int numKeys = dispatchTable.size();
         int numSuccessors = numKeys + 1;
 
@@ -1895,10 +1911,12 @@ class LoopDetector implements Runnable {
         double[] switchKeyProbabilities = new double[numSuccessors];
         int[] switchKeySuccessors = new int[numSuccessors];
 
+        int[] sortedKeys = dispatchTable.getKeys();
+        Arrays.sort(sortedKeys);
         int idx = 0;
-        for (Map.Entry<Integer, AbstractBeginNode> entry : dispatchTable.entrySet()) {
-            switchSuccessors[idx] = entry.getValue();
-            switchKeys[idx] = entry.getKey();
+        for (int key : sortedKeys) {
+            switchSuccessors[idx] = dispatchTable.get(key);
+            switchKeys[idx] = key;
             switchKeyProbabilities[idx] = 1d / numKeys;
             switchKeySuccessors[idx] = idx;
             idx++;
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.nodes.extended;
+
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_1024;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_64;
+
+import org.graalvm.compiler.core.common.type.ArithmeticOpTable.BinaryOp;
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.memory.AbstractMemoryCheckpoint;
+import org.graalvm.compiler.nodes.memory.MemoryCheckpoint;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Computes {@code result[i] = x[i] op y[i]}, or {@code result[i] = x[i]} if there is no operation,
+ * for a target specific prefix of the index range {@code [index, index + length)} with vector
+ * instructions. The value of this node is the index of the first element which was not computed.
+ * If {@code y} is a primitive value it is used as the second operand for every element.
+ * <p>
+ * The arrays must be non-null and the whole index range must be within their bounds.
+ *
+ * @see org.graalvm.compiler.lir.gen.LIRGeneratorTool#emitVectorizedArrayOp
+ */
+@NodeInfo(cycles = CYCLES_1024, size = SIZE_64)
+public final class VectorizedArrayOpNode extends AbstractMemoryCheckpoint implements LIRLowerable, MemoryCheckpoint.Single {
+
+    public static final NodeClass<VectorizedArrayOpNode> TYPE = NodeClass.create(VectorizedArrayOpNode.class);
+    /** {@link JavaKind} of the array elements. */
+    protected final JavaKind kind;
+
+    /** The operation to apply or {@code null} to copy {@link #x}. */
+    protected final BinaryOp<?> op;
+
+    @Input ValueNode result;
+    @Input ValueNode x;
+    @OptionalInput ValueNode y;
+    @Input ValueNode index;
+    @Input ValueNode length;
+
+    public VectorizedArrayOpNode(JavaKind kind, BinaryOp<?> op, ValueNode result, ValueNode x, ValueNode y, ValueNode index, ValueNode length) {
+        super(TYPE, StampFactory.forKind(JavaKind.Int));
+        assert (op == null) == (y == null);
+        this.kind = kind;
+        this.op = op;
+        this.result = result;
+        this.x = x;
+        this.y = y;
+        this.index = index;
+        this.length = length;
+    }
+
+    public JavaKind getKind() {
+        return kind;
+    }
+
+    public BinaryOp<?> getOp() {
+        return op;
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        Value yValue = y == null ? Value.ILLEGAL : gen.operand(y);
+        gen.setResult(this, gen.getLIRGeneratorTool().emitVectorizedArrayOp(kind, op, gen.operand(result), gen.operand(x), yValue, gen.operand(index), gen.operand(length)));
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(kind);
+    }
+}
@@ -1075,4 +1075,9 @@ public class ConditionalEliminationPhase extends BasePhase<PhaseContext> {
     public float codeSizeIncrease() {
         return 1.5f;
     }
+
+    @Override
+    protected boolean isOptional() {
+        return true;
+    }
 }
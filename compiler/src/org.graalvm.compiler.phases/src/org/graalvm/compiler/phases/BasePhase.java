@@ -24,6 +24,7 @@ package org.graalvm.compiler.phases;
 
 import java.util.regex.Pattern;
 
+import org.graalvm.compiler.core.common.util.CompilationBudget;
 import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugContext;
@@ -79,6 +80,12 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
      */
     private final MemUseTrackerKey memUseTracker;
 
+    /**
+     * Counts executions of this phase that were skipped or cut short because the
+     * {@linkplain CompilationBudget compilation budget} was exhausted.
+     */
+    private final CounterKey skippedCount;
+
     /** Lazy initialization to create pattern only when assertions are enabled. */
     static class NamePatternHolder {
         static final Pattern NAME_PATTERN = Pattern.compile("[A-Z][A-Za-z0-9]+");
@@ -106,11 +113,18 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
          */
         private final MemUseTrackerKey memUseTracker;
 
+        /**
+         * Counts executions of the phase that were skipped or cut short because the
+         * {@linkplain CompilationBudget compilation budget} was exhausted.
+         */
+        private final CounterKey skippedCount;
+
         public BasePhaseStatistics(Class<?> clazz) {
             timer = DebugContext.timer("PhaseTime_%s", clazz).doc("Time spent in phase.");
             executionCount = DebugContext.counter("PhaseCount_%s", clazz).doc("Number of phase executions.");
             memUseTracker = DebugContext.memUseTracker("PhaseMemUse_%s", clazz).doc("Memory allocated in phase.");
             inputNodesCount = DebugContext.counter("PhaseNodes_%s", clazz).doc("Number of nodes input to phase.");
+            skippedCount = DebugContext.counter("PhaseSkipped_%s", clazz).doc("Number of phase executions skipped because the compilation budget was exhausted.");
         }
     }
 
@@ -131,6 +145,7 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
         executionCount = statistics.executionCount;
         memUseTracker = statistics.memUseTracker;
         inputNodesCount = statistics.inputNodesCount;
+        skippedCount = statistics.skippedCount;
     }
 
     public final void apply(final StructuredGraph graph, final C context) {
@@ -177,6 +192,10 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
     protected final void apply(final StructuredGraph graph, final C context, final boolean dumpGraph) {
         graph.checkCancellation();
         DebugContext debug = graph.getDebug();
+        if (isOptional() && CompilationBudget.current().isExhausted()) {
+            skippedCount.increment(debug);
+            return;
+        }
         try (DebugCloseable a = timer.start(debug); DebugContext.Scope s = debug.scope(getClass(), this); DebugCloseable c = memUseTracker.start(debug)) {
             int sizeBefore = 0;
             Mark before = null;
@@ -278,6 +297,23 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
         }
     }
 
+    /**
+     * Determines if this phase only performs optimizations that are not required for correct code
+     * and can therefore be skipped once the {@linkplain CompilationBudget budget} of the current
+     * compilation is exhausted.
+     */
+    protected boolean isOptional() {
+        return false;
+    }
+
+    /**
+     * Records that this phase stopped early because the {@linkplain CompilationBudget budget} of
+     * the current compilation is exhausted.
+     */
+    protected final void recordSkipped(DebugContext debug) {
+        skippedCount.increment(debug);
+    }
+
     protected CharSequence getName() {
         return new ClassTypeSequence(BasePhase.this.getClass());
     }
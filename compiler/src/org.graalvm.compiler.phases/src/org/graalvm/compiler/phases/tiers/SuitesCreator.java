@@ -34,6 +34,12 @@ public interface SuitesCreator extends SuitesProvider {
      */
     Suites createSuites(OptionValues options);
 
+    /**
+     * Create a new set of phase suites based on {@code options} whose tiers are created by
+     * {@code compilerConfiguration}.
+     */
+    Suites createSuites(OptionValues options, CompilerConfiguration compilerConfiguration);
+
     /**
      * Create a new set of low-level phase suites based on {@code options}.
      */
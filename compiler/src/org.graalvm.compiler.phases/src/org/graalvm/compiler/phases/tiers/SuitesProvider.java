@@ -39,6 +39,13 @@ public interface SuitesProvider {
      */
     Suites getDefaultSuites(OptionValues values);
 
+    /**
+     * Gets phase suites whose high, mid and low tiers are created by {@code compilerConfiguration}
+     * instead of the configuration of this compiler. Phases required by the backend are added as
+     * for the {@linkplain #getDefaultSuites(OptionValues) default suites}.
+     */
+    Suites getSuites(OptionValues options, CompilerConfiguration compilerConfiguration);
+
     /**
      * Get the default phase suite for creating new graphs.
      */
@@ -31,6 +31,8 @@ import static org.graalvm.compiler.replacements.nodes.UnaryMathIntrinsicNode.Una
 import static org.graalvm.compiler.replacements.nodes.UnaryMathIntrinsicNode.UnaryOperation.TAN;
 import static org.graalvm.compiler.serviceprovider.JDK9Method.Java8OrEarlier;
 
+import java.util.Arrays;
+
 import org.graalvm.compiler.bytecode.BytecodeProvider;
 import org.graalvm.compiler.lir.amd64.AMD64ArithmeticLIRGeneratorTool.RoundingMode;
 import org.graalvm.compiler.nodes.ValueNode;
@@ -72,6 +74,7 @@ public class AMD64GraphBuilderPlugins {
                 registerIntegerLongPlugins(invocationPlugins, LongSubstitutions.class, JavaKind.Long, arch, replacementsBytecodeProvider);
                 registerUnsafePlugins(invocationPlugins, replacementsBytecodeProvider);
                 registerStringPlugins(invocationPlugins, arch, replacementsBytecodeProvider);
+                registerArraysPlugins(invocationPlugins, arch, replacementsBytecodeProvider);
                 registerMathPlugins(invocationPlugins, arch, arithmeticStubs, replacementsBytecodeProvider);
             }
         });
@@ -179,12 +182,38 @@ public class AMD64GraphBuilderPlugins {
     }
 
     private static void registerStringPlugins(InvocationPlugins plugins, AMD64 arch, BytecodeProvider replacementsBytecodeProvider) {
-        if (Java8OrEarlier && arch.getFeatures().contains(CPUFeature.SSE4_2)) {
+        if (Java8OrEarlier) {
             Registration r;
             r = new Registration(plugins, String.class, replacementsBytecodeProvider);
             r.setAllowOverwrite(true);
-            r.registerMethodSubstitution(AMD64StringSubstitutions.class, "indexOf", char[].class, int.class,
-                            int.class, char[].class, int.class, int.class, int.class);
+            if (arch.getFeatures().contains(CPUFeature.SSE4_2)) {
+                r.registerMethodSubstitution(AMD64StringSubstitutions.class, "indexOf", char[].class, int.class,
+                                int.class, char[].class, int.class, int.class, int.class);
+            }
+            r.registerMethodSubstitution(AMD64StringSubstitutions.class, "compareTo", Receiver.class, String.class);
+        }
+    }
+
+    private static void registerArraysPlugins(InvocationPlugins plugins, AMD64 arch, BytecodeProvider replacementsBytecodeProvider) {
+        Registration r = new Registration(plugins, Arrays.class, replacementsBytecodeProvider);
+        r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "fill", boolean[].class, boolean.class);
+        r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "fill", byte[].class, byte.class);
+        r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "fill", char[].class, char.class);
+        r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "fill", short[].class, short.class);
+        r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "fill", int[].class, int.class);
+        r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "fill", long[].class, long.class);
+        if (arch.getFeatures().contains(CPUFeature.SSE4_1)) {
+            r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "hashCode", byte[].class);
+            r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "hashCode", char[].class);
+            r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "hashCode", short[].class);
+            r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "hashCode", int[].class);
+        }
+        if (!Java8OrEarlier) {
+            r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "mismatch", byte[].class, byte[].class);
+            r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "mismatch", char[].class, char[].class);
+            r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "mismatch", short[].class, short[].class);
+            r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "mismatch", int[].class, int[].class);
+            r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "mismatch", long[].class, long[].class);
         }
     }
 
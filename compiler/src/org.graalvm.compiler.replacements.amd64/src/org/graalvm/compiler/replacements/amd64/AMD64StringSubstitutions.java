@@ -25,6 +25,8 @@ package org.graalvm.compiler.replacements.amd64;
 import org.graalvm.compiler.api.replacements.ClassSubstitution;
 import org.graalvm.compiler.api.replacements.MethodSubstitution;
 import org.graalvm.compiler.graph.Node.ConstantNodeParameter;
+import org.graalvm.compiler.replacements.StringSubstitutions;
+import org.graalvm.compiler.replacements.nodes.ArrayMismatchNode;
 import org.graalvm.compiler.word.Word;
 import org.graalvm.word.Pointer;
 
@@ -70,4 +72,20 @@ public class AMD64StringSubstitutions {
         }
         return result;
     }
+
+    // Only exists in JDK <= 8
+    @MethodSubstitution(isStatic = false, optional = true)
+    public static int compareTo(String thisString, String anotherString) {
+        // Dereference the argument first so that a null argument throws as in the original.
+        int len2 = anotherString.length();
+        int len1 = thisString.length();
+        char[] value1 = StringSubstitutions.getValue(thisString);
+        char[] value2 = StringSubstitutions.getValue(anotherString);
+
+        int index = ArrayMismatchNode.mismatch(value1, value2, Math.min(len1, len2));
+        if (index >= 0) {
+            return value1[index] - value2[index];
+        }
+        return len1 - len2;
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.bench;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.graalvm.compiler.microbenchmarks.graal.GraalBenchmark;
+
+/**
+ * Benchmarks for the {@link Arrays#fill} and {@link Arrays#hashCode} intrinsics.
+ */
+public class ArraysBench extends GraalBenchmark {
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        @Param({"7", "64", "1024"}) int length;
+
+        byte[] bytes;
+        char[] chars;
+        int[] ints;
+        long[] longs;
+
+        @Setup
+        public void setup() {
+            bytes = new byte[length];
+            chars = new char[length];
+            ints = new int[length];
+            longs = new long[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) i;
+                chars[i] = (char) ('a' + i % 26);
+                ints[i] = i * 31;
+                longs[i] = i;
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] fillBytes(ThreadState state) {
+        Arrays.fill(state.bytes, (byte) 42);
+        return state.bytes;
+    }
+
+    @Benchmark
+    public int[] fillInts(ThreadState state) {
+        Arrays.fill(state.ints, 42);
+        return state.ints;
+    }
+
+    @Benchmark
+    public long[] fillLongs(ThreadState state) {
+        Arrays.fill(state.longs, 42L);
+        return state.longs;
+    }
+
+    @Benchmark
+    public int hashCodeBytes(ThreadState state) {
+        return Arrays.hashCode(state.bytes);
+    }
+
+    @Benchmark
+    public int hashCodeChars(ThreadState state) {
+        return Arrays.hashCode(state.chars);
+    }
+
+    @Benchmark
+    public int hashCodeInts(ThreadState state) {
+        return Arrays.hashCode(state.ints);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.bench;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.graalvm.compiler.microbenchmarks.graal.GraalBenchmark;
+
+/**
+ * Benchmarks for {@link String#compareTo(String)}, both on pairs of strings sharing a long common
+ * prefix and when sorting a set of string keys.
+ */
+public class StringCompareToBench extends GraalBenchmark {
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        @Param({"8", "64", "1024"}) int length;
+
+        String s1;
+        String s2;
+        String[] keys;
+        String[] sortBuffer;
+
+        @Setup
+        public void setup() {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) ('a' + i % 26);
+            }
+            s1 = new String(chars);
+            chars[length - 1] = 'Z';
+            s2 = new String(chars);
+
+            keys = new String[256];
+            for (int i = 0; i < keys.length; i++) {
+                // Common prefix, so the comparisons have to look at most of each key.
+                keys[i] = s1.substring(0, length / 2) + Integer.toHexString(i * 0x9E3779B9);
+            }
+            sortBuffer = new String[keys.length];
+        }
+    }
+
+    @Benchmark
+    public int compareTo(ThreadState state) {
+        return state.s1.compareTo(state.s2);
+    }
+
+    @Benchmark
+    public String[] sortKeys(ThreadState state) {
+        System.arraycopy(state.keys, 0, state.sortBuffer, 0, state.keys.length);
+        Arrays.sort(state.sortBuffer);
+        return state.sortBuffer;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.graalvm.compiler.replacements.ConcurrentLRUCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentLRUCacheTest {
+
+    @Test
+    public void testPutIfAbsent() {
+        ConcurrentLRUCache<String, Object> cache = new ConcurrentLRUCache<>(4);
+        Object first = new Object();
+        Assert.assertSame(first, cache.putIfAbsent("a", first));
+        Assert.assertSame(first, cache.putIfAbsent("a", new Object()));
+        Assert.assertSame(first, cache.get("a"));
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(3);
+        cache.putIfAbsent(1, 1);
+        cache.putIfAbsent(2, 2);
+        cache.putIfAbsent(3, 3);
+        // make 1 more recent than 2
+        Assert.assertEquals(Integer.valueOf(1), cache.get(1));
+        cache.putIfAbsent(4, 4);
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertNull(cache.get(2));
+        Assert.assertNotNull(cache.get(1));
+        Assert.assertNotNull(cache.get(3));
+        Assert.assertNotNull(cache.get(4));
+    }
+
+    @Test
+    public void testReportsEvictionsOfCall() {
+        ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(2);
+        int[] evicted = new int[1];
+        cache.putIfAbsent(1, 1, n -> evicted[0] += n);
+        cache.putIfAbsent(2, 2, n -> evicted[0] += n);
+        Assert.assertEquals(0, evicted[0]);
+        cache.putIfAbsent(3, 3, n -> evicted[0] += n);
+        Assert.assertEquals(1, evicted[0]);
+        Assert.assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        int capacity = 16;
+        ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(capacity);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 10000; i++) {
+                        Integer key = i % (capacity * 2);
+                        Integer value = cache.get(key);
+                        if (value == null) {
+                            value = cache.putIfAbsent(key, key);
+                        }
+                        Assert.assertEquals(key, value);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(failures.toString(), failures.isEmpty());
+        Assert.assertTrue(cache.size() <= capacity + 4);
+        Assert.assertEquals(40000, cache.getHits() + cache.getMisses());
+    }
+}
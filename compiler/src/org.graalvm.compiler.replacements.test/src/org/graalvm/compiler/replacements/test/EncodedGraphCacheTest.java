@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import static org.graalvm.compiler.nodes.graphbuilderconf.InlineInvokePlugin.InlineInfo.createStandardInlineInfo;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderContext;
+import org.graalvm.compiler.nodes.graphbuilderconf.InlineInvokePlugin;
+import org.graalvm.compiler.phases.OptimisticOptimizations;
+import org.graalvm.compiler.replacements.CachingPEGraphDecoder;
+import org.graalvm.compiler.replacements.EncodedGraphCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Tests sharing of encoded graphs between {@link CachingPEGraphDecoder}s through an
+ * {@link EncodedGraphCache}.
+ */
+public class EncodedGraphCacheTest extends GraalCompilerTest {
+
+    static int field;
+
+    static int callee1(int a) {
+        return a + field;
+    }
+
+    static int callee2(int a) {
+        if (a > 0) {
+            return callee1(a);
+        }
+        return a * 31;
+    }
+
+    public static int root(int a) {
+        return callee1(a) + callee2(a);
+    }
+
+    static class InlineAll implements InlineInvokePlugin {
+        @Override
+        public InlineInfo shouldInlineInvoke(GraphBuilderContext b, ResolvedJavaMethod method, ValueNode[] args) {
+            return createStandardInlineInfo(method);
+        }
+    }
+
+    @SuppressWarnings("try")
+    private StructuredGraph decode(EncodedGraphCache cache, Object configuration) {
+        ResolvedJavaMethod method = getResolvedJavaMethod("root");
+        DebugContext debug = getDebugContext();
+        StructuredGraph targetGraph = new StructuredGraph.Builder(getInitialOptions(), debug, AllowAssumptions.NO).method(method).build();
+        try (DebugContext.Scope scope = debug.scope("EncodedGraphCacheTest", method)) {
+            GraphBuilderConfiguration graphBuilderConfig = GraphBuilderConfiguration.getDefault(getDefaultGraphBuilderPlugins()).withEagerResolving(true);
+            CachingPEGraphDecoder decoder = new CachingPEGraphDecoder(getTarget().arch, targetGraph, getProviders(), graphBuilderConfig, OptimisticOptimizations.NONE, AllowAssumptions.NO,
+                            null, null, new InlineInvokePlugin[]{new InlineAll()}, null, null, getProviders(), cache, configuration);
+            decoder.decode(method);
+            targetGraph.verify();
+        } catch (Throwable ex) {
+            throw debug.handle(ex);
+        }
+        return targetGraph;
+    }
+
+    @Test
+    public void testSharing() {
+        EncodedGraphCache cache = new EncodedGraphCache(getTarget().arch, Long.MAX_VALUE);
+        Object configuration = new Object();
+
+        StructuredGraph first = decode(cache, configuration);
+        long misses = cache.getMisses();
+        int entries = cache.getEntryCount();
+        Assert.assertEquals(0, cache.getHits());
+        Assert.assertEquals(3, entries);
+
+        StructuredGraph second = decode(cache, configuration);
+        Assert.assertEquals(misses, cache.getMisses());
+        Assert.assertEquals(entries, cache.getEntryCount());
+        Assert.assertEquals(entries, cache.getHits());
+        Assert.assertEquals(first.getNodeCount(), second.getNodeCount());
+
+        // a different configuration must not see the graphs of the first one
+        decode(cache, new Object());
+        Assert.assertEquals(2 * entries, cache.getEntryCount());
+    }
+
+    @Test
+    public void testEviction() {
+        EncodedGraphCache cache = new EncodedGraphCache(getTarget().arch, 1);
+        decode(cache, new Object());
+        // every graph exceeds the capacity on its own
+        Assert.assertEquals(3, cache.getEvictions());
+        Assert.assertEquals(0, cache.getEntryCount());
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.replacements.PersistentSnippetGraphCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Tests writing graphs to a {@link PersistentSnippetGraphCache} and reading them back in a new
+ * cache instance.
+ */
+public class PersistentSnippetGraphCacheTest extends GraalCompilerTest {
+
+    public static int snippet(int a, int b) {
+        if (a > b) {
+            return a * b + 7;
+        }
+        return Math.abs(b - a);
+    }
+
+    private static final long ADDRESS = 0x7f0012345000L;
+
+    public static long addressSnippet() {
+        return ADDRESS;
+    }
+
+    public static long derivedAddressSnippet() {
+        return ADDRESS + 8;
+    }
+
+    private PersistentSnippetGraphCache createCache(Path file, String configuration) {
+        return new PersistentSnippetGraphCache(file, configuration, getTarget().arch, getMetaAccess(), getClass().getClassLoader());
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path file = Files.createTempFile("snippets", ".cache");
+        try {
+            ResolvedJavaMethod method = getResolvedJavaMethod("snippet");
+            StructuredGraph graph = parseEager(method, AllowAssumptions.NO);
+
+            PersistentSnippetGraphCache writer = createCache(file, "config");
+            Assert.assertNull(writer.lookup(method, getInitialOptions(), getDebugContext()));
+            writer.record(method, graph, Collections.emptyList());
+            Assert.assertEquals(0, writer.getUnsupported());
+            Assert.assertEquals(1, writer.getGraphCount());
+            writer.save();
+
+            PersistentSnippetGraphCache reader = createCache(file, "config");
+            reader.load();
+            StructuredGraph decoded = reader.lookup(method, getInitialOptions(), getDebugContext());
+            Assert.assertNotNull(decoded);
+            Assert.assertEquals(1, reader.getHits());
+            Assert.assertEquals(0, reader.getFailures());
+            Assert.assertEquals(graph.getNodeCount(), decoded.getNodeCount());
+
+            // a cache written for another configuration must be ignored
+            PersistentSnippetGraphCache other = createCache(file, "other");
+            other.load();
+            Assert.assertEquals(0, other.getGraphCount());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long constantValue(StructuredGraph graph) {
+        for (ConstantNode constant : graph.getNodes().filter(ConstantNode.class)) {
+            if (constant.asJavaConstant().getJavaKind() == JavaKind.Long) {
+                return constant.asJavaConstant().asLong();
+            }
+        }
+        throw new AssertionError("no long constant in " + graph);
+    }
+
+    @Test
+    public void testRunSpecificValues() throws IOException {
+        Path file = Files.createTempFile("snippets", ".cache");
+        try {
+            ResolvedJavaMethod address = getResolvedJavaMethod("addressSnippet");
+            ResolvedJavaMethod derivedAddress = getResolvedJavaMethod("derivedAddressSnippet");
+
+            PersistentSnippetGraphCache writer = createCache(file, "config");
+            writer.registerRunSpecificValue("address", ADDRESS);
+            writer.record(address, parseEager(address, AllowAssumptions.NO), Collections.emptyList());
+            Assert.assertEquals(0, writer.getUnsupported());
+            // a value derived from an address must not be stored
+            writer.record(derivedAddress, parseEager(derivedAddress, AllowAssumptions.NO), Collections.emptyList());
+            Assert.assertEquals(1, writer.getUnsupported());
+            Assert.assertEquals(1, writer.getGraphCount());
+            writer.save();
+
+            // the address is at a different location in the next VM
+            long newAddress = ADDRESS + 0x100000000L;
+            PersistentSnippetGraphCache reader = createCache(file, "config");
+            reader.registerRunSpecificValue("address", newAddress);
+            reader.load();
+            StructuredGraph decoded = reader.lookup(address, getInitialOptions(), getDebugContext());
+            Assert.assertNotNull(decoded);
+            Assert.assertEquals(newAddress, constantValue(decoded));
+
+            // a stored address that is unknown to the reading VM cannot be resolved
+            PersistentSnippetGraphCache unknown = createCache(file, "config");
+            unknown.load();
+            Assert.assertNull(unknown.lookup(address, getInitialOptions(), getDebugContext()));
+            Assert.assertEquals(1, unknown.getFailures());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testInlinedMethodDependencies() throws IOException {
+        Path file = Files.createTempFile("snippets", ".cache");
+        try {
+            ResolvedJavaMethod method = getResolvedJavaMethod("snippet");
+            ResolvedJavaMethod inlined = getResolvedJavaMethod("addressSnippet");
+
+            PersistentSnippetGraphCache writer = createCache(file, "config");
+            writer.record(method, parseEager(method, AllowAssumptions.NO), Collections.singletonList(inlined));
+            writer.save();
+
+            PersistentSnippetGraphCache reader = createCache(file, "config");
+            reader.load();
+            Assert.assertNotNull(reader.lookup(method, getInitialOptions(), getDebugContext()));
+            Assert.assertEquals(0, reader.getFailures());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
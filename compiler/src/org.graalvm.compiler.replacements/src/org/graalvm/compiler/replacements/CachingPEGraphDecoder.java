@@ -24,7 +24,13 @@ package org.graalvm.compiler.replacements;
 
 import static org.graalvm.compiler.nodes.graphbuilderconf.IntrinsicContext.CompilationContext.INLINE_AFTER_PARSING;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 import org.graalvm.compiler.bytecode.BytecodeProvider;
+import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.java.GraphBuilderPhase;
 import org.graalvm.compiler.nodes.EncodedGraph;
@@ -51,43 +57,91 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
 /**
  * A graph decoder that provides all necessary encoded graphs on-the-fly (by parsing the methods and
  * encoding the graphs).
+ * <p>
+ * Graphs are cached for the lifetime of the decoder. In addition, an {@link EncodedGraphCache} can
+ * be supplied to share graphs between decoders. Graphs that are shared must not depend on state
+ * that can change between compilations, so they are parsed with a separate set of
+ * {@linkplain #parsingProviders providers}, and graphs that recorded assumptions while being parsed
+ * are never shared.
  */
 public class CachingPEGraphDecoder extends PEGraphDecoder {
 
+    private static final CounterKey SharedGraphCacheHits = DebugContext.counter("SharedEncodedGraphCacheHits");
+    private static final CounterKey SharedGraphCacheMisses = DebugContext.counter("SharedEncodedGraphCacheMisses");
+    private static final CounterKey ParallelPreparedGraphs = DebugContext.counter("ParallelPreparedEncodedGraphs");
+
     protected final Providers providers;
     protected final GraphBuilderConfiguration graphBuilderConfig;
     protected final OptimisticOptimizations optimisticOpts;
     private final AllowAssumptions allowAssumptions;
     private final EconomicMap<ResolvedJavaMethod, EncodedGraph> graphCache;
 
+    /**
+     * The providers used for parsing. Differs from {@link #providers} only if graphs are added to
+     * the {@link #sharedGraphCache}.
+     */
+    protected final Providers parsingProviders;
+    private final EncodedGraphCache sharedGraphCache;
+    private final Object sharedGraphCacheConfiguration;
+
     public CachingPEGraphDecoder(Architecture architecture, StructuredGraph graph, Providers providers, GraphBuilderConfiguration graphBuilderConfig, OptimisticOptimizations optimisticOpts,
                     AllowAssumptions allowAssumptions, LoopExplosionPlugin loopExplosionPlugin, InvocationPlugins invocationPlugins, InlineInvokePlugin[] inlineInvokePlugins,
                     ParameterPlugin parameterPlugin,
                     NodePlugin[] nodePlugins) {
+        this(architecture, graph, providers, graphBuilderConfig, optimisticOpts, allowAssumptions, loopExplosionPlugin, invocationPlugins, inlineInvokePlugins, parameterPlugin, nodePlugins, null,
+                        null, null);
+    }
+
+    /**
+     * @param parsingProviders the providers used to parse graphs that are added to
+     *            {@code sharedGraphCache}
+     * @param sharedGraphCache a cache shared with other decoders or {@code null}
+     * @param sharedGraphCacheConfiguration the configuration under which graphs parsed by this
+     *            decoder are added to {@code sharedGraphCache}. Must be equal for two decoders
+     *            only if they parse methods to equivalent graphs.
+     */
+    public CachingPEGraphDecoder(Architecture architecture, StructuredGraph graph, Providers providers, GraphBuilderConfiguration graphBuilderConfig, OptimisticOptimizations optimisticOpts,
+                    AllowAssumptions allowAssumptions, LoopExplosionPlugin loopExplosionPlugin, InvocationPlugins invocationPlugins, InlineInvokePlugin[] inlineInvokePlugins,
+                    ParameterPlugin parameterPlugin,
+                    NodePlugin[] nodePlugins, Providers parsingProviders, EncodedGraphCache sharedGraphCache, Object sharedGraphCacheConfiguration) {
         super(architecture, graph, providers.getMetaAccess(), providers.getConstantReflection(), providers.getConstantFieldProvider(), providers.getStampProvider(), loopExplosionPlugin,
                         invocationPlugins, inlineInvokePlugins, parameterPlugin, nodePlugins);
 
+        assert (sharedGraphCache == null) == (sharedGraphCacheConfiguration == null);
         this.providers = providers;
         this.graphBuilderConfig = graphBuilderConfig;
         this.optimisticOpts = optimisticOpts;
         this.allowAssumptions = allowAssumptions;
         this.graphCache = EconomicMap.create();
+        this.parsingProviders = sharedGraphCache != null && parsingProviders != null ? parsingProviders : providers;
+        this.sharedGraphCache = sharedGraphCache;
+        this.sharedGraphCacheConfiguration = sharedGraphCacheConfiguration;
     }
 
     protected GraphBuilderPhase.Instance createGraphBuilderPhaseInstance(IntrinsicContext initialIntrinsicContext) {
-        return new GraphBuilderPhase.Instance(providers.getMetaAccess(), providers.getStampProvider(), providers.getConstantReflection(), providers.getConstantFieldProvider(), graphBuilderConfig,
-                        optimisticOpts, initialIntrinsicContext);
+        return new GraphBuilderPhase.Instance(parsingProviders.getMetaAccess(), parsingProviders.getStampProvider(), parsingProviders.getConstantReflection(),
+                        parsingProviders.getConstantFieldProvider(), graphBuilderConfig, optimisticOpts, initialIntrinsicContext);
     }
 
-    @SuppressWarnings("try")
     private EncodedGraph createGraph(ResolvedJavaMethod method, BytecodeProvider intrinsicBytecodeProvider) {
-        StructuredGraph graphToEncode = new StructuredGraph.Builder(options, debug, allowAssumptions).useProfilingInfo(false).method(method).build();
-        try (DebugContext.Scope scope = debug.scope("createGraph", graphToEncode)) {
+        EncodedGraph encodedGraph = buildGraph(method, intrinsicBytecodeProvider, debug);
+        graphCache.put(method, encodedGraph);
+        return encodedGraph;
+    }
+
+    /**
+     * Parses and encodes the graph for {@code method}. May be called concurrently as long as each
+     * thread uses its own {@link DebugContext}.
+     */
+    @SuppressWarnings("try")
+    private EncodedGraph buildGraph(ResolvedJavaMethod method, BytecodeProvider intrinsicBytecodeProvider, DebugContext graphDebug) {
+        StructuredGraph graphToEncode = new StructuredGraph.Builder(options, graphDebug, allowAssumptions).useProfilingInfo(false).method(method).build();
+        try (DebugContext.Scope scope = graphDebug.scope("createGraph", graphToEncode)) {
             IntrinsicContext initialIntrinsicContext = intrinsicBytecodeProvider != null ? new IntrinsicContext(method, method, intrinsicBytecodeProvider, INLINE_AFTER_PARSING) : null;
             GraphBuilderPhase.Instance graphBuilderPhaseInstance = createGraphBuilderPhaseInstance(initialIntrinsicContext);
             graphBuilderPhaseInstance.apply(graphToEncode);
 
-            PhaseContext context = new PhaseContext(providers);
+            PhaseContext context = new PhaseContext(parsingProviders);
             new CanonicalizerPhase().apply(graphToEncode, context);
             /*
              * ConvertDeoptimizeToGuardPhase reduces the number of merges in the graph, so that
@@ -97,17 +151,81 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
             new ConvertDeoptimizeToGuardPhase().apply(graphToEncode, context);
 
             EncodedGraph encodedGraph = GraphEncoder.encodeSingleGraph(graphToEncode, architecture);
-            graphCache.put(method, encodedGraph);
+            if (sharedGraphCache != null && (graphToEncode.getAssumptions() == null || graphToEncode.getAssumptions().isEmpty())) {
+                encodedGraph = sharedGraphCache.put(method, intrinsicBytecodeProvider, sharedGraphCacheConfiguration, encodedGraph);
+            }
             return encodedGraph;
 
         } catch (Throwable ex) {
-            throw debug.handle(ex);
+            throw graphDebug.handle(ex);
         }
     }
 
+    /**
+     * Parses and encodes the graphs of {@code methods} in parallel on {@code pool} so that they
+     * are readily available once decoding reaches a call to one of them. This must be called by
+     * the thread that uses this decoder, before decoding starts. Methods whose graph cannot be
+     * built are ignored here; they are parsed again on demand.
+     *
+     * @return the number of graphs that were built
+     */
+    public int prepareEncodedGraphs(Iterable<ResolvedJavaMethod> methods, ForkJoinPool pool) {
+        List<ResolvedJavaMethod> toBuild = new ArrayList<>();
+        for (ResolvedJavaMethod method : methods) {
+            if (graphCache.containsKey(method) || !method.hasBytecodes()) {
+                continue;
+            }
+            EncodedGraph shared = sharedGraphCache == null ? null : sharedGraphCache.get(method, null, sharedGraphCacheConfiguration);
+            if (shared != null) {
+                graphCache.put(method, shared);
+            } else {
+                toBuild.add(method);
+            }
+        }
+        if (toBuild.isEmpty()) {
+            return 0;
+        }
+
+        EncodedGraph[] results = new EncodedGraph[toBuild.size()];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            final int index = i;
+            tasks.add(pool.submit(() -> {
+                try {
+                    // DebugContext objects must not be shared between threads
+                    results[index] = buildGraph(toBuild.get(index), null, DebugContext.DISABLED);
+                } catch (Throwable t) {
+                    // the graph is built again on demand, reporting the error if it persists
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        int built = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                graphCache.put(toBuild.get(i), results[i]);
+                built++;
+            }
+        }
+        ParallelPreparedGraphs.add(debug, built);
+        return built;
+    }
+
     @Override
     protected EncodedGraph lookupEncodedGraph(ResolvedJavaMethod method, BytecodeProvider intrinsicBytecodeProvider) {
         EncodedGraph result = graphCache.get(method);
+        if (result == null && sharedGraphCache != null) {
+            result = sharedGraphCache.get(method, intrinsicBytecodeProvider, sharedGraphCacheConfiguration);
+            if (result != null) {
+                SharedGraphCacheHits.increment(debug);
+                graphCache.put(method, result);
+            } else {
+                SharedGraphCacheMisses.increment(debug);
+            }
+        }
         if (result == null && method.hasBytecodes()) {
             result = createGraph(method, intrinsicBytecodeProvider);
         }
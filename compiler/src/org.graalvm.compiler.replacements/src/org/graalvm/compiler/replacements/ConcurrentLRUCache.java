@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+/**
+ * A thread-safe cache with a bounded number of entries and approximate least recently used
+ * eviction.
+ * <p>
+ * Lookups do not lock and, unlike a {@link java.util.LinkedHashMap} in access order, do not
+ * modify a shared structure. Recency is tracked with an epoch that only advances when an entry is
+ * added; a lookup records the current epoch in the entry it finds, writing to the entry only if the
+ * epoch changed since the last lookup of that entry. Entries used in the same epoch are therefore
+ * indistinguishable for eviction, which is acceptable since misses are expected to be rare in
+ * steady state.
+ */
+public final class ConcurrentLRUCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        volatile long lastAccess;
+
+        Entry(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final int capacity;
+    private final ConcurrentHashMap<K, Entry<V>> entries;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong epoch = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity the maximum number of entries in the cache
+     */
+    public ConcurrentLRUCache(int capacity) {
+        assert capacity > 0;
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<>(capacity);
+    }
+
+    /**
+     * Gets the value cached for {@code key} or {@code null} if there is none.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        long current = epoch.get();
+        if (entry.lastAccess != current) {
+            entry.lastAccess = current;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Adds a value to the cache. If another thread concurrently added a value for the same key,
+     * that value is kept and returned instead of {@code value}.
+     */
+    public V putIfAbsent(K key, V value) {
+        return putIfAbsent(key, value, null);
+    }
+
+    /**
+     * Adds a value to the cache like {@link #putIfAbsent(Object, Object)} and reports the number of
+     * entries evicted by this call to {@code evicted}, if it is non-null and entries were evicted.
+     * Unlike the difference of two {@link #getEvictions()} reads, the reported number does not
+     * include evictions done concurrently by other threads.
+     */
+    public V putIfAbsent(K key, V value, IntConsumer evicted) {
+        Entry<V> existing = entries.putIfAbsent(key, new Entry<>(value, epoch.incrementAndGet()));
+        if (existing != null) {
+            return existing.value;
+        }
+        if (entries.size() > capacity) {
+            int count = evict();
+            if (count > 0 && evicted != null) {
+                evicted.accept(count);
+            }
+        }
+        return value;
+    }
+
+    private int evict() {
+        if (!evictionLock.tryLock()) {
+            // another thread is already evicting
+            return 0;
+        }
+        int count = 0;
+        try {
+            List<Map.Entry<K, Entry<V>>> candidates = new ArrayList<>(entries.entrySet());
+            candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            int excess = candidates.size() - capacity;
+            for (int i = 0; i < candidates.size() && excess > 0; i++) {
+                Map.Entry<K, Entry<V>> candidate = candidates.get(i);
+                if (entries.remove(candidate.getKey(), candidate.getValue())) {
+                    evictions.increment();
+                    count++;
+                    excess--;
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        return count;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConcurrentLRUCache(entries=%d/%d, hits=%d, misses=%d, evictions=%d)", size(), capacity, getHits(), getMisses(), getEvictions());
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.graalvm.compiler.bytecode.BytecodeProvider;
+import org.graalvm.compiler.nodes.EncodedGraph;
+import org.graalvm.compiler.nodes.GraphDecoder;
+
+import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * A thread-safe cache of {@link EncodedGraph}s that can be shared by many
+ * {@link CachingPEGraphDecoder}s, possibly running on different compiler threads.
+ * <p>
+ * Graphs are keyed on their method, the {@link BytecodeProvider} used for intrinsics and an opaque
+ * configuration object that must capture everything else that influences how a method is parsed
+ * (e.g. the graph builder configuration and the options). The cache is bounded by the approximate
+ * total size of the encoded graphs; once the bound is exceeded, the least recently used graphs are
+ * evicted.
+ */
+public final class EncodedGraphCache {
+
+    private static final class Key {
+        private final ResolvedJavaMethod method;
+        private final BytecodeProvider intrinsicBytecodeProvider;
+        private final Object configuration;
+
+        Key(ResolvedJavaMethod method, BytecodeProvider intrinsicBytecodeProvider, Object configuration) {
+            this.method = method;
+            this.intrinsicBytecodeProvider = intrinsicBytecodeProvider;
+            this.configuration = configuration;
+        }
+
+        @Override
+        public int hashCode() {
+            return method.hashCode() * 31 + configuration.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Key) {
+                Key other = (Key) obj;
+                return method.equals(other.method) && intrinsicBytecodeProvider == other.intrinsicBytecodeProvider && configuration.equals(other.configuration);
+            }
+            return false;
+        }
+    }
+
+    private static final class Entry {
+        final EncodedGraph graph;
+        final long size;
+        volatile long lastAccess;
+
+        Entry(EncodedGraph graph, long size, long lastAccess) {
+            this.graph = graph;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Fraction of the capacity to which the cache is shrunk once the capacity is exceeded, so that
+     * eviction does not run on every insertion of a full cache.
+     */
+    private static final double EVICTION_TARGET = 0.75;
+
+    private final Architecture architecture;
+    private final long capacity;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param capacity the maximum approximate total size in bytes of the cached graphs
+     */
+    public EncodedGraphCache(Architecture architecture, long capacity) {
+        this.architecture = architecture;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the cached graph for a method or {@code null} if there is none.
+     */
+    public EncodedGraph get(ResolvedJavaMethod method, BytecodeProvider intrinsicBytecodeProvider, Object configuration) {
+        Entry entry = entries.get(new Key(method, intrinsicBytecodeProvider, configuration));
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        entry.lastAccess = clock.incrementAndGet();
+        return entry.graph;
+    }
+
+    /**
+     * Adds a graph to the cache. If another thread concurrently added a graph for the same key,
+     * that graph is kept and returned instead of {@code graph}.
+     */
+    public EncodedGraph put(ResolvedJavaMethod method, BytecodeProvider intrinsicBytecodeProvider, Object configuration, EncodedGraph graph) {
+        GraphDecoder.prepareForConcurrentDecoding(graph, architecture);
+        Entry entry = new Entry(graph, sizeOf(graph), clock.incrementAndGet());
+        Entry existing = entries.putIfAbsent(new Key(method, intrinsicBytecodeProvider, configuration), entry);
+        if (existing != null) {
+            return existing.graph;
+        }
+        if (size.addAndGet(entry.size) > capacity) {
+            evict();
+        }
+        return graph;
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            // another thread is already evicting
+            return;
+        }
+        try {
+            List<Map.Entry<Key, Entry>> candidates = new ArrayList<>(entries.entrySet());
+            candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            long target = (long) (capacity * EVICTION_TARGET);
+            for (Map.Entry<Key, Entry> candidate : candidates) {
+                if (size.get() <= target) {
+                    break;
+                }
+                Entry entry = candidate.getValue();
+                if (entries.remove(candidate.getKey(), entry)) {
+                    size.addAndGet(-entry.size);
+                    evictions.incrementAndGet();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static long sizeOf(EncodedGraph graph) {
+        // the objects are mostly shared with other graphs, so only account for the references
+        return graph.getEncoding().length + 8L * graph.getObjects().length + 8L * graph.getNodeClasses().length;
+    }
+
+    public void clear() {
+        evictionLock.lock();
+        try {
+            entries.clear();
+            size.set(0);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the approximate total size in bytes of the cached graphs.
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EncodedGraphCache(entries=%d, size=%d/%d, hits=%d, misses=%d, evictions=%d)", getEntryCount(), getSize(), capacity, getHits(), getMisses(), getEvictions());
+    }
+}
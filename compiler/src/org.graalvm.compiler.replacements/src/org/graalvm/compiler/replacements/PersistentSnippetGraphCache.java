@@ -0,0 +1,900 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.graalvm.compiler.core.common.type.FloatStamp;
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.core.common.type.ObjectStamp;
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.debug.TTY;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodes.EncodedGraph;
+import org.graalvm.compiler.nodes.GraphDecoder;
+import org.graalvm.compiler.nodes.GraphEncoder;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.MetaAccessProvider;
+import jdk.vm.ci.meta.PrimitiveConstant;
+import jdk.vm.ci.meta.ResolvedJavaField;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+
+/**
+ * A file backed cache of prepared snippet and method substitution graphs that survives VM
+ * restarts, so that the graphs do not have to be parsed and prepared again before the first
+ * compilations of a new VM can finish.
+ * <p>
+ * Graphs are stored with the {@link GraphEncoder}. The objects referenced by an encoded graph are
+ * written symbolically: types, methods and fields by name, stamps and primitive constants by
+ * value, enums by name, providers by a registered name, and identity sensitive objects such as
+ * {@link LocationIdentity}s by the static final field that holds them. Values that differ between
+ * VM executions, such as the addresses of VM data structures folded into snippets, are written by
+ * a {@linkplain #registerRunSpecificValue registered name}. A graph that references any other
+ * object is not stored.
+ * <p>
+ * Every stored graph is validated against a digest of the bytecode of its method and of all
+ * methods inlined into it, so that a change to any of them discards the stored graph.
+ * <p>
+ * The file is keyed on a configuration string that must capture everything that influences the
+ * preparation of the graphs, e.g., the VM configuration, the compiler code and the options. A file
+ * with a different configuration or format version is ignored and replaced on {@link #save()}.
+ * Any failure to resolve or decode a stored graph falls back to parsing the graph.
+ */
+public class PersistentSnippetGraphCache {
+
+    private static final int MAGIC = 0x534E4743;
+    private static final int FORMAT_VERSION = 2;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_CONTEXT = 1;
+    private static final byte TAG_STRING = 2;
+    private static final byte TAG_BOXED = 3;
+    private static final byte TAG_ENUM = 4;
+    private static final byte TAG_PRIMITIVE_CONSTANT = 5;
+    private static final byte TAG_NULL_CONSTANT = 6;
+    private static final byte TAG_TYPE = 7;
+    private static final byte TAG_METHOD = 8;
+    private static final byte TAG_FIELD = 9;
+    private static final byte TAG_INTEGER_STAMP = 10;
+    private static final byte TAG_FLOAT_STAMP = 11;
+    private static final byte TAG_OBJECT_STAMP = 12;
+    private static final byte TAG_ARRAY_LOCATION = 13;
+    private static final byte TAG_PRIMITIVE_ARRAY = 14;
+    private static final byte TAG_OBJECT_ARRAY = 15;
+    private static final byte TAG_STATIC_FIELD = 16;
+    private static final byte TAG_CUSTOM = 17;
+    private static final byte TAG_RUN_SPECIFIC_CONSTANT = 18;
+    private static final byte TAG_RUN_SPECIFIC_STAMP = 19;
+
+    /**
+     * Constants within this distance of a {@linkplain #registerRunSpecificValue run specific value}
+     * are assumed to be derived from it, so graphs containing them are not stored.
+     */
+    private static final long RUN_SPECIFIC_DISTANCE = 1L << 16;
+
+    /**
+     * Thrown when an object referenced by a graph cannot be written symbolically.
+     */
+    protected static final class UnsupportedObjectException extends Exception {
+        private static final long serialVersionUID = -4036529627352440187L;
+
+        public UnsupportedObjectException(Object object) {
+            super(object.getClass().getName());
+        }
+    }
+
+    /**
+     * Thrown when a stored object cannot be resolved in the current VM.
+     */
+    protected static final class UnresolvedObjectException extends Exception {
+        private static final long serialVersionUID = 4316240290416331095L;
+
+        public UnresolvedObjectException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class StoredGraph {
+        /**
+         * The keys of the methods inlined into the graph. The graph's own method is not included.
+         */
+        final String[] dependencies;
+        final byte[] codeDigest;
+        final int startOffset;
+        final byte[] encoding;
+        final String[] nodeClassNames;
+        final byte[] objectData;
+
+        StoredGraph(String[] dependencies, byte[] codeDigest, int startOffset, byte[] encoding, String[] nodeClassNames, byte[] objectData) {
+            this.dependencies = dependencies;
+            this.codeDigest = codeDigest;
+            this.startOffset = startOffset;
+            this.encoding = encoding;
+            this.nodeClassNames = nodeClassNames;
+            this.objectData = objectData;
+        }
+    }
+
+    private final Path file;
+    private final String configuration;
+    private final Architecture architecture;
+    protected final MetaAccessProvider metaAccess;
+    private final ClassLoader classLoader;
+
+    private final ConcurrentHashMap<String, StoredGraph> graphs = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    private final Map<String, Object> contextObjects = new HashMap<>();
+    private final Map<Object, String> contextObjectNames = new IdentityHashMap<>();
+    private final Map<Object, String> staticFieldNames = new IdentityHashMap<>();
+    private final Set<Class<?>> scannedClasses = new HashSet<>();
+    private final Map<String, Long> runSpecificValues = new HashMap<>();
+    /**
+     * Maps run specific values to their names. A value registered under more than one name maps
+     * to {@code null} since it cannot be resolved unambiguously.
+     */
+    private final TreeMap<Long, String> runSpecificValueNames = new TreeMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong unsupported = new AtomicLong();
+
+    /**
+     * @param configuration identifies everything that influences the prepared graphs
+     * @param classLoader used to resolve the classes of stored types, node classes and fields
+     */
+    public PersistentSnippetGraphCache(Path file, String configuration, Architecture architecture, MetaAccessProvider metaAccess, ClassLoader classLoader) {
+        this.file = file;
+        this.configuration = configuration;
+        this.architecture = architecture;
+        this.metaAccess = metaAccess;
+        this.classLoader = classLoader;
+        registerContextObject("Stamp.void", StampFactory.forVoid());
+        registerContextObject("Stamp.illegal", StampFactory.forKind(JavaKind.Illegal));
+        registerHolderClass(LocationIdentity.class);
+        registerHolderClass(NamedLocationIdentity.class);
+    }
+
+    /**
+     * Registers an object that is referenced by graphs but exists once per VM, such as a provider.
+     */
+    public final synchronized void registerContextObject(String name, Object object) {
+        assert !contextObjects.containsKey(name) : name;
+        contextObjects.put(name, object);
+        contextObjectNames.put(object, name);
+    }
+
+    /**
+     * Registers a class whose static final fields hold objects that are compared by identity and
+     * can be referenced by graphs, such as {@link LocationIdentity}s. The declaring class of a
+     * snippet is implicitly registered.
+     */
+    public final synchronized void registerHolderClass(Class<?> holder) {
+        if (!scannedClasses.add(holder)) {
+            return;
+        }
+        for (Field field : holder.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers) && !field.getType().isPrimitive() && field.getType() != String.class) {
+                try {
+                    field.setAccessible(true);
+                    Object value = field.get(null);
+                    if (value != null && !staticFieldNames.containsKey(value)) {
+                        staticFieldNames.put(value, holder.getName() + "#" + field.getName());
+                    }
+                } catch (IllegalAccessException | RuntimeException e) {
+                    // not accessible, the objects of this field cannot be stored
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a value, such as the address of a VM data structure, that may be folded into
+     * graphs but differs between VM executions. Constants with this value are written as
+     * {@code name} and read back as the value registered under the same name in the reading VM.
+     * Small values are ignored as they cannot be told apart from ordinary constants.
+     */
+    public final synchronized void registerRunSpecificValue(String name, long value) {
+        assert !runSpecificValues.containsKey(name) : name;
+        if (Math.abs(value) < RUN_SPECIFIC_DISTANCE) {
+            return;
+        }
+        runSpecificValues.put(name, value);
+        if (runSpecificValueNames.containsKey(value)) {
+            runSpecificValueNames.put(value, null);
+        } else {
+            runSpecificValueNames.put(value, name);
+        }
+    }
+
+    /**
+     * Gets the name of the run specific value {@code value}.
+     *
+     * @return {@code null} if {@code value} is not close to any run specific value
+     * @throws UnsupportedObjectException if {@code value} cannot be written symbolically because it
+     *             is close to but not equal to a run specific value or it is ambiguous
+     */
+    private synchronized String lookupRunSpecificValue(long value, Object object) throws UnsupportedObjectException {
+        Map.Entry<Long, String> floor = runSpecificValueNames.floorEntry(value);
+        if (floor != null && floor.getKey() == value) {
+            if (floor.getValue() == null) {
+                throw new UnsupportedObjectException(object);
+            }
+            return floor.getValue();
+        }
+        Map.Entry<Long, String> ceiling = runSpecificValueNames.ceilingEntry(value);
+        // the differences are non-negative but may exceed the signed range
+        if ((floor != null && Long.compareUnsigned(value - floor.getKey(), RUN_SPECIFIC_DISTANCE) < 0) ||
+                        (ceiling != null && Long.compareUnsigned(ceiling.getKey() - value, RUN_SPECIFIC_DISTANCE) < 0)) {
+            throw new UnsupportedObjectException(object);
+        }
+        return null;
+    }
+
+    private synchronized long resolveRunSpecificValue(String name) throws UnresolvedObjectException {
+        Long value = runSpecificValues.get(name);
+        if (value == null) {
+            throw new UnresolvedObjectException("run specific value " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Loads the graphs stored by a previous VM. A missing, corrupted or incompatible file is
+     * ignored.
+     */
+    public void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(configuration)) {
+                return;
+            }
+            int count = in.readInt();
+            Map<String, StoredGraph> stored = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                String[] dependencies = new String[in.readInt()];
+                for (int j = 0; j < dependencies.length; j++) {
+                    dependencies[j] = in.readUTF();
+                }
+                byte[] codeDigest = new byte[in.readInt()];
+                in.readFully(codeDigest);
+                int startOffset = in.readInt();
+                byte[] encoding = new byte[in.readInt()];
+                in.readFully(encoding);
+                String[] nodeClassNames = new String[in.readInt()];
+                for (int j = 0; j < nodeClassNames.length; j++) {
+                    nodeClassNames[j] = in.readUTF();
+                }
+                byte[] objectData = new byte[in.readInt()];
+                in.readFully(objectData);
+                stored.put(key, new StoredGraph(dependencies, codeDigest, startOffset, encoding, nodeClassNames, objectData));
+            }
+            graphs.putAll(stored);
+        } catch (IOException | RuntimeException e) {
+            TTY.println("Warning: ignoring snippet graph cache %s: %s", file, e);
+        }
+    }
+
+    /**
+     * Writes the graphs of this cache to the file if any graph was added or dropped since the file
+     * was {@linkplain #load() loaded}. The file is replaced atomically where supported so that
+     * concurrently starting VMs never observe a partially written file.
+     */
+    public synchronized void save() {
+        if (!modified) {
+            return;
+        }
+        Path tmp = null;
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(configuration);
+                Map<String, StoredGraph> snapshot = new HashMap<>(graphs);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, StoredGraph> entry : snapshot.entrySet()) {
+                    StoredGraph stored = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(stored.dependencies.length);
+                    for (String dependency : stored.dependencies) {
+                        out.writeUTF(dependency);
+                    }
+                    out.writeInt(stored.codeDigest.length);
+                    out.write(stored.codeDigest);
+                    out.writeInt(stored.startOffset);
+                    out.writeInt(stored.encoding.length);
+                    out.write(stored.encoding);
+                    out.writeInt(stored.nodeClassNames.length);
+                    for (String name : stored.nodeClassNames) {
+                        out.writeUTF(name);
+                    }
+                    out.writeInt(stored.objectData.length);
+                    out.write(stored.objectData);
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+            modified = false;
+        } catch (IOException e) {
+            TTY.println("Warning: could not write snippet graph cache %s: %s", file, e);
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    // best effort
+                }
+            }
+        }
+    }
+
+    private static String key(ResolvedJavaMethod method) {
+        return method.getDeclaringClass().getName() + "." + method.getName() + method.getSignature().toMethodDescriptor();
+    }
+
+    /**
+     * Computes a digest of the bytecode of {@code method} and the methods inlined into its graph.
+     */
+    private static byte[] codeDigest(ResolvedJavaMethod method, List<ResolvedJavaMethod> inlinedMethods) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            updateCodeDigest(digest, method);
+            for (ResolvedJavaMethod inlined : inlinedMethods) {
+                updateCodeDigest(digest, inlined);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new GraalError(e);
+        }
+    }
+
+    private static void updateCodeDigest(MessageDigest digest, ResolvedJavaMethod method) {
+        byte[] code = method.getCode();
+        digest.update(key(method).getBytes(StandardCharsets.UTF_8));
+        int length = code == null ? -1 : code.length;
+        digest.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+        if (code != null) {
+            digest.update(code);
+        }
+    }
+
+    /**
+     * Resolves a method from its {@linkplain #key(ResolvedJavaMethod) key}.
+     */
+    private ResolvedJavaMethod resolveMethod(String key) throws ReflectiveOperationException, UnresolvedObjectException {
+        int typeEnd = key.indexOf(';');
+        int descriptorStart = key.indexOf('(', typeEnd);
+        if (typeEnd < 0 || descriptorStart < 0) {
+            throw new UnresolvedObjectException("method " + key);
+        }
+        ResolvedJavaType type = lookupType(key.substring(0, typeEnd + 1));
+        return lookupMethod(type, key.substring(typeEnd + 2, descriptorStart), key.substring(descriptorStart));
+    }
+
+    /**
+     * Gets a new graph for {@code method} decoded from the stored graph, or {@code null} if there
+     * is no stored graph or it cannot be decoded in this VM.
+     */
+    public StructuredGraph lookup(ResolvedJavaMethod method, OptionValues options, DebugContext debug) {
+        String key = key(method);
+        StoredGraph stored = graphs.get(key);
+        if (stored == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        try {
+            List<ResolvedJavaMethod> inlinedMethods = new ArrayList<>(stored.dependencies.length);
+            for (String dependency : stored.dependencies) {
+                inlinedMethods.add(resolveMethod(dependency));
+            }
+            if (!Arrays.equals(stored.codeDigest, codeDigest(method, inlinedMethods))) {
+                throw new UnresolvedObjectException("bytecode of " + key + " or a method inlined into it changed");
+            }
+            NodeClass<?>[] nodeClasses = new NodeClass<?>[stored.nodeClassNames.length];
+            for (int i = 0; i < nodeClasses.length; i++) {
+                nodeClasses[i] = NodeClass.get(Class.forName(stored.nodeClassNames[i], false, classLoader));
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(stored.objectData));
+            Object[] objects = new Object[in.readInt()];
+            for (int i = 0; i < objects.length; i++) {
+                objects[i] = readObject(in);
+            }
+            EncodedGraph encodedGraph = new EncodedGraph(stored.encoding, stored.startOffset, objects, nodeClasses, null, null);
+            StructuredGraph graph = new StructuredGraph.Builder(options, debug).method(method).build();
+            graph.disableUnsafeAccessTracking();
+            new GraphDecoder(architecture, graph).decode(encodedGraph);
+            graph.verify();
+            hits.incrementAndGet();
+            return graph;
+        } catch (IOException | ReflectiveOperationException | UnresolvedObjectException | RuntimeException | GraalError e) {
+            failures.incrementAndGet();
+            if (graphs.remove(key, stored)) {
+                modified = true;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Stores a prepared graph for {@code method} unless a graph is already stored or the graph
+     * references objects that cannot be written symbolically.
+     *
+     * @param inlinedMethods the methods inlined while preparing {@code graph}
+     */
+    public void record(ResolvedJavaMethod method, StructuredGraph graph, Collection<ResolvedJavaMethod> inlinedMethods) {
+        String key = key(method);
+        if (graphs.containsKey(key)) {
+            return;
+        }
+        EncodedGraph encodedGraph = GraphEncoder.encodeSingleGraph(graph, architecture);
+        Class<?> holder = null;
+        try {
+            holder = Class.forName(toClassName(method.getDeclaringClass().getName()), false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            // static fields of the snippet class cannot be referenced
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            Object[] objects = encodedGraph.getObjects();
+            out.writeInt(objects.length);
+            for (Object object : objects) {
+                writeObject(out, object, holder);
+            }
+            out.flush();
+            NodeClass<?>[] nodeClasses = encodedGraph.getNodeClasses();
+            String[] nodeClassNames = new String[nodeClasses.length];
+            for (int i = 0; i < nodeClasses.length; i++) {
+                nodeClassNames[i] = nodeClasses[i].getJavaClass().getName();
+            }
+            List<ResolvedJavaMethod> dependencies = new ArrayList<>(new LinkedHashSet<>(inlinedMethods));
+            dependencies.remove(method);
+            String[] dependencyKeys = new String[dependencies.size()];
+            for (int i = 0; i < dependencyKeys.length; i++) {
+                dependencyKeys[i] = key(dependencies.get(i));
+            }
+            StoredGraph stored = new StoredGraph(dependencyKeys, codeDigest(method, dependencies), encodedGraph.getStartOffset(), encodedGraph.getEncoding(), nodeClassNames,
+                            bytes.toByteArray());
+            if (graphs.putIfAbsent(key, stored) == null) {
+                modified = true;
+            }
+        } catch (UnsupportedObjectException e) {
+            unsupported.incrementAndGet();
+        } catch (IOException e) {
+            throw new GraalError(e);
+        }
+    }
+
+    private void writeObject(DataOutputStream out, Object object, Class<?> holder) throws IOException, UnsupportedObjectException {
+        String contextName;
+        synchronized (this) {
+            contextName = contextObjectNames.get(object);
+        }
+        if (object == null) {
+            out.writeByte(TAG_NULL);
+        } else if (contextName != null) {
+            out.writeByte(TAG_CONTEXT);
+            out.writeUTF(contextName);
+        } else if (object instanceof String) {
+            out.writeByte(TAG_STRING);
+            out.writeUTF((String) object);
+        } else if (object instanceof Enum) {
+            out.writeByte(TAG_ENUM);
+            out.writeUTF(((Enum<?>) object).getDeclaringClass().getName());
+            out.writeUTF(((Enum<?>) object).name());
+        } else if (isBoxedPrimitive(object)) {
+            out.writeByte(TAG_BOXED);
+            writePrimitive(out, JavaConstant.forBoxedPrimitive(object));
+        } else if (object instanceof PrimitiveConstant) {
+            PrimitiveConstant constant = (PrimitiveConstant) object;
+            String runSpecificName = constant.getJavaKind().isNumericInteger() ? lookupRunSpecificValue(constant.asLong(), object) : null;
+            if (runSpecificName != null) {
+                out.writeByte(TAG_RUN_SPECIFIC_CONSTANT);
+                out.writeChar(constant.getJavaKind().getTypeChar());
+                out.writeUTF(runSpecificName);
+            } else {
+                out.writeByte(TAG_PRIMITIVE_CONSTANT);
+                writePrimitive(out, constant);
+            }
+        } else if (object == JavaConstant.NULL_POINTER) {
+            out.writeByte(TAG_NULL_CONSTANT);
+        } else if (object instanceof ResolvedJavaType) {
+            out.writeByte(TAG_TYPE);
+            out.writeUTF(((ResolvedJavaType) object).getName());
+        } else if (object instanceof ResolvedJavaMethod) {
+            ResolvedJavaMethod method = (ResolvedJavaMethod) object;
+            out.writeByte(TAG_METHOD);
+            out.writeUTF(method.getDeclaringClass().getName());
+            out.writeUTF(method.getName());
+            out.writeUTF(method.getSignature().toMethodDescriptor());
+        } else if (object instanceof ResolvedJavaField) {
+            ResolvedJavaField field = (ResolvedJavaField) object;
+            out.writeByte(TAG_FIELD);
+            out.writeUTF(field.getDeclaringClass().getName());
+            out.writeUTF(field.getName());
+            out.writeBoolean(field.isStatic());
+        } else if (object instanceof IntegerStamp) {
+            IntegerStamp stamp = (IntegerStamp) object;
+            String runSpecificName = stamp.hasValues() ? lookupRunSpecificValue(stamp.lowerBound(), object) : null;
+            if (runSpecificName != null) {
+                if (stamp.asConstant() == null) {
+                    // a range derived from a run specific value cannot be stored
+                    throw new UnsupportedObjectException(object);
+                }
+                out.writeByte(TAG_RUN_SPECIFIC_STAMP);
+                out.writeInt(stamp.getBits());
+                out.writeUTF(runSpecificName);
+                return;
+            }
+            if (stamp.hasValues()) {
+                lookupRunSpecificValue(stamp.upperBound(), object);
+            }
+            out.writeByte(TAG_INTEGER_STAMP);
+            out.writeInt(stamp.getBits());
+            out.writeBoolean(stamp.hasValues());
+            out.writeLong(stamp.lowerBound());
+            out.writeLong(stamp.upperBound());
+            out.writeLong(stamp.downMask());
+            out.writeLong(stamp.upMask());
+        } else if (object instanceof FloatStamp) {
+            FloatStamp stamp = (FloatStamp) object;
+            out.writeByte(TAG_FLOAT_STAMP);
+            out.writeInt(stamp.getBits());
+            out.writeDouble(stamp.lowerBound());
+            out.writeDouble(stamp.upperBound());
+            out.writeBoolean(stamp.isNonNaN());
+        } else if (object.getClass() == ObjectStamp.class) {
+            ObjectStamp stamp = (ObjectStamp) object;
+            out.writeByte(TAG_OBJECT_STAMP);
+            writeObject(out, stamp.type(), holder);
+            out.writeBoolean(stamp.isExactType());
+            out.writeBoolean(stamp.nonNull());
+            out.writeBoolean(stamp.alwaysNull());
+        } else if (object instanceof LocationIdentity && arrayLocationKind(object) != null) {
+            out.writeByte(TAG_ARRAY_LOCATION);
+            out.writeChar(arrayLocationKind(object).getTypeChar());
+        } else if (object.getClass().isArray() && object.getClass().getComponentType().isPrimitive()) {
+            JavaKind kind = JavaKind.fromJavaClass(object.getClass().getComponentType());
+            int length = Array.getLength(object);
+            out.writeByte(TAG_PRIMITIVE_ARRAY);
+            out.writeChar(kind.getTypeChar());
+            out.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                writePrimitive(out, JavaConstant.forBoxedPrimitive(Array.get(object, i)));
+            }
+        } else if (object instanceof Object[] && lookupStaticField(object, holder) == null) {
+            Object[] array = (Object[]) object;
+            out.writeByte(TAG_OBJECT_ARRAY);
+            out.writeUTF(array.getClass().getComponentType().getName());
+            out.writeInt(array.length);
+            for (Object element : array) {
+                writeObject(out, element, holder);
+            }
+        } else {
+            ByteArrayOutputStream custom = new ByteArrayOutputStream();
+            DataOutputStream customOut = new DataOutputStream(custom);
+            if (writeCustomObject(customOut, object)) {
+                customOut.flush();
+                out.writeByte(TAG_CUSTOM);
+                out.write(custom.toByteArray());
+                return;
+            }
+            String staticField = lookupStaticField(object, holder);
+            if (staticField == null) {
+                throw new UnsupportedObjectException(object);
+            }
+            out.writeByte(TAG_STATIC_FIELD);
+            out.writeUTF(staticField);
+        }
+    }
+
+    private Object readObject(DataInputStream in) throws IOException, ReflectiveOperationException, UnresolvedObjectException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_CONTEXT: {
+                String name = in.readUTF();
+                synchronized (this) {
+                    if (!contextObjects.containsKey(name)) {
+                        throw new UnresolvedObjectException("context object " + name);
+                    }
+                    return contextObjects.get(name);
+                }
+            }
+            case TAG_STRING:
+                return in.readUTF();
+            case TAG_ENUM: {
+                Class<?> enumClass = Class.forName(in.readUTF(), false, classLoader);
+                String name = in.readUTF();
+                for (Object constant : enumClass.getEnumConstants()) {
+                    if (((Enum<?>) constant).name().equals(name)) {
+                        return constant;
+                    }
+                }
+                throw new UnresolvedObjectException("enum constant " + enumClass.getName() + "." + name);
+            }
+            case TAG_BOXED:
+                return readPrimitive(in).asBoxedPrimitive();
+            case TAG_PRIMITIVE_CONSTANT:
+                return readPrimitive(in);
+            case TAG_NULL_CONSTANT:
+                return JavaConstant.NULL_POINTER;
+            case TAG_TYPE:
+                return lookupType(in.readUTF());
+            case TAG_METHOD: {
+                ResolvedJavaType type = lookupType(in.readUTF());
+                String name = in.readUTF();
+                String descriptor = in.readUTF();
+                return lookupMethod(type, name, descriptor);
+            }
+            case TAG_FIELD: {
+                ResolvedJavaType type = lookupType(in.readUTF());
+                String name = in.readUTF();
+                boolean isStatic = in.readBoolean();
+                for (ResolvedJavaField field : isStatic ? type.getStaticFields() : type.getInstanceFields(false)) {
+                    if (field.getName().equals(name)) {
+                        return field;
+                    }
+                }
+                throw new UnresolvedObjectException("field " + type.getName() + "." + name);
+            }
+            case TAG_INTEGER_STAMP: {
+                int bits = in.readInt();
+                boolean hasValues = in.readBoolean();
+                long lowerBound = in.readLong();
+                long upperBound = in.readLong();
+                long downMask = in.readLong();
+                long upMask = in.readLong();
+                return hasValues ? IntegerStamp.create(bits, lowerBound, upperBound, downMask, upMask) : StampFactory.forInteger(bits).empty();
+            }
+            case TAG_FLOAT_STAMP: {
+                int bits = in.readInt();
+                double lowerBound = in.readDouble();
+                double upperBound = in.readDouble();
+                return new FloatStamp(bits, lowerBound, upperBound, in.readBoolean());
+            }
+            case TAG_OBJECT_STAMP: {
+                ResolvedJavaType type = (ResolvedJavaType) readObject(in);
+                boolean exactType = in.readBoolean();
+                boolean nonNull = in.readBoolean();
+                return new ObjectStamp(type, exactType, nonNull, in.readBoolean());
+            }
+            case TAG_ARRAY_LOCATION:
+                return NamedLocationIdentity.getArrayLocation(JavaKind.fromPrimitiveOrVoidTypeChar(in.readChar()));
+            case TAG_PRIMITIVE_ARRAY: {
+                JavaKind kind = JavaKind.fromPrimitiveOrVoidTypeChar(in.readChar());
+                Object array = Array.newInstance(kind.toJavaClass(), in.readInt());
+                for (int i = 0; i < Array.getLength(array); i++) {
+                    Array.set(array, i, readPrimitive(in).asBoxedPrimitive());
+                }
+                return array;
+            }
+            case TAG_OBJECT_ARRAY: {
+                Class<?> componentType = Class.forName(in.readUTF(), false, classLoader);
+                Object[] array = (Object[]) Array.newInstance(componentType, in.readInt());
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = readObject(in);
+                }
+                return array;
+            }
+            case TAG_STATIC_FIELD: {
+                String name = in.readUTF();
+                int separator = name.indexOf('#');
+                Field field = Class.forName(name.substring(0, separator), true, classLoader).getDeclaredField(name.substring(separator + 1));
+                if (!Modifier.isStatic(field.getModifiers()) || !Modifier.isFinal(field.getModifiers())) {
+                    throw new UnresolvedObjectException("static final field " + name);
+                }
+                field.setAccessible(true);
+                return field.get(null);
+            }
+            case TAG_CUSTOM:
+                return readCustomObject(in);
+            case TAG_RUN_SPECIFIC_CONSTANT: {
+                JavaKind kind = JavaKind.fromPrimitiveOrVoidTypeChar(in.readChar());
+                return JavaConstant.forIntegerKind(kind, resolveRunSpecificValue(in.readUTF()));
+            }
+            case TAG_RUN_SPECIFIC_STAMP: {
+                int bits = in.readInt();
+                long value = resolveRunSpecificValue(in.readUTF());
+                return StampFactory.forInteger(bits, value, value);
+            }
+            default:
+                throw new IOException("unknown tag " + tag);
+        }
+    }
+
+    /**
+     * Writes an object the generic encoding does not support.
+     *
+     * @return {@code false} if the object is not supported by this cache either
+     */
+    @SuppressWarnings("unused")
+    protected boolean writeCustomObject(DataOutputStream out, Object object) throws IOException {
+        return false;
+    }
+
+    /**
+     * Reads an object written by {@link #writeCustomObject}.
+     */
+    protected Object readCustomObject(DataInputStream in) throws IOException, UnresolvedObjectException {
+        throw new IOException("no custom objects in " + getClass().getName());
+    }
+
+    private synchronized String lookupStaticField(Object object, Class<?> holder) {
+        if (holder != null) {
+            registerHolderClass(holder);
+        }
+        return staticFieldNames.get(object);
+    }
+
+    private static boolean isBoxedPrimitive(Object object) {
+        return object instanceof Boolean || object instanceof Byte || object instanceof Short || object instanceof Character || object instanceof Integer || object instanceof Long ||
+                        object instanceof Float || object instanceof Double;
+    }
+
+    private static JavaKind arrayLocationKind(Object location) {
+        for (JavaKind kind : JavaKind.values()) {
+            if ((kind.isPrimitive() || kind == JavaKind.Object) && kind != JavaKind.Void && NamedLocationIdentity.getArrayLocation(kind) == location) {
+                return kind;
+            }
+        }
+        return null;
+    }
+
+    private static void writePrimitive(DataOutputStream out, PrimitiveConstant constant) throws IOException {
+        JavaKind kind = constant.getJavaKind();
+        out.writeChar(kind.getTypeChar());
+        switch (kind) {
+            case Boolean:
+                out.writeLong(constant.asBoolean() ? 1 : 0);
+                break;
+            case Float:
+                out.writeLong(Float.floatToRawIntBits(constant.asFloat()));
+                break;
+            case Double:
+                out.writeLong(Double.doubleToRawLongBits(constant.asDouble()));
+                break;
+            default:
+                out.writeLong(constant.asLong());
+                break;
+        }
+    }
+
+    private static PrimitiveConstant readPrimitive(DataInputStream in) throws IOException {
+        JavaKind kind = JavaKind.fromPrimitiveOrVoidTypeChar(in.readChar());
+        return JavaConstant.forPrimitive(kind, in.readLong());
+    }
+
+    private static String toClassName(String typeName) {
+        if (typeName.startsWith("[")) {
+            return typeName.replace('/', '.');
+        }
+        return typeName.substring(1, typeName.length() - 1).replace('/', '.');
+    }
+
+    protected ResolvedJavaType lookupType(String typeName) throws ClassNotFoundException {
+        if (typeName.length() == 1) {
+            return metaAccess.lookupJavaType(JavaKind.fromPrimitiveOrVoidTypeChar(typeName.charAt(0)).toJavaClass());
+        }
+        return metaAccess.lookupJavaType(Class.forName(toClassName(typeName), false, classLoader));
+    }
+
+    private static ResolvedJavaMethod lookupMethod(ResolvedJavaType type, String name, String descriptor) throws UnresolvedObjectException {
+        if (name.equals("<clinit>")) {
+            ResolvedJavaMethod initializer = type.getClassInitializer();
+            if (initializer != null) {
+                return initializer;
+            }
+        }
+        for (ResolvedJavaMethod method : name.equals("<init>") ? type.getDeclaredConstructors() : type.getDeclaredMethods()) {
+            if (method.getName().equals(name) && method.getSignature().toMethodDescriptor().equals(descriptor)) {
+                return method;
+            }
+        }
+        throw new UnresolvedObjectException("method " + type.getName() + "." + name + descriptor);
+    }
+
+    public int getGraphCount() {
+        return graphs.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of stored graphs that could not be decoded and were dropped.
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Gets the number of graphs that could not be stored.
+     */
+    public long getUnsupported() {
+        return unsupported.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PersistentSnippetGraphCache(%s, graphs=%d, hits=%d, misses=%d, failures=%d, unsupported=%d)", file, getGraphCount(), getHits(), getMisses(), getFailures(),
+                        getUnsupported());
+    }
+}
@@ -30,6 +30,7 @@ import static org.graalvm.compiler.nodes.graphbuilderconf.InlineInvokePlugin.Inl
 import static org.graalvm.compiler.nodes.graphbuilderconf.IntrinsicContext.CompilationContext.INLINE_AFTER_PARSING;
 import static org.graalvm.compiler.phases.common.DeadCodeEliminationPhase.Optionality.Required;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -115,6 +116,19 @@ public class ReplacementsImpl implements Replacements, InlineInvokePlugin {
      */
     protected final BytecodeProvider defaultBytecodeProvider;
 
+    /**
+     * Optional cache from which {@link #graphs} are initialized across VM executions.
+     */
+    private volatile PersistentSnippetGraphCache persistentGraphCache;
+
+    public void setPersistentGraphCache(PersistentSnippetGraphCache persistentGraphCache) {
+        this.persistentGraphCache = persistentGraphCache;
+    }
+
+    public PersistentSnippetGraphCache getPersistentGraphCache() {
+        return persistentGraphCache;
+    }
+
     public void setGraphBuilderPlugins(GraphBuilderConfiguration.Plugins plugins) {
         assert this.graphBuilderPlugins == null;
         this.graphBuilderPlugins = plugins;
@@ -225,11 +239,13 @@ public class ReplacementsImpl implements Replacements, InlineInvokePlugin {
         if (graph == null) {
             try (DebugContext debug = openDebugContext("Snippet_", method);
                             DebugCloseable a = SnippetPreparationTime.start(debug)) {
-                StructuredGraph newGraph = makeGraph(debug, defaultBytecodeProvider, method, args, recursiveEntry);
-                DebugContext.counter("SnippetNodeCount[%#s]", method).add(newGraph.getDebug(), newGraph.getNodeCount());
                 if (!UseSnippetGraphCache.getValue(options) || args != null) {
+                    StructuredGraph newGraph = makeGraph(debug, defaultBytecodeProvider, method, args, recursiveEntry);
+                    DebugContext.counter("SnippetNodeCount[%#s]", method).add(newGraph.getDebug(), newGraph.getNodeCount());
                     return newGraph;
                 }
+                StructuredGraph newGraph = makePersistentGraph(debug, defaultBytecodeProvider, method, recursiveEntry);
+                DebugContext.counter("SnippetNodeCount[%#s]", method).add(newGraph.getDebug(), newGraph.getNodeCount());
                 newGraph.freeze();
                 graphs.putIfAbsent(method, newGraph);
                 graph = graphs.get(method);
@@ -238,6 +254,29 @@ public class ReplacementsImpl implements Replacements, InlineInvokePlugin {
         return graph;
     }
 
+    /**
+     * Gets a prepared graph for a replacement without constant arguments from the
+     * {@linkplain #setPersistentGraphCache persistent cache} or creates it and records it in the
+     * cache.
+     */
+    private StructuredGraph makePersistentGraph(DebugContext debug, BytecodeProvider bytecodeProvider, ResolvedJavaMethod method, ResolvedJavaMethod original) {
+        PersistentSnippetGraphCache cache = persistentGraphCache;
+        if (cache != null) {
+            StructuredGraph graph = cache.lookup(method, options, debug);
+            if (graph != null) {
+                return graph;
+            }
+        }
+        GraphMaker graphMaker = createGraphMaker(method, original);
+        List<ResolvedJavaMethod> inlinedMethods = cache != null ? new ArrayList<>() : null;
+        graphMaker.recordInlinedMethods(inlinedMethods);
+        StructuredGraph graph = graphMaker.makeGraph(debug, bytecodeProvider, null);
+        if (cache != null) {
+            cache.record(method, graph, inlinedMethods);
+        }
+        return graph;
+    }
+
     @Override
     public void registerSnippet(ResolvedJavaMethod method) {
         // No initialization needed as snippet graphs are created on demand in getSnippet
@@ -277,7 +316,7 @@ public class ReplacementsImpl implements Replacements, InlineInvokePlugin {
                 StructuredGraph graph = graphs.get(substitute);
                 if (graph == null) {
                     try (DebugContext debug = openDebugContext("Substitution_", method)) {
-                        graph = makeGraph(debug, msPlugin.getBytecodeProvider(), substitute, null, method);
+                        graph = makePersistentGraph(debug, msPlugin.getBytecodeProvider(), substitute, method);
                         graph.freeze();
                         graphs.putIfAbsent(substitute, graph);
                         graph = graphs.get(substitute);
@@ -340,12 +379,25 @@ public class ReplacementsImpl implements Replacements, InlineInvokePlugin {
          */
         protected final ResolvedJavaMethod substitutedMethod;
 
+        /**
+         * If non-null, the methods inlined while building graphs are added to this list.
+         */
+        private List<ResolvedJavaMethod> inlinedMethods;
+
         protected GraphMaker(ReplacementsImpl replacements, ResolvedJavaMethod substitute, ResolvedJavaMethod substitutedMethod) {
             this.replacements = replacements;
             this.method = substitute;
             this.substitutedMethod = substitutedMethod;
         }
 
+        /**
+         * Records the methods inlined while building graphs with this object in
+         * {@code methods}.
+         */
+        public void recordInlinedMethods(List<ResolvedJavaMethod> methods) {
+            this.inlinedMethods = methods;
+        }
+
         @SuppressWarnings("try")
         public StructuredGraph makeGraph(DebugContext debug, BytecodeProvider bytecodeProvider, Object[] args) {
             try (DebugContext.Scope s = debug.scope("BuildSnippetGraph", method)) {
@@ -431,6 +483,15 @@ public class ReplacementsImpl implements Replacements, InlineInvokePlugin {
                 if (args != null) {
                     plugins.prependParameterPlugin(new ConstantBindingParameterPlugin(args, metaAccess, replacements.snippetReflection));
                 }
+                if (inlinedMethods != null) {
+                    List<ResolvedJavaMethod> methods = inlinedMethods;
+                    plugins.prependInlineInvokePlugin(new InlineInvokePlugin() {
+                        @Override
+                        public void notifyBeforeInline(ResolvedJavaMethod methodToInline) {
+                            methods.add(methodToInline);
+                        }
+                    });
+                }
 
                 IntrinsicContext initialIntrinsicContext = null;
                 if (method.getAnnotation(Snippet.class) == null) {
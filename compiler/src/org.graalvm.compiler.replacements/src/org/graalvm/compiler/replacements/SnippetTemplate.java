@@ -40,9 +40,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Formattable;
 import java.util.Formatter;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
@@ -565,6 +563,9 @@ public class SnippetTemplate {
 
     private static final TimerKey SnippetTemplateCreationTime = DebugContext.timer("SnippetTemplateCreationTime");
     private static final CounterKey SnippetTemplates = DebugContext.counter("SnippetTemplateCount");
+    private static final CounterKey SnippetTemplateCacheHits = DebugContext.counter("SnippetTemplateCacheHits");
+    private static final CounterKey SnippetTemplateCacheMisses = DebugContext.counter("SnippetTemplateCacheMisses");
+    private static final CounterKey SnippetTemplateCacheEvictions = DebugContext.counter("SnippetTemplateCacheEvictions");
 
     static class Options {
         @Option(help = "Use a LRU cache for snippet templates.")//
@@ -584,7 +585,7 @@ public class SnippetTemplate {
         protected final SnippetReflectionProvider snippetReflection;
         protected final Iterable<DebugHandlersFactory> factories;
         protected final TargetDescription target;
-        private final Map<CacheKey, SnippetTemplate> templates;
+        private final ConcurrentLRUCache<CacheKey, SnippetTemplate> templates;
 
         protected AbstractTemplates(OptionValues options, Iterable<DebugHandlersFactory> factories, Providers providers, SnippetReflectionProvider snippetReflection, TargetDescription target) {
             this.options = options;
@@ -594,7 +595,7 @@ public class SnippetTemplate {
             this.factories = factories;
             if (Options.UseSnippetTemplateCache.getValue(options)) {
                 int size = Options.MaxTemplatesPerSnippet.getValue(options);
-                this.templates = Collections.synchronizedMap(new LRUCache<>(size, size));
+                this.templates = new ConcurrentLRUCache<>(size);
             } else {
                 this.templates = null;
             }
@@ -645,14 +646,24 @@ public class SnippetTemplate {
          */
         @SuppressWarnings("try")
         protected SnippetTemplate template(DebugContext outer, final Arguments args) {
-            SnippetTemplate template = Options.UseSnippetTemplateCache.getValue(options) && args.cacheable ? templates.get(args.cacheKey) : null;
+            boolean useCache = Options.UseSnippetTemplateCache.getValue(options) && args.cacheable;
+            SnippetTemplate template = null;
+            if (useCache) {
+                template = templates.get(args.cacheKey);
+                if (template != null) {
+                    SnippetTemplateCacheHits.increment(outer);
+                } else {
+                    SnippetTemplateCacheMisses.increment(outer);
+                }
+            }
             if (template == null) {
                 try (DebugContext debug = openDebugContext(outer, args)) {
                     try (DebugCloseable a = SnippetTemplateCreationTime.start(debug); DebugContext.Scope s = debug.scope("SnippetSpecialization", args.info.method)) {
                         SnippetTemplates.increment(debug);
                         template = new SnippetTemplate(options, debug, providers, snippetReflection, args);
-                        if (Options.UseSnippetTemplateCache.getValue(options) && args.cacheable) {
-                            templates.put(args.cacheKey, template);
+                        if (useCache) {
+                            // keep the template of a thread that concurrently created one
+                            template = templates.putIfAbsent(args.cacheKey, template, evicted -> SnippetTemplateCacheEvictions.add(outer, evicted));
                         }
                     } catch (Throwable e) {
                         throw debug.handle(e);
@@ -663,21 +674,6 @@ public class SnippetTemplate {
         }
     }
 
-    private static final class LRUCache<K, V> extends LinkedHashMap<K, V> {
-        private static final long serialVersionUID = 1L;
-        private final int maxCacheSize;
-
-        LRUCache(int initialCapacity, int maxCacheSize) {
-            super(initialCapacity, 0.75F, true);
-            this.maxCacheSize = maxCacheSize;
-        }
-
-        @Override
-        protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
-            return size() > maxCacheSize;
-        }
-    }
-
     // These values must be compared with equals() not '==' to support replay compilation.
     private static final Object UNUSED_PARAMETER = "UNUSED_PARAMETER";
     private static final Object CONSTANT_PARAMETER = "CONSTANT_PARAMETER";
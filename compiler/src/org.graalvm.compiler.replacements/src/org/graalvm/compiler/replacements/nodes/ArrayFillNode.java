@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.nodes;
+
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_1024;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_64;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.memory.AbstractMemoryCheckpoint;
+import org.graalvm.compiler.nodes.memory.MemoryCheckpoint;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+
+// JaCoCo Exclude
+
+/**
+ * Stores a value into the first {@code length} elements of a primitive array.
+ */
+@NodeInfo(cycles = CYCLES_1024, size = SIZE_64)
+public final class ArrayFillNode extends AbstractMemoryCheckpoint implements LIRLowerable, MemoryCheckpoint.Single {
+
+    public static final NodeClass<ArrayFillNode> TYPE = NodeClass.create(ArrayFillNode.class);
+    /** {@link JavaKind} of the array to fill. */
+    protected final JavaKind kind;
+
+    @Input ValueNode array;
+
+    /** Number of elements to store; must not exceed the length of the array. */
+    @Input ValueNode length;
+
+    /** Value to store, as an int for the sub-word kinds. */
+    @Input ValueNode value;
+
+    public ArrayFillNode(ValueNode array, ValueNode length, ValueNode value, @ConstantNodeParameter JavaKind kind) {
+        super(TYPE, StampFactory.forVoid());
+        this.kind = kind;
+        this.array = array;
+        this.length = length;
+        this.value = value;
+    }
+
+    @NodeIntrinsic
+    public static native void fill(Object array, int length, int value, @ConstantNodeParameter JavaKind kind);
+
+    @NodeIntrinsic
+    public static native void fill(Object array, int length, long value, @ConstantNodeParameter JavaKind kind);
+
+    public static void fill(byte[] array, int length, byte value) {
+        fill(array, length, value, JavaKind.Byte);
+    }
+
+    public static void fill(boolean[] array, int length, boolean value) {
+        fill(array, length, value ? 1 : 0, JavaKind.Boolean);
+    }
+
+    public static void fill(char[] array, int length, char value) {
+        fill(array, length, value, JavaKind.Char);
+    }
+
+    public static void fill(short[] array, int length, short value) {
+        fill(array, length, value, JavaKind.Short);
+    }
+
+    public static void fill(int[] array, int length, int value) {
+        fill(array, length, value, JavaKind.Int);
+    }
+
+    public static void fill(long[] array, int length, long value) {
+        fill(array, length, value, JavaKind.Long);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        gen.getLIRGeneratorTool().emitArrayFill(kind, gen.operand(array), gen.operand(length), gen.operand(value));
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(kind);
+    }
+}
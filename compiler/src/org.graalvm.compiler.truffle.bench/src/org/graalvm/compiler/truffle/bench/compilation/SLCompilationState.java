@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.bench.compilation;
+
+import static org.graalvm.compiler.core.common.CompilationRequestIdentifier.asCompilationRequest;
+
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugHandlersFactory;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.truffle.DefaultInliningPolicy;
+import org.graalvm.compiler.truffle.DefaultTruffleCompiler;
+import org.graalvm.compiler.truffle.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.TruffleCompiler;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleOptionsOverrideScope;
+import org.graalvm.compiler.truffle.TruffleInlining;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Thread-local state providing a warmed up call target for the {@code bench} function of a
+ * SimpleLanguage program together with a {@link TruffleCompiler} to compile it.
+ */
+@State(Scope.Thread)
+public class SLCompilationState {
+
+    private static final String LOOP = "" +
+                    "function loop(n) {\n" +
+                    "  i = 0;\n" +
+                    "  sum = 0;\n" +
+                    "  while (i < n) {\n" +
+                    "    if (i % 3 == 0) { sum = sum + i * 7; } else { sum = sum - i; }\n" +
+                    "    i = i + 1;\n" +
+                    "  }\n" +
+                    "  return sum;\n" +
+                    "}\n" +
+                    "function bench() {\n" +
+                    "  return loop(100) + loop(1000);\n" +
+                    "}\n";
+
+    private static final String POLYMORPHIC = "" +
+                    "function inc(x) { return x + 1; }\n" +
+                    "function dec(x) { return x - 1; }\n" +
+                    "function twice(x) { return x * 2; }\n" +
+                    "function concat(x) { return x + \"!\"; }\n" +
+                    "function apply(f, x) { return f(x); }\n" +
+                    "function bench() {\n" +
+                    "  i = 0;\n" +
+                    "  r = 0;\n" +
+                    "  while (i < 100) {\n" +
+                    "    r = r + apply(inc, i) + apply(dec, i) + apply(twice, i);\n" +
+                    "    i = i + 1;\n" +
+                    "  }\n" +
+                    "  apply(concat, \"a\");\n" +
+                    "  return r;\n" +
+                    "}\n";
+
+    private static final String OBJECTS = "" +
+                    "function point(x, y) {\n" +
+                    "  p = new();\n" +
+                    "  p.x = x;\n" +
+                    "  p.y = y;\n" +
+                    "  return p;\n" +
+                    "}\n" +
+                    "function add(a, b) {\n" +
+                    "  return point(a.x + b.x, a.y + b.y);\n" +
+                    "}\n" +
+                    "function bench() {\n" +
+                    "  acc = point(0, 0);\n" +
+                    "  i = 0;\n" +
+                    "  while (i < 100) {\n" +
+                    "    acc = add(acc, point(i, i * 2));\n" +
+                    "    acc.last = i;\n" +
+                    "    i = i + 1;\n" +
+                    "  }\n" +
+                    "  return acc.x + acc.y + acc.last;\n" +
+                    "}\n";
+
+    private static final String ROOT_NAME = "bench";
+    private static final int WARMUP_CALLS = 100;
+
+    /**
+     * The program to compile: a counted loop with arithmetic, a loop with polymorphic calls through
+     * function values, or a loop allocating and accessing objects.
+     */
+    @Param({"loop", "polymorphic", "objects"}) public String program;
+
+    public GraalTruffleRuntime runtime;
+    public TruffleCompiler truffleCompiler;
+    public OptimizedCallTarget callTarget;
+    public OptionValues options;
+    public DebugContext debug;
+
+    private Context context;
+    private TruffleOptionsOverrideScope overrideScope;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        runtime = (GraalTruffleRuntime) Truffle.getRuntime();
+        // keep the runtime from compiling the program on its own
+        overrideScope = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleCompilationThreshold, Integer.MAX_VALUE, TruffleCompilerOptions.TruffleOSR, false);
+        options = TruffleCompilerOptions.getOptions();
+        debug = DebugContext.create(options, DebugHandlersFactory.LOADER);
+        truffleCompiler = DefaultTruffleCompiler.create(runtime);
+
+        context = Context.create("sl");
+        context.eval("sl", getSource());
+        Value bench = context.lookup("sl", ROOT_NAME);
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            bench.execute();
+        }
+        callTarget = findCallTarget();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        overrideScope.close();
+    }
+
+    private String getSource() {
+        switch (program) {
+            case "loop":
+                return LOOP;
+            case "polymorphic":
+                return POLYMORPHIC;
+            case "objects":
+                return OBJECTS;
+            default:
+                throw new IllegalArgumentException(program);
+        }
+    }
+
+    private OptimizedCallTarget findCallTarget() {
+        OptimizedCallTarget result = null;
+        for (RootCallTarget target : runtime.getCallTargets()) {
+            if (target instanceof OptimizedCallTarget && ROOT_NAME.equals(target.getRootNode().getName()) && ((OptimizedCallTarget) target).getCompilationProfile().getInterpreterCallCount() > 0) {
+                result = (OptimizedCallTarget) target;
+            }
+        }
+        if (result == null) {
+            throw new IllegalStateException("no call target found for " + ROOT_NAME);
+        }
+        return result;
+    }
+
+    public CompilationIdentifier newCompilationId() {
+        ResolvedJavaMethod rootMethod = truffleCompiler.getPartialEvaluator().rootForCallTarget(callTarget);
+        return runtime.getCompilationIdentifier(callTarget, rootMethod, truffleCompiler.getBackend());
+    }
+
+    /**
+     * Creates the graph of {@link #callTarget} after partial evaluation and the Truffle tier.
+     */
+    @SuppressWarnings("try")
+    public StructuredGraph partialEvaluation(CompilationIdentifier compilationId) {
+        TruffleInlining inlining = new TruffleInlining(callTarget, new DefaultInliningPolicy());
+        try (DebugContext.Scope s = debug.scope("TruffleCompilationBenchmark")) {
+            return truffleCompiler.getPartialEvaluator().createGraph(debug, callTarget, inlining, AllowAssumptions.YES, compilationId, null);
+        } catch (Throwable e) {
+            throw debug.handle(e);
+        }
+    }
+
+    /**
+     * Compiles a graph created by {@link #partialEvaluation} to machine code and installs it.
+     */
+    public Object compile(StructuredGraph graph, CompilationIdentifier compilationId) {
+        return truffleCompiler.compileMethodHelper(graph, callTarget.toString(), null, null, asCompilationRequest(compilationId));
+    }
+}
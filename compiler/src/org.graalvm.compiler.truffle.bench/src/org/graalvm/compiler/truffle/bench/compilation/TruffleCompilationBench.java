@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.bench.compilation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.core.target.Backend;
+import org.graalvm.compiler.debug.Management;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+import org.graalvm.compiler.phases.tiers.LowTierContext;
+import org.graalvm.compiler.phases.tiers.MidTierContext;
+import org.graalvm.compiler.phases.tiers.Suites;
+import org.graalvm.compiler.phases.util.Providers;
+import org.graalvm.compiler.truffle.TruffleCompiler;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the compile time of SimpleLanguage functions: partial evaluation alone, the complete
+ * {@link TruffleCompiler} pipeline up to code installation, and each tier of the Graal pipeline
+ * applied to the graph produced by partial evaluation.
+ * <p>
+ * Besides the time per compilation, the {@link Allocation} counters report the bytes allocated by
+ * the compiler. Divide {@code allocatedBytes} by {@code compilations} to get the bytes allocated per
+ * compilation, or run with {@code -prof gc} and use {@code gc.alloc.rate.norm}.
+ */
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TruffleCompilationBench {
+
+    /**
+     * Counts the bytes allocated by the benchmarking thread during each benchmark invocation.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Allocation {
+        public long allocatedBytes;
+        public long compilations;
+
+        private long start;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            allocatedBytes = 0;
+            compilations = 0;
+        }
+
+        @Setup(Level.Invocation)
+        public void before() {
+            start = Management.getCurrentThreadAllocatedBytes();
+        }
+
+        @TearDown(Level.Invocation)
+        public void after() {
+            allocatedBytes += Management.getCurrentThreadAllocatedBytes() - start;
+            compilations++;
+        }
+    }
+
+    /**
+     * Provides a fresh copy of the graph after partial evaluation and the tiers preceding the
+     * measured tier for each invocation.
+     */
+    @State(Scope.Thread)
+    public abstract static class TierGraph {
+        Backend backend;
+        Providers providers;
+        Suites suites;
+        StructuredGraph graph;
+        private StructuredGraph original;
+
+        /**
+         * @param precedingTiers the number of tiers to apply before the measured tier
+         */
+        protected void init(SLCompilationState state, int precedingTiers) {
+            backend = state.truffleCompiler.getBackend();
+            providers = backend.getProviders();
+            suites = state.truffleCompiler.getSuites();
+            original = state.partialEvaluation(state.newCompilationId());
+            if (precedingTiers > 0) {
+                suites.getHighTier().apply(original, highTierContext());
+            }
+            if (precedingTiers > 1) {
+                suites.getMidTier().apply(original, midTierContext());
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void copy() {
+            graph = (StructuredGraph) original.copy(original.getDebug());
+        }
+
+        HighTierContext highTierContext() {
+            return new HighTierContext(providers, null, TruffleCompiler.Optimizations);
+        }
+
+        MidTierContext midTierContext() {
+            return new MidTierContext(providers, backend, TruffleCompiler.Optimizations, original.getProfilingInfo());
+        }
+
+        LowTierContext lowTierContext() {
+            return new LowTierContext(providers, backend);
+        }
+    }
+
+    public static class HighTierInput extends TierGraph {
+        @Setup(Level.Trial)
+        public void setup(SLCompilationState state) {
+            init(state, 0);
+        }
+    }
+
+    public static class MidTierInput extends TierGraph {
+        @Setup(Level.Trial)
+        public void setup(SLCompilationState state) {
+            init(state, 1);
+        }
+    }
+
+    public static class LowTierInput extends TierGraph {
+        @Setup(Level.Trial)
+        public void setup(SLCompilationState state) {
+            init(state, 2);
+        }
+    }
+
+    @Benchmark
+    public StructuredGraph partialEvaluation(SLCompilationState state, @SuppressWarnings("unused") Allocation allocation) {
+        return state.partialEvaluation(state.newCompilationId());
+    }
+
+    @Benchmark
+    public Object compilation(SLCompilationState state, @SuppressWarnings("unused") Allocation allocation) {
+        CompilationIdentifier compilationId = state.newCompilationId();
+        StructuredGraph graph = state.partialEvaluation(compilationId);
+        return state.compile(graph, compilationId);
+    }
+
+    @Benchmark
+    public StructuredGraph highTier(HighTierInput graph, @SuppressWarnings("unused") Allocation allocation) {
+        graph.suites.getHighTier().apply(graph.graph, graph.highTierContext());
+        return graph.graph;
+    }
+
+    @Benchmark
+    public StructuredGraph midTier(MidTierInput graph, @SuppressWarnings("unused") Allocation allocation) {
+        graph.suites.getMidTier().apply(graph.graph, graph.midTierContext());
+        return graph.graph;
+    }
+
+    @Benchmark
+    public StructuredGraph lowTier(LowTierInput graph, @SuppressWarnings("unused") Allocation allocation) {
+        graph.suites.getLowTier().apply(graph.graph, graph.lowTierContext());
+        return graph.graph;
+    }
+}
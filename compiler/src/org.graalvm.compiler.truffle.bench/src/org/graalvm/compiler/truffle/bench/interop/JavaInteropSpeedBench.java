@@ -33,8 +33,16 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.java.JavaInterop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
 
 @Warmup(iterations = 10)
 @Measurement(iterations = 10)
@@ -84,4 +92,63 @@ public class JavaInteropSpeedBench {
         }
         return max;
     }
+
+    public static final class MaxHost {
+        public int max(int left, int right) {
+            return Math.max(left, right);
+        }
+
+        public int overloadedMax(int left, int right) {
+            return Math.max(left, right);
+        }
+
+        public long overloadedMax(long left, long right) {
+            return Math.max(left, right);
+        }
+    }
+
+    /**
+     * Invokes a method of a host object the way guest code does, through a cached INVOKE message.
+     */
+    private static final class InvokeHostNode extends RootNode {
+        private final TruffleObject receiver = JavaInterop.asTruffleObject(new MaxHost());
+        private final String name;
+        @Child private Node invoke = Message.createInvoke(2).createNode();
+
+        InvokeHostNode(String name) {
+            super(null);
+            this.name = name;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Object[] args = frame.getArguments();
+            try {
+                return ForeignAccess.sendInvoke(invoke, receiver, name, args[0], args[1]);
+            } catch (InteropException e) {
+                throw e.raise();
+            }
+        }
+    }
+
+    private static final CallTarget INVOKE_MAX = Truffle.getRuntime().createCallTarget(new InvokeHostNode("max"));
+    private static final CallTarget INVOKE_OVERLOADED_MAX = Truffle.getRuntime().createCallTarget(new InvokeHostNode("overloadedMax"));
+
+    @Benchmark
+    public int doMinMaxWithInvoke() {
+        int max = 0;
+        for (int i = 0; i < arr.length; i++) {
+            max = (int) INVOKE_MAX.call(arr[i], max);
+        }
+        return max;
+    }
+
+    @Benchmark
+    public int doMinMaxWithOverloadedInvoke() {
+        int max = 0;
+        for (int i = 0; i < arr.length; i++) {
+            max = (int) INVOKE_OVERLOADED_MAX.call(arr[i], max);
+        }
+        return max;
+    }
 }
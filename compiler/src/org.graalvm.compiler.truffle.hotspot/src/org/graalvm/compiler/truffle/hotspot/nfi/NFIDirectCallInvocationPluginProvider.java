@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.hotspot.nfi;
+
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleNFIDirectCalls;
+
+import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
+import org.graalvm.compiler.core.target.Backend;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.NarrowNode;
+import org.graalvm.compiler.nodes.calc.ReinterpretNode;
+import org.graalvm.compiler.nodes.calc.SignExtendNode;
+import org.graalvm.compiler.nodes.calc.ZeroExtendNode;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderContext;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugin;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins.Registration;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.runtime.RuntimeProvider;
+import org.graalvm.compiler.serviceprovider.GraalServices;
+import org.graalvm.compiler.serviceprovider.ServiceProvider;
+import org.graalvm.compiler.truffle.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.substitutions.TruffleInvocationPluginProvider;
+
+import com.oracle.truffle.api.Truffle;
+
+import jdk.vm.ci.meta.ConstantReflectionProvider;
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.MetaAccessProvider;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Replaces calls of Truffle NFI functions that only take primitive and pointer arguments with
+ * direct native calls created by a {@link RawNativeCallNodeFactory}. The intrinsified method is
+ * {@code LibFFISignature.executeDirect}, which calls the function through libffi if this plugin
+ * does not apply.
+ */
+@ServiceProvider(TruffleInvocationPluginProvider.class)
+public class NFIDirectCallInvocationPluginProvider implements TruffleInvocationPluginProvider {
+
+    private static final String SIGNATURE_CLASS_NAME = "com.oracle.truffle.nfi.LibFFISignature";
+    private static final String CONTEXT_CLASS_NAME = "com.oracle.truffle.nfi.NFIContext";
+
+    @Override
+    public void registerInvocationPlugins(MetaAccessProvider metaAccess, InvocationPlugins plugins, boolean canDelayIntrinsification, ConstantReflectionProvider constantReflection,
+                    SnippetReflectionProvider snippetReflection) {
+        if (!TruffleCompilerOptions.getValue(TruffleNFIDirectCalls)) {
+            return;
+        }
+        Class<?> signatureClass = InvocationPlugins.resolveClass(SIGNATURE_CLASS_NAME, true);
+        Class<?> contextClass = InvocationPlugins.resolveClass(CONTEXT_CLASS_NAME, true);
+        if (signatureClass == null || contextClass == null) {
+            // the Truffle NFI is not on the class path
+            return;
+        }
+        RawNativeCallNodeFactory factory = getRawNativeCallNodeFactory();
+        if (factory == null) {
+            return;
+        }
+        Registration r = new Registration(plugins, signatureClass);
+        r.register5("executeDirect", signatureClass, contextClass, String.class, long.class, long[].class, new DirectCallPlugin(factory, snippetReflection));
+    }
+
+    private static RawNativeCallNodeFactory getRawNativeCallNodeFactory() {
+        Backend backend = ((GraalTruffleRuntime) Truffle.getRuntime()).getRequiredGraalCapability(RuntimeProvider.class).getHostBackend();
+        String arch = backend.getTarget().arch.getName();
+        for (RawNativeCallNodeFactory factory : GraalServices.load(RawNativeCallNodeFactory.class)) {
+            if (factory.getArchitecture().equals(arch)) {
+                return factory;
+            }
+        }
+        return null;
+    }
+
+    private static final class DirectCallPlugin implements InvocationPlugin {
+
+        private final RawNativeCallNodeFactory factory;
+        private final SnippetReflectionProvider snippetReflection;
+
+        DirectCallPlugin(RawNativeCallNodeFactory factory, SnippetReflectionProvider snippetReflection) {
+            this.factory = factory;
+            this.snippetReflection = snippetReflection;
+        }
+
+        @Override
+        public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode signature, ValueNode context, ValueNode descriptor, ValueNode functionPointer,
+                        ValueNode args) {
+            if (!descriptor.isConstant() || !functionPointer.isConstant()) {
+                return false;
+            }
+            String descriptorString = snippetReflection.asObject(String.class, descriptor.asJavaConstant());
+            if (descriptorString == null) {
+                return false;
+            }
+            int argCount = descriptorString.indexOf(')') - 1;
+            ValueNode argArray = b.nullCheckedValue(args);
+            ValueNode[] arguments = new ValueNode[argCount];
+            for (int i = 0; i < argCount; i++) {
+                ValueNode slot = b.add(new LoadIndexedNode(b.getAssumptions(), argArray, ConstantNode.forInt(i, b.getGraph()), JavaKind.Long));
+                arguments[i] = fromSlot(b, slot, descriptorString.charAt(i + 1));
+            }
+
+            char returnChar = descriptorString.charAt(argCount + 2);
+            JavaKind returnKind = getCallKind(returnChar);
+            FixedWithNextNode call = b.add(factory.createRawCallNode(returnKind, functionPointer.asJavaConstant(), arguments));
+            b.push(JavaKind.Long, toSlot(b, call, returnChar));
+            return true;
+        }
+
+        /**
+         * Converts the {@code long} slot of an argument to the value passed to the native call.
+         * Arguments smaller than an {@code int} are extended to 32 bits according to their
+         * signedness, as the native calling conventions expect.
+         */
+        private static ValueNode fromSlot(GraphBuilderContext b, ValueNode slot, char typeChar) {
+            switch (typeChar) {
+                case 'B':
+                    return extend(b, slot, 8, false, 32);
+                case 'Z':
+                    return extend(b, slot, 8, true, 32);
+                case 'S':
+                    return extend(b, slot, 16, false, 32);
+                case 'C':
+                    return extend(b, slot, 16, true, 32);
+                case 'I':
+                    return b.add(new NarrowNode(slot, 32));
+                case 'J':
+                    return slot;
+                case 'F':
+                    return b.add(new ReinterpretNode(JavaKind.Float, b.add(new NarrowNode(slot, 32))));
+                case 'D':
+                    return b.add(new ReinterpretNode(JavaKind.Double, slot));
+                default:
+                    throw new IllegalArgumentException("Type not supported: " + typeChar);
+            }
+        }
+
+        /**
+         * Converts the result of the native call to the {@code long} format returned by
+         * {@code NFIContext.executePrimitive}. The upper bits of results smaller than an
+         * {@code int} are undefined, so they are narrowed before they are extended.
+         */
+        private static ValueNode toSlot(GraphBuilderContext b, ValueNode result, char typeChar) {
+            switch (typeChar) {
+                case 'V':
+                    return ConstantNode.forLong(0, b.getGraph());
+                case 'B':
+                    return extend(b, result, 8, false, 64);
+                case 'Z':
+                    return extend(b, result, 8, true, 64);
+                case 'S':
+                    return extend(b, result, 16, false, 64);
+                case 'C':
+                    return extend(b, result, 16, true, 64);
+                case 'I':
+                    return b.add(new SignExtendNode(result, 64));
+                case 'J':
+                    return result;
+                case 'F':
+                    return b.add(new ZeroExtendNode(b.add(new ReinterpretNode(JavaKind.Int, result)), 64));
+                case 'D':
+                    return b.add(new ReinterpretNode(JavaKind.Long, result));
+                default:
+                    throw new IllegalArgumentException("Type not supported: " + typeChar);
+            }
+        }
+
+        private static ValueNode extend(GraphBuilderContext b, ValueNode value, int inputBits, boolean unsigned, int resultBits) {
+            ValueNode narrow = b.add(new NarrowNode(value, inputBits));
+            return b.add(unsigned ? new ZeroExtendNode(narrow, resultBits) : new SignExtendNode(narrow, resultBits));
+        }
+
+        private static JavaKind getCallKind(char typeChar) {
+            switch (typeChar) {
+                case 'V':
+                    return JavaKind.Void;
+                case 'B':
+                case 'Z':
+                case 'S':
+                case 'C':
+                case 'I':
+                    return JavaKind.Int;
+                default:
+                    return JavaKind.fromPrimitiveOrVoidTypeChar(typeChar);
+            }
+        }
+    }
+}
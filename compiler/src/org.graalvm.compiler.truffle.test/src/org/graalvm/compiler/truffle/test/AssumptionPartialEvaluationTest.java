@@ -64,6 +64,21 @@ public class AssumptionPartialEvaluationTest extends PartialEvaluationTest {
         assertDeepEquals(43, callTarget.call());
     }
 
+    @Test
+    public void invalidateAssumptions() {
+        Assumption assumption = Truffle.getRuntime().createAssumption();
+        Assumption other = Truffle.getRuntime().createAssumption();
+        AbstractTestNode result = new ConstantWithAssumptionTestNode(assumption, 42);
+        RootTestNode rootNode = new RootTestNode(new FrameDescriptor(), "invalidateAssumptions", result);
+        OptimizedCallTarget callTarget = assertPartialEvalEquals("constant42", rootNode);
+        Assert.assertTrue(callTarget.isValid());
+        Truffle.getRuntime().invalidateAssumptions(assumption, other);
+        Assert.assertFalse(assumption.isValid());
+        Assert.assertFalse(other.isValid());
+        Assert.assertFalse(callTarget.isValid());
+        assertDeepEquals(43, callTarget.call());
+    }
+
     /**
      * This tests whether a valid Assumption does successfully cut of the branch that is not
      * executed.
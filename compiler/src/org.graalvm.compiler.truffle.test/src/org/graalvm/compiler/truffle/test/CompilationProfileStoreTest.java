@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.graalvm.compiler.truffle.CompilationProfileStore;
+import org.graalvm.compiler.truffle.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.OptimizedCompilationProfile;
+import org.graalvm.compiler.truffle.OptimizedDirectCallNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+
+public class CompilationProfileStoreTest {
+
+    private static final int THRESHOLD = 7;
+    private static final Source SOURCE = Source.newBuilder("function f() { return 42; }\nfunction g() { return 43; }").name("profileStore").mimeType("application/x-test").build();
+
+    private static class SourceRootNode extends RootNode {
+        private final SourceSection section;
+        private final Object result;
+
+        SourceRootNode(SourceSection section, Object result) {
+            super(null, new FrameDescriptor());
+            this.section = section;
+            this.result = result;
+        }
+
+        @Override
+        public SourceSection getSourceSection() {
+            return section;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return result;
+        }
+    }
+
+    private final GraalTruffleRuntime runtime = (GraalTruffleRuntime) Truffle.getRuntime();
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("profiles", ".txt");
+        Files.delete(file);
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private OptimizedCallTarget createTarget(int charIndex, Object result) {
+        return (OptimizedCallTarget) runtime.createCallTarget(new SourceRootNode(SOURCE.createSection(charIndex, 27), result));
+    }
+
+    @Test
+    public void testCompiledTargetIsCompiledEarly() {
+        CompilationProfileStore first = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget hot = createTarget(0, 42);
+        OptimizedCallTarget cold = createTarget(28, 43);
+        first.apply(hot, hot.getCompilationProfile());
+        first.apply(cold, cold.getCompilationProfile());
+        first.notifyCompilationSuccess(hot, null, null, null);
+        first.notifyShutdown(runtime);
+        assertTrue(Files.exists(file));
+
+        CompilationProfileStore second = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget hotAgain = createTarget(0, 42);
+        OptimizedCallTarget coldAgain = createTarget(28, 43);
+        OptimizedCompilationProfile hotProfile = hotAgain.getCompilationProfile();
+        OptimizedCompilationProfile coldProfile = coldAgain.getCompilationProfile();
+        int defaultThreshold = coldProfile.getCompilationCallAndLoopThreshold();
+        second.apply(hotAgain, hotProfile);
+        second.apply(coldAgain, coldProfile);
+        assertEquals(Math.min(THRESHOLD, defaultThreshold), hotProfile.getCompilationCallAndLoopThreshold());
+        assertEquals(defaultThreshold, coldProfile.getCompilationCallAndLoopThreshold());
+    }
+
+    @Test
+    public void testInvalidatedTargetIsNotCompiledEarly() {
+        CompilationProfileStore first = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget target = createTarget(0, 42);
+        first.apply(target, target.getCompilationProfile());
+        first.notifyCompilationSuccess(target, null, null, null);
+        first.notifyCompilationInvalidated(target, null, "test");
+        first.notifyShutdown(runtime);
+
+        CompilationProfileStore second = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget again = createTarget(0, 42);
+        OptimizedCompilationProfile profile = again.getCompilationProfile();
+        int defaultThreshold = profile.getCompilationCallAndLoopThreshold();
+        second.apply(again, profile);
+        assertEquals(defaultThreshold, profile.getCompilationCallAndLoopThreshold());
+        assertFalse(second.wasSplit(again));
+    }
+
+    @Test
+    public void testFailedReturnTypeSpeculationIsSkipped() {
+        CompilationProfileStore first = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new SourceRootNode(SOURCE.createSection(0, 27), null) {
+            private int calls;
+
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return calls++ % 2 == 0 ? (Object) 42 : "42";
+            }
+        });
+        first.apply(target, target.getCompilationProfile());
+        target.call();
+        target.call();
+        assertTrue(target.getCompilationProfile().isReturnTypeProfileFailed());
+        first.notifyShutdown(runtime);
+
+        CompilationProfileStore second = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget again = createTarget(0, 42);
+        OptimizedCompilationProfile profile = again.getCompilationProfile();
+        second.apply(again, profile);
+        assertFalse(profile.isArgumentTypeProfileFailed());
+        assertTrue(profile.isReturnTypeProfileFailed());
+        assertEquals(42, again.call());
+        assertTrue(profile.isReturnTypeProfileFailed());
+    }
+
+    @Test
+    public void testProfilesAreMergedAcrossRuns() {
+        CompilationProfileStore first = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget target = createTarget(0, 42);
+        first.apply(target, target.getCompilationProfile());
+        first.notifyCompilationSuccess(target, null, null, null);
+        first.notifyShutdown(runtime);
+
+        // the second run sees the target again but ends before compiling or splitting it
+        CompilationProfileStore second = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget again = createTarget(0, 42);
+        second.apply(again, again.getCompilationProfile());
+        OptimizedCallTarget other = createTarget(28, 43);
+        second.apply(other, other.getCompilationProfile());
+        second.notifyCompilationSplit(new OptimizedDirectCallNode(runtime, other));
+        second.notifyShutdown(runtime);
+
+        CompilationProfileStore third = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget targetAgain = createTarget(0, 42);
+        OptimizedCallTarget otherAgain = createTarget(28, 43);
+        OptimizedCompilationProfile profile = targetAgain.getCompilationProfile();
+        int defaultThreshold = otherAgain.getCompilationProfile().getCompilationCallAndLoopThreshold();
+        third.apply(targetAgain, profile);
+        third.apply(otherAgain, otherAgain.getCompilationProfile());
+        assertEquals(Math.min(THRESHOLD, defaultThreshold), profile.getCompilationCallAndLoopThreshold());
+        assertEquals(defaultThreshold, otherAgain.getCompilationProfile().getCompilationCallAndLoopThreshold());
+        assertTrue(third.wasSplit(otherAgain));
+        assertFalse(third.wasSplit(targetAgain));
+    }
+
+    @Test
+    public void testUnseenProfilesExpire() {
+        CompilationProfileStore first = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget target = createTarget(28, 43);
+        first.apply(target, target.getCompilationProfile());
+        first.notifyCompilationSplit(new OptimizedDirectCallNode(runtime, target));
+        first.notifyShutdown(runtime);
+
+        // the second run does not see the target
+        CompilationProfileStore second = new CompilationProfileStore(runtime, file, THRESHOLD);
+        assertTrue(second.wasSplit(createTarget(28, 43)));
+        second.notifyShutdown(runtime);
+
+        CompilationProfileStore third = new CompilationProfileStore(runtime, file, THRESHOLD);
+        assertFalse(third.wasSplit(createTarget(28, 43)));
+    }
+
+    @Test
+    public void testReplayedSplitIsStoredOnlyIfConfirmed() {
+        CompilationProfileStore first = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget target = createTarget(28, 43);
+        first.apply(target, target.getCompilationProfile());
+        first.notifyCompilationSplit(new OptimizedDirectCallNode(runtime, target));
+        first.notifyShutdown(runtime);
+
+        // the second run replays the split and confirms it
+        CompilationProfileStore second = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget again = createTarget(28, 43);
+        second.apply(again, again.getCompilationProfile());
+        OptimizedDirectCallNode confirmed = new OptimizedDirectCallNode(runtime, again);
+        second.notifyReplayedSplit(confirmed);
+        second.notifyCompilationSplit(confirmed);
+        second.confirmReplayedSplit(confirmed);
+        second.notifyShutdown(runtime);
+
+        // the third run replays the split without confirming it
+        CompilationProfileStore third = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget replayedTarget = createTarget(28, 43);
+        assertTrue(third.wasSplit(replayedTarget));
+        third.apply(replayedTarget, replayedTarget.getCompilationProfile());
+        OptimizedDirectCallNode replayed = new OptimizedDirectCallNode(runtime, replayedTarget);
+        third.notifyReplayedSplit(replayed);
+        third.notifyCompilationSplit(replayed);
+        third.notifyShutdown(runtime);
+
+        CompilationProfileStore fourth = new CompilationProfileStore(runtime, file, THRESHOLD);
+        assertFalse(fourth.wasSplit(createTarget(28, 43)));
+    }
+
+    @Test
+    public void testTargetWithoutSourceSectionIsIgnored() {
+        CompilationProfileStore store = new CompilationProfileStore(runtime, file, THRESHOLD);
+        OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new SourceRootNode(null, 42));
+        store.apply(target, target.getCompilationProfile());
+        store.notifyCompilationSuccess(target, null, null, null);
+        assertFalse(store.wasSplit(target));
+    }
+}
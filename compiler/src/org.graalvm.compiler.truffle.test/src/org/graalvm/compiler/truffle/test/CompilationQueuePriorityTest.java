@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.truffle.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleOptionsOverrideScope;
+import org.graalvm.compiler.truffle.debug.AbstractDebugCompilationListener;
+import org.graalvm.compiler.truffle.test.nodes.ConstantTestNode;
+import org.graalvm.compiler.truffle.test.nodes.RootTestNode;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+
+/**
+ * Checks that queued background compilations are ordered by the hotness of their call targets.
+ */
+public class CompilationQueuePriorityTest {
+
+    private static final int COLD_CALLS = 10;
+    private static final int HOT_CALLS = 1000;
+
+    private final GraalTruffleRuntime runtime = (GraalTruffleRuntime) Truffle.getRuntime();
+
+    private OptimizedCallTarget createTarget(String name) {
+        return (OptimizedCallTarget) runtime.createCallTarget(new RootTestNode(new FrameDescriptor(), name, new ConstantTestNode(42)));
+    }
+
+    private static void call(OptimizedCallTarget target, int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(42, target.call());
+        }
+    }
+
+    /**
+     * Gets the queued call targets among {@code targets} in compilation order.
+     */
+    private List<OptimizedCallTarget> queued(OptimizedCallTarget... targets) {
+        List<OptimizedCallTarget> result = new ArrayList<>(runtime.getQueuedCallTargets());
+        result.retainAll(Arrays.asList(targets));
+        return result;
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    public void testHotterTargetsCompileFirst() throws InterruptedException {
+        Set<OptimizedCallTarget> blockers = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        Semaphore blockerStarted = new Semaphore(0);
+        CountDownLatch release = new CountDownLatch(1);
+        AbstractDebugCompilationListener listener = new AbstractDebugCompilationListener() {
+            @Override
+            public void notifyCompilationStarted(OptimizedCallTarget target) {
+                if (blockers.contains(target)) {
+                    blockerStarted.release();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        runtime.addCompilationListener(listener);
+        try (TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleBackgroundCompilation, true,
+                        TruffleCompilerOptions.TruffleCompilationExceptionsAreThrown, false,
+                        TruffleCompilerOptions.TrufflePerformanceWarningsAreFatal, false,
+                        TruffleCompilerOptions.TruffleCompilationThreshold, Integer.MAX_VALUE)) {
+            // occupy all compiler threads until a blocker stays in the queue
+            OptimizedCallTarget blocker;
+            do {
+                blocker = createTarget("blocker" + blockers.size());
+                blockers.add(blocker);
+                blocker.compile();
+            } while (blockerStarted.tryAcquire(1, TimeUnit.SECONDS));
+
+            OptimizedCallTarget cold = createTarget("cold");
+            OptimizedCallTarget hot = createTarget("hot");
+            call(cold, COLD_CALLS);
+            call(hot, HOT_CALLS);
+            cold.compile();
+            hot.compile();
+            assertEquals(Arrays.asList(hot, cold), queued(cold, hot));
+
+            // the cold target gets hotter while it is queued and overtakes the hot one
+            call(cold, HOT_CALLS * 4);
+            assertEquals(Arrays.asList(cold, hot), queued(cold, hot));
+            assertEquals(runtime.getQueuedCallTargets().size(), runtime.getCompilationQueueSize());
+        } finally {
+            release.countDown();
+            runtime.removeCompilationListener(listener);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    public void testQueuedTargetsCompile() throws InterruptedException {
+        try (TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleBackgroundCompilation, true,
+                        TruffleCompilerOptions.TruffleCompilationExceptionsAreThrown, false,
+                        TruffleCompilerOptions.TruffleCompilationThreshold, Integer.MAX_VALUE)) {
+            OptimizedCallTarget target = createTarget("queued");
+            target.compile();
+            // a re-prioritized compilation must still be performed
+            call(target, HOT_CALLS);
+            for (int i = 0; i < 1000 && target.isCompiling(); i++) {
+                Thread.sleep(10);
+            }
+            assertFalse(target.isCompiling());
+            assertTrue(target.isValid());
+            assertEquals(42, target.call());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.compiler.truffle.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.OptimizedCompilationProfile;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleOptionsOverrideScope;
+import org.graalvm.compiler.truffle.test.nodes.ConstantTestNode;
+import org.graalvm.compiler.truffle.test.nodes.RootTestNode;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+
+public class MultiTierCompilationTest extends TestWithSynchronousCompiling {
+
+    private static final int FIRST_TIER_THRESHOLD = 5;
+    private static final int LAST_TIER_THRESHOLD = 20;
+
+    @Test
+    @SuppressWarnings("try")
+    public void testFirstTierIsRecompiled() {
+        try (TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleMultiTier, true,
+                        TruffleCompilerOptions.TruffleFirstTierCompilationThreshold, FIRST_TIER_THRESHOLD,
+                        TruffleCompilerOptions.TruffleCompilationThreshold, LAST_TIER_THRESHOLD)) {
+            GraalTruffleRuntime runtime = (GraalTruffleRuntime) Truffle.getRuntime();
+            OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new RootTestNode(new FrameDescriptor(), "multiTier", new ConstantTestNode(42)));
+
+            int calls = 0;
+            while (!target.isValid() && calls < LAST_TIER_THRESHOLD) {
+                assertEquals(42, target.call());
+                calls++;
+            }
+            assertCompiled(target);
+            assertEquals(OptimizedCompilationProfile.TIER_FIRST, target.getCompilationProfile().getTier());
+            assertTrue("first tier must be compiled before the regular threshold", calls < LAST_TIER_THRESHOLD);
+
+            for (int i = 0; i < LAST_TIER_THRESHOLD && target.getCompilationProfile().getTier() == OptimizedCompilationProfile.TIER_FIRST; i++) {
+                assertEquals(42, target.call());
+            }
+            assertEquals(OptimizedCompilationProfile.TIER_LAST, target.getCompilationProfile().getTier());
+            assertEquals(42, target.call());
+            assertCompiled(target);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    public void testSingleTierByDefault() {
+        try (TruffleOptionsOverrideScope s = TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleCompilationThreshold, LAST_TIER_THRESHOLD)) {
+            GraalTruffleRuntime runtime = (GraalTruffleRuntime) Truffle.getRuntime();
+            OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new RootTestNode(new FrameDescriptor(), "singleTier", new ConstantTestNode(42)));
+            for (int i = 0; i < LAST_TIER_THRESHOLD && !target.isValid(); i++) {
+                assertEquals(42, target.call());
+            }
+            assertCompiled(target);
+            assertEquals(OptimizedCompilationProfile.TIER_LAST, target.getCompilationProfile().getTier());
+        }
+    }
+}
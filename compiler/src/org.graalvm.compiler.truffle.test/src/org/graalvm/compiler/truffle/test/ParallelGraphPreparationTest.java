@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import org.graalvm.compiler.truffle.TruffleCompilerOptions;
+import org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleOptionsOverrideScope;
+import org.graalvm.compiler.truffle.test.nodes.AbstractTestNode;
+import org.graalvm.compiler.truffle.test.nodes.AddTestNode;
+import org.graalvm.compiler.truffle.test.nodes.BlockTestNode;
+import org.graalvm.compiler.truffle.test.nodes.ConstantTestNode;
+import org.graalvm.compiler.truffle.test.nodes.LoadLocalTestNode;
+import org.graalvm.compiler.truffle.test.nodes.RootTestNode;
+import org.graalvm.compiler.truffle.test.nodes.StoreLocalTestNode;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.FrameDescriptor;
+
+/**
+ * Checks that preparing graphs in parallel before partial evaluation does not change its result.
+ */
+public class ParallelGraphPreparationTest extends PartialEvaluationTest {
+
+    public static Object constant42() {
+        return 42;
+    }
+
+    private static TruffleOptionsOverrideScope enableParallelPreparation() {
+        return TruffleCompilerOptions.overrideOptions(TruffleCompilerOptions.TruffleParallelGraphPreparation, true,
+                        TruffleCompilerOptions.TruffleParallelGraphPreparationThreshold, 0);
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    public void addConstants() {
+        try (TruffleOptionsOverrideScope s = enableParallelPreparation()) {
+            FrameDescriptor fd = new FrameDescriptor();
+            AbstractTestNode result = new AddTestNode(new ConstantTestNode(40), new ConstantTestNode(2));
+            assertPartialEvalEquals("constant42", new RootTestNode(fd, "parallelAddConstants", result));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    public void sequenceLocals() {
+        try (TruffleOptionsOverrideScope s = enableParallelPreparation()) {
+            FrameDescriptor fd = new FrameDescriptor();
+            AbstractTestNode result = new BlockTestNode(new AbstractTestNode[]{new StoreLocalTestNode("x", fd, new ConstantTestNode(42)), new LoadLocalTestNode("x", fd)});
+            assertPartialEvalEquals("constant42", new RootTestNode(fd, "parallelSequenceLocals", result));
+        }
+    }
+}
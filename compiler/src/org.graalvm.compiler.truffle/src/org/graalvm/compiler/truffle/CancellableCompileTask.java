@@ -29,6 +29,26 @@ import org.graalvm.compiler.nodes.Cancellable;
 public class CancellableCompileTask implements Cancellable {
     Future<?> future = null;
     boolean cancelled = false;
+    private final boolean firstTier;
+
+    public CancellableCompileTask() {
+        this(false);
+    }
+
+    /**
+     * @param firstTier specifies if the call target is compiled with the fast first tier
+     */
+    public CancellableCompileTask(boolean firstTier) {
+        this.firstTier = firstTier;
+    }
+
+    /**
+     * Determines if the call target is compiled without inlining and with the economy phase
+     * suites.
+     */
+    public boolean isFirstTier() {
+        return firstTier;
+    }
 
     // This cannot be done in the constructor because the CancellableCompileTask needs to be
     // passed down to the compiler through a Runnable inner class.
@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle;
+
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleProfileStoreCompilationThreshold;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleProfileStoreFile;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.truffle.debug.AbstractDebugCompilationListener;
+
+import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Persists the compilation profiles of call targets across runs. The profiles of a previous run
+ * are read at startup and used to compile call targets that were compiled in that run after fewer
+ * calls, and to disable argument and return type speculation for call targets where it failed.
+ * The profiles of the current run are written at shutdown.
+ * <p>
+ * Call targets are identified by the name of their root node and the location and a hash of the
+ * code of its source section. Call targets without an available source section are not recorded.
+ */
+public final class CompilationProfileStore extends AbstractDebugCompilationListener {
+
+    private static final String HEADER = "# Truffle compilation profiles, version 1";
+
+    /**
+     * The profile of all call targets with the same key.
+     */
+    static final class Entry {
+        int callAndLoopCount;
+        int compilations;
+        int invalidations;
+        int deoptimizations;
+        int splits;
+        int inlinedCalls;
+        boolean argumentTypesFailed;
+        boolean returnTypeFailed;
+
+        /**
+         * Determines if the call target was compiled and its last compilation was not invalidated.
+         */
+        boolean isHot() {
+            return compilations > invalidations;
+        }
+
+        @Override
+        public String toString() {
+            return callAndLoopCount + "\t" + compilations + "\t" + invalidations + "\t" + deoptimizations + "\t" + splits + "\t" + inlinedCalls + "\t" + argumentTypesFailed + "\t" +
+                            returnTypeFailed;
+        }
+
+        static Entry parse(String[] fields, int start) {
+            Entry entry = new Entry();
+            entry.callAndLoopCount = Integer.parseInt(fields[start]);
+            entry.compilations = Integer.parseInt(fields[start + 1]);
+            entry.invalidations = Integer.parseInt(fields[start + 2]);
+            entry.deoptimizations = Integer.parseInt(fields[start + 3]);
+            entry.splits = Integer.parseInt(fields[start + 4]);
+            entry.inlinedCalls = Integer.parseInt(fields[start + 5]);
+            entry.argumentTypesFailed = Boolean.parseBoolean(fields[start + 6]);
+            entry.returnTypeFailed = Boolean.parseBoolean(fields[start + 7]);
+            return entry;
+        }
+
+        /**
+         * Merges the profile of the previous run with the profile of the current run. The counts
+         * of the previous run are halved so that the merged profile follows changes in the
+         * behavior of a program over several runs while still remembering what was hot in runs
+         * that did not get as far. Splits are rounded down, so a split that is not confirmed in
+         * the current run expires.
+         */
+        static Entry merge(Entry previous, Entry current) {
+            Entry entry = new Entry();
+            entry.callAndLoopCount = Math.max(previous.callAndLoopCount, current.callAndLoopCount);
+            entry.compilations = decay(previous.compilations) + current.compilations;
+            entry.invalidations = decay(previous.invalidations) + current.invalidations;
+            entry.deoptimizations = decay(previous.deoptimizations) + current.deoptimizations;
+            entry.splits = previous.splits / 2 + current.splits;
+            entry.inlinedCalls = Math.max(previous.inlinedCalls, current.inlinedCalls);
+            entry.argumentTypesFailed = previous.argumentTypesFailed || current.argumentTypesFailed;
+            entry.returnTypeFailed = previous.returnTypeFailed || current.returnTypeFailed;
+            return entry;
+        }
+
+        private static int decay(int count) {
+            return count - count / 2;
+        }
+
+        /**
+         * Ages the profile of a call target that was not seen in the current run. All counts are
+         * halved and rounded down.
+         *
+         * @return {@code null} if nothing remains of the profile
+         */
+        static Entry age(Entry previous) {
+            Entry entry = new Entry();
+            entry.callAndLoopCount = previous.callAndLoopCount / 2;
+            entry.compilations = previous.compilations / 2;
+            entry.invalidations = previous.invalidations / 2;
+            entry.deoptimizations = previous.deoptimizations / 2;
+            entry.splits = previous.splits / 2;
+            entry.inlinedCalls = previous.inlinedCalls / 2;
+            if (entry.callAndLoopCount == 0 && entry.compilations == 0 && entry.invalidations == 0 && entry.deoptimizations == 0 && entry.splits == 0 && entry.inlinedCalls == 0) {
+                return null;
+            }
+            entry.argumentTypesFailed = previous.argumentTypesFailed;
+            entry.returnTypeFailed = previous.returnTypeFailed;
+            return entry;
+        }
+
+        static final int FIELDS = 8;
+    }
+
+    private final GraalTruffleRuntime runtime;
+    private final Path file;
+    private final int compilationThreshold;
+
+    /**
+     * Profiles read from {@link #file} at startup.
+     */
+    private final Map<String, Entry> previousRun;
+
+    /**
+     * Profiles recorded in this run.
+     */
+    private final Map<String, Entry> currentRun = new HashMap<>();
+
+    /**
+     * The keys of the call targets seen in this run.
+     */
+    private final Map<OptimizedCallTarget, String> targets = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Call nodes that were split because of a split in the previous run and whose split was not
+     * yet {@linkplain #confirmReplayedSplit confirmed}.
+     */
+    private final Set<OptimizedDirectCallNode> replayedSplits = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /**
+     * Creates a profile store and reads the profiles of the previous run from {@code file}.
+     *
+     * @param compilationThreshold the call and loop count at which call targets that were
+     *            compiled in the previous run are compiled
+     */
+    public CompilationProfileStore(GraalTruffleRuntime runtime, Path file, int compilationThreshold) {
+        this.runtime = runtime;
+        this.file = file;
+        this.compilationThreshold = compilationThreshold;
+        this.previousRun = read();
+    }
+
+    /**
+     * Creates and registers a profile store if {@link TruffleCompilerOptions#TruffleProfileStoreFile}
+     * is set.
+     *
+     * @return the profile store or {@code null} if none is used
+     */
+    public static CompilationProfileStore install(GraalTruffleRuntime runtime) {
+        String fileName = TruffleCompilerOptions.getValue(TruffleProfileStoreFile);
+        if (fileName == null || fileName.isEmpty()) {
+            return null;
+        }
+        CompilationProfileStore store = new CompilationProfileStore(runtime, Paths.get(fileName), TruffleCompilerOptions.getValue(TruffleProfileStoreCompilationThreshold));
+        runtime.addCompilationListener(store);
+        return store;
+    }
+
+    /**
+     * Initializes the compilation profile of a call target from the profile recorded for it in the
+     * previous run.
+     */
+    public void apply(OptimizedCallTarget target, OptimizedCompilationProfile profile) {
+        Entry previous = getPreviousEntry(target);
+        if (previous == null) {
+            return;
+        }
+        if (previous.isHot()) {
+            profile.lowerCompilationThreshold(compilationThreshold);
+        }
+        if (previous.argumentTypesFailed) {
+            profile.disableArgumentTypeProfile();
+        }
+        if (previous.returnTypeFailed) {
+            profile.disableReturnTypeProfile();
+        }
+    }
+
+    /**
+     * Determines if calls to {@code target} were split in the previous run.
+     */
+    public boolean wasSplit(OptimizedCallTarget target) {
+        Entry previous = getPreviousEntry(target);
+        return previous != null && previous.splits > 0;
+    }
+
+    /**
+     * Notifies the store that {@code callNode} is about to be split because calls to its target
+     * were split in the previous run. Such a split is not recorded for the next run unless it is
+     * {@linkplain #confirmReplayedSplit confirmed}, so that a split does not keep replaying itself.
+     */
+    public synchronized void notifyReplayedSplit(OptimizedDirectCallNode callNode) {
+        replayedSplits.add(callNode);
+    }
+
+    /**
+     * Records a split replayed from the previous run after the splitting heuristic found that it
+     * would still have split {@code callNode}.
+     */
+    public synchronized void confirmReplayedSplit(OptimizedDirectCallNode callNode) {
+        if (replayedSplits.remove(callNode)) {
+            Entry entry = currentEntry(callNode.getCallTarget());
+            if (entry != null) {
+                entry.splits++;
+            }
+        }
+    }
+
+    private Entry getPreviousEntry(OptimizedCallTarget target) {
+        String key = keyOf(target);
+        return key == null ? null : previousRun.get(key);
+    }
+
+    /**
+     * Gets the key under which the profile of {@code target} is stored.
+     *
+     * @return {@code null} if {@code target} has no available source section
+     */
+    String keyOf(OptimizedCallTarget target) {
+        OptimizedCallTarget source = target.getSourceCallTarget() != null ? target.getSourceCallTarget() : target;
+        String key = targets.get(source);
+        if (key == null) {
+            key = computeKey(source.getRootNode());
+            targets.put(source, key);
+        }
+        return key.isEmpty() ? null : key;
+    }
+
+    private static String computeKey(RootNode rootNode) {
+        SourceSection section = rootNode.getSourceSection();
+        if (section == null || !section.isAvailable()) {
+            return "";
+        }
+        String key = String.format("%s@%s:%d+%d#%08x", rootNode.getName(), section.getSource().getName(), section.getCharIndex(), section.getCharLength(), section.getCode().hashCode());
+        return key.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private Entry currentEntry(OptimizedCallTarget target) {
+        String key = keyOf(target);
+        if (key == null) {
+            return null;
+        }
+        return currentRun.computeIfAbsent(key, k -> new Entry());
+    }
+
+    @Override
+    public synchronized void notifyCompilationSplit(OptimizedDirectCallNode callNode) {
+        Entry entry = currentEntry(callNode.getCallTarget());
+        if (entry != null && !replayedSplits.contains(callNode)) {
+            entry.splits++;
+        }
+    }
+
+    @Override
+    public synchronized void notifyCompilationSuccess(OptimizedCallTarget target, TruffleInlining inliningDecision, StructuredGraph graph, CompilationResult result) {
+        Entry entry = currentEntry(target);
+        if (entry != null) {
+            entry.compilations++;
+            if (inliningDecision != null) {
+                entry.inlinedCalls = Math.max(entry.inlinedCalls, inliningDecision.countInlinedCalls());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void notifyCompilationInvalidated(OptimizedCallTarget target, Object source, CharSequence reason) {
+        Entry entry = currentEntry(target);
+        if (entry != null) {
+            entry.invalidations++;
+        }
+    }
+
+    @Override
+    public synchronized void notifyCompilationDeoptimized(OptimizedCallTarget target, Frame frame) {
+        Entry entry = currentEntry(target);
+        if (entry != null) {
+            entry.deoptimizations++;
+        }
+    }
+
+    @Override
+    public void notifyShutdown(GraalTruffleRuntime rt) {
+        write(collectProfiles());
+    }
+
+    /**
+     * Merges the profiles of the call targets seen in this run with the profiles of the previous
+     * run. The profiles of call targets that were not seen in this run are {@linkplain Entry#age
+     * aged}, so they expire after a few runs.
+     */
+    synchronized Map<String, Entry> collectProfiles() {
+        List<OptimizedCallTarget> seen;
+        synchronized (targets) {
+            seen = new ArrayList<>(targets.keySet());
+        }
+        for (OptimizedCallTarget target : seen) {
+            OptimizedCompilationProfile profile = target.compilationProfile;
+            Entry entry = profile == null ? null : currentEntry(target);
+            if (entry != null) {
+                entry.callAndLoopCount = Math.max(entry.callAndLoopCount, profile.getInterpreterCallAndLoopCount());
+                entry.argumentTypesFailed |= profile.isArgumentTypeProfileFailed();
+                entry.returnTypeFailed |= profile.isReturnTypeProfileFailed();
+            }
+        }
+        Map<String, Entry> profiles = new TreeMap<>();
+        for (Map.Entry<String, Entry> e : previousRun.entrySet()) {
+            Entry current = currentRun.get(e.getKey());
+            Entry merged = current == null ? Entry.age(e.getValue()) : Entry.merge(e.getValue(), current);
+            if (merged != null) {
+                profiles.put(e.getKey(), merged);
+            }
+        }
+        for (Map.Entry<String, Entry> e : currentRun.entrySet()) {
+            profiles.putIfAbsent(e.getKey(), e.getValue());
+        }
+        return profiles;
+    }
+
+    private Map<String, Entry> read() {
+        Map<String, Entry> profiles = new HashMap<>();
+        if (!Files.exists(file)) {
+            return profiles;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                if (fields.length != Entry.FIELDS + 1) {
+                    throw new IOException("malformed line: " + line);
+                }
+                profiles.put(fields[0], Entry.parse(fields, 1));
+            }
+        } catch (IOException | NumberFormatException e) {
+            runtime.log(String.format("[truffle] Ignoring compilation profiles in %s: %s", file, e.getMessage()));
+            profiles.clear();
+        }
+        return profiles;
+    }
+
+    private void write(Map<String, Entry> profiles) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                for (Map.Entry<String, Entry> e : profiles.entrySet()) {
+                    writer.write(e.getKey());
+                    writer.write('\t');
+                    writer.write(e.getValue().toString());
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            runtime.log(String.format("[truffle] Could not write compilation profiles to %s: %s", file, e.getMessage()));
+        }
+    }
+}
@@ -41,9 +41,23 @@ public final class DefaultTruffleSplittingStrategy implements TruffleSplittingSt
 
     @Override
     public void beforeCall(Object[] arguments) {
-        if (call.getCallCount() == 2) {
+        int callCount = call.getCallCount();
+        if (callCount == 1) {
+            // split before the first call if calls to the target were split in a previous run
+            CompilationProfileStore profileStore = OptimizedCallTarget.runtime().getProfileStore();
+            if (profileStore != null && profileStore.wasSplit(call.getCallTarget()) && isSplittingCandidate()) {
+                profileStore.notifyReplayedSplit(call);
+                call.split();
+            }
+        } else if (callCount == 2) {
             if (shouldSplit()) {
                 call.split();
+            } else if (call.isCallTargetCloned() && isSplittingBeneficial()) {
+                // a split replayed from the profile store is only stored again if it still pays off
+                CompilationProfileStore profileStore = OptimizedCallTarget.runtime().getProfileStore();
+                if (profileStore != null) {
+                    profileStore.confirmReplayedSplit(call);
+                }
             }
         }
     }
@@ -70,6 +84,14 @@ public final class DefaultTruffleSplittingStrategy implements TruffleSplittingSt
     }
 
     private boolean shouldSplit() {
+        return isSplittingCandidate() && isSplittingBeneficial();
+    }
+
+    /**
+     * Determines if the call target may be split at this call, i.e., if splitting is enabled and
+     * allowed, the call target is small enough and the call is not recursive.
+     */
+    private boolean isSplittingCandidate() {
         if (!canSplit()) {
             return false;
         }
@@ -86,7 +108,10 @@ public final class DefaultTruffleSplittingStrategy implements TruffleSplittingSt
             // recursive call found
             return false;
         }
+        return true;
+    }
 
+    private boolean isSplittingBeneficial() {
         // max one child call and callCount > 2 and kind of small number of nodes
         if (isMaxSingleCall(call)) {
             return true;
@@ -24,6 +24,7 @@ package org.graalvm.compiler.truffle;
 
 import static org.graalvm.compiler.serviceprovider.JDK9Method.Java8OrEarlier;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilationExceptionsAreThrown;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilationQueuePriority;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilationRepeats;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompileOnly;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompilerThreads;
@@ -46,12 +47,13 @@ import java.util.ServiceLoader;
 import java.util.WeakHashMap;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import org.graalvm.compiler.api.runtime.GraalRuntime;
@@ -124,8 +126,17 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
         callTargets.clear();
     }
 
+    /**
+     * Queue of pending background compilations. Compilations are ordered by the hotness of their
+     * call targets (see {@link OptimizedCompilationProfile#getInterpreterCallAndLoopCount()}) so
+     * that a burst of lukewarm call targets does not delay the compilation of truly hot ones. Call
+     * targets that keep getting hotter while queued are re-prioritized by enqueuing a new entry for
+     * the same request; the superseded entry becomes stale and is dropped when it is dequeued.
+     */
     protected static class BackgroundCompileQueue {
-        private final ExecutorService compileQueue;
+        private final ThreadPoolExecutor compileQueue;
+        private final AtomicLong entryCounter = new AtomicLong();
+        private final boolean prioritized;
 
         public BackgroundCompileQueue() {
             CompilerThreadFactory factory = new CompilerThreadFactory("TruffleCompilerThread");
@@ -139,7 +150,115 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
                 }
             }
             selectedProcessors = Math.max(1, selectedProcessors);
-            compileQueue = Executors.newFixedThreadPool(selectedProcessors, factory);
+            prioritized = TruffleCompilerOptions.getValue(TruffleCompilationQueuePriority);
+            compileQueue = new ThreadPoolExecutor(selectedProcessors, selectedProcessors, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(), factory);
+        }
+
+        CompilationRequest submit(OptimizedCallTarget callTarget, Runnable compilation) {
+            CompilationRequest request = new CompilationRequest(callTarget, compilation);
+            enqueue(request, callTarget);
+            return request;
+        }
+
+        /**
+         * Enqueues a new entry for {@code request} reflecting the current hotness of its call
+         * target. Does nothing if the compilation has already been started or was cancelled.
+         */
+        void reprioritize(CompilationRequest request) {
+            if (!prioritized || request.started || request.isDone()) {
+                return;
+            }
+            OptimizedCallTarget callTarget = request.getCallTarget();
+            if (callTarget != null) {
+                enqueue(request, callTarget);
+            }
+        }
+
+        private void enqueue(CompilationRequest request, OptimizedCallTarget callTarget) {
+            long priority = prioritized ? priorityOf(callTarget) : 0L;
+            QueueEntry entry = new QueueEntry(request, priority, entryCounter.getAndIncrement());
+            request.entry = entry;
+            compileQueue.execute(entry);
+        }
+
+        private static long priorityOf(OptimizedCallTarget callTarget) {
+            return callTarget.getCompilationProfile().getInterpreterCallAndLoopCount();
+        }
+
+        /**
+         * Gets the pending (neither stale, started nor cancelled) entries of this queue, hottest
+         * first.
+         */
+        List<QueueEntry> getPendingEntries() {
+            Object[] entries = compileQueue.getQueue().toArray();
+            List<QueueEntry> pending = new ArrayList<>(entries.length);
+            for (Object e : entries) {
+                QueueEntry entry = (QueueEntry) e;
+                if (entry.isPending()) {
+                    pending.add(entry);
+                }
+            }
+            Collections.sort(pending);
+            return pending;
+        }
+    }
+
+    /**
+     * A single compilation submitted to the {@link BackgroundCompileQueue}. The request is the
+     * {@link Future} handed out to {@link CancellableCompileTask}; it may be referenced by more than
+     * one {@link QueueEntry} if it was re-prioritized, but only the most recent one runs it.
+     */
+    static final class CompilationRequest extends FutureTask<Void> {
+        private final WeakReference<OptimizedCallTarget> callTarget;
+        volatile QueueEntry entry;
+        volatile boolean started;
+
+        CompilationRequest(OptimizedCallTarget callTarget, Runnable compilation) {
+            super(compilation, null);
+            this.callTarget = new WeakReference<>(callTarget);
+        }
+
+        OptimizedCallTarget getCallTarget() {
+            return callTarget.get();
+        }
+
+        @Override
+        public void run() {
+            started = true;
+            super.run();
+        }
+    }
+
+    static final class QueueEntry implements Runnable, Comparable<QueueEntry> {
+        final CompilationRequest request;
+        final long priority;
+        final long id;
+
+        QueueEntry(CompilationRequest request, long priority, long id) {
+            this.request = request;
+            this.priority = priority;
+            this.id = id;
+        }
+
+        boolean isPending() {
+            return request.entry == this && !request.started && !request.isDone();
+        }
+
+        @Override
+        public void run() {
+            if (request.entry == this) {
+                request.run();
+            }
+            // otherwise this entry was superseded by a re-prioritization and is dropped
+        }
+
+        @Override
+        public int compareTo(QueueEntry other) {
+            int result = Long.compare(other.priority, priority);
+            if (result == 0) {
+                result = Long.compare(id, other.id);
+            }
+            return result;
         }
     }
 
@@ -149,6 +268,7 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
 
     private final List<GraalTruffleCompilationListener> compilationListeners = new ArrayList<>();
     private final GraalTruffleCompilationListener compilationNotify = new DispatchTruffleCompilationListener();
+    private CompilationProfileStore profileStore;
 
     protected volatile TruffleCompiler truffleCompiler;
     protected LoopNodeFactory loopNodeFactory;
@@ -245,6 +365,7 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
         PrintCallTargetProfiling.install(this);
         CompilationStatisticsListener.install(this);
         TraceCompilationASTListener.install(this);
+        profileStore = CompilationProfileStore.install(this);
         installShutdownHooks();
         compilationNotify.notifyStartup(this);
     }
@@ -345,6 +466,19 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
         return new OptimizedAssumption(name);
     }
 
+    @Override
+    public void invalidateAssumptions(Assumption... assumptions) {
+        OptimizedAssumption.invalidateAll(assumptions);
+    }
+
+    /**
+     * Gets the store of compilation profiles from previous runs or {@code null} if
+     * {@link TruffleCompilerOptions#TruffleProfileStoreFile} is not set.
+     */
+    CompilationProfileStore getProfileStore() {
+        return profileStore;
+    }
+
     public GraalTruffleCompilationListener getCompilationNotify() {
         return compilationNotify;
     }
@@ -602,13 +736,20 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
 
     protected abstract BackgroundCompileQueue getCompileQueue();
 
-    @SuppressWarnings("try")
     public CancellableCompileTask submitForCompilation(OptimizedCallTarget optimizedCallTarget) {
+        return submitForCompilation(optimizedCallTarget, false);
+    }
+
+    /**
+     * @param firstTier specifies if the call target is compiled with the fast first tier
+     */
+    @SuppressWarnings("try")
+    public CancellableCompileTask submitForCompilation(OptimizedCallTarget optimizedCallTarget, boolean firstTier) {
         BackgroundCompileQueue l = getCompileQueue();
         final WeakReference<OptimizedCallTarget> weakCallTarget = new WeakReference<>(optimizedCallTarget);
         final OptionValues optionOverrides = TruffleCompilerOptions.getCurrentOptionOverrides();
-        CancellableCompileTask cancellable = new CancellableCompileTask();
-        cancellable.setFuture(l.compileQueue.submit(new Runnable() {
+        CancellableCompileTask cancellable = new CancellableCompileTask(firstTier);
+        cancellable.setFuture(l.submit(optimizedCallTarget, new Runnable() {
             @Override
             public void run() {
                 OptimizedCallTarget callTarget = weakCallTarget.get();
@@ -625,6 +766,20 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
         return cancellable;
     }
 
+    /**
+     * Moves the queued compilation of {@code optimizedCallTarget} (if any) to the position in the
+     * compilation queue that corresponds to the current hotness of the call target.
+     */
+    public void updateCompilationPriority(OptimizedCallTarget optimizedCallTarget) {
+        CancellableCompileTask task = optimizedCallTarget.getCompilationTask();
+        if (task != null) {
+            Future<?> future = task.getFuture();
+            if (future instanceof CompilationRequest) {
+                getCompileQueue().reprioritize((CompilationRequest) future);
+            }
+        }
+    }
+
     public void finishCompilation(OptimizedCallTarget optimizedCallTarget, Future<?> future, boolean mayBeAsynchronous) {
         getCompilationNotify().notifyCompilationQueued(optimizedCallTarget);
 
@@ -704,18 +859,24 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime {
 
     }
 
-    @Deprecated
+    /**
+     * Gets the call targets currently waiting for compilation in the order in which they will be
+     * compiled.
+     */
     public Collection<OptimizedCallTarget> getQueuedCallTargets() {
-        return Collections.emptyList();
+        List<QueueEntry> entries = getCompileQueue().getPendingEntries();
+        List<OptimizedCallTarget> callTargets = new ArrayList<>(entries.size());
+        for (QueueEntry entry : entries) {
+            OptimizedCallTarget callTarget = entry.request.getCallTarget();
+            if (callTarget != null) {
+                callTargets.add(callTarget);
+            }
+        }
+        return Collections.unmodifiableList(callTargets);
     }
 
     public int getCompilationQueueSize() {
-        ExecutorService executor = getCompileQueue().compileQueue;
-        if (executor instanceof ThreadPoolExecutor) {
-            return ((ThreadPoolExecutor) executor).getQueue().size();
-        } else {
-            return 0;
-        }
+        return getCompileQueue().getPendingEntries().size();
     }
 
     public boolean isCompiling(OptimizedCallTarget optimizedCallTarget) {
@@ -28,6 +28,11 @@ import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TraceTruffleSt
 import java.lang.ref.WeakReference;
 
 import org.graalvm.compiler.debug.TTY;
+import org.graalvm.util.EconomicMap;
+import org.graalvm.util.Equivalence;
+import org.graalvm.util.MapCursor;
+
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.impl.AbstractAssumption;
@@ -43,7 +48,15 @@ public final class OptimizedAssumption extends AbstractAssumption {
         Entry next;
     }
 
+    /**
+     * Minimum number of entries before {@link #registerInstalledCode} prunes the entries of
+     * collected or already invalidated code.
+     */
+    private static final int MIN_PRUNE_SIZE = 8;
+
     private Entry first;
+    private int size;
+    private int sizeAfterLastPrune;
 
     public OptimizedAssumption(String name) {
         super(name);
@@ -87,7 +100,7 @@ public final class OptimizedAssumption extends AbstractAssumption {
             }
             e = e.next;
         }
-        first = null;
+        clearEntries();
         isValid = false;
 
         if (TruffleCompilerOptions.getValue(TraceTruffleAssumptions)) {
@@ -97,13 +110,123 @@ public final class OptimizedAssumption extends AbstractAssumption {
         }
     }
 
+    /**
+     * Invalidates a set of assumptions. Installed code that depends on more than one of the
+     * assumptions is only invalidated once. Assumptions that are not {@link OptimizedAssumption}s
+     * are invalidated individually.
+     */
+    @TruffleBoundary
+    public static void invalidateAll(Assumption... assumptions) {
+        EconomicMap<InstalledCode, OptimizedAssumption> dependentCode = EconomicMap.create(Equivalence.IDENTITY);
+        for (Assumption assumption : assumptions) {
+            if (assumption instanceof OptimizedAssumption) {
+                ((OptimizedAssumption) assumption).collectDependentCode(dependentCode);
+            } else {
+                assumption.invalidate();
+            }
+        }
+
+        invalidateDependentCode(dependentCode);
+
+        /*
+         * Code installed while the collected code was invalidated is registered again. It is
+         * collected and invalidated together with marking the assumptions invalid.
+         */
+        dependentCode.clear();
+        for (Assumption assumption : assumptions) {
+            if (assumption instanceof OptimizedAssumption) {
+                OptimizedAssumption optimizedAssumption = (OptimizedAssumption) assumption;
+                synchronized (optimizedAssumption) {
+                    if (optimizedAssumption.isValid) {
+                        optimizedAssumption.collectDependentCode(dependentCode);
+                        optimizedAssumption.isValid = false;
+                    }
+                }
+            }
+        }
+        invalidateDependentCode(dependentCode);
+    }
+
+    private static void invalidateDependentCode(EconomicMap<InstalledCode, OptimizedAssumption> dependentCode) {
+        boolean invalidatedInstalledCode = false;
+        MapCursor<InstalledCode, OptimizedAssumption> cursor = dependentCode.getEntries();
+        while (cursor.advance()) {
+            InstalledCode installedCode = cursor.getKey();
+            OptimizedAssumption assumption = cursor.getValue();
+            assumption.invalidateWithReason(installedCode, "assumption invalidated");
+            invalidatedInstalledCode = true;
+            if (TruffleCompilerOptions.getValue(TraceTruffleAssumptions)) {
+                assumption.logInvalidatedInstalledCode(installedCode);
+            }
+        }
+        if (TruffleCompilerOptions.getValue(TraceTruffleAssumptions)) {
+            if (invalidatedInstalledCode) {
+                logStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Moves the live entries of this assumption to {@code dependentCode} unless the code is
+     * already in there.
+     */
+    private synchronized void collectDependentCode(EconomicMap<InstalledCode, OptimizedAssumption> dependentCode) {
+        if (!isValid) {
+            return;
+        }
+        Entry e = first;
+        while (e != null) {
+            InstalledCode installedCode = e.installedCode.get();
+            if (installedCode != null && installedCode.getVersion() == e.version && !dependentCode.containsKey(installedCode)) {
+                dependentCode.put(installedCode, this);
+            }
+            e = e.next;
+        }
+        clearEntries();
+    }
+
+    private void clearEntries() {
+        first = null;
+        size = 0;
+        sizeAfterLastPrune = 0;
+    }
+
+    /**
+     * Removes the entries of code that was collected or invalidated in the meantime.
+     */
+    private void pruneEntries() {
+        Entry prev = null;
+        Entry e = first;
+        int newSize = 0;
+        while (e != null) {
+            InstalledCode installedCode = e.installedCode.get();
+            if (installedCode == null || installedCode.getVersion() != e.version) {
+                if (prev == null) {
+                    first = e.next;
+                } else {
+                    prev.next = e.next;
+                }
+            } else {
+                prev = e;
+                newSize++;
+            }
+            e = e.next;
+        }
+        size = newSize;
+        sizeAfterLastPrune = newSize;
+    }
+
     public synchronized void registerInstalledCode(InstalledCode installedCode) {
         if (isValid) {
+            if (size >= Math.max(MIN_PRUNE_SIZE, 2 * sizeAfterLastPrune)) {
+                pruneEntries();
+            }
             Entry e = new Entry();
             e.installedCode = new WeakReference<>(installedCode);
             e.version = installedCode.getVersion();
             e.next = first;
             first = e;
+            size++;
         } else {
             invalidateWithReason(installedCode, "assumption already invalidated when installing code");
             if (TruffleCompilerOptions.getValue(TraceTruffleAssumptions)) {
@@ -232,6 +232,7 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
         OptimizedCompilationProfile profile = this.compilationProfile;
         if (CompilerDirectives.inCompiledCode() && profile != null) {
             args = profile.injectArgumentProfile(originalArguments);
+            profile.firstTierCall(this);
         }
         Object result = callProxy(createFrame(getRootNode().getFrameDescriptor(), args));
 
@@ -276,7 +277,12 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
                 this.uninitializedRootNode = NodeUtil.cloneNode(rootNode);
             }
             tvmci.onFirstExecution(this);
-            this.compilationProfile = createCompilationProfile();
+            OptimizedCompilationProfile profile = createCompilationProfile();
+            CompilationProfileStore profileStore = runtime().getProfileStore();
+            if (profileStore != null) {
+                profileStore.apply(this, profile);
+            }
+            this.compilationProfile = profile;
         }
     }
 
@@ -294,6 +300,13 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
     }
 
     public final void compile() {
+        compile(false);
+    }
+
+    /**
+     * @param firstTier specifies if the call target is compiled with the fast first tier
+     */
+    final void compile(boolean firstTier) {
         if (!isCompiling()) {
             if (compilationProfile == null) {
                 initialize();
@@ -308,7 +321,8 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
             // but do not block other threads if compilation is not asynchronous.
             synchronized (this) {
                 if (!isCompiling()) {
-                    compilationTask = task = runtime().submitForCompilation(this);
+                    compilationProfile.reportCompilationTier(firstTier);
+                    compilationTask = task = runtime().submitForCompilation(this, firstTier);
                 }
             }
             if (task != null) {
@@ -323,6 +337,10 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
         }
     }
 
+    final void updateCompilationPriority() {
+        runtime().updateCompilationPriority(this);
+    }
+
     public final boolean isCompiling() {
         CancellableCompileTask task = getCompilationTask();
         if (task != null) {
@@ -24,8 +24,10 @@ package org.graalvm.compiler.truffle;
 
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleArgumentTypeSpeculation;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleCompileImmediately;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleFirstTierCompilationThreshold;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInvalidationReprofileCount;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleMinInvokeThreshold;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleMultiTier;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleReplaceReprofileCount;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleReturnTypeSpeculation;
 
@@ -38,6 +40,7 @@ import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.CompilerOptions;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
@@ -54,9 +57,40 @@ public class OptimizedCompilationProfile {
     private int interpreterCallAndLoopCount;
     private int compilationCallThreshold;
     private int compilationCallAndLoopThreshold;
+    /**
+     * Call and loop count at which the priority of a queued compilation of this call target is
+     * updated next. Doubles with every update to bound the number of re-prioritizations.
+     */
+    private int queuePriorityUpdateCount;
 
     private long timestamp;
 
+    /**
+     * Whether call targets are compiled with a fast first tier before being compiled with all
+     * optimizations.
+     */
+    private final boolean multiTier;
+    private final int firstTierCompilationCallAndLoopThreshold;
+    /**
+     * Number of calls of the first tier code of this call target.
+     */
+    private int firstTierCallCount;
+    /**
+     * Whether the compilation with all optimizations was already requested from the first tier
+     * code. Not {@link CompilationFinal} so that first tier code stops calling into the runtime
+     * until it is replaced.
+     */
+    private boolean lastTierRequested;
+
+    /** The call target has not been submitted for compilation. */
+    public static final int TIER_NONE = 0;
+    /** The call target was last submitted for compilation with the first tier. */
+    public static final int TIER_FIRST = 1;
+    /** The call target was last submitted for compilation with all optimizations. */
+    public static final int TIER_LAST = 2;
+
+    @CompilationFinal private volatile int tier = TIER_NONE;
+
     @CompilationFinal(dimensions = 1) private Class<?>[] profiledArgumentTypes;
     @CompilationFinal private OptimizedAssumption profiledArgumentTypesAssumption;
     @CompilationFinal private Class<?> profiledReturnType;
@@ -64,6 +98,10 @@ public class OptimizedCompilationProfile {
     @CompilationFinal private Class<?> exceptionType;
 
     private volatile boolean compilationFailed;
+    /**
+     * Whether the profiled argument types were widened after the profile was initialized.
+     */
+    private boolean argumentTypesWidened;
 
     public OptimizedCompilationProfile(OptionValues options) {
         int callThreshold = TruffleCompilerOptions.getValue(TruffleMinInvokeThreshold);
@@ -73,6 +111,8 @@ public class OptimizedCompilationProfile {
         this.compilationCallThreshold = Math.min(callThreshold, callAndLoopThreshold);
         this.compilationCallAndLoopThreshold = callAndLoopThreshold;
         this.timestamp = System.nanoTime();
+        this.multiTier = TruffleCompilerOptions.getValue(TruffleMultiTier);
+        this.firstTierCompilationCallAndLoopThreshold = Math.min(callAndLoopThreshold, TruffleCompilerOptions.getValue(TruffleFirstTierCompilationThreshold));
     }
 
     @Override
@@ -252,15 +292,73 @@ public class OptimizedCompilationProfile {
     final void interpreterCall(OptimizedCallTarget callTarget) {
         int intCallCount = ++interpreterCallCount;
         int intAndLoopCallCount = ++interpreterCallAndLoopCount;
-        if (!callTarget.isCompiling() && !compilationFailed) {
+        if (callTarget.isCompiling()) {
+            if (intAndLoopCallCount >= queuePriorityUpdateCount) {
+                // the call target got considerably hotter while waiting in the queue
+                queuePriorityUpdateCount = nextQueuePriorityUpdateCount(intAndLoopCallCount);
+                callTarget.updateCompilationPriority();
+            }
+        } else if (!compilationFailed) {
+            // a call target that was never compiled is compiled with the first tier if enabled
+            boolean firstTier = multiTier && tier == TIER_NONE;
+            int callAndLoopThreshold = firstTier ? firstTierCompilationCallAndLoopThreshold : compilationCallAndLoopThreshold;
             // check if call target is hot enough to get compiled, but took not too long to get hot
-            if ((intAndLoopCallCount >= compilationCallAndLoopThreshold && intCallCount >= compilationCallThreshold && !isDeferredCompile(callTarget)) ||
+            if ((intAndLoopCallCount >= callAndLoopThreshold && intCallCount >= compilationCallThreshold && !isDeferredCompile(callTarget)) ||
                             TruffleCompilerOptions.getValue(TruffleCompileImmediately)) {
-                callTarget.compile();
+                queuePriorityUpdateCount = nextQueuePriorityUpdateCount(intAndLoopCallCount);
+                callTarget.compile(firstTier && !TruffleCompilerOptions.getValue(TruffleCompileImmediately));
             }
         }
     }
 
+    /**
+     * Counts calls of first tier code and schedules the compilation with all optimizations once
+     * the first tier code got hot. The check folds away in code that is not compiled by the first
+     * tier.
+     */
+    final void firstTierCall(OptimizedCallTarget callTarget) {
+        if (tier == TIER_FIRST && !lastTierRequested) {
+            if (++firstTierCallCount >= compilationCallAndLoopThreshold) {
+                compileLastTier(callTarget);
+            }
+        }
+    }
+
+    @TruffleBoundary
+    private void compileLastTier(OptimizedCallTarget callTarget) {
+        if (tier != TIER_FIRST || compilationFailed) {
+            // the first tier code is either being replaced or will never be
+            lastTierRequested = true;
+        } else if (!callTarget.isCompiling()) {
+            lastTierRequested = true;
+            callTarget.compile(false);
+        }
+    }
+
+    final void reportCompilationTier(boolean firstTier) {
+        CompilerAsserts.neverPartOfCompilation();
+        tier = firstTier ? TIER_FIRST : TIER_LAST;
+        firstTierCallCount = 0;
+        lastTierRequested = !firstTier;
+    }
+
+    /**
+     * Gets the tier with which the call target was last submitted for compilation.
+     *
+     * @return {@link #TIER_NONE}, {@link #TIER_FIRST} or {@link #TIER_LAST}
+     */
+    public int getTier() {
+        return tier;
+    }
+
+    public int getFirstTierCallCount() {
+        return firstTierCallCount;
+    }
+
+    private static int nextQueuePriorityUpdateCount(int callAndLoopCount) {
+        return callAndLoopCount >= Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : Math.max(1, callAndLoopCount * 2);
+    }
+
     private boolean isDeferredCompile(OptimizedCallTarget target) {
         // Workaround for https://bugs.eclipse.org/bugs/show_bug.cgi?id=440019
         int threshold = target.getOptionValue(PolyglotCompilerOptions.QueueTimeThreshold);
@@ -307,6 +405,7 @@ public class OptimizedCompilationProfile {
 
     private void updateProfiledArgumentTypes(Object[] args, Class<?>[] types) {
         CompilerAsserts.neverPartOfCompilation();
+        argumentTypesWidened = true;
         profiledArgumentTypesAssumption.invalidate();
         for (int j = 0; j < types.length; j++) {
             types[j] = joinTypes(types[j], classOf(args[j]));
@@ -338,6 +437,52 @@ public class OptimizedCompilationProfile {
         }
     }
 
+    /**
+     * Compiles the call target after at most {@code callAndLoopThreshold} calls and loop
+     * iterations. Used for call targets that are known to get hot.
+     */
+    final void lowerCompilationThreshold(int callAndLoopThreshold) {
+        compilationCallAndLoopThreshold = Math.min(compilationCallAndLoopThreshold, callAndLoopThreshold);
+        compilationCallThreshold = Math.min(compilationCallThreshold, compilationCallAndLoopThreshold);
+    }
+
+    /**
+     * Disables argument type speculation before the first call of the call target.
+     */
+    final void disableArgumentTypeProfile() {
+        CompilerAsserts.neverPartOfCompilation();
+        if (profiledArgumentTypesAssumption == null) {
+            profiledArgumentTypesAssumption = createAssumption("Profiled Argument Types");
+            profiledArgumentTypesAssumption.invalidate();
+        }
+    }
+
+    /**
+     * Disables return type speculation before the first call of the call target.
+     */
+    final void disableReturnTypeProfile() {
+        CompilerAsserts.neverPartOfCompilation();
+        if (profiledReturnTypeAssumption == null) {
+            profiledReturnTypeAssumption = createAssumption("Profiled Return Type");
+            profiledReturnTypeAssumption.invalidate();
+        }
+    }
+
+    /**
+     * Determines if the speculation on the argument types of the call target failed or was
+     * disabled.
+     */
+    public final boolean isArgumentTypeProfileFailed() {
+        return argumentTypesWidened || (profiledArgumentTypesAssumption != null && !profiledArgumentTypesAssumption.isValid());
+    }
+
+    /**
+     * Determines if the speculation on the return type of the call target failed or was disabled.
+     */
+    public final boolean isReturnTypeProfileFailed() {
+        return profiledReturnTypeAssumption != null && !profiledReturnTypeAssumption.isValid();
+    }
+
     public Map<String, Object> getDebugProperties() {
         Map<String, Object> properties = new LinkedHashMap<>();
         String callsThreshold = String.format("%7d/%5d", getInterpreterCallCount(), getCompilationCallThreshold());
@@ -346,6 +491,9 @@ public class OptimizedCompilationProfile {
         properties.put("Calls/Thres", callsThreshold);
         properties.put("CallsAndLoop/Thres", loopsThreshold);
         properties.put("Inval#", invalidations);
+        if (multiTier) {
+            properties.put("Tier", tier);
+        }
         return properties;
     }
 
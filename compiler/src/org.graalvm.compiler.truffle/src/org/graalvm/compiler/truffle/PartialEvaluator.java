@@ -31,7 +31,12 @@ import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInlineA
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInstrumentBoundaries;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInstrumentBranches;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleIterativePartialEscape;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleParallelGraphPreparation;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleParallelGraphPreparationThreads;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleParallelGraphPreparationThreshold;
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TrufflePerformanceWarningsAreFatal;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleSharedGraphCache;
+import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleSharedGraphCacheSize;
 
 import java.lang.invoke.MethodHandle;
 import java.util.ArrayDeque;
@@ -43,14 +48,18 @@ import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
 import org.graalvm.compiler.core.common.CompilationIdentifier;
 import org.graalvm.compiler.core.common.type.StampPair;
+import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.DebugContext.Scope;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.debug.Indent;
+import org.graalvm.compiler.debug.TimerKey;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.java.ComputeLoopFrequenciesClosure;
 import org.graalvm.compiler.nodes.ConstantNode;
@@ -72,6 +81,7 @@ import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
 import org.graalvm.compiler.nodes.util.GraphUtil;
 import org.graalvm.compiler.nodes.virtual.VirtualInstanceNode;
 import org.graalvm.compiler.nodes.virtual.VirtualObjectNode;
+import org.graalvm.compiler.options.OptionKey;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.phases.PhaseSuite;
@@ -83,6 +93,7 @@ import org.graalvm.compiler.phases.tiers.HighTierContext;
 import org.graalvm.compiler.phases.tiers.PhaseContext;
 import org.graalvm.compiler.phases.util.Providers;
 import org.graalvm.compiler.replacements.CachingPEGraphDecoder;
+import org.graalvm.compiler.replacements.EncodedGraphCache;
 import org.graalvm.compiler.replacements.InlineDuringParsingPlugin;
 import org.graalvm.compiler.replacements.PEGraphDecoder;
 import org.graalvm.compiler.replacements.ReplacementsImpl;
@@ -101,8 +112,10 @@ import org.graalvm.compiler.truffle.substitutions.TruffleGraphBuilderPlugins;
 import org.graalvm.compiler.truffle.substitutions.TruffleInvocationPluginProvider;
 import org.graalvm.compiler.virtual.phases.ea.PartialEscapePhase;
 import org.graalvm.util.EconomicMap;
+import org.graalvm.util.EconomicSet;
 import org.graalvm.util.Equivalence;
 import org.graalvm.util.MapCursor;
+import org.graalvm.util.UnmodifiableMapCursor;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -112,6 +125,7 @@ import jdk.vm.ci.code.Architecture;
 import jdk.vm.ci.common.JVMCIError;
 import jdk.vm.ci.meta.JavaConstant;
 import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.MetaAccessProvider;
 import jdk.vm.ci.meta.ResolvedJavaMethod;
 import jdk.vm.ci.meta.ResolvedJavaType;
 import jdk.vm.ci.meta.SpeculationLog;
@@ -134,6 +148,10 @@ public class PartialEvaluator {
     private final InvocationPlugins decodingInvocationPlugins;
     private final NodePlugin[] nodePlugins;
     private final KnownTruffleFields knownTruffleFields;
+    private final EncodedGraphCache sharedGraphCache;
+    private volatile ForkJoinPool graphPreparationPool;
+
+    private static final TimerKey ParallelGraphPreparationTime = DebugContext.timer("TruffleParallelGraphPreparation");
 
     public PartialEvaluator(Providers providers, GraphBuilderConfiguration configForRoot, SnippetReflectionProvider snippetReflection, Architecture architecture,
                     InstrumentPhase.Instrumentation instrumentation) {
@@ -156,6 +174,11 @@ public class PartialEvaluator {
         this.configForParsing = createGraphBuilderConfig(configForRoot, true);
         this.decodingInvocationPlugins = createDecodingInvocationPlugins(configForRoot.getPlugins());
         this.nodePlugins = createNodePlugins(configForRoot.getPlugins());
+        if (TruffleCompilerOptions.getValue(TruffleSharedGraphCache)) {
+            this.sharedGraphCache = new EncodedGraphCache(architecture, TruffleCompilerOptions.getValue(TruffleSharedGraphCacheSize) * 1024L);
+        } else {
+            this.sharedGraphCache = null;
+        }
     }
 
     public Providers getProviders() {
@@ -174,6 +197,14 @@ public class PartialEvaluator {
         return knownTruffleFields;
     }
 
+    /**
+     * Gets the cache of graphs shared between all compilations performed with this partial
+     * evaluator or {@code null} if graphs are not shared.
+     */
+    public EncodedGraphCache getSharedGraphCache() {
+        return sharedGraphCache;
+    }
+
     public ResolvedJavaMethod[] getCompilationRootMethods() {
         return new ResolvedJavaMethod[]{callRootMethod, callInlinedMethod};
     }
@@ -424,10 +455,92 @@ public class PartialEvaluator {
         }
 
         Providers compilationUnitProviders = providers.copyWith(new TruffleConstantFieldProvider(providers.getConstantFieldProvider(), providers.getMetaAccess()));
-        return new CachingPEGraphDecoder(architecture, graph, compilationUnitProviders, newConfig, TruffleCompiler.Optimizations, AllowAssumptions.ifNonNull(graph.getAssumptions()),
+        AllowAssumptions allowAssumptions = AllowAssumptions.ifNonNull(graph.getAssumptions());
+        if (sharedGraphCache != null) {
+            Providers parsingProviders = providers.copyWith(new TruffleConstantFieldProvider(providers.getConstantFieldProvider(), providers.getMetaAccess(), false));
+            Object cacheConfiguration = new SharedGraphCacheConfiguration(graph.getOptions(), TruffleCompilerOptions.getOptions(), allowAssumptions);
+            return new CachingPEGraphDecoder(architecture, graph, compilationUnitProviders, newConfig, TruffleCompiler.Optimizations, allowAssumptions,
+                            loopExplosionPlugin, decodingInvocationPlugins, inlineInvokePlugins, parameterPlugin, nodePluginList, parsingProviders, sharedGraphCache, cacheConfiguration);
+        }
+        return new CachingPEGraphDecoder(architecture, graph, compilationUnitProviders, newConfig, TruffleCompiler.Optimizations, allowAssumptions,
                         loopExplosionPlugin, decodingInvocationPlugins, inlineInvokePlugins, parameterPlugin, nodePluginList);
     }
 
+    /**
+     * The state, in addition to {@link #configForParsing}, that influences how methods are parsed
+     * for partial evaluation. Graphs in the {@link #sharedGraphCache} are only reused by
+     * compilations with an equal configuration. Options are compared by value, and only the
+     * values that differ from the defaults are retained, so the configuration does not keep the
+     * {@link OptionValues} of a compilation alive.
+     */
+    private static final class SharedGraphCacheConfiguration {
+        private final EconomicMap<OptionKey<?>, Object> graphOptions;
+        private final EconomicMap<OptionKey<?>, Object> truffleOptions;
+        private final AllowAssumptions allowAssumptions;
+        private final int hash;
+
+        SharedGraphCacheConfiguration(OptionValues graphOptions, OptionValues truffleOptions, AllowAssumptions allowAssumptions) {
+            this.graphOptions = nonDefaultValues(graphOptions);
+            this.truffleOptions = graphOptions == truffleOptions ? this.graphOptions : nonDefaultValues(truffleOptions);
+            this.allowAssumptions = allowAssumptions;
+            this.hash = (hash(this.graphOptions) * 31 + hash(this.truffleOptions)) * 31 + allowAssumptions.hashCode();
+        }
+
+        private static EconomicMap<OptionKey<?>, Object> nonDefaultValues(OptionValues options) {
+            EconomicMap<OptionKey<?>, Object> values = OptionValues.newOptionMap();
+            UnmodifiableMapCursor<OptionKey<?>, Object> cursor = options.getMap().getEntries();
+            while (cursor.advance()) {
+                OptionKey<?> key = cursor.getKey();
+                Object value = key.getValue(options);
+                if (!Objects.equals(value, key.getDefaultValue())) {
+                    values.put(key, value);
+                }
+            }
+            return values;
+        }
+
+        private static int hash(EconomicMap<OptionKey<?>, Object> values) {
+            int result = 0;
+            MapCursor<OptionKey<?>, Object> cursor = values.getEntries();
+            while (cursor.advance()) {
+                // independent of the iteration order
+                result += cursor.getKey().hashCode() ^ Objects.hashCode(cursor.getValue());
+            }
+            return result;
+        }
+
+        private static boolean equalValues(EconomicMap<OptionKey<?>, Object> a, EconomicMap<OptionKey<?>, Object> b) {
+            if (a == b) {
+                return true;
+            }
+            if (a.size() != b.size()) {
+                return false;
+            }
+            MapCursor<OptionKey<?>, Object> cursor = a.getEntries();
+            while (cursor.advance()) {
+                if (!b.containsKey(cursor.getKey()) || !Objects.equals(cursor.getValue(), b.get(cursor.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof SharedGraphCacheConfiguration) {
+                SharedGraphCacheConfiguration other = (SharedGraphCacheConfiguration) obj;
+                return hash == other.hash && allowAssumptions == other.allowAssumptions && equalValues(graphOptions, other.graphOptions) && equalValues(truffleOptions, other.truffleOptions);
+            }
+            return false;
+        }
+    }
+
+    @SuppressWarnings("try")
     protected void doGraphPE(OptimizedCallTarget callTarget, StructuredGraph graph, HighTierContext tierContext, TruffleInlining inliningDecision) {
         LoopExplosionPlugin loopExplosionPlugin = new PELoopExplosionPlugin();
         ParameterPlugin parameterPlugin = new InterceptReceiverPlugin(callTarget);
@@ -445,6 +558,12 @@ public class PartialEvaluator {
         }
 
         PEGraphDecoder decoder = createGraphDecoder(graph, tierContext, loopExplosionPlugin, decodingInvocationPlugins, inlineInvokePlugins, parameterPlugin, nodePlugins);
+        if (decoder instanceof CachingPEGraphDecoder && TruffleCompilerOptions.getValue(TruffleParallelGraphPreparation) && inliningDecision != null &&
+                        inliningDecision.countInlinedCalls() >= TruffleCompilerOptions.getValue(TruffleParallelGraphPreparationThreshold)) {
+            try (DebugCloseable a = ParallelGraphPreparationTime.start(graph.getDebug())) {
+                ((CachingPEGraphDecoder) decoder).prepareEncodedGraphs(collectCalleeMethods(callTarget, inliningDecision), getGraphPreparationPool());
+            }
+        }
         decoder.decode(graph.method());
 
         if (TruffleCompilerOptions.getValue(PrintTruffleExpansionHistogram)) {
@@ -452,6 +571,66 @@ public class PartialEvaluator {
         }
     }
 
+    private ForkJoinPool getGraphPreparationPool() {
+        ForkJoinPool pool = graphPreparationPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = graphPreparationPool;
+                if (pool == null) {
+                    int threads = TruffleCompilerOptions.getValue(TruffleParallelGraphPreparationThreads);
+                    if (threads <= 0) {
+                        threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+                    }
+                    pool = new ForkJoinPool(threads);
+                    graphPreparationPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Collects the methods that are likely to be inlined when partially evaluating
+     * {@code callTarget} with {@code inliningDecision}: the {@code execute} methods of all node
+     * classes in the ASTs of the call target and of the call targets inlined into it.
+     */
+    private Iterable<ResolvedJavaMethod> collectCalleeMethods(OptimizedCallTarget callTarget, TruffleInlining inliningDecision) {
+        EconomicSet<Class<?>> nodeClasses = EconomicSet.create(Equivalence.IDENTITY);
+        collectNodeClasses(callTarget, nodeClasses);
+        collectNodeClasses(inliningDecision, nodeClasses);
+
+        MetaAccessProvider metaAccess = providers.getMetaAccess();
+        ResolvedJavaType nodeType = metaAccess.lookupJavaType(com.oracle.truffle.api.nodes.Node.class);
+        EconomicSet<ResolvedJavaType> visitedTypes = EconomicSet.create();
+        EconomicSet<ResolvedJavaMethod> methods = EconomicSet.create();
+        for (Class<?> nodeClass : nodeClasses) {
+            for (ResolvedJavaType type = metaAccess.lookupJavaType(nodeClass); type != null && !type.equals(nodeType) && visitedTypes.add(type); type = type.getSuperclass()) {
+                for (ResolvedJavaMethod method : type.getDeclaredMethods()) {
+                    if (method.hasBytecodes() && method.getName().startsWith("execute")) {
+                        methods.add(method);
+                    }
+                }
+            }
+        }
+        return methods;
+    }
+
+    private static void collectNodeClasses(TruffleInlining inlining, EconomicSet<Class<?>> nodeClasses) {
+        for (TruffleInliningDecision decision : inlining) {
+            if (decision.isInline()) {
+                collectNodeClasses(decision.getTarget(), nodeClasses);
+                collectNodeClasses(decision, nodeClasses);
+            }
+        }
+    }
+
+    private static void collectNodeClasses(OptimizedCallTarget target, EconomicSet<Class<?>> nodeClasses) {
+        target.getRootNode().accept(node -> {
+            nodeClasses.add(node.getClass());
+            return true;
+        });
+    }
+
     protected GraphBuilderConfiguration createGraphBuilderConfig(GraphBuilderConfiguration config, boolean canDelayIntrinsification) {
         GraphBuilderConfiguration newConfig = config.copy();
         InvocationPlugins invocationPlugins = newConfig.getPlugins().getInvocationPlugins();
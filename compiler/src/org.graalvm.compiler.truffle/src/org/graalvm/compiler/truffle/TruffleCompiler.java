@@ -31,6 +31,7 @@ import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInstrum
 import static org.graalvm.compiler.truffle.TruffleCompilerOptions.TruffleInstrumentBranches;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
@@ -38,6 +39,7 @@ import org.graalvm.compiler.code.CompilationResult;
 import org.graalvm.compiler.core.CompilationPrinter;
 import org.graalvm.compiler.core.common.CompilationIdentifier;
 import org.graalvm.compiler.core.common.util.CompilationAlarm;
+import org.graalvm.compiler.core.phases.EconomyCompilerConfiguration;
 import org.graalvm.compiler.core.target.Backend;
 import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugContext;
@@ -50,6 +52,7 @@ import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.BytecodeExceptionMode;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
+import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.phases.PhaseSuite;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
@@ -79,6 +82,7 @@ public abstract class TruffleCompiler {
     protected final Suites suites;
     protected final GraphBuilderConfiguration config;
     protected final LIRSuites lirSuites;
+    private volatile Suites firstTierSuites;
     protected final PartialEvaluator partialEvaluator;
     protected final Backend backend;
     protected final SnippetReflectionProvider snippetReflection;
@@ -132,6 +136,36 @@ public abstract class TruffleCompiler {
         return backend;
     }
 
+    public Suites getSuites() {
+        return suites;
+    }
+
+    /**
+     * Gets the suites used for first tier compilations, see
+     * {@link TruffleCompilerOptions#TruffleMultiTier}. They contain the cheaper graph phases of
+     * the {@link EconomyCompilerConfiguration economy configuration} completed with the backend
+     * specific phases. The suites for the initial options are cached, while compilations with
+     * {@linkplain TruffleCompilerOptions#overrideOptions overridden} options get new suites.
+     */
+    public Suites getFirstTierSuites() {
+        OptionValues options = TruffleCompilerOptions.getOptions();
+        if (TruffleCompilerOptions.getCurrentOptionOverrides() != null) {
+            return createFirstTierSuites(options);
+        }
+        Suites result = firstTierSuites;
+        if (result == null) {
+            result = createFirstTierSuites(options);
+            firstTierSuites = result;
+        }
+        return result;
+    }
+
+    private Suites createFirstTierSuites(OptionValues options) {
+        Suites result = backend.getSuites().getSuites(options, new EconomyCompilerConfiguration());
+        result.setImmutable();
+        return result;
+    }
+
     protected abstract PartialEvaluator createPartialEvaluator();
 
     public static ResolvedJavaType[] getSkippedExceptionTypes(MetaAccessProvider metaAccess) {
@@ -163,7 +197,9 @@ public abstract class TruffleCompiler {
         compilationNotify.notifyCompilationStarted(compilable);
 
         try (CompilationAlarm alarm = CompilationAlarm.trackCompilationPeriod(TruffleCompilerOptions.getOptions())) {
-            TruffleInlining inliningDecision = new TruffleInlining(compilable, new DefaultInliningPolicy());
+            boolean firstTier = task != null && task.isFirstTier();
+            TruffleInlining inliningDecision = firstTier ? new TruffleInlining(Collections.<TruffleInliningDecision> emptyList())
+                            : new TruffleInlining(compilable, new DefaultInliningPolicy());
             PhaseSuite<HighTierContext> graphBuilderSuite = createGraphBuilderSuite();
             try (DebugCloseable a = PartialEvaluationTime.start(debug); DebugCloseable c = PartialEvaluationMemUse.start(debug)) {
                 graph = partialEvaluator.createGraph(debug, compilable, inliningDecision, rootMethod, AllowAssumptions.YES, compilationId, task);
@@ -178,7 +214,8 @@ public abstract class TruffleCompiler {
             dequeueInlinedCallSites(inliningDecision, compilable);
 
             compilationNotify.notifyCompilationTruffleTierFinished(compilable, inliningDecision, graph);
-            CompilationResult compilationResult = compileMethodHelper(graph, compilable.toString(), graphBuilderSuite, compilable, asCompilationRequest(compilationId));
+            Suites graalSuites = firstTier ? getFirstTierSuites() : suites;
+            CompilationResult compilationResult = compileMethodHelper(graph, compilable.toString(), graphBuilderSuite, graalSuites, compilable, asCompilationRequest(compilationId));
             compilationNotify.notifyCompilationSuccess(compilable, inliningDecision, graph, compilationResult);
 
             // Partial evaluation and installation are included in
@@ -208,9 +245,14 @@ public abstract class TruffleCompiler {
         }
     }
 
-    @SuppressWarnings("try")
     public CompilationResult compileMethodHelper(StructuredGraph graph, String name, PhaseSuite<HighTierContext> graphBuilderSuite, OptimizedCallTarget predefinedInstalledCode,
                     CompilationRequest compilationRequest) {
+        return compileMethodHelper(graph, name, graphBuilderSuite, suites, predefinedInstalledCode, compilationRequest);
+    }
+
+    @SuppressWarnings("try")
+    private CompilationResult compileMethodHelper(StructuredGraph graph, String name, PhaseSuite<HighTierContext> graphBuilderSuite, Suites graalSuites, OptimizedCallTarget predefinedInstalledCode,
+                    CompilationRequest compilationRequest) {
         DebugContext debug = graph.getDebug();
         try (DebugContext.Scope s = debug.scope("TruffleFinal")) {
             debug.dump(DebugContext.BASIC_LEVEL, graph, "After TruffleTier");
@@ -229,7 +271,7 @@ public abstract class TruffleCompiler {
             }
 
             CompilationResult compilationResult = createCompilationResult(name, graph.compilationId());
-            result = compileGraph(graph, graph.method(), providers, backend, graphBuilderSuite, Optimizations, graph.getProfilingInfo(), suites, lirSuites, compilationResult,
+            result = compileGraph(graph, graph.method(), providers, backend, graphBuilderSuite, Optimizations, graph.getProfilingInfo(), graalSuites, lirSuites, compilationResult,
                             CompilationResultBuilderFactory.Default);
         } catch (Throwable e) {
             throw debug.handle(e);
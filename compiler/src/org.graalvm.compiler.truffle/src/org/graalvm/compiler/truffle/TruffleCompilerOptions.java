@@ -149,6 +149,13 @@ public class TruffleCompilerOptions {
     @Option(help = "Minimum number of calls before a call target is compiled", type = OptionType.Expert)
     public static final OptionKey<Integer> TruffleMinInvokeThreshold = new OptionKey<>(3);
 
+    @Option(help = "Compile hot call targets first without inlining and with the economy phase suites, and recompile them " +
+                   "with all optimizations once the first tier code was called TruffleCompilationThreshold times", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TruffleMultiTier = new OptionKey<>(false);
+
+    @Option(help = "Compile call target with the first tier when call and loop count exceeds this threshold (only with TruffleMultiTier)", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleFirstTierCompilationThreshold = new OptionKey<>(100);
+
     @Option(help = "Delay compilation after an invalidation to allow for reprofiling", type = OptionType.Expert)
     public static final OptionKey<Integer> TruffleInvalidationReprofileCount = new OptionKey<>(3);
 
@@ -176,12 +183,36 @@ public class TruffleCompilerOptions {
     @Option(help = "Disable call target splitting if tree size exceeds this limit", type = OptionType.Debug)
     public static final OptionKey<Integer> TruffleSplittingMaxCalleeSize = new OptionKey<>(100);
 
+    @Option(help = "Share the graphs of methods parsed during partial evaluation between Truffle compilations", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TruffleSharedGraphCache = new OptionKey<>(true);
+
+    @Option(help = "Maximum total size in kilobytes of the graphs shared between Truffle compilations", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleSharedGraphCacheSize = new OptionKey<>(32 * 1024);
+
+    @Option(help = "Parse and encode the graphs of the methods of inlined call targets in parallel before partial evaluation", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TruffleParallelGraphPreparation = new OptionKey<>(false);
+
+    @Option(help = "Minimum number of inlined calls for which graphs are prepared in parallel (see TruffleParallelGraphPreparation)", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleParallelGraphPreparationThreshold = new OptionKey<>(16);
+
+    @Option(help = "Number of threads used to prepare graphs in parallel, 0 to use one less than the number of available processors", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleParallelGraphPreparationThreads = new OptionKey<>(0);
+
+    @Option(help = "File from which compilation profiles of a previous run are read at startup and to which the profiles of this run are written at shutdown", type = OptionType.User)
+    public static final OptionKey<String> TruffleProfileStoreFile = new OptionKey<>(null);
+
+    @Option(help = "Call and loop count at which call targets that were compiled in a previous run are compiled (see TruffleProfileStoreFile)", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleProfileStoreCompilationThreshold = new OptionKey<>(100);
+
     @Option(help = "Enable asynchronous truffle compilation in background thread", type = OptionType.Expert)
     public static final OptionKey<Boolean> TruffleBackgroundCompilation = new OptionKey<>(true);
 
     @Option(help = "Manually set the number of compiler threads", type = OptionType.Expert)
     public static final OptionKey<Integer> TruffleCompilerThreads = new OptionKey<>(0);
 
+    @Option(help = "Order queued compilations by the call and loop counts of their call targets instead of first-in, first-out", type = OptionType.Expert)
+    public static final OptionKey<Boolean> TruffleCompilationQueuePriority = new OptionKey<>(true);
+
     @Option(help = "Enable inlining across Truffle boundary", type = OptionType.Expert)
     public static final OptionKey<Boolean> TruffleInlineAcrossTruffleBoundary = new OptionKey<>(false);
 
@@ -294,5 +325,9 @@ public class TruffleCompilerOptions {
     @Option(help = "Maximum number of instrumentation counters available.")
     public static final OptionKey<Integer> TruffleInstrumentationTableSize = new OptionKey<>(10000);
 
+    @Option(help = "Compile calls of Truffle NFI functions with primitive and pointer arguments to direct native calls. " +
+                   "The native function is called without a thread state transition, so it must neither block nor call back into Java.")
+    public static final OptionKey<Boolean> TruffleNFIDirectCalls = new OptionKey<>(false);
+
     // @formatter:on
 }
@@ -38,14 +38,28 @@ import jdk.vm.ci.meta.MetaAccessProvider;
 import jdk.vm.ci.meta.ResolvedJavaField;
 
 public class TruffleConstantFieldProvider implements ConstantFieldProvider {
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
     private final ConstantFieldProvider graalConstantFieldProvider;
     private final MetaAccessProvider metaAccess;
     private final EconomicMap<ResolvedJavaField, Annotation[]> cachedAnnotations;
+    private final boolean foldMutableFields;
 
     public TruffleConstantFieldProvider(ConstantFieldProvider graalConstantFieldProvider, MetaAccessProvider metaAccess) {
+        this(graalConstantFieldProvider, metaAccess, true);
+    }
+
+    /**
+     * @param foldMutableFields specifies if {@link Child}, {@link Children} and
+     *            {@link CompilationFinal} fields are folded. These fields may change between
+     *            compilations, so they must not be folded into graphs that are shared between
+     *            compilations.
+     */
+    public TruffleConstantFieldProvider(ConstantFieldProvider graalConstantFieldProvider, MetaAccessProvider metaAccess, boolean foldMutableFields) {
         this.graalConstantFieldProvider = graalConstantFieldProvider;
         this.metaAccess = metaAccess;
         this.cachedAnnotations = EconomicMap.create();
+        this.foldMutableFields = foldMutableFields;
     }
 
     @Override
@@ -68,7 +82,7 @@ public class TruffleConstantFieldProvider implements ConstantFieldProvider {
         }
 
         boolean hasObjectKind = field.getType().getJavaKind() == JavaKind.Object;
-        Annotation[] annotations = getAnnotations(field);
+        Annotation[] annotations = foldMutableFields ? getAnnotations(field) : NO_ANNOTATIONS;
         if (annotations.length > 0) {
             if (!isStaticField && hasObjectKind && getAnnotation(annotations, Child.class) != null) {
                 return tool.foldConstant(verifyFieldValue(field, tool.readValue(), annotations));
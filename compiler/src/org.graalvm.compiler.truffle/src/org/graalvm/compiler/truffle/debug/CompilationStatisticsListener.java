@@ -40,6 +40,7 @@ import java.util.function.Function;
 
 import org.graalvm.compiler.code.CompilationResult;
 import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.replacements.EncodedGraphCache;
 import org.graalvm.compiler.truffle.GraalTruffleRuntime;
 import org.graalvm.compiler.truffle.OptimizedCallTarget;
 import org.graalvm.compiler.truffle.OptimizedCompilationProfile;
@@ -271,6 +272,14 @@ public final class CompilationStatisticsListener extends AbstractDebugCompilatio
         printStatistic(rt, "Compilation Utilization", compilationTime.getSum() / (double) (endTime - firstCompilation));
         printStatistic(rt, "Remaining Compilation Queue", rt.getCompilationQueueSize());
         printStatistic(rt, "Times defered until compilation", deferCompilations);
+        if (compilations > 0) {
+            EncodedGraphCache graphCache = rt.getTruffleCompiler().getPartialEvaluator().getSharedGraphCache();
+            if (graphCache != null) {
+                printStatistic(rt, "Shared Graph Cache Hits", graphCache.getHits());
+                printStatistic(rt, "Shared Graph Cache Misses", graphCache.getMisses());
+                printStatistic(rt, "Shared Graph Cache Evictions", graphCache.getEvictions());
+            }
+        }
 
         printStatisticTime(rt, "Time to queue", timeToQueue);
         printStatisticTime(rt, "Time to compilation", timeToCompilation);
@@ -326,6 +335,10 @@ public final class CompilationStatisticsListener extends AbstractDebugCompilatio
         rt.log(String.format("  %-50s: %d", label, value));
     }
 
+    private static void printStatistic(GraalTruffleRuntime rt, String label, long value) {
+        rt.log(String.format("  %-50s: %d", label, value));
+    }
+
     private static void printStatistic(GraalTruffleRuntime rt, String label, double value) {
         rt.log(String.format("  %-50s: %f", label, value));
     }
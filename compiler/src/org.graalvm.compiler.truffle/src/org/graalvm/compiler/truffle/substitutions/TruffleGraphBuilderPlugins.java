@@ -395,6 +395,8 @@ public class TruffleGraphBuilderPlugins {
 
     public static void registerOptimizedCallTargetPlugins(InvocationPlugins plugins, SnippetReflectionProvider snippetReflection, boolean canDelayIntrinsification) {
         Registration r = new Registration(plugins, OptimizedCallTarget.class);
+        // read on the registering thread, the plugin may be applied on graph preparation workers
+        Class<?> frameClass = TruffleCompilerOptions.getValue(TruffleUseFrameWithoutBoxing) ? FrameWithoutBoxing.class : FrameWithBoxing.class;
         r.register2("createFrame", FrameDescriptor.class, Object[].class, new InvocationPlugin() {
             @Override
             public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode descriptor, ValueNode args) {
@@ -407,7 +409,6 @@ public class TruffleGraphBuilderPlugins {
                 FrameDescriptor constantDescriptor = snippetReflection.asObject(FrameDescriptor.class, descriptor.asJavaConstant());
 
                 ValueNode nonNullArguments = b.add(PiNode.create(args, StampFactory.objectNonNull(StampTool.typeReferenceOrNull(args))));
-                Class<?> frameClass = TruffleCompilerOptions.getValue(TruffleUseFrameWithoutBoxing) ? FrameWithoutBoxing.class : FrameWithBoxing.class;
                 NewFrameNode newFrame = new NewFrameNode(b.getMetaAccess(), snippetReflection, b.getGraph(), b.getMetaAccess().lookupJavaType(frameClass), constantDescriptor, descriptor,
                                 nonNullArguments);
                 b.addPush(JavaKind.Object, newFrame);
@@ -462,11 +463,12 @@ public class TruffleGraphBuilderPlugins {
 
     public static void registerFrameWithoutBoxingPlugins(InvocationPlugins plugins, boolean canDelayIntrinsification, SnippetReflectionProvider snippetReflection) {
         Registration r = new Registration(plugins, FrameWithoutBoxing.class);
-        registerFrameMethods(r);
+        boolean intrinsifyFrameAccess = TruffleCompilerOptions.getValue(Options.TruffleIntrinsifyFrameAccess);
+        registerFrameMethods(r, intrinsifyFrameAccess);
         registerUnsafeCast(r, canDelayIntrinsification);
         registerUnsafeLoadStorePlugins(r, canDelayIntrinsification, null, JavaKind.Int, JavaKind.Long, JavaKind.Float, JavaKind.Double, JavaKind.Object);
 
-        if (TruffleCompilerOptions.getValue(Options.TruffleIntrinsifyFrameAccess)) {
+        if (intrinsifyFrameAccess) {
             for (Map.Entry<JavaKind, Integer> kindAndTag : accessorKindToTag.entrySet()) {
                 registerFrameAccessors(r, kindAndTag.getKey(), kindAndTag.getValue(), snippetReflection);
             }
@@ -475,7 +477,7 @@ public class TruffleGraphBuilderPlugins {
 
     public static void registerFrameWithBoxingPlugins(InvocationPlugins plugins, boolean canDelayIntrinsification) {
         Registration r = new Registration(plugins, FrameWithBoxing.class);
-        registerFrameMethods(r);
+        registerFrameMethods(r, TruffleCompilerOptions.getValue(Options.TruffleIntrinsifyFrameAccess));
         registerUnsafeCast(r, canDelayIntrinsification);
     }
 
@@ -543,7 +545,12 @@ public class TruffleGraphBuilderPlugins {
         return null;
     }
 
-    private static void registerFrameMethods(Registration r) {
+    /**
+     * @param intrinsifyFrameAccess value of {@link Options#TruffleIntrinsifyFrameAccess}, read when
+     *            the plugins are registered since the plugins may be applied on other threads
+     *            that do not see the option overrides of the compiling thread
+     */
+    private static void registerFrameMethods(Registration r, boolean intrinsifyFrameAccess) {
         r.register1("getArguments", Receiver.class, new InvocationPlugin() {
             @Override
             public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver frame) {
@@ -570,7 +577,7 @@ public class TruffleGraphBuilderPlugins {
             @Override
             public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver) {
                 ValueNode frame = receiver.get();
-                if (TruffleCompilerOptions.getValue(Options.TruffleIntrinsifyFrameAccess) && frame instanceof NewFrameNode && ((NewFrameNode) frame).getIntrinsifyAccessors()) {
+                if (intrinsifyFrameAccess && frame instanceof NewFrameNode && ((NewFrameNode) frame).getIntrinsifyAccessors()) {
                     JavaConstant speculation = b.getGraph().getSpeculationLog().speculate(((NewFrameNode) frame).getIntrinsifyAccessorsSpeculation());
                     b.add(new DeoptimizeNode(DeoptimizationAction.InvalidateRecompile, DeoptimizationReason.RuntimeConstraint, speculation));
                     return true;
@@ -25,6 +25,7 @@ package org.graalvm.compiler.virtual.phases.ea;
 import static org.graalvm.compiler.phases.common.DeadCodeEliminationPhase.Optionality.Required;
 
 import org.graalvm.compiler.core.common.util.CompilationAlarm;
+import org.graalvm.compiler.core.common.util.CompilationBudget;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.graph.Graph.NodeEventScope;
 import org.graalvm.compiler.graph.Node;
@@ -75,8 +76,15 @@ public abstract class EffectsPhase<PhaseContextT extends PhaseContext> extends B
     public boolean runAnalysis(StructuredGraph graph, PhaseContextT context) {
         boolean changed = false;
         CompilationAlarm compilationAlarm = CompilationAlarm.current();
+        CompilationBudget compilationBudget = CompilationBudget.current();
         DebugContext debug = graph.getDebug();
         for (int iteration = 0; iteration < maxIterations && !compilationAlarm.hasExpired(); iteration++) {
+            if (iteration > 0 && compilationBudget.isExhausted()) {
+                // the first iteration is not optional since it may be required to remove
+                // allocations that must be virtualized
+                recordSkipped(debug);
+                break;
+            }
             try (DebugContext.Scope s = debug.scope(debug.areScopesEnabled() ? "iteration " + iteration : null)) {
                 ScheduleResult schedule;
                 ControlFlowGraph cfg;
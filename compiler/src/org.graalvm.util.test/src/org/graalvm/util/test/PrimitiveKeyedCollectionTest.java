@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.util.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.graalvm.util.EconomicIntMap;
+import org.graalvm.util.EconomicIntSet;
+import org.graalvm.util.IntMapCursor;
+import org.junit.Test;
+
+/**
+ * Tests the {@code int} keyed maps and sets against a {@link LinkedHashMap}.
+ */
+public class PrimitiveKeyedCollectionTest {
+
+    private static void checkEquals(Map<Integer, Object> reference, EconomicIntMap<Object> map) {
+        assertEquals(reference.size(), map.size());
+        assertEquals(reference.isEmpty(), map.isEmpty());
+        IntMapCursor<Object> cursor = map.getEntries();
+        for (Map.Entry<Integer, Object> entry : reference.entrySet()) {
+            assertTrue(cursor.advance());
+            assertEquals(entry.getKey().intValue(), cursor.getKey());
+            assertEquals(entry.getValue(), cursor.getValue());
+        }
+        assertFalse(cursor.advance());
+    }
+
+    @Test
+    public void testIntMapRandomOperations() {
+        Random random = new Random(0);
+        EconomicIntMap<Object> map = EconomicIntMap.create();
+        Map<Integer, Object> reference = new LinkedHashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(i % 1000 < 500 ? 16 : 1000) - 8;
+            switch (random.nextInt(8)) {
+                case 0:
+                    assertEquals(reference.remove(key), map.removeKey(key));
+                    break;
+                case 1:
+                    assertEquals(reference.put(key, null), map.put(key, null));
+                    break;
+                case 2:
+                    if (random.nextInt(1000) == 0) {
+                        reference.clear();
+                        map.clear();
+                    }
+                    break;
+                case 3:
+                    assertEquals(reference.containsKey(key), map.containsKey(key));
+                    break;
+                case 4:
+                    assertEquals(reference.get(key), map.get(key));
+                    break;
+                default:
+                    assertEquals(reference.put(key, "v" + i), map.put(key, "v" + i));
+                    break;
+            }
+            checkEquals(reference, map);
+        }
+    }
+
+    @Test
+    public void testIntMapCursorRemove() {
+        EconomicIntMap<Object> map = EconomicIntMap.create(32);
+        Map<Integer, Object> reference = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i * 7, i);
+            reference.put(i * 7, i);
+        }
+        IntMapCursor<Object> cursor = map.getEntries();
+        while (cursor.advance()) {
+            if (cursor.getKey() % 2 == 0) {
+                cursor.remove();
+            } else {
+                cursor.setValue("odd");
+            }
+        }
+        Iterator<Map.Entry<Integer, Object>> iterator = reference.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Object> entry = iterator.next();
+            if (entry.getKey() % 2 == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue("odd");
+            }
+        }
+        checkEquals(reference, map);
+        assertEquals("odd", map.get(7, "default"));
+        assertEquals("default", map.get(8, "default"));
+    }
+
+    @Test
+    public void testIntSet() {
+        EconomicIntSet set = EconomicIntSet.create();
+        List<Integer> reference = new ArrayList<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            int element = random.nextInt(500);
+            boolean added = !reference.contains(element);
+            if (added) {
+                reference.add(element);
+            }
+            assertEquals(added, set.add(element));
+            assertTrue(set.contains(element));
+        }
+        assertEquals(reference.size(), set.size());
+        PrimitiveIterator.OfInt iterator = set.iterator();
+        for (int element : reference) {
+            assertEquals(element, iterator.nextInt());
+        }
+        assertFalse(iterator.hasNext());
+
+        int[] elements = set.toArray();
+        for (int i = 0; i < elements.length; i += 2) {
+            set.remove(elements[i]);
+            reference.remove(Integer.valueOf(elements[i]));
+        }
+        int[] expected = new int[reference.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = reference.get(i);
+        }
+        assertArrayEquals(expected, set.toArray());
+    }
+}
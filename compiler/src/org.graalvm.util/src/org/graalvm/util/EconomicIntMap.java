@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.util;
+
+import org.graalvm.util.impl.EconomicIntMapImpl;
+
+/**
+ * Memory efficient map data structure with primitive {@code int} keys that always preserves
+ * insertion order when iterating over its entries. Unlike an {@link EconomicMap} with boxed keys,
+ * keys are neither allocated nor compared via an {@link Equivalence}, which makes this map
+ * preferable for id, index or bci keyed data.
+ */
+public interface EconomicIntMap<V> {
+
+    /**
+     * Returns the value associated with {@code key} or {@code null} if there is none.
+     */
+    V get(int key);
+
+    default V get(int key, V defaultValue) {
+        V v = get(key);
+        if (v == null) {
+            return defaultValue;
+        }
+        return v;
+    }
+
+    boolean containsKey(int key);
+
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * Associates {@code value} with {@code key}.
+     *
+     * @return the value previously associated with {@code key} or {@code null} if there was none
+     */
+    V put(int key, V value);
+
+    /**
+     * Removes the entry for {@code key}.
+     *
+     * @return the value previously associated with {@code key} or {@code null} if there was none
+     */
+    V removeKey(int key);
+
+    void clear();
+
+    /**
+     * Returns a cursor over the entries of this map in insertion order.
+     */
+    IntMapCursor<V> getEntries();
+
+    /**
+     * Returns a new array with the keys of this map in insertion order.
+     */
+    int[] getKeys();
+
+    /**
+     * Creates a new map that guarantees insertion order on the key set.
+     */
+    static <V> EconomicIntMap<V> create() {
+        return EconomicIntMapImpl.create();
+    }
+
+    /**
+     * Creates a new map that guarantees insertion order on the key set and initializes with a
+     * specified capacity.
+     */
+    static <V> EconomicIntMap<V> create(int initialCapacity) {
+        return EconomicIntMapImpl.create(initialCapacity);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.util;
+
+import java.util.PrimitiveIterator;
+
+import org.graalvm.util.impl.EconomicIntMapImpl;
+
+/**
+ * Memory efficient set data structure for primitive {@code int} elements that always preserves
+ * insertion order when iterating over its elements. Elements are never boxed.
+ */
+public interface EconomicIntSet {
+
+    boolean contains(int element);
+
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * Adds {@code element} to this set.
+     *
+     * @return {@code true} if the set did not already contain {@code element}
+     */
+    boolean add(int element);
+
+    void remove(int element);
+
+    void clear();
+
+    /**
+     * Returns an iterator over the elements of this set in insertion order. Use
+     * {@link PrimitiveIterator.OfInt#nextInt()} to avoid boxing.
+     */
+    PrimitiveIterator.OfInt iterator();
+
+    /**
+     * Returns a new array with the elements of this set in insertion order.
+     */
+    int[] toArray();
+
+    /**
+     * Creates a new set guaranteeing insertion order when iterating over its elements.
+     */
+    static EconomicIntSet create() {
+        return EconomicIntMapImpl.create();
+    }
+
+    /**
+     * Creates a new set guaranteeing insertion order when iterating over its elements and
+     * initializes with the given capacity.
+     */
+    static EconomicIntSet create(int initialCapacity) {
+        return EconomicIntMapImpl.create(initialCapacity);
+    }
+}
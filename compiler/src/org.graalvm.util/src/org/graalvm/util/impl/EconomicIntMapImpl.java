@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.util.impl;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.graalvm.util.EconomicIntMap;
+import org.graalvm.util.EconomicIntSet;
+import org.graalvm.util.IntMapCursor;
+
+/**
+ * Implementation of a map and set with primitive {@code int} keys that always preserves insertion
+ * order when iterating over keys.
+ *
+ * The keys are kept in the flat {@link #keys} array in insertion order, the values at the same
+ * index in the {@link #values} array. The values array is only allocated once a non-null value is
+ * stored, so that the map used as a set has no value storage at all. If the map has smaller or
+ * equal to {@link #HASH_THRESHOLD} entries, there is no additional hash data structure and lookups
+ * are done via linear checking of the keys.
+ *
+ * When the hash table needs to be constructed, the field {@link #hashArray} becomes an open
+ * addressing table with linear probing where an entry of 0 means no hit and otherwise denotes the
+ * entry number in the {@link #keys} array plus one. The table is kept at most half full.
+ *
+ * Removing an entry moves all later entries one position forward to keep the insertion order
+ * dense, and rebuilds the hash table. Removal is therefore linear in the size of the map, which
+ * suits the insert and lookup dominated workloads in the compiler.
+ */
+public final class EconomicIntMapImpl<V> implements EconomicIntMap<V>, EconomicIntSet {
+
+    /**
+     * Initial number of entries that is allocated in the first keys array.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Minimum number of entries added when the keys array is increased in size.
+     */
+    private static final int MIN_CAPACITY_INCREASE = 8;
+
+    /**
+     * Number of entries above which a hash table is created.
+     */
+    private static final int HASH_THRESHOLD = 8;
+
+    /**
+     * Maximum number of entries allowed in the map.
+     */
+    private static final int MAX_ELEMENT_COUNT = 1 << 29;
+
+    private static final int[] EMPTY_KEYS = new int[0];
+
+    /**
+     * Number of entries.
+     */
+    private int size;
+
+    /**
+     * Keys in insertion order.
+     */
+    private int[] keys;
+
+    /**
+     * Values at the index of their key or {@code null} if all values are {@code null}.
+     */
+    private Object[] values;
+
+    /**
+     * Hash table mapping to entry numbers plus one, or {@code null} if there are at most
+     * {@link #HASH_THRESHOLD} entries.
+     */
+    private int[] hashArray;
+
+    public static <V> EconomicIntMapImpl<V> create() {
+        return new EconomicIntMapImpl<>(0);
+    }
+
+    public static <V> EconomicIntMapImpl<V> create(int initialCapacity) {
+        return new EconomicIntMapImpl<>(initialCapacity);
+    }
+
+    private EconomicIntMapImpl(int initialCapacity) {
+        if (initialCapacity < 0 || initialCapacity > MAX_ELEMENT_COUNT) {
+            throw new IllegalArgumentException("initial capacity " + initialCapacity + " out of range");
+        }
+        this.keys = initialCapacity == 0 ? EMPTY_KEYS : new int[initialCapacity];
+        if (initialCapacity > HASH_THRESHOLD) {
+            hashArray = new int[tableSizeFor(initialCapacity)];
+        }
+    }
+
+    private static int tableSizeFor(int entryCount) {
+        return Integer.highestOneBit(entryCount) << 2;
+    }
+
+    private static int hash(int key) {
+        int h = key;
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int find(int key) {
+        if (hashArray == null) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = hashArray.length - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            int entry = hashArray[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (keys[entry - 1] == key) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void insertHash(int key, int index) {
+        int mask = hashArray.length - 1;
+        int slot = hash(key) & mask;
+        while (hashArray[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        hashArray[slot] = index + 1;
+    }
+
+    private void createHash() {
+        if (size <= HASH_THRESHOLD) {
+            hashArray = null;
+            return;
+        }
+        int length = tableSizeFor(size);
+        if (hashArray == null || hashArray.length != length) {
+            hashArray = new int[length];
+        } else {
+            Arrays.fill(hashArray, 0);
+        }
+        for (int i = 0; i < size; i++) {
+            insertHash(keys[i], i);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V getValue(int index) {
+        return values == null ? null : (V) values[index];
+    }
+
+    private void setValue(int index, Object value) {
+        if (values == null) {
+            if (value == null) {
+                return;
+            }
+            values = new Object[keys.length];
+        }
+        values[index] = value;
+    }
+
+    @Override
+    public V get(int key) {
+        int index = find(key);
+        if (index < 0) {
+            return null;
+        }
+        return getValue(index);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public V put(int key, V value) {
+        int index = find(key);
+        if (index >= 0) {
+            V oldValue = getValue(index);
+            setValue(index, value);
+            return oldValue;
+        }
+        append(key, value);
+        return null;
+    }
+
+    private void append(int key, Object value) {
+        if (size == keys.length) {
+            grow();
+        }
+        int index = size++;
+        keys[index] = key;
+        setValue(index, value);
+        if (hashArray != null) {
+            if (size << 1 > hashArray.length) {
+                createHash();
+            } else {
+                insertHash(key, index);
+            }
+        } else if (size > HASH_THRESHOLD) {
+            createHash();
+        }
+    }
+
+    private void grow() {
+        int length = keys.length;
+        if (length >= MAX_ELEMENT_COUNT) {
+            throw new UnsupportedOperationException("map grown too large!");
+        }
+        int newLength = length == 0 ? INITIAL_CAPACITY : Math.min(MAX_ELEMENT_COUNT, length + Math.max(MIN_CAPACITY_INCREASE, length >> 1));
+        keys = Arrays.copyOf(keys, newLength);
+        if (values != null) {
+            values = Arrays.copyOf(values, newLength);
+        }
+    }
+
+    @Override
+    public V removeKey(int key) {
+        int index = find(key);
+        if (index < 0) {
+            return null;
+        }
+        V oldValue = getValue(index);
+        removeAt(index);
+        return oldValue;
+    }
+
+    private void removeAt(int index) {
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            if (values != null) {
+                System.arraycopy(values, index + 1, values, index, moved);
+            }
+        }
+        size--;
+        if (values != null) {
+            values[size] = null;
+        }
+        if (hashArray != null) {
+            createHash();
+        }
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        keys = EMPTY_KEYS;
+        values = null;
+        hashArray = null;
+    }
+
+    @Override
+    public IntMapCursor<V> getEntries() {
+        return new IntMapCursor<V>() {
+            int current = -1;
+
+            @Override
+            public boolean advance() {
+                current++;
+                return current < size;
+            }
+
+            @Override
+            public int getKey() {
+                return keys[current];
+            }
+
+            @Override
+            public V getValue() {
+                return EconomicIntMapImpl.this.getValue(current);
+            }
+
+            @Override
+            public V setValue(V newValue) {
+                V oldValue = EconomicIntMapImpl.this.getValue(current);
+                EconomicIntMapImpl.this.setValue(current, newValue);
+                return oldValue;
+            }
+
+            @Override
+            public void remove() {
+                removeAt(current);
+                current--;
+            }
+        };
+    }
+
+    @Override
+    public int[] getKeys() {
+        return Arrays.copyOf(keys, size);
+    }
+
+    @Override
+    public boolean contains(int element) {
+        return containsKey(element);
+    }
+
+    @Override
+    public boolean add(int element) {
+        if (find(element) >= 0) {
+            return false;
+        }
+        append(element, null);
+        return true;
+    }
+
+    @Override
+    public void remove(int element) {
+        removeKey(element);
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            int current;
+            boolean removable;
+
+            @Override
+            public boolean hasNext() {
+                return current < size;
+            }
+
+            @Override
+            public int nextInt() {
+                if (current >= size) {
+                    throw new NoSuchElementException();
+                }
+                removable = true;
+                return keys[current++];
+            }
+
+            @Override
+            public void remove() {
+                if (!removable) {
+                    throw new IllegalStateException();
+                }
+                removable = false;
+                removeAt(--current);
+            }
+        };
+    }
+
+    @Override
+    public int[] toArray() {
+        return getKeys();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("map(size=").append(size()).append(", {");
+        for (int i = 0; i < size; i++) {
+            builder.append("(").append(keys[i]).append(",").append(getValue(i)).append("),");
+        }
+        builder.append("})");
+        return builder.toString();
+    }
+}
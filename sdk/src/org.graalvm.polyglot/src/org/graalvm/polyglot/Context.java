@@ -57,6 +57,11 @@ import org.graalvm.polyglot.impl.AbstractPolyglotImpl.AbstractContextImpl;
  * it using the boolean <code>cancelIfRunning</code> parameter of the {@link #close(boolean) close}
  * method. Contexts are {@link AutoCloseable} so they may be used with the Java
  * {@code try-with-resources} statement.
+ * <p>
+ * Applications that repeatedly run short scripts may keep a pool of contexts and
+ * {@link #reset() reset} them instead of creating a new context for every script. If the
+ * <code>engine.CodeSharing</code> option is enabled, contexts of the same engine also share the
+ * code parsed by languages that support it.
  *
  * <h4>Language Initialization</h4>
  *
@@ -159,6 +164,19 @@ public final class Context implements AutoCloseable {
         return impl.initializeLanguage(getEngine().getLanguage(language).impl);
     }
 
+    /**
+     * Resets this context to the state it had after it was created. All initialized languages are
+     * disposed, and exported symbols are removed. Languages are initialized again on their next
+     * use. A context is cheaper to reset than to create, as the configuration of the context is
+     * kept. Code parsed in other contexts of the same engine is reused if code sharing is enabled.
+     *
+     * @throws IllegalStateException if the context is currently executing or was already closed.
+     * @since 1.0
+     */
+    public void reset() {
+        impl.reset();
+    }
+
     /**
      * Closes this context and frees up potentially allocated native resources. A context cannot
      * free all native resources allocated automatically. For this reason it is necessary to close
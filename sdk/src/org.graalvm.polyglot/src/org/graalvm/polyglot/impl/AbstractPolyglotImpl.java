@@ -222,6 +222,8 @@ public abstract class AbstractPolyglotImpl {
 
         public abstract void close(boolean interuptExecution);
 
+        public abstract void reset();
+
     }
 
     public abstract static class AbstractEngineImpl {
@@ -74,6 +74,36 @@ public class SourceSectionFilterTest {
         }
     }
 
+    private static boolean isInstrumentedNode(SourceSectionFilter filter, Node instrumentedNode, Source rootSource) {
+        try {
+            Method m = filter.getClass().getDeclaredMethod("isInstrumentedNode", Set.class, Node.class, SourceSection.class, Source.class);
+            ReflectionUtils.setAccessible(m, true);
+            return (boolean) m.invoke(filter, ALL_TAGS, instrumentedNode, instrumentedNode.getSourceSection(), rootSource);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean isInstrumentedRootSource(SourceSectionFilter filter, Source source) {
+        try {
+            Method m = filter.getClass().getDeclaredMethod("isInstrumentedRootSource", Source.class);
+            ReflectionUtils.setAccessible(m, true);
+            return (boolean) m.invoke(filter, source);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Source[] getIncludedSources(SourceSectionFilter filter) {
+        try {
+            Method m = filter.getClass().getDeclaredMethod("getIncludedSources");
+            ReflectionUtils.setAccessible(m, true);
+            return (Source[]) m.invoke(filter);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static Node createNode(final SourceSection section, final Class<?>... tags) {
         return new Node() {
 
@@ -653,6 +683,32 @@ public class SourceSectionFilterTest {
         Assert.assertNotNull(filter.toString());
     }
 
+    @Test
+    public void testRootSourceIndex() {
+        Source sampleSource1 = Source.newBuilder("line1\nline2\nline3\nline4").name("unknown1").mimeType("mime1").build();
+        Source sampleSource2 = Source.newBuilder("line1\nline2\nline3\nline4").name("unknown2").mimeType("mime2").build();
+
+        Assert.assertNull(getIncludedSources(SourceSectionFilter.ANY));
+        Assert.assertTrue(isInstrumentedRootSource(SourceSectionFilter.ANY, sampleSource1));
+        Assert.assertNull(getIncludedSources(SourceSectionFilter.newBuilder().mimeTypeIs("mime1").build()));
+
+        SourceSectionFilter filter = SourceSectionFilter.newBuilder().sourceIs(sampleSource1).mimeTypeIs("mime1").lineIn(2, 1).build();
+        Assert.assertArrayEquals(new Source[]{sampleSource1}, getIncludedSources(filter));
+        Assert.assertTrue(isInstrumentedRootSource(filter, sampleSource1));
+        Assert.assertFalse(isInstrumentedRootSource(filter, sampleSource2));
+
+        // source checks are skipped for nodes in the source of an instrumented root
+        Node node = createNode(sampleSource1.createSection(6, 5));
+        Assert.assertTrue(isInstrumentedNode(filter, node, sampleSource1));
+        Assert.assertFalse(isInstrumentedNode(filter, createNode(sampleSource1.createSection(0, 5)), sampleSource1));
+        Assert.assertFalse(isInstrumentedNode(filter, createNode(sampleSource2.createSection(6, 5)), sampleSource1));
+        Assert.assertEquals(isInstrumentedNode(filter, node), isInstrumentedNode(filter, node, null));
+
+        Assert.assertFalse(isInstrumentedRootSource(SourceSectionFilter.newBuilder().mimeTypeIs("mime1").build(), sampleSource2));
+        // expressions that do not depend on the source alone are not evaluated for root sources
+        Assert.assertTrue(isInstrumentedRootSource(SourceSectionFilter.newBuilder().tagIsNot(InstrumentationTestLanguage.ROOT).lineIs(1).build(), sampleSource2));
+    }
+
     private static Class<?>[] tags(Class<?>... tags) {
         return tags;
     }
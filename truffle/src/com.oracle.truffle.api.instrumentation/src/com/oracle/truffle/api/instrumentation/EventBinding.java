@@ -138,6 +138,10 @@ public final class EventBinding<T> {
         return getFilter().isInstrumentedNode(providedTags, instrumentedNode, section);
     }
 
+    boolean isInstrumentedLeaf(Set<Class<?>> providedTags, Node instrumentedNode, SourceSection section, Source instrumentedRootSource) {
+        return getFilter().isInstrumentedNode(providedTags, instrumentedNode, section, instrumentedRootSource);
+    }
+
     boolean isInstrumentedSource(Source source) {
         return getInstrumenter().isInstrumentableSource(source) && getFilter().isInstrumentedSource(source);
     }
@@ -87,6 +87,8 @@ final class InstrumentationHandler {
 
     private final Collection<RootNode> loadedRoots = new WeakAsyncList<>(256);
     private final Collection<RootNode> executedRoots = new WeakAsyncList<>(64);
+    private final RootsBySource loadedRootsBySource = new RootsBySource();
+    private final RootsBySource executedRootsBySource = new RootsBySource();
     private final Collection<AllocationReporter> allocationReporters = new WeakAsyncList<>(16);
 
     private final Collection<EventBinding<?>> executionBindings = new EventBindingList(8);
@@ -145,6 +147,7 @@ final class InstrumentationHandler {
                 }
             }
             loadedRoots.add(root);
+            loadedRootsBySource.add(root);
         }
         // we don't want to invoke foreign code while we are holding a lock to avoid
         // deadlocks.
@@ -165,6 +168,7 @@ final class InstrumentationHandler {
         }
         assert root.getLanguageInfo() != null;
         executedRoots.add(root);
+        executedRootsBySource.add(root);
 
         // fast path no bindings attached
         if (executionBindings.isEmpty()) {
@@ -252,7 +256,7 @@ final class InstrumentationHandler {
         this.executionBindings.add(binding);
 
         if (!executedRoots.isEmpty()) {
-            visitRoots(executedRoots, new InsertWrappersWithBindingVisitor(binding));
+            visitRoots(executedRoots, executedRootsBySource, new InsertWrappersWithBindingVisitor(binding));
         }
 
         if (TRACE) {
@@ -270,7 +274,7 @@ final class InstrumentationHandler {
         this.sourceSectionBindings.add(binding);
         if (notifyLoaded) {
             if (!loadedRoots.isEmpty()) {
-                visitRoots(loadedRoots, new NotifyLoadedWithBindingVisitor(binding));
+                visitRoots(loadedRoots, loadedRootsBySource, new NotifyLoadedWithBindingVisitor(binding));
             }
         }
 
@@ -371,13 +375,40 @@ final class InstrumentationHandler {
         }
     }
 
+    /**
+     * Visits the roots that may be instrumented by the binding of the visitor. If the filter of the
+     * binding depends on the source of the roots, only the roots of the included sources are
+     * visited.
+     */
+    private void visitRoots(Collection<RootNode> roots, RootsBySource index, AbstractBindingVisitor visitor) {
+        SourceSectionFilter filter = visitor.binding.getFilter();
+        Source[] includedSources = filter.getIncludedSources();
+        if (includedSources == null && !filter.hasRootSourceExpressions()) {
+            visitRoots(roots, visitor);
+            return;
+        }
+        visitRoots(index.getRootsWithoutSource(), visitor);
+        if (includedSources != null) {
+            // equal sources share their roots in the index
+            for (Source source : new LinkedHashSet<>(Arrays.asList(includedSources))) {
+                visitRoots(index.getRoots(source), visitor);
+            }
+        } else {
+            for (Source source : index.getSources()) {
+                if (filter.isInstrumentedRootSource(source)) {
+                    visitRoots(index.getRoots(source), visitor);
+                }
+            }
+        }
+    }
+
     void disposeBinding(EventBinding<?> binding) {
         if (TRACE) {
             trace("BEGIN: Dispose binding %s, %s%n", binding.getFilter(), binding.getElement());
         }
 
         if (binding.isExecutionEvent()) {
-            visitRoots(executedRoots, new DisposeWrappersVisitor(binding));
+            visitRoots(executedRoots, executedRootsBySource, new DisposeWrappersVisitor(binding));
         } else {
             Object elm = binding.getElement();
             if (elm instanceof OutputStream) {
@@ -614,6 +645,8 @@ final class InstrumentationHandler {
 
         visitor.root = root;
         visitor.providedTags = getProvidedTags(root);
+        SourceSection rootSourceSection = root.getSourceSection();
+        visitor.rootSource = rootSourceSection != null ? rootSourceSection.getSource() : null;
 
         if (visitor.shouldVisit()) {
             if (TRACE) {
@@ -698,6 +731,7 @@ final class InstrumentationHandler {
 
         RootNode root;
         Set<Class<?>> providedTags;
+        Source rootSource;
 
         abstract boolean shouldVisit();
 
@@ -719,7 +753,8 @@ final class InstrumentationHandler {
         public final boolean visit(Node node) {
             SourceSection sourceSection = node.getSourceSection();
             if (isInstrumentableNode(node, sourceSection)) {
-                if (binding.isInstrumentedLeaf(providedTags, node, sourceSection)) {
+                // the root was already checked, nodes in the root source skip the source checks
+                if (binding.isInstrumentedLeaf(providedTags, node, sourceSection, rootSource)) {
                     if (TRACE) {
                         traceFilterCheck("hit", providedTags, binding, node, sourceSection);
                     }
@@ -1364,6 +1399,52 @@ final class InstrumentationHandler {
 
     }
 
+    /**
+     * Index of roots by the source of their root source section. Attaching a binding whose filter
+     * depends on the source only visits the roots of the included sources.
+     */
+    private static final class RootsBySource {
+
+        private final Map<Source, Collection<RootNode>> roots = new WeakHashMap<>();
+        private final Collection<RootNode> rootsWithoutSource = new WeakAsyncList<>(16);
+
+        void add(RootNode root) {
+            SourceSection sourceSection = root.getSourceSection();
+            Source source = sourceSection != null ? sourceSection.getSource() : null;
+            if (source == null) {
+                rootsWithoutSource.add(root);
+                return;
+            }
+            Collection<RootNode> sourceRoots;
+            synchronized (roots) {
+                sourceRoots = roots.get(source);
+                if (sourceRoots == null) {
+                    sourceRoots = new WeakAsyncList<>(4);
+                    roots.put(source, sourceRoots);
+                }
+            }
+            sourceRoots.add(root);
+        }
+
+        Collection<RootNode> getRoots(Source source) {
+            synchronized (roots) {
+                Collection<RootNode> sourceRoots = roots.get(source);
+                return sourceRoots != null ? sourceRoots : Collections.<RootNode> emptyList();
+            }
+        }
+
+        Collection<RootNode> getRootsWithoutSource() {
+            return rootsWithoutSource;
+        }
+
+        List<Source> getSources() {
+            synchronized (roots) {
+                return new ArrayList<>(roots.keySet());
+            }
+        }
+
+    }
+
     /**
      * An async list implementation that removes elements whenever a binding was disposed.
      */
@@ -60,8 +60,39 @@ public final class SourceSectionFilter {
 
     private final EventFilterExpression[] expressions;
 
+    /*
+     * The expressions are split into the expressions that only depend on the source of a root and
+     * the remaining expressions. Nodes that have the source of an included root only need to
+     * evaluate the remaining expressions.
+     */
+    private final EventFilterExpression[] rootSourceExpressions;
+    private final EventFilterExpression[] nodeExpressions;
+    private final Source[] includedSources;
+
     private SourceSectionFilter(EventFilterExpression[] expressions) {
         this.expressions = expressions;
+        if (expressions == null) {
+            this.rootSourceExpressions = null;
+            this.nodeExpressions = null;
+            this.includedSources = null;
+            return;
+        }
+        List<EventFilterExpression> sourceExpressions = new ArrayList<>();
+        List<EventFilterExpression> otherExpressions = new ArrayList<>();
+        Source[] sources = null;
+        for (EventFilterExpression expression : expressions) {
+            if (expression.isRootSourceOnly()) {
+                sourceExpressions.add(expression);
+                if (sources == null && expression instanceof EventFilterExpression.SourceIs) {
+                    sources = ((EventFilterExpression.SourceIs) expression).sources;
+                }
+            } else {
+                otherExpressions.add(expression);
+            }
+        }
+        this.rootSourceExpressions = sourceExpressions.toArray(new EventFilterExpression[0]);
+        this.nodeExpressions = otherExpressions.toArray(new EventFilterExpression[0]);
+        this.includedSources = sources;
     }
 
     /**
@@ -144,6 +175,51 @@ public final class SourceSectionFilter {
         return true;
     }
 
+    /**
+     * Returns the sources that contain all instrumented roots, or <code>null</code> if the filter
+     * does not restrict roots to a fixed set of sources. Roots without a source section are not
+     * covered by the returned sources.
+     */
+    Source[] getIncludedSources() {
+        return includedSources;
+    }
+
+    boolean hasRootSourceExpressions() {
+        return rootSourceExpressions.length > 0;
+    }
+
+    /**
+     * Returns <code>false</code> if no root with a source section in the given source is
+     * instrumented. Only evaluates the expressions that depend on the source alone.
+     */
+    boolean isInstrumentedRootSource(Source source) {
+        for (EventFilterExpression exp : rootSourceExpressions) {
+            if (!exp.isSourceIncluded(source)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Like {@link #isInstrumentedNode(Set, Node, SourceSection)}, but skips the source expressions
+     * for nodes in the source of a root that is known to be instrumented.
+     */
+    boolean isInstrumentedNode(Set<Class<?>> providedTags, Node instrumentedNode, SourceSection sourceSection, Source instrumentedRootSource) {
+        if (sourceSection == null) {
+            return false;
+        }
+        if (instrumentedRootSource == null || sourceSection.getSource() != instrumentedRootSource) {
+            return isInstrumentedNode(providedTags, instrumentedNode, sourceSection);
+        }
+        for (EventFilterExpression exp : nodeExpressions) {
+            if (!exp.isIncluded(providedTags, instrumentedNode, sourceSection)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     boolean isInstrumentedSource(Source source) {
         if (source == null) {
             return false;
@@ -551,6 +627,14 @@ public final class SourceSectionFilter {
             return false;
         }
 
+        /*
+         * Returns true if the expression includes a root with a source section if and only if it
+         * includes the source of the section.
+         */
+        boolean isRootSourceOnly() {
+            return false;
+        }
+
         public final int compareTo(EventFilterExpression o) {
             return o.getOrder() - getOrder();
         }
@@ -576,6 +660,11 @@ public final class SourceSectionFilter {
                 return true;
             }
 
+            @Override
+            boolean isRootSourceOnly() {
+                return true;
+            }
+
             @Override
             boolean isSourceIncluded(Source src) {
                 if (src == null) {
@@ -663,6 +752,11 @@ public final class SourceSectionFilter {
                 return true;
             }
 
+            @Override
+            boolean isRootSourceOnly() {
+                return true;
+            }
+
             @Override
             boolean isSourceIncluded(Source src) {
                 for (Source otherSource : sources) {
@@ -718,6 +812,11 @@ public final class SourceSectionFilter {
                 return true;
             }
 
+            @Override
+            boolean isRootSourceOnly() {
+                return true;
+            }
+
             @Override
             boolean isSourceIncluded(Source source) {
                 String mimeType = source.getMimeType();
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.interop.java.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
+import com.oracle.truffle.api.interop.java.JavaInterop;
+
+public class ArrayRangeInteropTest {
+
+    public int[] ints = {1, 2, 3, 4, 5};
+    public String[] strings = {"a", "b"};
+
+    public interface Arrays {
+        List<Integer> ints();
+
+        List<String> strings();
+    }
+
+    @Test
+    public void readRangeIntoPrimitiveArray() throws InteropException {
+        TruffleObject array = JavaInterop.asTruffleObject(ints);
+        int[] buffer = new int[3];
+        assertEquals(3, ForeignAccess.sendReadRange(Message.READ_RANGE.createNode(), array, 1, buffer));
+        assertArrayEquals(new int[]{2, 3, 4}, buffer);
+    }
+
+    @Test
+    public void readRangeStopsAtEndOfArray() throws InteropException {
+        TruffleObject array = JavaInterop.asTruffleObject(ints);
+        int[] buffer = new int[10];
+        assertEquals(2, ForeignAccess.sendReadRange(Message.READ_RANGE.createNode(), array, 3, buffer));
+        assertEquals(4, buffer[0]);
+        assertEquals(5, buffer[1]);
+    }
+
+    @Test
+    public void writeRangeFromPrimitiveArray() throws InteropException {
+        TruffleObject array = JavaInterop.asTruffleObject(ints);
+        assertEquals(2, ForeignAccess.sendWriteRange(Message.WRITE_RANGE.createNode(), array, 2, new int[]{30, 40}));
+        assertArrayEquals(new int[]{1, 2, 30, 40, 5}, ints);
+    }
+
+    @Test
+    public void byteBuffer() throws InteropException {
+        byte[] bytes = {10, 20, 30, 40};
+        TruffleObject array = JavaInterop.asTruffleObject(bytes);
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+        assertEquals(3, ForeignAccess.sendReadRange(Message.READ_RANGE.createNode(), array, 1, buffer));
+        assertEquals(3, buffer.position());
+        assertEquals(20, buffer.get(0));
+        assertEquals(40, buffer.get(2));
+
+        buffer.flip();
+        assertEquals(3, ForeignAccess.sendWriteRange(Message.WRITE_RANGE.createNode(), array, 0, buffer));
+        assertArrayEquals(new byte[]{20, 30, 40, 40}, bytes);
+    }
+
+    @Test
+    public void indexOutOfBounds() throws InteropException {
+        TruffleObject array = JavaInterop.asTruffleObject(ints);
+        try {
+            ForeignAccess.sendReadRange(Message.READ_RANGE.createNode(), array, 5, new int[1]);
+            fail();
+        } catch (UnknownIdentifierException e) {
+            assertEquals("5", e.getUnknownIdentifier());
+        }
+    }
+
+    @Test
+    public void mismatchedBuffer() throws InteropException {
+        TruffleObject array = JavaInterop.asTruffleObject(ints);
+        try {
+            ForeignAccess.sendReadRange(Message.READ_RANGE.createNode(), array, 0, new long[1]);
+            fail();
+        } catch (UnsupportedTypeException e) {
+            assertEquals(1, e.getSuppliedValues().length);
+        }
+    }
+
+    @Test
+    public void objectArrayUnsupported() throws InteropException {
+        TruffleObject array = JavaInterop.asTruffleObject(strings);
+        try {
+            ForeignAccess.sendReadRange(Message.READ_RANGE.createNode(), array, 0, new int[1]);
+            fail();
+        } catch (UnsupportedMessageException e) {
+            assertEquals(Message.READ_RANGE, e.getUnsupportedMessage());
+        }
+    }
+
+    @Test
+    public void listToArray() {
+        Arrays arrays = JavaInterop.asJavaObject(Arrays.class, JavaInterop.asTruffleObject(this));
+        assertArrayEquals(new Object[]{1, 2, 3, 4, 5}, arrays.ints().toArray());
+        assertArrayEquals(new Object[]{"a", "b"}, arrays.strings().toArray());
+    }
+}
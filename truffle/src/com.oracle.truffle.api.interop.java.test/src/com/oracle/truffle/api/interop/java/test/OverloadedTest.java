@@ -25,6 +25,8 @@
 package com.oracle.truffle.api.interop.java.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.math.BigInteger;
 import java.util.List;
@@ -39,6 +41,7 @@ import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.MessageResolution;
 import com.oracle.truffle.api.interop.Resolve;
 import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.interop.java.JavaInterop;
 import com.oracle.truffle.api.nodes.Node;
 
@@ -75,6 +78,16 @@ public class OverloadedTest {
         }
     }
 
+    public static final class Twice {
+        public int twice(int value) {
+            return value * 2;
+        }
+
+        public int fail(String message) {
+            throw new NullPointerException(message);
+        }
+    }
+
     private TruffleObject obj;
     private Data data;
 
@@ -138,6 +151,50 @@ public class OverloadedTest {
         assertEquals("BigInteger", num.parameter);
     }
 
+    @Test
+    public void testInvokeSiteWithManyReceivers() throws InteropException {
+        Node n = Message.createInvoke(1).createNode();
+        Num num = new Num();
+        TruffleObject numobj = JavaInterop.asTruffleObject(num);
+        TruffleObject integerClass = JavaInterop.asTruffleObject(Integer.class);
+        for (int i = 1; i <= 3; i++) {
+            ForeignAccess.sendInvoke(n, obj, "x", i);
+            assertEquals(i * 2, data.x);
+            ForeignAccess.sendInvoke(n, numobj, "x", i);
+            assertEquals("int", num.parameter);
+            assertEquals(i, ForeignAccess.sendInvoke(n, integerClass, "valueOf", i));
+            assertEquals(Integer.toHexString(i + 9), ForeignAccess.sendInvoke(n, integerClass, "toHexString", i + 9));
+        }
+    }
+
+    @Test
+    public void testCachedInvokeWithWrongArgumentType() throws InteropException {
+        Node n = Message.createInvoke(1).createNode();
+        TruffleObject twice = JavaInterop.asTruffleObject(new Twice());
+        assertEquals(42, ForeignAccess.sendInvoke(n, twice, "twice", 21));
+        try {
+            ForeignAccess.sendInvoke(n, twice, "twice", new Object[]{null});
+            fail("null cannot be passed as int");
+        } catch (UnsupportedTypeException e) {
+        }
+        assertEquals(44, ForeignAccess.sendInvoke(n, twice, "twice", 22));
+    }
+
+    @Test
+    public void testCachedInvokeWithTargetException() throws InteropException {
+        Node n = Message.createInvoke(1).createNode();
+        TruffleObject twice = JavaInterop.asTruffleObject(new Twice());
+        for (int i = 0; i < 2; i++) {
+            try {
+                ForeignAccess.sendInvoke(n, twice, "fail", "expected");
+                fail("the target method throws");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getCause() instanceof NullPointerException);
+                assertEquals("expected", e.getCause().getMessage());
+            }
+        }
+    }
+
     @MessageResolution(receiverType = UnboxableToInt.class)
     public static final class UnboxableToInt implements TruffleObject {
 
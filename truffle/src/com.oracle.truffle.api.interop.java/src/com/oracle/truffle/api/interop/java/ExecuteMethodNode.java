@@ -24,8 +24,10 @@
  */
 package com.oracle.truffle.api.interop.java;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Array;
 import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -69,7 +71,8 @@ abstract class ExecuteMethodNode extends Node {
     Object doFixed(SingleMethodDesc method, Object obj, Object[] args, Object languageContext,
                     @Cached("method") SingleMethodDesc cachedMethod,
                     @Cached(value = "getTypes(method, method.getParameterCount())", dimensions = 1) TypeAndClass<?>[] types,
-                    @Cached("createToJava(method.getParameterCount())") ToJavaNode[] toJavaNodes) {
+                    @Cached("createToJava(method.getParameterCount())") ToJavaNode[] toJavaNodes,
+                    @Cached("method.getMethodHandle()") MethodHandle methodHandle) {
         int arity = cachedMethod.getParameterCount();
         if (args.length != arity) {
             throw ArityException.raise(arity, args.length);
@@ -78,14 +81,15 @@ abstract class ExecuteMethodNode extends Node {
         for (int i = 0; i < toJavaNodes.length; i++) {
             convertedArguments[i] = toJavaNodes[i].execute(args[i], types[i], languageContext);
         }
-        return doInvoke(cachedMethod, obj, convertedArguments, languageContext);
+        return doInvoke(cachedMethod, methodHandle, obj, convertedArguments, languageContext);
     }
 
     @SuppressWarnings("unused")
     @Specialization(guards = {"method.isVarArgs()", "method == cachedMethod"})
     Object doVarArgs(SingleMethodDesc method, Object obj, Object[] args, Object languageContext,
                     @Cached("method") SingleMethodDesc cachedMethod,
-                    @Cached("create()") ToJavaNode toJavaNode) {
+                    @Cached("create()") ToJavaNode toJavaNode,
+                    @Cached("method.getMethodHandle()") MethodHandle methodHandle) {
         int minArity = cachedMethod.getParameterCount() - 1;
         if (args.length < minArity) {
             throw ArityException.raise(minArity, args.length);
@@ -95,7 +99,7 @@ abstract class ExecuteMethodNode extends Node {
         for (int i = 0; i < args.length; i++) {
             convertedArguments[i] = toJavaNode.execute(args[i], types[i], languageContext);
         }
-        return doInvoke(cachedMethod, obj, convertedArguments, languageContext);
+        return doInvoke(cachedMethod, methodHandle, obj, convertedArguments, languageContext);
     }
 
     @Specialization(replaces = {"doFixed", "doVarArgs"})
@@ -110,7 +114,7 @@ abstract class ExecuteMethodNode extends Node {
         for (int i = 0; i < args.length; i++) {
             convertedArguments[i] = toJavaNode.execute(args[i], types[i], languageContext);
         }
-        return doInvoke(method, obj, convertedArguments, languageContext);
+        return doInvoke(method, null, obj, convertedArguments, languageContext);
     }
 
     @SuppressWarnings("unused")
@@ -121,14 +125,15 @@ abstract class ExecuteMethodNode extends Node {
                     @Cached(value = "getArgTypes(args)", dimensions = 1) Type[] cachedArgTypes,
                     @Cached("create()") ToJavaNode toJavaNode,
                     @Cached("selectOverload(method, args, languageContext, toJavaNode)") SingleMethodDesc overload,
-                    @Cached(value = "getTypes(overload, overload.getParameterCount())", dimensions = 1) TypeAndClass<?>[] types) {
+                    @Cached(value = "getTypes(overload, overload.getParameterCount())", dimensions = 1) TypeAndClass<?>[] types,
+                    @Cached("overload.getMethodHandle()") MethodHandle methodHandle) {
         assert overload == selectOverload(method, args, languageContext, toJavaNode);
         assert Arrays.equals(types, getTypes(selectOverload(method, args, languageContext, toJavaNode), args.length));
         Object[] convertedArguments = new Object[cachedArgTypes.length];
         for (int i = 0; i < cachedArgTypes.length; i++) {
             convertedArguments[i] = toJavaNode.execute(args[i], types[i], languageContext);
         }
-        return doInvoke(overload, obj, convertedArguments, languageContext);
+        return doInvoke(overload, methodHandle, obj, convertedArguments, languageContext);
     }
 
     @Specialization(replaces = "doOverloadedCached")
@@ -140,7 +145,7 @@ abstract class ExecuteMethodNode extends Node {
         for (int i = 0; i < args.length; i++) {
             convertedArguments[i] = toJavaNode.execute(args[i], types[i], languageContext);
         }
-        return doInvoke(overload, obj, convertedArguments, languageContext);
+        return doInvoke(overload, null, obj, convertedArguments, languageContext);
     }
 
     static Type[] getArgTypes(Object[] args) {
@@ -476,7 +481,7 @@ abstract class ExecuteMethodNode extends Node {
         }
     }
 
-    private static Object doInvoke(SingleMethodDesc method, Object obj, Object[] args, Object languageContext) {
+    private static Object doInvoke(SingleMethodDesc method, MethodHandle methodHandle, Object obj, Object[] args, Object languageContext) {
         Object[] arguments;
         int parameterCount = method.getParameterCount();
         if (method.isVarArgs()) {
@@ -485,6 +490,9 @@ abstract class ExecuteMethodNode extends Node {
             arguments = args;
         }
         assert arguments.length == parameterCount;
+        if (methodHandle != null) {
+            return invokeHandle(methodHandle, obj, arguments, languageContext);
+        }
         return invoke(method, obj, arguments, languageContext);
     }
 
@@ -518,6 +526,29 @@ abstract class ExecuteMethodNode extends Node {
         return JavaInterop.toGuestValue(ret, languageContext);
     }
 
+    /*
+     * The method handle is a constant of the cached specializations. Allowing the boundary to be
+     * inlined lets the compiler bind the call directly to the Java method, while the method itself
+     * is never partially evaluated.
+     */
+    @TruffleBoundary(allowInlining = true)
+    private static Object invokeHandle(MethodHandle methodHandle, Object obj, Object[] arguments, Object languageContext) {
+        Object ret;
+        try {
+            ret = methodHandle.invokeExact(obj, arguments);
+        } catch (InvocationTargetException ex) {
+            CompilerDirectives.transferToInterpreter();
+            throw new IllegalStateException(ex.getCause());
+        } catch (ClassCastException | NullPointerException | IllegalArgumentException ex) {
+            // the arguments could not be adapted to the parameter types
+            throw UnsupportedTypeException.raise(arguments);
+        } catch (Throwable ex) {
+            CompilerDirectives.transferToInterpreter();
+            throw new IllegalStateException(ex);
+        }
+        return JavaInterop.toGuestValue(ret, languageContext);
+    }
+
     private static String arrayToStringWithTypes(Object[] args) {
         StringJoiner sj = new StringJoiner(", ", "[", "]");
         for (Object arg : args) {
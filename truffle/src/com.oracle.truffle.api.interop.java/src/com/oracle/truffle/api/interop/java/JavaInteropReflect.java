@@ -150,10 +150,10 @@ final class JavaInteropReflect {
     }
 
     @CompilerDirectives.TruffleBoundary
-    static JavaMethodDesc findMethod(JavaObject object, String name, Object[] args) {
+    static JavaMethodDesc findMethod(JavaObject object, String name, int argsLength) {
         JavaMethodDesc method = findMethod(object, name);
         if (method != null) {
-            if (!isApplicableByArity(method, args.length)) {
+            if (!isApplicableByArity(method, argsLength)) {
                 return null;
             }
         }
@@ -26,6 +26,7 @@ package com.oracle.truffle.api.interop.java;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Objects;
 
@@ -75,6 +76,7 @@ class JavaObjectMessageResolution {
     @Resolve(message = "INVOKE")
     abstract static class InvokeNode extends Node {
 
+        @Child private LookupMethodNode lookupMethod = LookupMethodNode.create();
         @Child private ExecuteMethodNode doExecute;
         @Child private Node sendIsExecutableNode;
         @Child private Node sendExecuteNode;
@@ -85,7 +87,7 @@ class JavaObjectMessageResolution {
             }
 
             // (1) look for a method; if found, invoke it on obj.
-            JavaMethodDesc foundMethod = JavaInteropReflect.findMethod(object, name, args);
+            JavaMethodDesc foundMethod = lookupMethod.execute(object, name, args.length);
             if (foundMethod != null) {
                 if (doExecute == null) {
                     CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -242,6 +244,72 @@ class JavaObjectMessageResolution {
 
     }
 
+    @Resolve(message = "READ_RANGE")
+    abstract static class ReadRangeNode extends Node {
+
+        @TruffleBoundary
+        public Object access(JavaObject receiver, Number index, Object buffer) {
+            Object array = checkPrimitiveArray(receiver, Message.READ_RANGE);
+            int start = checkRangeStart(array, index);
+            int length = Array.getLength(array) - start;
+            if (buffer instanceof ByteBuffer && array instanceof byte[]) {
+                ByteBuffer byteBuffer = (ByteBuffer) buffer;
+                int count = Math.min(byteBuffer.remaining(), length);
+                byteBuffer.put((byte[]) array, start, count);
+                return count;
+            }
+            if (buffer != null && buffer.getClass() == array.getClass()) {
+                int count = Math.min(Array.getLength(buffer), length);
+                System.arraycopy(array, start, buffer, 0, count);
+                return count;
+            }
+            throw UnsupportedTypeException.raise(new Object[]{buffer});
+        }
+    }
+
+    @Resolve(message = "WRITE_RANGE")
+    abstract static class WriteRangeNode extends Node {
+
+        @TruffleBoundary
+        public Object access(JavaObject receiver, Number index, Object buffer) {
+            Object array = checkPrimitiveArray(receiver, Message.WRITE_RANGE);
+            int start = checkRangeStart(array, index);
+            int length = Array.getLength(array) - start;
+            if (buffer instanceof ByteBuffer && array instanceof byte[]) {
+                ByteBuffer byteBuffer = (ByteBuffer) buffer;
+                int count = Math.min(byteBuffer.remaining(), length);
+                byteBuffer.get((byte[]) array, start, count);
+                return count;
+            }
+            if (buffer != null && buffer.getClass() == array.getClass()) {
+                int count = Math.min(Array.getLength(buffer), length);
+                System.arraycopy(buffer, 0, array, start, count);
+                return count;
+            }
+            throw UnsupportedTypeException.raise(new Object[]{buffer});
+        }
+    }
+
+    /**
+     * Range messages are only supported by arrays of primitives, which can be copied without
+     * converting the elements to and from guest values.
+     */
+    static Object checkPrimitiveArray(JavaObject receiver, Message message) {
+        Object array = receiver.obj;
+        if (array == null || !array.getClass().isArray() || !array.getClass().getComponentType().isPrimitive()) {
+            throw UnsupportedMessageException.raise(message);
+        }
+        return array;
+    }
+
+    static int checkRangeStart(Object array, Number index) {
+        long start = index.longValue();
+        if (start < 0 || start >= Array.getLength(array)) {
+            throw UnknownIdentifierException.raise(String.valueOf(index));
+        }
+        return (int) start;
+    }
+
     @Resolve(message = "KEYS")
     abstract static class PropertiesNode extends Node {
         @TruffleBoundary
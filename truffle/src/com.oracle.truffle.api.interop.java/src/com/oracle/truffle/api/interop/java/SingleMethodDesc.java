@@ -24,6 +24,9 @@
  */
 package com.oracle.truffle.api.interop.java;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.InvocationTargetException;
@@ -36,8 +39,25 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 abstract class SingleMethodDesc implements JavaMethodDesc {
+    /**
+     * Uniform type of the {@link #getMethodHandle() method handles}: receiver (ignored for static
+     * methods and constructors) and spread arguments.
+     */
+    static final MethodType INVOKE_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private static final MethodHandle WRAP_TARGET_EXCEPTION;
+
+    static {
+        try {
+            WRAP_TARGET_EXCEPTION = MethodHandles.lookup().findStatic(SingleMethodDesc.class, "wrapTargetException", MethodType.methodType(Object.class, Throwable.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     private final boolean varArgs;
     @CompilationFinal(dimensions = 1) private final Class<?>[] parameterTypes;
+    private volatile MethodHandle methodHandle;
 
     protected SingleMethodDesc(Executable executable) {
         this.varArgs = executable.isVarArgs();
@@ -75,6 +95,42 @@ abstract class SingleMethodDesc implements JavaMethodDesc {
 
     public abstract Object invoke(Object receiver, Object[] arguments) throws Throwable;
 
+    /**
+     * Returns a method handle of type {@link #INVOKE_TYPE} bound directly to the method, or
+     * <code>null</code> if the method cannot be unreflected. Unlike {@link #invoke(Object, Object[])}
+     * a constant method handle can be inlined into compiled code.
+     * <p>
+     * Exceptions thrown by the method are wrapped in an {@link InvocationTargetException} to
+     * distinguish them from exceptions thrown while adapting the arguments to the parameter types.
+     */
+    @TruffleBoundary
+    public final MethodHandle getMethodHandle() {
+        MethodHandle handle = methodHandle;
+        if (handle == null) {
+            try {
+                handle = unreflect(MethodHandles.publicLookup());
+            } catch (IllegalAccessException e) {
+                return null;
+            }
+            MethodType type = handle.type();
+            MethodHandle wrap = MethodHandles.dropArguments(WRAP_TARGET_EXCEPTION.asType(MethodType.methodType(type.returnType(), Throwable.class)), 1, type.parameterList());
+            handle = MethodHandles.catchException(handle, Throwable.class, wrap);
+            handle = handle.asSpreader(Object[].class, getParameterCount()).asType(INVOKE_TYPE);
+            methodHandle = handle;
+        }
+        return handle;
+    }
+
+    @SuppressWarnings("unused")
+    private static Object wrapTargetException(Throwable exception) throws InvocationTargetException {
+        throw new InvocationTargetException(exception);
+    }
+
+    /**
+     * Creates a method handle taking the receiver followed by the declared parameters.
+     */
+    protected abstract MethodHandle unreflect(MethodHandles.Lookup lookup) throws IllegalAccessException;
+
     static SingleMethodDesc unreflect(Method reflectionMethod) {
         assert isAccessible(reflectionMethod);
         return new SingleMethodDesc.ConcreteMethod(reflectionMethod);
@@ -118,6 +174,15 @@ abstract class SingleMethodDesc implements JavaMethodDesc {
             }
         }
 
+        @Override
+        protected MethodHandle unreflect(MethodHandles.Lookup lookup) throws IllegalAccessException {
+            MethodHandle handle = lookup.unreflect(reflectionMethod).asFixedArity();
+            if (Modifier.isStatic(reflectionMethod.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle;
+        }
+
         @Override
         public Class<?> getReturnType() {
             return getReflectionMethod().getReturnType();
@@ -153,6 +218,11 @@ abstract class SingleMethodDesc implements JavaMethodDesc {
             }
         }
 
+        @Override
+        protected MethodHandle unreflect(MethodHandles.Lookup lookup) throws IllegalAccessException {
+            return MethodHandles.dropArguments(lookup.unreflectConstructor(reflectionConstructor).asFixedArity(), 0, Object.class);
+        }
+
         @Override
         public Class<?> getReturnType() {
             return getReflectionMethod().getDeclaringClass();
@@ -24,6 +24,7 @@
  */
 package com.oracle.truffle.api.interop.java;
 
+import java.lang.reflect.Array;
 import java.util.AbstractList;
 import java.util.List;
 import java.util.Objects;
@@ -37,6 +38,7 @@ import com.oracle.truffle.api.interop.Message;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RootNode;
 
@@ -46,6 +48,7 @@ final class TruffleList<T> extends AbstractList<T> {
     private final CallTarget callRead;
     private final CallTarget callGetSize;
     private final CallTarget callWrite;
+    private final CallTarget callReadRange;
 
     private TruffleList(TypeAndClass<T> elementType, TruffleObject array) {
         this.array = array;
@@ -53,6 +56,7 @@ final class TruffleList<T> extends AbstractList<T> {
         this.callRead = initializeListCall(array, Message.READ);
         this.callWrite = initializeListCall(array, Message.WRITE);
         this.callGetSize = initializeListCall(array, Message.GET_SIZE);
+        this.callReadRange = initializeListCall(array, Message.READ_RANGE);
     }
 
     public static <T> List<T> create(TypeAndClass<T> elementType, TruffleObject array) {
@@ -78,6 +82,62 @@ final class TruffleList<T> extends AbstractList<T> {
         return (Integer) callGetSize.call(null, array);
     }
 
+    @Override
+    public Object[] toArray() {
+        Object elements = readPrimitiveElements();
+        if (elements == null) {
+            return super.toArray();
+        }
+        Object[] result = new Object[Array.getLength(elements)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Array.get(elements, i);
+        }
+        return result;
+    }
+
+    /**
+     * Reads all elements with a single {@link Message#READ_RANGE} message when the list holds
+     * boxed primitives. Returns <code>null</code> if the array does not support the message, so
+     * that the caller falls back to reading element by element.
+     */
+    private Object readPrimitiveElements() {
+        Class<?> primitiveType = toPrimitiveType(type.clazz);
+        if (primitiveType == null) {
+            return null;
+        }
+        int size = size();
+        if (size == 0) {
+            return null;
+        }
+        Object buffer = Array.newInstance(primitiveType, size);
+        Object read = callReadRange.call(null, array, 0L, buffer);
+        if (read == null || (Integer) read != size) {
+            return null;
+        }
+        return buffer;
+    }
+
+    private static Class<?> toPrimitiveType(Class<?> clazz) {
+        if (clazz == Integer.class) {
+            return int.class;
+        } else if (clazz == Long.class) {
+            return long.class;
+        } else if (clazz == Double.class) {
+            return double.class;
+        } else if (clazz == Float.class) {
+            return float.class;
+        } else if (clazz == Short.class) {
+            return short.class;
+        } else if (clazz == Byte.class) {
+            return byte.class;
+        } else if (clazz == Character.class) {
+            return char.class;
+        } else if (clazz == Boolean.class) {
+            return boolean.class;
+        }
+        return null;
+    }
+
     private static CallTarget initializeListCall(TruffleObject obj, Message msg) {
         CallTarget res = JavaInterop.lookupOrRegisterComputation(obj, null, TruffleList.class, msg);
         if (res == null) {
@@ -112,6 +172,13 @@ final class TruffleList<T> extends AbstractList<T> {
                     ret = ForeignAccess.sendRead(node, receiver, args[2]);
                 } else if (msg == Message.WRITE) {
                     ret = ForeignAccess.sendWrite(node, receiver, args[2], JavaInterop.asTruffleValue(args[3]));
+                } else if (msg == Message.READ_RANGE) {
+                    try {
+                        return ForeignAccess.sendReadRange(node, receiver, (long) args[2], args[3]);
+                    } catch (UnsupportedMessageException | UnsupportedTypeException ex) {
+                        CompilerDirectives.transferToInterpreter();
+                        return null;
+                    }
                 } else {
                     CompilerDirectives.transferToInterpreter();
                     throw UnsupportedMessageException.raise(msg);
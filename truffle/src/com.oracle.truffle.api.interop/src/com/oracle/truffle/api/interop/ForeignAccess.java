@@ -529,6 +529,72 @@ public final class ForeignAccess {
         }
     }
 
+    /**
+     * Sends a {@link Message#READ_RANGE READ_RANGE message} to the foreign receiver object by
+     * executing the <code> readRangeNode </code>.
+     *
+     * @param readRangeNode the createNode created by {@link Message#createNode()}
+     * @param receiver foreign array-like object to receive the message passed to
+     *            {@link Message#createNode()} method
+     * @param index index of the first element to read
+     * @param buffer a Java primitive array or a {@link java.nio.ByteBuffer} to copy the elements
+     *            into
+     * @return number of elements read
+     * @throws ClassCastException if the createNode has not been created by
+     *             {@link Message#createNode()} method.
+     * @throws UnknownIdentifierException if the <code>index</code> is out of bounds
+     * @throws UnsupportedTypeException if the <code>buffer</code> does not match the element type
+     *             of the <code>receiver</code>
+     * @throws UnsupportedMessageException if the <code>receiver</code> does not support the
+     *             {@link Message#createNode() message represented} by <code>readRangeNode</code>
+     * @since 0.27
+     */
+    public static int sendReadRange(Node readRangeNode, TruffleObject receiver, long index, Object buffer)
+                    throws UnknownIdentifierException, UnsupportedTypeException, UnsupportedMessageException {
+        try {
+            return (int) ((InteropAccessNode) readRangeNode).executeRange(receiver, index, buffer);
+        } catch (UnknownIdentifierException | UnsupportedTypeException | UnsupportedMessageException e) {
+            CompilerDirectives.transferToInterpreter();
+            throw e;
+        } catch (InteropException e) {
+            CompilerDirectives.transferToInterpreter();
+            throw new AssertionError("Unexpected exception caught.", e);
+        }
+    }
+
+    /**
+     * Sends a {@link Message#WRITE_RANGE WRITE_RANGE message} to the foreign receiver object by
+     * executing the <code> writeRangeNode </code>.
+     *
+     * @param writeRangeNode the createNode created by {@link Message#createNode()}
+     * @param receiver foreign array-like object to receive the message passed to
+     *            {@link Message#createNode()} method
+     * @param index index of the first element to write
+     * @param buffer a Java primitive array or a {@link java.nio.ByteBuffer} to copy the elements
+     *            from
+     * @return number of elements written
+     * @throws ClassCastException if the createNode has not been created by
+     *             {@link Message#createNode()} method.
+     * @throws UnknownIdentifierException if the <code>index</code> is out of bounds
+     * @throws UnsupportedTypeException if the <code>buffer</code> does not match the element type
+     *             of the <code>receiver</code>
+     * @throws UnsupportedMessageException if the <code>receiver</code> does not support the
+     *             {@link Message#createNode() message represented} by <code>writeRangeNode</code>
+     * @since 0.27
+     */
+    public static int sendWriteRange(Node writeRangeNode, TruffleObject receiver, long index, Object buffer)
+                    throws UnknownIdentifierException, UnsupportedTypeException, UnsupportedMessageException {
+        try {
+            return (int) ((InteropAccessNode) writeRangeNode).executeRange(receiver, index, buffer);
+        } catch (UnknownIdentifierException | UnsupportedTypeException | UnsupportedMessageException e) {
+            CompilerDirectives.transferToInterpreter();
+            throw e;
+        } catch (InteropException e) {
+            CompilerDirectives.transferToInterpreter();
+            throw new AssertionError("Unexpected exception caught.", e);
+        }
+    }
+
     /**
      * Sends an EXECUTE {@link Message} to the foreign receiver object by executing the
      * <code> executeNode </code>.
@@ -1112,6 +1178,28 @@ public final class ForeignAccess {
             return null;
         }
 
+        /**
+         * Handles {@link Message#READ_RANGE} message.
+         *
+         * @return call target to handle the message or <code>null</code> if this message is not
+         *         supported
+         * @since 0.27
+         */
+        default CallTarget accessReadRange() {
+            return null;
+        }
+
+        /**
+         * Handles {@link Message#WRITE_RANGE} message.
+         *
+         * @return call target to handle the message or <code>null</code> if this message is not
+         *         supported
+         * @since 0.27
+         */
+        default CallTarget accessWriteRange() {
+            return null;
+        }
+
         /**
          * Handles request for access to a message not known in version 0.18.
          *
@@ -1548,6 +1636,10 @@ public final class ForeignAccess {
                         return factory.accessAsPointer();
                     case ToNative.HASH:
                         return factory.accessToNative();
+                    case ReadRange.HASH:
+                        return factory.accessReadRange();
+                    case WriteRange.HASH:
+                        return factory.accessWriteRange();
                 }
             }
             return factory.accessMessage(msg);
@@ -71,6 +71,14 @@ abstract class InteropAccessNode extends Node {
         return checkInteropType(executeImpl(receiver, insertArg2(arguments, receiver, arg0)));
     }
 
+    /**
+     * Variant for the range messages: the buffer is a Java primitive array or a ByteBuffer and is
+     * deliberately not checked to be an interop value.
+     */
+    public final Object executeRange(TruffleObject receiver, long index, Object buffer) throws InteropException {
+        return checkInteropType(executeImpl(receiver, new Object[]{receiver, index, buffer}));
+    }
+
     @Deprecated
     public final Object executeOld(TruffleObject receiver, Object[] arguments) {
         return checkInteropType(executeImpl(receiver, insertArg1(arguments, receiver)));
@@ -545,6 +545,70 @@ public abstract class Message {
      */
     public static final Message TO_NATIVE = ToNative.INSTANCE;
 
+    /**
+     * Reads a range of consecutive primitive elements of an array-like receiver in a single
+     * message. The message has two arguments: the index of the first element to read (a
+     * {@link Number}) and a buffer the elements are copied into. The buffer is either a Java
+     * primitive array, filled from its first element, or a {@link java.nio.ByteBuffer}, filled from
+     * its current position (only for receivers whose elements are bytes). The number of elements
+     * read is the remaining capacity of the buffer, limited by the size of the receiver.
+     * <p>
+     * Compared to sending one {@link #READ} message per element this saves the per-element
+     * dispatch and boxing, and lets receivers backed by Java arrays or native memory copy the
+     * whole range at once.
+     * <p>
+     * If the object does not support the {@link #READ_RANGE} message, an
+     * {@link UnsupportedMessageException} has to be thrown. Callers are expected to fall back to
+     * individual {@link #READ} messages in that case. If the index is out of bounds an
+     * {@link UnknownIdentifierException} is thrown, if the buffer does not match the element type
+     * of the receiver an {@link UnsupportedTypeException} is thrown.
+     * <p>
+     * To read a range of elements, use:
+     *
+     * <pre>
+     * int read = {@link ForeignAccess}.{@link ForeignAccess#sendReadRange(com.oracle.truffle.api.nodes.Node, com.oracle.truffle.api.interop.TruffleObject, long, java.lang.Object) sendReadRange}(
+     *   {@link Message#READ_RANGE}.{@link Message#createNode()},  array, index, buffer
+     * );
+     * </pre>
+     *
+     * The returned value is an {@link Integer} with the number of elements read.
+     * <p>
+     * To achieve good performance it is essential to cache/keep reference to the
+     * {@link Message#createNode() created node}.
+     *
+     * @since 0.27
+     */
+    public static final Message READ_RANGE = ReadRange.INSTANCE;
+
+    /**
+     * Writes a range of consecutive primitive elements of an array-like receiver in a single
+     * message. The counterpart of {@link #READ_RANGE}: the arguments are the index of the first
+     * element to write and a buffer (a Java primitive array or a {@link java.nio.ByteBuffer}) the
+     * elements are copied from. The number of elements written is the remaining length of the
+     * buffer, limited by the size of the receiver.
+     * <p>
+     * If the object does not support the {@link #WRITE_RANGE} message, an
+     * {@link UnsupportedMessageException} has to be thrown. If the index is out of bounds an
+     * {@link UnknownIdentifierException} is thrown, if the buffer does not match the element type
+     * of the receiver an {@link UnsupportedTypeException} is thrown.
+     * <p>
+     * To write a range of elements, use:
+     *
+     * <pre>
+     * int written = {@link ForeignAccess}.{@link ForeignAccess#sendWriteRange(com.oracle.truffle.api.nodes.Node, com.oracle.truffle.api.interop.TruffleObject, long, java.lang.Object) sendWriteRange}(
+     *   {@link Message#WRITE_RANGE}.{@link Message#createNode()},  array, index, buffer
+     * );
+     * </pre>
+     *
+     * The returned value is an {@link Integer} with the number of elements written.
+     * <p>
+     * To achieve good performance it is essential to cache/keep reference to the
+     * {@link Message#createNode() created node}.
+     *
+     * @since 0.27
+     */
+    public static final Message WRITE_RANGE = WriteRange.INSTANCE;
+
     /**
      * Compares types of two messages. Messages are encouraged to implement this method. All
      * standard ones ({@link #IS_NULL}, {@link #READ}, etc.) do so. Messages obtained via the same
@@ -630,6 +694,12 @@ public abstract class Message {
         if (Message.TO_NATIVE == message) {
             return "TO_NATIVE"; // NOI18N
         }
+        if (Message.READ_RANGE == message) {
+            return "READ_RANGE"; // NOI18N
+        }
+        if (Message.WRITE_RANGE == message) {
+            return "WRITE_RANGE"; // NOI18N
+        }
         if (message instanceof Execute) {
             return ((Execute) message).name();
         }
@@ -674,6 +744,10 @@ public abstract class Message {
                 return Message.AS_POINTER;
             case "TO_NATIVE":
                 return Message.TO_NATIVE;
+            case "READ_RANGE":
+                return Message.READ_RANGE;
+            case "WRITE_RANGE":
+                return Message.WRITE_RANGE;
             case "EXECUTE":
                 return Message.createExecute(0);
             case "NEW":
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test.polyglot;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.TruffleLanguage.ContextReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.test.polyglot.CodeSharingLanguage.LanguageContext;
+
+@TruffleLanguage.Registration(id = CodeSharingLanguage.ID, name = CodeSharingLanguage.ID, version = "1.0", mimeType = CodeSharingLanguage.ID)
+public class CodeSharingLanguage extends TruffleLanguage<LanguageContext> {
+
+    static final String ID = "CodeSharingLanguage";
+
+    static final AtomicInteger PARSED = new AtomicInteger();
+    static final AtomicInteger CREATED = new AtomicInteger();
+    static final AtomicInteger DISPOSED = new AtomicInteger();
+
+    static class LanguageContext {
+
+        final int id;
+
+        LanguageContext(int id) {
+            this.id = id;
+        }
+
+    }
+
+    @Override
+    protected CallTarget parse(ParsingRequest request) throws Exception {
+        PARSED.incrementAndGet();
+        ContextReference<LanguageContext> reference = getContextReference();
+        return Truffle.getRuntime().createCallTarget(new RootNode(this) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                // the current context is looked up on every execution
+                return reference.get().id;
+            }
+        });
+    }
+
+    @Override
+    protected LanguageContext createContext(Env env) {
+        return new LanguageContext(CREATED.incrementAndGet());
+    }
+
+    @Override
+    protected void disposeContext(LanguageContext context) {
+        DISPOSED.incrementAndGet();
+    }
+
+    @Override
+    protected boolean isCodeSharingSupported() {
+        return true;
+    }
+
+    @Override
+    protected Object getLanguageGlobal(LanguageContext context) {
+        return null;
+    }
+
+    @Override
+    protected boolean isObjectOfLanguage(Object object) {
+        return false;
+    }
+
+}
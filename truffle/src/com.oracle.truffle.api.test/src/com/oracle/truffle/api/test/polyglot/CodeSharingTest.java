@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test.polyglot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CodeSharingTest {
+
+    private final Source source = Source.create(CodeSharingLanguage.ID, "shared");
+
+    @Before
+    public void setup() {
+        CodeSharingLanguage.PARSED.set(0);
+        CodeSharingLanguage.CREATED.set(0);
+        CodeSharingLanguage.DISPOSED.set(0);
+    }
+
+    @Test
+    public void testSharedBetweenContexts() {
+        Engine engine = Engine.newBuilder().option("engine.CodeSharing", "true").build();
+        Context context1 = Context.newBuilder().engine(engine).build();
+        Context context2 = Context.newBuilder().engine(engine).build();
+
+        int id1 = context1.eval(source).asInt();
+        int id2 = context2.eval(source).asInt();
+        assertEquals(1, CodeSharingLanguage.PARSED.get());
+        // the shared call target looks up the context it is executed in
+        assertNotEquals(id1, id2);
+        assertEquals(id1, context1.eval(source).asInt());
+        assertEquals(1, CodeSharingLanguage.PARSED.get());
+
+        context1.close();
+        context2.close();
+        engine.close();
+    }
+
+    @Test
+    public void testNotSharedByDefault() {
+        Engine engine = Engine.create();
+        Context context1 = Context.newBuilder().engine(engine).build();
+        Context context2 = Context.newBuilder().engine(engine).build();
+
+        context1.eval(source);
+        context2.eval(source);
+        assertEquals(2, CodeSharingLanguage.PARSED.get());
+
+        context1.close();
+        context2.close();
+        engine.close();
+    }
+
+    @Test
+    public void testReset() {
+        Engine engine = Engine.newBuilder().option("engine.CodeSharing", "true").build();
+        Context context = Context.newBuilder().engine(engine).build();
+
+        int id = context.eval(source).asInt();
+        context.reset();
+        assertEquals(1, CodeSharingLanguage.DISPOSED.get());
+
+        int resetId = context.eval(source).asInt();
+        assertNotEquals(id, resetId);
+        assertEquals(2, CodeSharingLanguage.CREATED.get());
+        assertEquals(1, CodeSharingLanguage.PARSED.get());
+
+        context.close();
+        engine.close();
+    }
+
+    @Test
+    public void testResetNotShared() {
+        Context context = Context.create();
+        context.eval(source);
+        context.reset();
+        context.eval(source);
+        assertEquals(2, CodeSharingLanguage.PARSED.get());
+        context.close();
+    }
+
+    @Test
+    public void testResetClosed() {
+        Context context = Context.create();
+        context.close();
+        try {
+            context.reset();
+            fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test.polyglot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.junit.After;
+import org.junit.Test;
+
+import com.oracle.truffle.api.test.polyglot.MultiThreadedLanguage.LanguageContext;
+
+public class MultiThreadedContextTest {
+
+    private static final int THREADS = 4;
+
+    @After
+    public void cleanup() {
+        MultiThreadedLanguage.onExecute = null;
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        Context context = Context.create();
+        assertEquals(42, context.eval(MultiThreadedLanguage.ID, "").asInt());
+
+        // all threads must be inside the context at the same time to pass the barrier
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        MultiThreadedLanguage.onExecute = () -> {
+            try {
+                barrier.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> context.eval(MultiThreadedLanguage.ID, "").asInt()));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(42, (int) result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        MultiThreadedLanguage.onExecute = null;
+        LanguageContext[] languageContext = new LanguageContext[1];
+        MultiThreadedLanguage.onExecute = () -> languageContext[0] = MultiThreadedLanguage.getContext();
+        context.eval(MultiThreadedLanguage.ID, "");
+        assertEquals(1, languageContext[0].multiThreadingInitialized);
+        context.close();
+    }
+
+    @Test
+    public void testSingleThreadedLanguageRejectsConcurrentAccess() throws Exception {
+        Context context = Context.create();
+        context.initialize(LanguageSPITestLanguage.ID);
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MultiThreadedLanguage.onExecute = () -> {
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> result = executor.submit(() -> context.eval(MultiThreadedLanguage.ID, "").asInt());
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            try {
+                context.eval(LanguageSPITestLanguage.ID, "");
+                fail("expected IllegalStateException");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(LanguageSPITestLanguage.ID));
+            }
+            release.countDown();
+            assertEquals(42, (int) result.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // sequential access from different threads is still allowed
+        MultiThreadedLanguage.onExecute = null;
+        assertEquals("null result", context.eval(LanguageSPITestLanguage.ID, "").asString());
+        context.close();
+    }
+
+    @Test
+    public void testLanguageInitializedInMultiThreadedContext() throws Exception {
+        Context context = Context.create();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MultiThreadedLanguage.onExecute = () -> {
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> result = executor.submit(() -> context.eval(MultiThreadedLanguage.ID, "").asInt());
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            MultiThreadedLanguage.onExecute = null;
+            // the second thread makes the context multi-threaded
+            assertEquals(42, context.eval(MultiThreadedLanguage.ID, "").asInt());
+            try {
+                context.initialize(LanguageSPITestLanguage.ID);
+                fail("expected IllegalStateException");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(LanguageSPITestLanguage.ID));
+            }
+            release.countDown();
+            assertEquals(42, (int) result.get());
+        } finally {
+            executor.shutdownNow();
+        }
+        context.close();
+    }
+}
@@ -24,8 +24,8 @@
  */
 package com.oracle.truffle.api.vm;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 import org.graalvm.polyglot.proxy.Proxy;
@@ -51,7 +51,7 @@ class HostLanguage extends TruffleLanguage<HostContext> {
 
         final Env env;
         final PolyglotLanguageContextImpl internalContext;
-        final Map<String, Class<?>> classCache = new HashMap<>();
+        final Map<String, Class<?>> classCache = new ConcurrentHashMap<>();
 
         HostContext(Env env, PolyglotLanguageContextImpl context) {
             this.env = env;
@@ -126,6 +126,12 @@ class HostLanguage extends TruffleLanguage<HostContext> {
         return new HostContext(env, PolyglotContextImpl.current().getHostContext());
     }
 
+    @Override
+    protected boolean isThreadAccessAllowed(Thread thread, boolean singleThreaded) {
+        // host objects are accessed by multiple threads in the host anyway
+        return true;
+    }
+
     @Override
     protected Object lookupSymbol(HostContext context, String symbolName) {
         return JavaInterop.asTruffleObject(context.findClass(symbolName));
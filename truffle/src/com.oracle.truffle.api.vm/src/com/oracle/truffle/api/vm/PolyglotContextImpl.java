@@ -35,16 +35,17 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
 import org.graalvm.polyglot.Engine;
@@ -64,10 +65,29 @@ class PolyglotContextImpl extends AbstractContextImpl implements VMObject {
 
     private static final PolyglotContextProfile CURRENT_CONTEXT = new PolyglotContextProfile();
 
-    final AtomicReference<Thread> boundThread = new AtomicReference<>(null);
+    /*
+     * The thread info of the thread that entered the context last. Entering and leaving on this
+     * thread only updates its thread info.
+     */
+    private volatile PolyglotThreadInfo currentThreadInfo = PolyglotThreadInfo.NULL;
+    /*
+     * The thread infos of all live threads that entered the context. Also guards changes of the
+     * threading mode. Never acquire the lock of the context while holding this lock.
+     */
+    private final Map<Thread, PolyglotThreadInfo> threads = new HashMap<>();
+    private final ThreadLocal<PolyglotThreadInfo> threadInfo = new ThreadLocal<>();
+    /*
+     * Whether at most one thread accessed the context at a time so far. A context stays multi
+     * threaded once a second thread entered it concurrently.
+     */
+    volatile boolean singleThreaded = true;
+    /*
+     * The thread that currently resets the context. No other thread may enter the context while
+     * it is reset. Only changed while holding the lock of threads.
+     */
+    private volatile Thread resettingThread;
     volatile boolean closed;
     volatile CountDownLatch closingLatch;
-    final AtomicInteger enteredCount = new AtomicInteger();
     final PolyglotEngineImpl engine;
     @CompilationFinal(dimensions = 1) final PolyglotLanguageContextImpl[] contexts;
 
@@ -75,7 +95,7 @@ class PolyglotContextImpl extends AbstractContextImpl implements VMObject {
     final OutputStream err;
     final InputStream in;
     final Map<String, String> options;
-    final Map<String, Value> polyglotScope = new HashMap<>();
+    final Map<String, Value> polyglotScope = new ConcurrentHashMap<>();
     final Predicate<String> classFilter;
     final boolean hostAccessAllowed;
 
@@ -113,7 +133,7 @@ class PolyglotContextImpl extends AbstractContextImpl implements VMObject {
         this.options = options;
         this.allowedPublicLanguages = allowedPublicLanguages;
         this.engine = engine;
-        this.javaInteropCache = new HashMap<>();
+        this.javaInteropCache = new ConcurrentHashMap<>();
         Collection<PolyglotLanguageImpl> languages = engine.idToLanguage.values();
         this.contexts = new PolyglotLanguageContextImpl[languages.size() + 1];
         this.contexts[PolyglotEngineImpl.HOST_LANGUAGE_INDEX] = new PolyglotLanguageContextImpl(this, engine.hostLanguage, null, applicationArguments.get(PolyglotEngineImpl.HOST_LANGUAGE_ID));
@@ -145,38 +165,179 @@ class PolyglotContextImpl extends AbstractContextImpl implements VMObject {
     }
 
     Object enter() {
-        enterThread();
         engine.checkState();
         if (closed) {
             CompilerDirectives.transferToInterpreter();
             throw new IllegalStateException("Language context is already closed.");
         }
-        enteredCount.incrementAndGet();
+        enterThread();
         return CURRENT_CONTEXT.enter(this);
     }
 
     void leave(Object prev) {
-        assert boundThread.get() == Thread.currentThread();
-        int result = enteredCount.decrementAndGet();
-        if (result <= 0) {
-            boundThread.set(null);
-            if (closingLatch != null) {
-                close(false);
-            }
+        Thread current = Thread.currentThread();
+        PolyglotThreadInfo info = currentThreadInfo;
+        if (info.thread != current) {
+            info = threadInfo.get();
+        }
+        info.leave();
+        if (!info.isEntered() && closingLatch != null && !isEntered()) {
+            close(false);
         }
         CURRENT_CONTEXT.leave((PolyglotContextImpl) prev);
     }
 
     private void enterThread() {
         Thread current = Thread.currentThread();
-        if (boundThread.get() != current) {
-            if (!boundThread.compareAndSet(null, current)) {
-                throw new IllegalStateException(
-                                String.format("The context was accessed from thread %s but is currently accessed form thread %s. " +
-                                                "The context cannot be accessed from multiple threads at the same time. ",
-                                                boundThread.get(), Thread.currentThread()));
+        PolyglotThreadInfo info = currentThreadInfo;
+        if (info.thread == current) {
+            // fast path: the thread that entered the context last enters again
+            info.enter();
+            if ((!singleThreaded || currentThreadInfo == info) && resettingThread == null) {
+                /*
+                 * Another thread entering a single threaded context through the slow path first
+                 * publishes its thread info and then checks if this thread entered. A resetting
+                 * thread first publishes itself and then checks if any thread entered.
+                 */
+                return;
+            }
+            info.leave();
+        } else if (!singleThreaded) {
+            info = threadInfo.get();
+            if (info != null) {
+                // multi threaded contexts do not need to track the last thread
+                info.enter();
+                if (resettingThread == null) {
+                    return;
+                }
+                info.leave();
             }
         }
+        enterThreadSlowPath(current);
+    }
+
+    @TruffleBoundary
+    private void enterThreadSlowPath(Thread current) {
+        synchronized (threads) {
+            enterThreadLocked(current);
+        }
+    }
+
+    private void enterThreadLocked(Thread current) {
+        Thread resetting = resettingThread;
+        if (resetting != null && resetting != current) {
+            throw new IllegalStateException(String.format("The context is currently reset by thread %s and cannot be accessed from thread %s.", resetting, current));
+        }
+        PolyglotThreadInfo info = threads.get(current);
+        if (info == null) {
+            checkThreadAccess(current, singleThreaded);
+            removeTerminatedThreads();
+            info = new PolyglotThreadInfo(current);
+            threads.put(current, info);
+            threadInfo.set(info);
+        }
+        PolyglotThreadInfo previous = currentThreadInfo;
+        currentThreadInfo = info;
+        if (singleThreaded && isEnteredByOtherThread(current)) {
+            try {
+                checkThreadAccess(current, false);
+                for (Thread thread : getEnteredThreads()) {
+                    checkThreadAccess(thread, false);
+                }
+            } catch (RuntimeException e) {
+                currentThreadInfo = previous;
+                throw e;
+            }
+            singleThreaded = false;
+            for (PolyglotLanguageContextImpl context : contexts) {
+                if (context.env != null) {
+                    LANGUAGE.initializeMultiThreading(context.env);
+                }
+            }
+        }
+        info.enter();
+    }
+
+    private void checkThreadAccess(Thread thread, boolean singleThread) {
+        for (PolyglotLanguageContextImpl context : contexts) {
+            if (context.env != null && !LANGUAGE.isThreadAccessAllowed(context.env, thread, singleThread)) {
+                throw threadAccessError(context, thread, singleThread);
+            }
+        }
+    }
+
+    IllegalStateException threadAccessError(PolyglotLanguageContextImpl context, Thread thread, boolean singleThread) {
+        if (singleThread) {
+            return new IllegalStateException(String.format("The language %s does not allow the context to be accessed from thread %s.", context.language.getId(), thread));
+        } else {
+            return new IllegalStateException(String.format("The context is currently accessed from threads %s and cannot be accessed from thread %s at the same time. " +
+                            "The language %s does not support multi-threaded access.", getEnteredThreads(), thread, context.language.getId()));
+        }
+    }
+
+    private void removeTerminatedThreads() {
+        assert Thread.holdsLock(threads);
+        threads.values().removeIf(info -> !info.thread.isAlive() && !info.isEntered());
+    }
+
+    /**
+     * Returns the threads that currently entered this context.
+     */
+    List<Thread> getEnteredThreads() {
+        List<Thread> entered = new ArrayList<>();
+        synchronized (threads) {
+            for (PolyglotThreadInfo info : threads.values()) {
+                if (info.isEntered()) {
+                    entered.add(info.thread);
+                }
+            }
+        }
+        return entered;
+    }
+
+    boolean isEntered() {
+        return isEnteredByOtherThread(null);
+    }
+
+    private boolean isEnteredByOtherThread(Thread thread) {
+        synchronized (threads) {
+            for (PolyglotThreadInfo info : threads.values()) {
+                if (info.thread != thread && info.isEntered()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Publishes the environment of a language that was initialized in this context. If the
+     * context is already multi-threaded, the language must support multi-threaded access.
+     */
+    void publishLanguageEnv(PolyglotLanguageContextImpl languageContext, Env env) {
+        synchronized (threads) {
+            if (!singleThreaded) {
+                Thread current = Thread.currentThread();
+                if (!LANGUAGE.isThreadAccessAllowed(env, current, false)) {
+                    LANGUAGE.dispose(env);
+                    throw threadAccessError(languageContext, current, false);
+                }
+                LANGUAGE.initializeMultiThreading(env);
+            }
+            languageContext.env = env;
+        }
+    }
+
+    /**
+     * Returns the thread that currently entered this single threaded context, or <code>null</code>
+     * if no thread entered it or the context is multi-threaded.
+     */
+    Thread getBoundThread() {
+        if (!singleThreaded) {
+            return null;
+        }
+        PolyglotThreadInfo info = currentThreadInfo;
+        return info.isEntered() ? info.thread : null;
     }
 
     Object importSymbolFromLanguage(String symbolName) {
@@ -323,20 +484,29 @@ class PolyglotContextImpl extends AbstractContextImpl implements VMObject {
     }
 
     private PolyglotLanguageContextImpl getLanguageContextImpl(Class<? extends TruffleLanguage<?>> languageClass) {
-        assert boundThread.get() == null || boundThread.get() == Thread.currentThread() : "not designed for thread-safety";
         int indexValue = languageIndexMap.get(languageClass);
         if (indexValue == -1) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            PolyglotLanguageContextImpl context = findLanguageContext(languageClass, false);
-            if (context == null) {
-                throw new IllegalArgumentException(String.format("Illegal or unregistered language class provided %s.", languageClass.getName()));
-            }
-            indexValue = context.language.index;
-            languageIndexMap.put(languageClass, indexValue);
+            indexValue = initializeLanguageIndex(languageClass);
         }
         return contexts[indexValue];
     }
 
+    private int initializeLanguageIndex(Class<? extends TruffleLanguage<?>> languageClass) {
+        synchronized (languageIndexMap) {
+            int indexValue = languageIndexMap.get(languageClass);
+            if (indexValue == -1) {
+                PolyglotLanguageContextImpl context = findLanguageContext(languageClass, false);
+                if (context == null) {
+                    throw new IllegalArgumentException(String.format("Illegal or unregistered language class provided %s.", languageClass.getName()));
+                }
+                indexValue = context.language.index;
+                languageIndexMap.put(languageClass, indexValue);
+            }
+            return indexValue;
+        }
+    }
+
     @Override
     public boolean initializeLanguage(AbstractLanguageImpl languageImpl) {
         PolyglotLanguageImpl language = (PolyglotLanguageImpl) languageImpl;
@@ -364,14 +534,15 @@ class PolyglotContextImpl extends AbstractContextImpl implements VMObject {
         PolyglotLanguageContextImpl languageContext = contexts[language.index];
         try {
             com.oracle.truffle.api.source.Source source = (com.oracle.truffle.api.source.Source) sourceImpl;
-            CallTarget target = languageContext.sourceCache.get(source);
+            // shared call targets might have been parsed by another context
+            languageContext.ensureInitialized();
+            CallTarget target = languageContext.lookupCallTarget(source);
             if (target == null) {
-                languageContext.ensureInitialized();
                 target = LANGUAGE.parse(languageContext.env, source, null);
                 if (target == null) {
                     throw new IllegalStateException(String.format("Parsing resulted in a null CallTarget for %s.", source));
                 }
-                languageContext.sourceCache.put(source, target);
+                target = languageContext.cacheCallTarget(source, target);
             }
             Object result = target.call(PolyglotImpl.EMPTY_ARGS);
 
@@ -419,7 +590,7 @@ class PolyglotContextImpl extends AbstractContextImpl implements VMObject {
     }
 
     void waitForClose() {
-        assert boundThread.get() == null || boundThread.get() != Thread.currentThread() : "cannot wait on current thread";
+        assert !getEnteredThreads().contains(Thread.currentThread()) : "cannot wait on current thread";
         while (!closed) {
             CountDownLatch closing = closingLatch;
             if (closing == null) {
@@ -436,16 +607,15 @@ class PolyglotContextImpl extends AbstractContextImpl implements VMObject {
 
     synchronized void closeImpl(boolean cancelIfExecuting) {
         if (!closed) {
-            Thread thread = boundThread.get();
             if (cancelIfExecuting) {
-                if (thread != null && Thread.currentThread() != thread) {
+                if (isEnteredByOtherThread(Thread.currentThread())) {
                     if (closingLatch == null) {
                         closingLatch = new CountDownLatch(1);
 
                         // account for race condition when we already left the execution in
                         // the meantime. in such a case #leave(Object) will not have called
                         // close(false). Closing close(false) twice is fine.
-                        if (enteredCount.get() <= 0) {
+                        if (!isEntered()) {
                             closeImpl(false);
                         }
                     }
@@ -481,6 +651,39 @@ class PolyglotContextImpl extends AbstractContextImpl implements VMObject {
         }
     }
 
+    @Override
+    public synchronized void reset() {
+        synchronized (threads) {
+            // publish the resetting thread before checking for entered threads, see enterThread
+            resettingThread = Thread.currentThread();
+            if (isEntered()) {
+                resettingThread = null;
+                throw new IllegalStateException(String.format("The context is currently executing on threads %s and cannot be reset.", getEnteredThreads()));
+            }
+        }
+        try {
+            Object prev = enter();
+            try {
+                for (PolyglotLanguageContextImpl context : contexts) {
+                    try {
+                        context.reset();
+                    } catch (Throwable t) {
+                        throw wrapGuestException(context, t);
+                    }
+                }
+                polyglotScope.clear();
+            } finally {
+                leave(prev);
+            }
+        } finally {
+            synchronized (threads) {
+                // the new language contexts need to allow multi-threading again
+                singleThreaded = true;
+                resettingThread = null;
+            }
+        }
+    }
+
     @Override
     public Value lookup(Object languageImpl, String symbolName) {
         Object prev = enter();
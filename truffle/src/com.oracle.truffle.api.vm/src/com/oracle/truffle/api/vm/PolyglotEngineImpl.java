@@ -45,8 +45,10 @@ import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
+import org.graalvm.options.OptionCategory;
 import org.graalvm.options.OptionDescriptor;
 import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionKey;
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.Instrument;
@@ -76,6 +78,8 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
     private static final Set<String> RESERVED_IDS = new HashSet<>(
                     Arrays.asList(HOST_LANGUAGE_ID, "graal", "truffle", "engine", "language", "instrument", "graalvm", "context", "polyglot", "compiler", "vm"));
 
+    static final OptionKey<Boolean> CODE_SHARING = new OptionKey<>(false);
+
     private static final Map<PolyglotEngineImpl, Void> ENGINES = Collections.synchronizedMap(new WeakHashMap<>());
     private static volatile boolean shutdownHookInitialized = false;
 
@@ -105,6 +109,7 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
     final OptionValuesImpl compilerOptionValues;
     final ClassLoader contextClassLoader;
     final boolean boundEngine;
+    final boolean codeSharing;
     private final Set<PolyglotContextImpl> contexts = new LinkedHashSet<>();
 
     PolyglotLanguageImpl hostLanguage;
@@ -159,6 +164,7 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
 
         this.engineOptionValues.putAll(originalEngineOptions);
         this.compilerOptionValues.putAll(originalCompilerOptions);
+        this.codeSharing = engineOptionValues.get(CODE_SHARING);
 
         for (PolyglotLanguageImpl language : languagesOptions.keySet()) {
             language.getOptionValues().putAll(languagesOptions.get(language));
@@ -204,7 +210,8 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
 
     List<OptionDescriptor> describeEngineOptions() {
         List<OptionDescriptor> descriptors = new ArrayList<>();
-
+        descriptors.add(OptionDescriptor.newBuilder(CODE_SHARING, PolyglotImpl.OPTION_GROUP_ENGINE + ".CodeSharing").category(OptionCategory.EXPERT).help(
+                        "Share parsed code between the contexts of this engine for languages that support it.").build());
         return descriptors;
     }
 
@@ -399,10 +406,16 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
             PolyglotContextImpl[] localContexts = contexts.toArray(new PolyglotContextImpl[0]);
             for (PolyglotContextImpl context : localContexts) {
                 assert !context.closed : "should not be in the contexts list";
-                Thread t = context.boundThread.get();
+                Thread t = null;
+                for (Thread entered : context.getEnteredThreads()) {
+                    if (entered != Thread.currentThread()) {
+                        t = entered;
+                        break;
+                    }
+                }
                 try {
                     boolean performClose = true;
-                    if (t != null && t != Thread.currentThread()) {
+                    if (t != null) {
                         if (!ignoreCloseFailure) {
                             if (cancelIfExecuting) {
                                 performClose = true;
@@ -538,13 +551,14 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
                 enableCancel();
 
                 for (PolyglotContextImpl context : localContexts) {
-                    Thread thread = context.boundThread.get();
-                    if (thread != null && context.closingLatch != null) {
-                        /*
-                         * We send an interrupt to the thread to wake up and to run some guest
-                         * language code in case they are waiting in some async primitive.
-                         */
-                        thread.interrupt();
+                    if (context.closingLatch != null) {
+                        for (Thread thread : context.getEnteredThreads()) {
+                            /*
+                             * We send an interrupt to the thread to wake up and to run some guest
+                             * language code in case they are waiting in some async primitive.
+                             */
+                            thread.interrupt();
+                        }
                     }
                 }
                 try {
@@ -32,6 +32,7 @@ import static com.oracle.truffle.api.vm.VMAccessor.LANGUAGE;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.graalvm.options.OptionValues;
 import org.graalvm.polyglot.Value;
@@ -47,11 +48,12 @@ final class PolyglotLanguageContextImpl implements VMObject {
 
     final PolyglotContextImpl context;
     final PolyglotLanguageImpl language;
-    final Map<Object, CallTarget> sourceCache = new HashMap<>();
-    final Map<Class<?>, PolyglotValueImpl> valueCache = new HashMap<>();
+    final Map<Object, CallTarget> sourceCache = new ConcurrentHashMap<>();
+    final Map<Class<?>, PolyglotValueImpl> valueCache = new ConcurrentHashMap<>();
     final OptionValues optionValues;
     final Value nullValue;
     final String[] applicationArguments;
+    private final boolean contextOptions;
     volatile boolean disposed;
     volatile Env env;
 
@@ -60,6 +62,7 @@ final class PolyglotLanguageContextImpl implements VMObject {
         this.language = language;
         this.optionValues = optionValues;
         this.applicationArguments = applicationArguments == null ? EMPTY_STRING_ARRAY : applicationArguments;
+        this.contextOptions = hasLanguageOptions(context.options, language.getId());
 
         PolyglotValueImpl.createDefaultValueCaches(this);
         nullValue = toHostValue(toGuestValue(null));
@@ -90,6 +93,64 @@ final class PolyglotLanguageContextImpl implements VMObject {
         }
     }
 
+    private static boolean hasLanguageOptions(Map<String, String> options, String languageId) {
+        if (options != null) {
+            String groupPlusDot = languageId + ".";
+            for (String key : options.keySet()) {
+                if (key.equals(languageId) || key.startsWith(groupPlusDot)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Call targets are shared with the other contexts of the engine if the language supports code
+     * sharing and the context does not specify its own options for the language, as they might
+     * change the parse result.
+     */
+    private boolean isCodeShared() {
+        return language.codeSharing && !contextOptions;
+    }
+
+    /**
+     * Returns the call target previously parsed for {@code source}, or <code>null</code> if there
+     * is none.
+     */
+    CallTarget lookupCallTarget(Object source) {
+        if (isCodeShared()) {
+            return language.getSharedCallTarget(source);
+        }
+        return sourceCache.get(source);
+    }
+
+    /**
+     * Caches the call target parsed for {@code source} unless another thread cached one in the
+     * meantime.
+     *
+     * @return the cached call target
+     */
+    CallTarget cacheCallTarget(Object source, CallTarget target) {
+        if (isCodeShared()) {
+            return language.cacheSharedCallTarget(source, target);
+        }
+        CallTarget existing = sourceCache.putIfAbsent(source, target);
+        return existing != null ? existing : target;
+    }
+
+    /**
+     * Disposes the language context and clears its caches. The language context is initialized
+     * again with a new environment on its next use.
+     */
+    void reset() {
+        dispose();
+        synchronized (this) {
+            disposed = false;
+        }
+        sourceCache.clear();
+    }
+
     boolean ensureInitialized() {
         language.ensureInitialized();
 
@@ -97,10 +158,11 @@ final class PolyglotLanguageContextImpl implements VMObject {
             synchronized (this) {
                 if (env == null) {
                     checkAccess();
-                    env = LANGUAGE.createEnv(this, language.info,
+                    Env localEnv = LANGUAGE.createEnv(this, language.info,
                                     context.out,
                                     context.err,
                                     context.in, new HashMap<>(), getOptionValues(), applicationArguments);
+                    context.publishLanguageEnv(this, localEnv);
                     LANGUAGE.postInitEnv(env);
                     return true;
                 }
@@ -147,8 +209,8 @@ final class PolyglotLanguageContextImpl implements VMObject {
         if (receiver instanceof Value) {
             Value receiverValue = (Value) receiver;
             PolyglotValueImpl argumentCache = (PolyglotValueImpl) context.engine.impl.getAPIAccess().getImpl(receiverValue);
-            Thread valueThread = argumentCache.languageContext.context.boundThread.get();
-            Thread currentThread = context.boundThread.get();
+            Thread valueThread = argumentCache.languageContext.context.getBoundThread();
+            Thread currentThread = context.getBoundThread();
 
             if (argumentCache.languageContext.getEngine() != getEngine()) {
                 throw engineError(new IllegalArgumentException(String.format("Values cannot be passed from one engine to another. " +
@@ -158,7 +220,7 @@ final class PolyglotLanguageContextImpl implements VMObject {
                 throw engineError(new IllegalArgumentException(String.format("A given value argument must be bound to the same or no thread. " +
                                 "The current value is bound to thread %s and the argument is bound to %s." +
                                 "The involved languages %s and %s don't support multi-threaded access of values.",
-                                context.boundThread, valueThread,
+                                currentThread, valueThread,
                                 language.api.getName(), argumentCache.languageContext.language.api.getName())));
             }
             return context.engine.impl.getAPIAccess().getReceiver(receiverValue);
@@ -26,11 +26,16 @@ package com.oracle.truffle.api.vm;
 
 import static com.oracle.truffle.api.vm.VMAccessor.LANGUAGE;
 
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import org.graalvm.options.OptionDescriptors;
 import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.Language;
 import org.graalvm.polyglot.impl.AbstractPolyglotImpl.AbstractLanguageImpl;
 
+import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.nodes.LanguageInfo;
@@ -49,8 +54,41 @@ class PolyglotLanguageImpl extends AbstractLanguageImpl implements VMObject {
     OptionDescriptors options;
     private volatile OptionValuesImpl optionValues;
 
+    /*
+     * Call targets shared between all contexts of the engine. Only used if code sharing is enabled
+     * for the engine and supported by the language. A call target usually keeps its source and
+     * therefore its key alive, so call targets are only softly referenced to allow unused sources
+     * to be collected.
+     */
+    private final Map<Object, SoftReference<CallTarget>> sharedSourceCache = new WeakHashMap<>();
+    volatile boolean codeSharing;
+
     volatile boolean initialized;
 
+    CallTarget getSharedCallTarget(Object source) {
+        synchronized (sharedSourceCache) {
+            SoftReference<CallTarget> ref = sharedSourceCache.get(source);
+            return ref == null ? null : ref.get();
+        }
+    }
+
+    /**
+     * Caches {@code target} for all contexts of the engine unless another context cached a call
+     * target for {@code source} in the meantime.
+     *
+     * @return the cached call target
+     */
+    CallTarget cacheSharedCallTarget(Object source, CallTarget target) {
+        synchronized (sharedSourceCache) {
+            CallTarget existing = getSharedCallTarget(source);
+            if (existing != null) {
+                return existing;
+            }
+            sharedSourceCache.put(source, new SoftReference<>(target));
+            return target;
+        }
+    }
+
     PolyglotLanguageImpl(PolyglotEngineImpl engine, LanguageCache cache, int index, boolean host) {
         super(engine.impl);
         this.engine = engine;
@@ -99,6 +137,7 @@ class PolyglotLanguageImpl extends AbstractLanguageImpl implements VMObject {
                         LoadedLanguage loadedLanguage = cache.loadLanguage();
                         LANGUAGE.initializeLanguage(info, loadedLanguage.getLanguage(), loadedLanguage.isSingleton());
                         this.options = LANGUAGE.describeOptions(loadedLanguage.getLanguage(), cache.getId());
+                        this.codeSharing = engine.codeSharing && LANGUAGE.isCodeSharingSupported(loadedLanguage.getLanguage());
                     } catch (Exception e) {
                         throw new IllegalStateException(String.format("Error initializing language '%s' using class '%s'.", cache.getId(), cache.getClassName()), e);
                     }
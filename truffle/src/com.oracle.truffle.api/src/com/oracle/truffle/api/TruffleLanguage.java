@@ -313,6 +313,59 @@ public abstract class TruffleLanguage<C> {
     protected void disposeContext(C context) {
     }
 
+    /**
+     * Returns <code>true</code> if code of this language is allowed to be executed on a thread.
+     * The method is called when a thread enters a context in which this language is initialized
+     * for the first time, and when the context becomes accessed by more than one thread at the
+     * same time. By default only single threaded access is allowed: a context with this language
+     * can be used by different threads, but only by one thread at a time.
+     * <p>
+     * Languages that support the concurrent execution of their code in one context override this
+     * method and return <code>true</code> also if <code>singleThreaded</code> is
+     * <code>false</code>. Such languages must synchronize the access to their context state
+     * themselves.
+     *
+     * @param thread the thread that accesses the context
+     * @param singleThreaded <code>true</code> if no other thread accesses the context at the same
+     *            time
+     * @see #initializeMultiThreading(Object)
+     * @since 0.27
+     */
+    protected boolean isThreadAccessAllowed(Thread thread, boolean singleThreaded) {
+        return singleThreaded;
+    }
+
+    /**
+     * Called once before a context is accessed by more than one thread at the same time for the
+     * first time, if the language {@link #isThreadAccessAllowed(Thread, boolean) allows} multi
+     * threaded access. Languages can use this method to switch from optimizations that assume a
+     * single thread to thread safe data structures. A context stays multi threaded once this method
+     * was called.
+     *
+     * @param context the context {@link #createContext(com.oracle.truffle.api.TruffleLanguage.Env)
+     *            created by the language}
+     * @since 0.27
+     */
+    protected void initializeMultiThreading(C context) {
+    }
+
+    /**
+     * Returns <code>true</code> if the {@link CallTarget call targets} created by
+     * {@link #parse(ParsingRequest)} may be shared between all contexts of an engine. If code
+     * sharing is enabled for the engine, a source that was already parsed in one context is not
+     * parsed again in another context; the existing call target is executed instead. By default
+     * code is not shared.
+     * <p>
+     * Languages that support code sharing must not store context specific state in their AST
+     * nodes. Nodes look up the current context using the {@link #getContextReference() context
+     * reference} whenever they need it.
+     *
+     * @since 0.27
+     */
+    protected boolean isCodeSharingSupported() {
+        return false;
+    }
+
     /**
      * Parses the provided source and generates appropriate AST. The parsing should execute no user
      * code, it should only create the {@link Node} tree to represent the source. If the provided
@@ -1223,6 +1276,14 @@ public abstract class TruffleLanguage<C> {
             spi.disposeContext(context);
         }
 
+        boolean isThreadAccessAllowed(Thread thread, boolean singleThreaded) {
+            return spi.isThreadAccessAllowed(thread, singleThreaded);
+        }
+
+        void initializeMultiThreading() {
+            spi.initializeMultiThreading(context);
+        }
+
         void postInit() {
             try {
                 spi.initializeContext(context);
@@ -1560,6 +1621,16 @@ public abstract class TruffleLanguage<C> {
             env.dispose();
         }
 
+        @Override
+        public boolean isThreadAccessAllowed(Env env, Thread thread, boolean singleThreaded) {
+            return env.isThreadAccessAllowed(thread, singleThreaded);
+        }
+
+        @Override
+        public void initializeMultiThreading(Env env) {
+            env.initializeMultiThreading();
+        }
+
         @Override
         public String toStringIfVisible(Env env, Object value, boolean checkVisibility) {
             return env.toStringIfVisible(value, checkVisibility);
@@ -1585,6 +1656,11 @@ public abstract class TruffleLanguage<C> {
             return TruffleLanguage.AccessAPI.nodesAccess().getLanguageSpi(language).lookup(type);
         }
 
+        @Override
+        public boolean isCodeSharingSupported(TruffleLanguage<?> language) {
+            return language.isCodeSharingSupported();
+        }
+
         @Override
         public OptionDescriptors describeOptions(TruffleLanguage<?> language, String requiredGroup) {
             OptionDescriptors descriptors = language.getOptionDescriptors();
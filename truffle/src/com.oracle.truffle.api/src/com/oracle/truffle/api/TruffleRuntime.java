@@ -110,6 +110,20 @@ public interface TruffleRuntime {
      */
     Assumption createAssumption(String name);
 
+    /**
+     * Invalidates a set of assumptions at once. This has the same effect as calling
+     * {@link Assumption#invalidate()} on each of the assumptions, but a runtime may invalidate code
+     * that depends on several of the assumptions only once.
+     *
+     * @param assumptions the assumptions to invalidate
+     * @since 0.27
+     */
+    default void invalidateAssumptions(Assumption... assumptions) {
+        for (Assumption assumption : assumptions) {
+            assumption.invalidate();
+        }
+    }
+
     /**
      * Creates a new virtual frame object that can be used to store values and is potentially
      * optimizable by the runtime.
@@ -199,6 +199,10 @@ public abstract class Accessor {
 
         public abstract void dispose(Env env);
 
+        public abstract boolean isThreadAccessAllowed(Env env, Thread thread, boolean singleThreaded);
+
+        public abstract void initializeMultiThreading(Env env);
+
         public abstract LanguageInfo getLanguageInfo(TruffleLanguage.Env env);
 
         public abstract LanguageInfo getLanguageInfo(TruffleLanguage<?> language);
@@ -229,6 +233,8 @@ public abstract class Accessor {
 
         public abstract OptionDescriptors describeOptions(TruffleLanguage<?> language, String requiredGroup);
 
+        public abstract boolean isCodeSharingSupported(TruffleLanguage<?> language);
+
         public abstract void onThrowable(RootNode root, Throwable e);
 
     }
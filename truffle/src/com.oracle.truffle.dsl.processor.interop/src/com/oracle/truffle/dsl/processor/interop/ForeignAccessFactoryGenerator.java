@@ -106,6 +106,8 @@ final class ForeignAccessFactoryGenerator {
         appendFactoryAccessIsPointer(w);
         appendFactoryAccessAsPointer(w);
         appendFactoryAccessToNative(w);
+        appendFactoryAccessReadRange(w);
+        appendFactoryAccessWriteRange(w);
         appendFactoryAccessMessage(w);
 
         for (MessageGenerator generator : messageGenerators.values()) {
@@ -273,6 +275,20 @@ final class ForeignAccessFactoryGenerator {
         w.append("    }").append("\n");
     }
 
+    private void appendFactoryAccessReadRange(Writer w) throws IOException {
+        w.append("    @Override").append("\n");
+        w.append("    public CallTarget accessReadRange() {").append("\n");
+        appendOptionalHandlerBody(w, Message.READ_RANGE);
+        w.append("    }").append("\n");
+    }
+
+    private void appendFactoryAccessWriteRange(Writer w) throws IOException {
+        w.append("    @Override").append("\n");
+        w.append("    public CallTarget accessWriteRange() {").append("\n");
+        appendOptionalHandlerBody(w, Message.WRITE_RANGE);
+        w.append("    }").append("\n");
+    }
+
     private void appendFactoryAccessUnbox(Writer w) throws IOException {
         w.append("    @Override").append("\n");
         w.append("    public CallTarget accessUnbox() {").append("\n");
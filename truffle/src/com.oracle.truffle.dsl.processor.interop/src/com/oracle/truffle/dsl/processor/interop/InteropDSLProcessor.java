@@ -60,7 +60,7 @@ public final class InteropDSLProcessor extends AbstractProcessor {
 
     static final List<Message> KNOWN_MESSAGES = Arrays.asList(new Message[]{Message.READ, Message.WRITE, Message.IS_NULL, Message.IS_EXECUTABLE,
                     Message.IS_BOXED, Message.HAS_SIZE, Message.GET_SIZE, Message.KEY_INFO, Message.KEYS, Message.UNBOX, Message.IS_POINTER,
-                    Message.AS_POINTER, Message.TO_NATIVE,
+                    Message.AS_POINTER, Message.TO_NATIVE, Message.READ_RANGE, Message.WRITE_RANGE,
                     Message.createExecute(0), Message.createInvoke(0), Message.createNew(0)});
 
     @Override
@@ -152,7 +152,8 @@ abstract class MessageGenerator extends InteropNodeGenerator {
         if (currentMessage != null) {
             if (Message.READ.toString().equalsIgnoreCase(messageName) || Message.KEY_INFO.toString().equalsIgnoreCase(messageName)) {
                 return new ReadGenerator(processingEnv, resolveAnnotation, messageResolutionAnnotation, element, containingForeignAccessFactory);
-            } else if (Message.WRITE.toString().equalsIgnoreCase(messageName)) {
+            } else if (Message.WRITE.toString().equalsIgnoreCase(messageName) || Message.READ_RANGE.toString().equalsIgnoreCase(messageName) ||
+                            Message.WRITE_RANGE.toString().equalsIgnoreCase(messageName)) {
                 return new WriteGenerator(processingEnv, resolveAnnotation, messageResolutionAnnotation, element, containingForeignAccessFactory);
             } else if (Message.IS_NULL.toString().equalsIgnoreCase(messageName) || Message.IS_EXECUTABLE.toString().equalsIgnoreCase(messageName) ||
                             Message.IS_BOXED.toString().equalsIgnoreCase(messageName) || Message.HAS_SIZE.toString().equalsIgnoreCase(messageName) ||
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+#include <stdint.h>
+
+#define GEN_DIRECT_CALL_TEST(name, type) \
+    int64_t widen_##name(type arg) { \
+        return arg; \
+    } \
+    \
+    type narrow_##name(int64_t arg) { \
+        return (type) arg; \
+    }
+
+GEN_DIRECT_CALL_TEST(SINT8, int8_t)
+GEN_DIRECT_CALL_TEST(UINT8, uint8_t)
+GEN_DIRECT_CALL_TEST(SINT16, int16_t)
+GEN_DIRECT_CALL_TEST(UINT16, uint16_t)
+
+int64_t sum_small(int8_t s8, uint8_t u8, int16_t s16, uint16_t u16) {
+    return (int64_t) s8 + u8 + s16 + u16;
+}
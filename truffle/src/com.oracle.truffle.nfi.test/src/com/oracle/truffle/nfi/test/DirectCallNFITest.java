@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.nfi.test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.nfi.types.NativeSimpleType;
+import com.oracle.truffle.tck.TruffleRunner;
+import com.oracle.truffle.tck.TruffleRunner.Inject;
+import com.oracle.truffle.tck.TruffleRunner.Warmup;
+import java.util.ArrayList;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests the extension of small integer arguments and return values of functions that only take
+ * primitive arguments. The tests are compiled after the warmup, so with the
+ * {@code TruffleNFIDirectCalls} compiler option the functions are called with a direct native
+ * call.
+ */
+@RunWith(Parameterized.class)
+@Parameterized.UseParametersRunnerFactory(TruffleRunner.ParametersFactory.class)
+public class DirectCallNFITest extends NFITest {
+
+    public static final NativeSimpleType[] SMALL_INTEGER_TYPES = {
+                    NativeSimpleType.SINT8, NativeSimpleType.UINT8,
+                    NativeSimpleType.SINT16, NativeSimpleType.UINT16
+    };
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        ArrayList<Object[]> ret = new ArrayList<>();
+        for (NativeSimpleType type : SMALL_INTEGER_TYPES) {
+            ret.add(new Object[]{type});
+        }
+        return ret;
+    }
+
+    @Parameter(0) public NativeSimpleType type;
+
+    /**
+     * Gets the value of {@link #type} that is represented by the lower bits of {@code value}.
+     */
+    private long expected(long value) {
+        switch (type) {
+            case SINT8:
+                return (byte) value;
+            case UINT8:
+                return value & 0xFF;
+            case SINT16:
+                return (short) value;
+            case UINT16:
+                return value & 0xFFFF;
+            default:
+                throw new AssertionError(type);
+        }
+    }
+
+    public class WidenNode extends SendExecuteNode {
+
+        public WidenNode() {
+            super("widen_" + type, String.format("(%s):sint64", type), 1);
+        }
+    }
+
+    @Test
+    @Warmup(5)
+    public void testWidenMinusOne(@Inject(WidenNode.class) CallTarget callTarget) {
+        Object ret = callTarget.call(-1);
+        Assert.assertEquals(expected(-1), ((Number) ret).longValue());
+    }
+
+    @Test
+    @Warmup(5)
+    public void testWidenHighBit(@Inject(WidenNode.class) CallTarget callTarget) {
+        Object ret = callTarget.call(0x8080);
+        Assert.assertEquals(expected(0x8080), ((Number) ret).longValue());
+    }
+
+    public class NarrowNode extends SendExecuteNode {
+
+        public NarrowNode() {
+            super("narrow_" + type, String.format("(sint64):%s", type), 1);
+        }
+    }
+
+    @Test
+    @Warmup(5)
+    public void testNarrow(@Inject(NarrowNode.class) CallTarget callTarget) {
+        Object ret = callTarget.call(0x123456789ABCDEF0L);
+        // small integers are returned as signed Java values, so only compare the lower bits
+        Assert.assertEquals(expected(0x123456789ABCDEF0L), expected(((Number) ret).longValue()));
+    }
+
+    public static class SumSmallNode extends SendExecuteNode {
+
+        public SumSmallNode() {
+            super("sum_small", "(sint8, uint8, sint16, uint16):sint64", 4);
+        }
+    }
+
+    @Test
+    @Warmup(5)
+    public void testMixedArguments(@Inject(SumSmallNode.class) CallTarget callTarget) {
+        Object ret = callTarget.call(-1, -1, -1, -1);
+        Assert.assertEquals(-1L + 0xFF - 1L + 0xFFFF, ((Number) ret).longValue());
+    }
+}
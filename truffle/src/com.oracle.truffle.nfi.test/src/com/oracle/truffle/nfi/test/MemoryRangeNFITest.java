@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.nfi.test;
+
+import java.nio.ByteBuffer;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.ForeignAccess;
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.tck.TruffleRunner;
+import com.oracle.truffle.tck.TruffleRunner.Inject;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(TruffleRunner.class)
+public class MemoryRangeNFITest extends NFITest {
+
+    private static final int SIZE = 64;
+
+    private TruffleObject memory;
+
+    @Before
+    public void allocate() {
+        TruffleObject malloc = lookupAndBind(defaultLibrary, "malloc", "(uint64):pointer");
+        memory = (TruffleObject) Truffle.getRuntime().createCallTarget(new SendExecuteNode(malloc, 1)).call((long) SIZE);
+    }
+
+    @After
+    public void free() {
+        TruffleObject free = lookupAndBind(defaultLibrary, "free", "(pointer):void");
+        Truffle.getRuntime().createCallTarget(new SendExecuteNode(free, 1)).call(memory);
+    }
+
+    /**
+     * Arguments: native pointer, index, buffer, and whether the buffer is written to the pointer.
+     * Returns the number of transferred elements or the interop exception that was thrown.
+     */
+    public static class RangeNode extends NFITestRootNode {
+
+        @Child Node readRange = Message.READ_RANGE.createNode();
+        @Child Node writeRange = Message.WRITE_RANGE.createNode();
+
+        @Override
+        public Object executeTest(VirtualFrame frame) {
+            Object[] args = frame.getArguments();
+            TruffleObject pointer = (TruffleObject) args[0];
+            long index = (Long) args[1];
+            try {
+                if ((Boolean) args[3]) {
+                    return ForeignAccess.sendWriteRange(writeRange, pointer, index, args[2]);
+                } else {
+                    return ForeignAccess.sendReadRange(readRange, pointer, index, args[2]);
+                }
+            } catch (InteropException e) {
+                return e;
+            }
+        }
+    }
+
+    @Test
+    public void testArrayRange(@Inject(RangeNode.class) CallTarget range) {
+        Assert.assertEquals(4, range.call(memory, 0L, new int[]{1, 2, 3, 4}, true));
+
+        int[] all = new int[4];
+        Assert.assertEquals(4, range.call(memory, 0L, all, false));
+        Assert.assertArrayEquals(new int[]{1, 2, 3, 4}, all);
+
+        int[] tail = new int[2];
+        Assert.assertEquals(2, range.call(memory, 2L, tail, false));
+        Assert.assertArrayEquals(new int[]{3, 4}, tail);
+    }
+
+    @Test
+    public void testByteBufferRange(@Inject(RangeNode.class) CallTarget range) {
+        ByteBuffer direct = ByteBuffer.allocateDirect(8);
+        for (int i = 0; i < 8; i++) {
+            direct.put((byte) (i + 10));
+        }
+        direct.position(2);
+        Assert.assertEquals(6, range.call(memory, 1L, direct, true));
+        Assert.assertEquals(8, direct.position());
+
+        byte[] bytes = new byte[7];
+        Assert.assertEquals(7, range.call(memory, 0L, ByteBuffer.wrap(bytes), false));
+        Assert.assertArrayEquals(new byte[]{bytes[0], 12, 13, 14, 15, 16, 17}, bytes);
+
+        ByteBuffer readBack = ByteBuffer.allocateDirect(6);
+        Assert.assertEquals(6, range.call(memory, 1L, readBack, false));
+        readBack.flip();
+        for (int i = 0; i < 6; i++) {
+            Assert.assertEquals(i + 12, readBack.get());
+        }
+    }
+
+    @Test
+    public void testNegativeIndex(@Inject(RangeNode.class) CallTarget range) {
+        Assert.assertThat(range.call(memory, -1L, new int[1], false), is(instanceOf(UnknownIdentifierException.class)));
+        Assert.assertThat(range.call(memory, -1L, new int[1], true), is(instanceOf(UnknownIdentifierException.class)));
+    }
+
+    @Test
+    public void testOverflowingIndex(@Inject(RangeNode.class) CallTarget range) {
+        Assert.assertThat(range.call(memory, Long.MAX_VALUE / 2, new long[1], false), is(instanceOf(UnknownIdentifierException.class)));
+        Assert.assertThat(range.call(memory, Long.MAX_VALUE, ByteBuffer.allocate(1), true), is(instanceOf(UnknownIdentifierException.class)));
+    }
+}
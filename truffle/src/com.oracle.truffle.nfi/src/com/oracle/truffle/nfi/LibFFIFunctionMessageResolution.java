@@ -47,6 +47,30 @@ class LibFFIFunctionMessageResolution {
 
         public abstract Object execute(LibFFIFunction receiver, Object[] args);
 
+        /**
+         * Functions with only primitive and pointer arguments are called with their arguments in
+         * {@code long} slots. For a cached function, the compiler can then replace the call with a
+         * direct native call.
+         */
+        @ExplodeLoop
+        @Specialization(guards = {"receiver == cachedReceiver", "signature.canDirectCall()"}, limit = "3")
+        @SuppressWarnings("unused")
+        protected Object cachedFunction(LibFFIFunction receiver, Object[] args,
+                        @Cached("receiver") LibFFIFunction cachedReceiver,
+                        @Cached("receiver.getSignature()") LibFFISignature signature,
+                        @Cached("cachedReceiver.getAddress()") long functionPointer,
+                        @Cached(value = "getSerializeArgumentNodes(signature)") SerializeArgumentNode[] serializeArgs) {
+            if (args.length != serializeArgs.length) {
+                throw ArityException.raise(serializeArgs.length, args.length);
+            }
+
+            NativeArgumentBuffer.Slots buffer = signature.prepareSlots();
+            for (int i = 0; i < serializeArgs.length; i++) {
+                serializeArgs[i].execute(buffer, args[i]);
+            }
+            return signature.executeDirect(ctxRef.get(), functionPointer, buffer);
+        }
+
         @ExplodeLoop
         @Specialization(guards = "checkSignature(receiver, signature)")
         protected Object cachedSignature(LibFFIFunction receiver, Object[] args, @Cached("receiver.getSignature()") LibFFISignature signature,
@@ -83,7 +107,7 @@ class LibFFIFunctionMessageResolution {
         }
 
         @ExplodeLoop
-        @Specialization(replaces = "cachedSignature", guards = "receiver.getSignature().getArgTypes().length == serializeArgs.length")
+        @Specialization(replaces = {"cachedFunction", "cachedSignature"}, guards = "receiver.getSignature().getArgTypes().length == serializeArgs.length")
         protected Object cachedArgCount(LibFFIFunction receiver, Object[] args,
                         @Cached("getSlowPathSerializeArgumentNodes(receiver)") SlowPathSerializeArgumentNode[] serializeArgs) {
             LibFFISignature signature = receiver.getSignature();
@@ -25,6 +25,7 @@
 package com.oracle.truffle.nfi;
 
 import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.nfi.LibFFIType.Direction;
 import com.oracle.truffle.nfi.types.NativeSignature;
 import com.oracle.truffle.nfi.NativeAllocation.FreeDestructor;
@@ -52,6 +53,12 @@ final class LibFFISignature {
 
     private final Direction allowedCallDirection;
 
+    /**
+     * Descriptor of the signature in JVM method descriptor syntax if all arguments and the return
+     * value are primitives or pointers, {@code null} otherwise.
+     */
+    private final String directCallDescriptor;
+
     private LibFFISignature(NFIContext context, NativeSignature signature) {
         if (signature.getRetType() instanceof NativeArrayTypeMirror) {
             throw new IllegalArgumentException("array type as return value is not supported");
@@ -133,12 +140,37 @@ final class LibFFISignature {
         this.primitiveSize = primSize;
         this.objectCount = objCount;
         this.realArgCount = argCount;
+        this.directCallDescriptor = signature.isVarargs() ? null : createDirectCallDescriptor(this.retType, this.argTypes);
+    }
+
+    private static String createDirectCallDescriptor(LibFFIType retType, LibFFIType[] argTypes) {
+        if (!(retType instanceof LibFFIType.SimpleType)) {
+            return null;
+        }
+        StringBuilder descriptor = new StringBuilder("(");
+        for (LibFFIType argType : argTypes) {
+            if (!(argType instanceof LibFFIType.SimpleType) || argType.injectedArgument) {
+                return null;
+            }
+            descriptor.append(((LibFFIType.SimpleType) argType).getDirectCallTypeChar());
+        }
+        descriptor.append(')').append(((LibFFIType.SimpleType) retType).getDirectCallTypeChar());
+        return descriptor.toString();
     }
 
     public NativeArgumentBuffer.Array prepareBuffer() {
         return new NativeArgumentBuffer.Array(primitiveSize, objectCount);
     }
 
+    public NativeArgumentBuffer.Slots prepareSlots() {
+        assert canDirectCall();
+        return new NativeArgumentBuffer.Slots(argTypes.length);
+    }
+
+    public boolean canDirectCall() {
+        return directCallDescriptor != null;
+    }
+
     public LibFFIType[] getArgTypes() {
         return argTypes;
     }
@@ -174,4 +206,27 @@ final class LibFFISignature {
             return retType.deserialize(retBuffer);
         }
     }
+
+    public Object executeDirect(NFIContext ctx, long functionPointer, NativeArgumentBuffer.Slots args) {
+        CompilerAsserts.partialEvaluationConstant(retType);
+        long ret = executeDirect(this, ctx, directCallDescriptor, functionPointer, args.slots);
+        return ((LibFFIType.SimpleType) retType).fromPrimitive(ret);
+    }
+
+    /**
+     * Calls a function with a {@linkplain #canDirectCall() direct call signature}. If
+     * {@code descriptor} and {@code functionPointer} are compilation constants, the compiler may
+     * replace this method with a direct call of the native function. Otherwise the call goes
+     * through libffi. The result is returned in the same format as from
+     * {@link NFIContext#executePrimitive}.
+     */
+    @TruffleBoundary
+    @SuppressWarnings("unused")
+    static long executeDirect(LibFFISignature signature, NFIContext ctx, String descriptor, long functionPointer, long[] args) {
+        NativeArgumentBuffer.Array buffer = signature.prepareBuffer();
+        for (int i = 0; i < signature.argTypes.length; i++) {
+            ((LibFFIType.SimpleType) signature.argTypes[i]).serializePrimitive(buffer, args[i]);
+        }
+        return ctx.executePrimitive(signature.cif, functionPointer, buffer.prim, buffer.getPatchCount(), buffer.patches, buffer.objects);
+    }
 }
@@ -212,6 +212,76 @@ abstract class LibFFIType {
             }
         }
 
+        /**
+         * Inverse of {@link NativeArgumentBuffer.Slots}: serializes a value that was stored in a
+         * {@code long} slot.
+         */
+        final void serializePrimitive(NativeArgumentBuffer buffer, long primitive) {
+            buffer.align(alignment);
+            switch (simpleType) {
+                case UINT8:
+                case SINT8:
+                    buffer.putInt8((byte) primitive);
+                    break;
+                case UINT16:
+                case SINT16:
+                    buffer.putInt16((short) primitive);
+                    break;
+                case UINT32:
+                case SINT32:
+                    buffer.putInt32((int) primitive);
+                    break;
+                case UINT64:
+                case SINT64:
+                    buffer.putInt64(primitive);
+                    break;
+                case FLOAT:
+                    buffer.putFloat(Float.intBitsToFloat((int) primitive));
+                    break;
+                case DOUBLE:
+                    buffer.putDouble(Double.longBitsToDouble(primitive));
+                    break;
+                case POINTER:
+                    buffer.putPointer(primitive, size);
+                    break;
+                default:
+                    throw new AssertionError(simpleType.name());
+            }
+        }
+
+        /**
+         * Gets the type character (as in a JVM method descriptor) of the Java kind that is used to
+         * pass this type to a direct native call. The unsigned 8 and 16 bit types use the unsigned
+         * kinds {@code boolean} and {@code char}, so that the compiler zero-extends them.
+         */
+        final char getDirectCallTypeChar() {
+            switch (simpleType) {
+                case VOID:
+                    return 'V';
+                case UINT8:
+                    return 'Z';
+                case SINT8:
+                    return 'B';
+                case UINT16:
+                    return 'C';
+                case SINT16:
+                    return 'S';
+                case UINT32:
+                case SINT32:
+                    return 'I';
+                case UINT64:
+                case SINT64:
+                case POINTER:
+                    return 'J';
+                case FLOAT:
+                    return 'F';
+                case DOUBLE:
+                    return 'D';
+                default:
+                    throw new AssertionError(simpleType.name());
+            }
+        }
+
         @Override
         public SerializeArgumentNode createSerializeArgumentNode() {
             return SerializeSimpleArgumentNodeGen.create(this);
@@ -101,6 +101,68 @@ abstract class NativeArgumentBuffer {
         }
     }
 
+    /**
+     * Buffer for signatures that contain only primitive and pointer arguments. Every argument is
+     * stored in its own {@code long} slot, so compiled code can pass the arguments to a direct
+     * native call without going through libffi.
+     */
+    static final class Slots extends NativeArgumentBuffer {
+
+        final long[] slots;
+        private int slotIdx;
+
+        Slots(int slotCount) {
+            super(0);
+            this.slots = new long[slotCount];
+            this.slotIdx = 0;
+        }
+
+        @Override
+        protected ByteBuffer getPrimBuffer() {
+            throw new AssertionError("slot buffer has no primitive buffer");
+        }
+
+        @Override
+        public void align(int alignment) {
+            // every argument has its own slot
+        }
+
+        @Override
+        public void putInt8(byte b) {
+            slots[slotIdx++] = b;
+        }
+
+        @Override
+        public void putInt16(short s) {
+            slots[slotIdx++] = s;
+        }
+
+        @Override
+        public void putInt32(int i) {
+            slots[slotIdx++] = i;
+        }
+
+        @Override
+        public void putInt64(long l) {
+            slots[slotIdx++] = l;
+        }
+
+        @Override
+        public void putFloat(float f) {
+            slots[slotIdx++] = Float.floatToRawIntBits(f);
+        }
+
+        @Override
+        public void putDouble(double d) {
+            slots[slotIdx++] = Double.doubleToRawLongBits(d);
+        }
+
+        @Override
+        public void putObject(TypeTag tag, Object o, int size) {
+            throw new AssertionError("objects can not be passed in a slot buffer");
+        }
+    }
+
     int getPatchCount() {
         return objIdx;
     }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.nfi;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import com.oracle.truffle.api.interop.Message;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
+
+import sun.misc.Unsafe;
+
+/**
+ * Bulk copies between native memory and Java primitive arrays or {@link ByteBuffer}s, used for the
+ * {@link Message#READ_RANGE} and {@link Message#WRITE_RANGE} messages of native pointers. The
+ * element size is derived from the buffer; a raw pointer carries no bounds, so the caller is
+ * responsible for the range being within the native allocation. Ranges with a negative start or
+ * with addresses that overflow are rejected.
+ */
+final class NativeMemoryAccess {
+
+    private static final Unsafe UNSAFE = getUnsafe();
+    private static final long BUFFER_ADDRESS_OFFSET = getBufferAddressOffset();
+
+    private NativeMemoryAccess() {
+    }
+
+    static int read(long pointer, Number index, Object buffer) {
+        if (buffer instanceof ByteBuffer) {
+            ByteBuffer byteBuffer = (ByteBuffer) buffer;
+            int count = byteBuffer.remaining();
+            long address = elementAddress(pointer, index, 1, count, Message.READ_RANGE);
+            if (byteBuffer.hasArray()) {
+                int offset = byteBuffer.arrayOffset() + byteBuffer.position();
+                UNSAFE.copyMemory(null, address, byteBuffer.array(), Unsafe.ARRAY_BYTE_BASE_OFFSET + offset, count);
+                byteBuffer.position(byteBuffer.position() + count);
+            } else if (byteBuffer.isDirect() && !byteBuffer.isReadOnly()) {
+                UNSAFE.copyMemory(address, bufferAddress(byteBuffer), count);
+                byteBuffer.position(byteBuffer.position() + count);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    byteBuffer.put(UNSAFE.getByte(address + i));
+                }
+            }
+            return count;
+        }
+        Class<?> arrayClass = checkPrimitiveArray(buffer);
+        int count = Array.getLength(buffer);
+        int scale = UNSAFE.arrayIndexScale(arrayClass);
+        long address = elementAddress(pointer, index, scale, count, Message.READ_RANGE);
+        UNSAFE.copyMemory(null, address, buffer, UNSAFE.arrayBaseOffset(arrayClass), (long) count * scale);
+        return count;
+    }
+
+    static int write(long pointer, Number index, Object buffer) {
+        if (buffer instanceof ByteBuffer) {
+            ByteBuffer byteBuffer = (ByteBuffer) buffer;
+            int count = byteBuffer.remaining();
+            long address = elementAddress(pointer, index, 1, count, Message.WRITE_RANGE);
+            if (byteBuffer.hasArray()) {
+                int offset = byteBuffer.arrayOffset() + byteBuffer.position();
+                UNSAFE.copyMemory(byteBuffer.array(), Unsafe.ARRAY_BYTE_BASE_OFFSET + offset, null, address, count);
+                byteBuffer.position(byteBuffer.position() + count);
+            } else if (byteBuffer.isDirect()) {
+                UNSAFE.copyMemory(bufferAddress(byteBuffer), address, count);
+                byteBuffer.position(byteBuffer.position() + count);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    UNSAFE.putByte(address + i, byteBuffer.get());
+                }
+            }
+            return count;
+        }
+        Class<?> arrayClass = checkPrimitiveArray(buffer);
+        int count = Array.getLength(buffer);
+        int scale = UNSAFE.arrayIndexScale(arrayClass);
+        long address = elementAddress(pointer, index, scale, count, Message.WRITE_RANGE);
+        UNSAFE.copyMemory(buffer, UNSAFE.arrayBaseOffset(arrayClass), null, address, (long) count * scale);
+        return count;
+    }
+
+    private static long elementAddress(long pointer, Number index, int elementSize, int count, Message message) {
+        if (pointer == 0) {
+            throw UnsupportedMessageException.raise(message);
+        }
+        long start = index.longValue();
+        if (start < 0 || count < 0) {
+            throw UnknownIdentifierException.raise(String.valueOf(index));
+        }
+        try {
+            long address = Math.addExact(pointer, Math.multiplyExact(start, elementSize));
+            // the end of the range must not wrap around either
+            Math.addExact(address, (long) count * elementSize);
+            return address;
+        } catch (ArithmeticException e) {
+            throw UnknownIdentifierException.raise(String.valueOf(index));
+        }
+    }
+
+    private static long bufferAddress(ByteBuffer buffer) {
+        return UNSAFE.getLong(buffer, BUFFER_ADDRESS_OFFSET) + buffer.position();
+    }
+
+    private static Class<?> checkPrimitiveArray(Object buffer) {
+        if (buffer == null || !buffer.getClass().isArray() || !buffer.getClass().getComponentType().isPrimitive()) {
+            throw UnsupportedTypeException.raise(new Object[]{buffer});
+        }
+        return buffer.getClass();
+    }
+
+    private static long getBufferAddressOffset() {
+        try {
+            return UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (NoSuchFieldException e) {
+            throw new RuntimeException("exception while trying to get the offset of Buffer.address:", e);
+        }
+    }
+
+    private static Unsafe getUnsafe() {
+        try {
+            return Unsafe.getUnsafe();
+        } catch (SecurityException e) {
+        }
+        try {
+            Field theUnsafeInstance = Unsafe.class.getDeclaredField("theUnsafe");
+            theUnsafeInstance.setAccessible(true);
+            return (Unsafe) theUnsafeInstance.get(Unsafe.class);
+        } catch (Exception e) {
+            throw new RuntimeException("exception while trying to get Unsafe.theUnsafe via reflection:", e);
+        }
+    }
+}
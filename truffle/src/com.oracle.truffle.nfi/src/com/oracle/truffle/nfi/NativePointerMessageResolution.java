@@ -132,6 +132,24 @@ class NativePointerMessageResolution {
         }
     }
 
+    @Resolve(message = "READ_RANGE")
+    abstract static class ReadRangeNativePointerNode extends Node {
+
+        @TruffleBoundary
+        public int access(NativePointer receiver, Number index, Object buffer) {
+            return NativeMemoryAccess.read(receiver.nativePointer, index, buffer);
+        }
+    }
+
+    @Resolve(message = "WRITE_RANGE")
+    abstract static class WriteRangeNativePointerNode extends Node {
+
+        @TruffleBoundary
+        public int access(NativePointer receiver, Number index, Object buffer) {
+            return NativeMemoryAccess.write(receiver.nativePointer, index, buffer);
+        }
+    }
+
     @CanResolve
     abstract static class CanResolveNativePointerNode extends Node {
 
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ObjectStorageOptions;
+import com.oracle.truffle.object.ShapeImpl;
+import com.oracle.truffle.object.basic.DefaultLayoutFactory;
+import com.oracle.truffle.object.basic.DynamicObjectBasic;
+
+/**
+ * Tests {@link ObjectStorageOptions#PresizeExtensionArrays}. The option is a system property read
+ * once, so the test is run again in a subprocess with the option enabled.
+ */
+public class PresizeExtensionArraysTest {
+
+    private static final String PRESIZE_PROPERTY = Layout.OPTION_PREFIX + "PresizeExtensionArrays";
+    private static final int PROPERTIES = 12;
+
+    private static final Field OBJECT_STORE = getField("objext");
+    private static final Field PRIMITIVE_STORE = getField("primext");
+
+    private static Field getField(String name) {
+        try {
+            Field field = DynamicObjectBasic.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Object[] objectStore(DynamicObject object) throws IllegalAccessException {
+        return (Object[]) OBJECT_STORE.get(object);
+    }
+
+    private static long[] primitiveStore(DynamicObject object) throws IllegalAccessException {
+        return (long[]) PRIMITIVE_STORE.get(object);
+    }
+
+    @Test
+    public void testPresizedGrow() throws Exception {
+        if (!ObjectStorageOptions.PresizeExtensionArrays) {
+            runInSubprocess();
+            return;
+        }
+        Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout());
+        Shape rootShape = layout.createShape(new ObjectType());
+
+        // the first object teaches the shape tree how large its extension arrays get
+        DynamicObject first = layout.newInstance(rootShape);
+        for (int i = 0; i < PROPERTIES; i++) {
+            first.define("o" + i, "value" + i);
+            first.define("p" + i, (long) i);
+        }
+        ShapeImpl largest = (ShapeImpl) first.getShape();
+        assertTrue(largest.getObjectArrayCapacity() > 0);
+        assertTrue(largest.getPrimitiveArrayCapacity() > 0);
+
+        // the second object allocates its extension arrays once with the largest capacity
+        DynamicObject second = layout.newInstance(rootShape);
+        Object[] initialObjectStore = null;
+        long[] initialPrimitiveStore = null;
+        for (int i = 0; i < PROPERTIES; i++) {
+            second.define("o" + i, "value" + i);
+            second.define("p" + i, (long) i);
+            if (initialObjectStore == null && objectStore(second) != null) {
+                initialObjectStore = objectStore(second);
+                assertEquals(((ShapeImpl) second.getShape()).getPreferredObjectArrayCapacity(), initialObjectStore.length);
+                assertTrue(initialObjectStore.length >= largest.getObjectArrayCapacity());
+            }
+            if (initialPrimitiveStore == null && primitiveStore(second) != null) {
+                initialPrimitiveStore = primitiveStore(second);
+                assertTrue(initialPrimitiveStore.length >= largest.getPrimitiveArrayCapacity());
+            }
+        }
+        assertSame(largest, second.getShape());
+        assertSame(initialObjectStore, objectStore(second));
+        assertSame(initialPrimitiveStore, primitiveStore(second));
+        for (int i = 0; i < PROPERTIES; i++) {
+            assertEquals("value" + i, second.get("o" + i));
+            assertEquals((long) i, second.get("p" + i));
+        }
+    }
+
+    @Test
+    public void testGrowBeyondPresizedCapacity() throws Exception {
+        if (!ObjectStorageOptions.PresizeExtensionArrays) {
+            runInSubprocess();
+            return;
+        }
+        Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout());
+        Shape rootShape = layout.createShape(new ObjectType());
+
+        DynamicObject first = layout.newInstance(rootShape);
+        for (int i = 0; i < PROPERTIES; i++) {
+            first.define("o" + i, "value" + i);
+        }
+        int presizedLength = ((ShapeImpl) first.getShape()).getPreferredObjectArrayCapacity();
+
+        // the second object needs more room than any object before
+        DynamicObject second = layout.newInstance(rootShape);
+        for (int i = 0; i < PROPERTIES; i++) {
+            second.define("o" + i, "value" + i);
+        }
+        Object[] presizedStore = objectStore(second);
+        assertEquals(presizedLength, presizedStore.length);
+        for (int i = PROPERTIES; i < 4 * PROPERTIES; i++) {
+            second.define("o" + i, "value" + i);
+        }
+        Object[] grownStore = objectStore(second);
+        assertNotSame(presizedStore, grownStore);
+        assertTrue(grownStore.length >= ((ShapeImpl) second.getShape()).getObjectArrayCapacity());
+        for (int i = 0; i < 4 * PROPERTIES; i++) {
+            assertEquals("value" + i, second.get("o" + i));
+        }
+
+        // objects of the same shape tree now start out with the larger capacity
+        DynamicObject third = layout.newInstance(rootShape);
+        third.define("o0", "value0");
+        for (int i = 1; i < 4 * PROPERTIES && objectStore(third) == null; i++) {
+            third.define("o" + i, "value" + i);
+        }
+        assertTrue(objectStore(third).length > presizedLength);
+    }
+
+    private void runInSubprocess() throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-ea");
+        command.add("-D" + PRESIZE_PROPERTY + "=true");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(JUnitCore.class.getName());
+        command.add(getClass().getName());
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append(System.lineSeparator());
+            }
+        }
+        assertEquals(output.toString(), 0, process.waitFor());
+    }
+}
@@ -22,6 +22,11 @@
  */
 package com.oracle.truffle.object.basic.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
 import org.junit.Test;
 
 import com.oracle.truffle.api.object.Layout;
@@ -29,7 +34,10 @@ import com.oracle.truffle.api.object.Layout.ImplicitCast;
 import com.oracle.truffle.api.object.ObjectType;
 import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ShapeImpl;
+import com.oracle.truffle.object.ShapeImpl.TransitionMapRepresentation;
 import com.oracle.truffle.object.basic.DefaultLayoutFactory;
+import com.oracle.truffle.object.debug.FootprintShapeVisitor;
 
 public class ShapeTest {
 
@@ -73,4 +81,29 @@ public class ShapeTest {
                         "\"a\":int@0" +
                         "\n}", shapeWithExtArray);
     }
+
+    @Test
+    public void testTransitionMapGrowth() {
+        Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout());
+        Shape rootShape = layout.createShape(new ObjectType());
+        assertEquals(TransitionMapRepresentation.EMPTY, ((ShapeImpl) rootShape).getTransitionMapRepresentation());
+
+        // single entry, small map and large map representations
+        int count = 12;
+        Shape[] successors = new Shape[count];
+        for (int i = 0; i < count; i++) {
+            successors[i] = rootShape.defineProperty("p" + i, i, 0);
+            for (int j = 0; j <= i; j++) {
+                assertSame(successors[j], rootShape.defineProperty("p" + j, j, 0));
+                assertTrue(rootShape.hasTransitionWithKey("p" + j));
+            }
+            assertFalse(rootShape.hasTransitionWithKey("p" + (i + 1)));
+            TransitionMapRepresentation expected = i == 0 ? TransitionMapRepresentation.SINGLE : i < 8 ? TransitionMapRepresentation.SMALL : TransitionMapRepresentation.LARGE;
+            assertEquals(expected, ((ShapeImpl) rootShape).getTransitionMapRepresentation());
+        }
+
+        FootprintShapeVisitor footprint = new FootprintShapeVisitor().visitShape(rootShape);
+        assertEquals(count + 1, footprint.getShapeCount());
+        assertEquals(count, footprint.getTransitionCount());
+    }
 }
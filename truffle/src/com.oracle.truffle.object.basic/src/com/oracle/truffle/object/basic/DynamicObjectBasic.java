@@ -54,12 +54,12 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
     @Override
     protected final void initialize(Shape shape) {
         assert getObjectStore(shape) == null;
-        int capacity = ((ShapeImpl) shape).getObjectArrayCapacity();
+        int capacity = ((ShapeImpl) shape).getPreferredObjectArrayCapacity();
         if (capacity != 0) {
             this.setObjectStore(new Object[capacity], shape);
         }
         if (((ShapeImpl) shape).getPrimitiveArrayCapacity() != 0) {
-            this.setPrimitiveStore(new long[((ShapeImpl) shape).getPrimitiveArrayCapacity()], shape);
+            this.setPrimitiveStore(new long[((ShapeImpl) shape).getPreferredPrimitiveArrayCapacity()], shape);
         }
     }
 
@@ -71,11 +71,24 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
         int oldObjectArrayCapacity = ((ShapeImpl) oldShape).getObjectArrayCapacity();
         int newObjectArrayCapacity = ((ShapeImpl) newShape).getObjectArrayCapacity();
         if (oldObjectArrayCapacity != newObjectArrayCapacity) {
-            growObjectStoreIntl(oldObjectArrayCapacity, newObjectArrayCapacity, oldShape);
+            if (ObjectStorageOptions.PresizeExtensionArrays && hasCapacity(getObjectStore(oldShape), newObjectArrayCapacity)) {
+                extensionArrayPresizedCount.inc();
+                return;
+            }
+            growObjectStoreIntl(oldObjectArrayCapacity, ((ShapeImpl) newShape).getPreferredObjectArrayCapacity(), oldShape);
         }
     }
 
+    private static boolean hasCapacity(Object[] store, int capacity) {
+        return store != null && store.length >= capacity;
+    }
+
+    private static boolean hasCapacity(long[] store, int capacity) {
+        return store != null && store.length >= capacity;
+    }
+
     private void growObjectStoreIntl(int oldObjectArrayCapacity, int newObjectArrayCapacity, Shape newShape) {
+        extensionArrayGrowCount.inc();
         Object[] newObjectStore = new Object[newObjectArrayCapacity];
         if (oldObjectArrayCapacity != 0) {
             // monotonic growth assumption
@@ -100,11 +113,16 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
             // due to obsolescence, we might have to reserve an empty primitive array slot
             this.setPrimitiveStore(null, newShape);
         } else if (oldPrimitiveCapacity != newPrimitiveCapacity) {
-            growPrimitiveStoreIntl(oldPrimitiveCapacity, newPrimitiveCapacity, oldShape);
+            if (ObjectStorageOptions.PresizeExtensionArrays && hasCapacity(getPrimitiveStore(oldShape), newPrimitiveCapacity)) {
+                extensionArrayPresizedCount.inc();
+                return;
+            }
+            growPrimitiveStoreIntl(oldPrimitiveCapacity, ((ShapeImpl) newShape).getPreferredPrimitiveArrayCapacity(), oldShape);
         }
     }
 
     private void growPrimitiveStoreIntl(int oldPrimitiveCapacity, int newPrimitiveCapacity, Shape newShape) {
+        extensionArrayGrowCount.inc();
         long[] newPrimitiveArray = new long[newPrimitiveCapacity];
         if (oldPrimitiveCapacity != 0) {
             // primitive array can shrink due to type changes
@@ -121,7 +139,8 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
         Object[] newObjectStore = null;
         int destinationCapacity = ((ShapeImpl) newShape).getObjectArrayCapacity();
         if (destinationCapacity != 0) {
-            newObjectStore = new Object[destinationCapacity];
+            extensionArrayResizeCount.inc();
+            newObjectStore = new Object[((ShapeImpl) newShape).getPreferredObjectArrayCapacity()];
             int sourceCapacity = ((ShapeImpl) oldShape).getObjectArrayCapacity();
             if (sourceCapacity != 0) {
                 Object[] oldObjectStore = getObjectStore(newShape);
@@ -155,7 +174,8 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
         long[] newPrimitiveArray = null;
         int destinationCapacity = ((ShapeImpl) newShape).getPrimitiveArrayCapacity();
         if (destinationCapacity != 0) {
-            newPrimitiveArray = new long[destinationCapacity];
+            extensionArrayResizeCount.inc();
+            newPrimitiveArray = new long[((ShapeImpl) newShape).getPreferredPrimitiveArrayCapacity()];
             int sourceCapacity = ((ShapeImpl) oldShape).getPrimitiveArrayCapacity();
             if (sourceCapacity != 0) {
                 long[] oldPrimitiveArray = this.getPrimitiveStore(newShape);
@@ -188,14 +208,21 @@ public class DynamicObjectBasic extends DynamicObjectImpl {
     protected final boolean checkExtensionArrayInvariants(Shape newShape) {
         assert getShape() == newShape;
         assert (getObjectStore(newShape) == null && ((ShapeImpl) newShape).getObjectArrayCapacity() == 0) ||
-                        (getObjectStore(newShape) != null && getObjectStore(newShape).length == ((ShapeImpl) newShape).getObjectArrayCapacity());
+                        (getObjectStore(newShape) != null && checkLength(getObjectStore(newShape).length, ((ShapeImpl) newShape).getObjectArrayCapacity()));
         if (((ShapeImpl) newShape).hasPrimitiveArray()) {
             assert (getPrimitiveStore(newShape) == null && ((ShapeImpl) newShape).getPrimitiveArrayCapacity() == 0) ||
-                            (getPrimitiveStore(newShape) != null && getPrimitiveStore(newShape).length == ((ShapeImpl) newShape).getPrimitiveArrayCapacity());
+                            (getPrimitiveStore(newShape) != null && checkLength(getPrimitiveStore(newShape).length, ((ShapeImpl) newShape).getPrimitiveArrayCapacity()));
         }
         return true;
     }
 
+    /**
+     * Pre-sized extension arrays may be longer than the capacity of the shape.
+     */
+    private static boolean checkLength(int length, int capacity) {
+        return ObjectStorageOptions.PresizeExtensionArrays ? length >= capacity : length == capacity;
+    }
+
     @Override
     protected final DynamicObject cloneWithShape(Shape currentShape) {
         assert this.getShape() == currentShape;
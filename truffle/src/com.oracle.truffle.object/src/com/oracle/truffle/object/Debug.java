@@ -34,6 +34,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import com.oracle.truffle.api.nodes.GraphPrintVisitor;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.object.debug.FootprintShapeVisitor;
 
 @SuppressWarnings("deprecation")
 class Debug {
@@ -105,6 +106,9 @@ class Debug {
                         if (ObjectStorageOptions.DumpShapesIGV) {
                             dumpIGV();
                         }
+                        if (ObjectStorageOptions.DumpShapesFootprint) {
+                            dumpFootprint();
+                        }
                     } catch (FileNotFoundException | UnsupportedEncodingException e) {
                         throw new RuntimeException(e);
                     }
@@ -160,6 +164,18 @@ class Debug {
                     printer.printToNetwork(false);
                 }
 
+                private void dumpFootprint() throws FileNotFoundException, UnsupportedEncodingException {
+                    try (PrintWriter out = new PrintWriter(getOutputFile("txt"), "UTF-8")) {
+                        FootprintShapeVisitor visitor = new FootprintShapeVisitor();
+                        for (ShapeImpl shape : getAllShapes()) {
+                            if (isRootShape(shape)) {
+                                visitor.visitShape(shape);
+                            }
+                        }
+                        out.print(visitor);
+                    }
+                }
+
                 private boolean isRootShape(ShapeImpl shape) {
                     return shape.getParent() == null;
                 }
@@ -36,6 +36,12 @@ public abstract class DynamicObjectImpl extends DynamicObject implements Cloneab
 
     /** @since 0.17 or earlier */
     public static final DebugCounter reshapeCount = DebugCounter.create("Reshape count");
+    /** @since 0.27 */
+    public static final DebugCounter extensionArrayGrowCount = DebugCounter.create("Extension array grow count");
+    /** @since 0.27 */
+    public static final DebugCounter extensionArrayResizeCount = DebugCounter.create("Extension array resize count");
+    /** @since 0.27 */
+    public static final DebugCounter extensionArrayPresizedCount = DebugCounter.create("Extension array grows avoided by pre-sizing");
 
     /** @since 0.17 or earlier */
     @SuppressWarnings("deprecation")
@@ -49,6 +49,30 @@ public final class ObjectStorageOptions {
      */
     public static final boolean InObjectFields = booleanOption(OPTION_PREFIX + "InObjectFields", true);
 
+    /**
+     * Allocate extension arrays with the largest capacity reached by shapes of the same shape tree,
+     * so that objects that gain properties the way previous objects did do not grow their
+     * extension arrays again and again.
+     *
+     * @since 0.27
+     */
+    public static final boolean PresizeExtensionArrays = booleanOption(OPTION_PREFIX + "PresizeExtensionArrays", false);
+    /**
+     * Upper bound for the capacity of pre-sized extension arrays, to avoid dictionary-like objects
+     * with many properties blowing up the footprint of all objects of their shape tree.
+     *
+     * @since 0.27
+     */
+    public static final int PresizeExtensionArraysLimit = Integer.getInteger(OPTION_PREFIX + "PresizeExtensionArraysLimit", 64);
+
+    /**
+     * Hold successor shapes in the transition maps weakly, so that parts of the shape tree that are
+     * no longer used by any object or compiled code can be garbage collected.
+     *
+     * @since 0.27
+     */
+    public static final boolean WeakTransitions = booleanOption(OPTION_PREFIX + "WeakTransitions", false);
+
     // Debug options (should be final)
     /** @since 0.17 or earlier */
     public static final boolean TraceReshape = booleanOption(OPTION_PREFIX + "TraceReshape", false);
@@ -59,7 +83,8 @@ public final class ObjectStorageOptions {
     static final boolean DumpShapesDOT = booleanOption(OPTION_PREFIX + "DumpShapesDOT", false);
     static final boolean DumpShapesJSON = booleanOption(OPTION_PREFIX + "DumpShapesJSON", false);
     static final boolean DumpShapesIGV = booleanOption(OPTION_PREFIX + "DumpShapesIGV", false);
-    static final boolean DumpShapes = DumpShapesDOT || DumpShapesJSON || DumpShapesIGV;
+    static final boolean DumpShapesFootprint = booleanOption(OPTION_PREFIX + "DumpShapesFootprint", false);
+    static final boolean DumpShapes = DumpShapesDOT || DumpShapesJSON || DumpShapesIGV || DumpShapesFootprint;
     static final String DumpShapesPath = System.getProperty(OPTION_PREFIX + "DumpShapesPath", "");
 
     /** @since 0.17 or earlier */
@@ -22,12 +22,14 @@
  */
 package com.oracle.truffle.object;
 
+import java.lang.ref.WeakReference;
 import java.util.AbstractMap;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -123,8 +125,12 @@ public abstract class ShapeImpl extends Shape {
      * <ol>
      * <li>{@code null}: empty map
      * <li>{@link Map.Entry}: immutable single entry map
+     * <li>{@code Object[]}: immutable small map of alternating keys and values, for up to
+     * {@link #SMALL_TRANSITION_MAP_LIMIT} entries
      * <li>{@link Map}: mutable multiple entry map
      * </ol>
+     * With {@link ObjectStorageOptions#WeakTransitions}, the successor shapes are held by
+     * {@link WeakReference}s.
      *
      * @see #getTransitionMapForRead()
      * @see #addTransitionInternal(Transition, ShapeImpl)
@@ -133,6 +139,18 @@ public abstract class ShapeImpl extends Shape {
 
     private final Transition transitionFromParent;
 
+    /**
+     * Largest extension array capacities reached by any shape of this shape tree. Only maintained in
+     * the root shape, where it serves as allocation site feedback for pre-sizing extension arrays.
+     * Updates may race; the values are only a heuristic.
+     *
+     * @see ObjectStorageOptions#PresizeExtensionArrays
+     */
+    private volatile int expectedObjectArrayCapacity;
+    private volatile int expectedPrimitiveArrayCapacity;
+
+    private static final int SMALL_TRANSITION_MAP_LIMIT = 8;
+
     private static final AtomicReferenceFieldUpdater<ShapeImpl, Object> TRANSITION_MAP_UPDATER = AtomicReferenceFieldUpdater.newUpdater(ShapeImpl.class, Object.class, "transitionMap");
     private static final AtomicReferenceFieldUpdater<ShapeImpl, Assumption> LEAF_ASSUMPTION_UPDATER = AtomicReferenceFieldUpdater.newUpdater(ShapeImpl.class, Assumption.class, "leafAssumption");
 
@@ -176,6 +194,10 @@ public abstract class ShapeImpl extends Shape {
         this.transitionFromParent = transitionFromParent;
         this.sharedData = sharedData;
 
+        if (ObjectStorageOptions.PresizeExtensionArrays && parent != null) {
+            root.updateExpectedCapacity(objectArrayCapacity, primitiveArrayCapacity);
+        }
+
         shapeCount.inc();
         if (ObjectStorageOptions.DumpShapes) {
             Debug.trackShape(this);
@@ -259,6 +281,45 @@ public abstract class ShapeImpl extends Shape {
         return primitiveArrayCapacity;
     }
 
+    /**
+     * Length to allocate for the object extension array of an object of this shape. Equal to
+     * {@link #getObjectArrayCapacity()} unless extension arrays are
+     * {@linkplain ObjectStorageOptions#PresizeExtensionArrays pre-sized}.
+     *
+     * @since 0.27
+     */
+    public final int getPreferredObjectArrayCapacity() {
+        return preferredCapacity(objectArrayCapacity, root.expectedObjectArrayCapacity);
+    }
+
+    /**
+     * Length to allocate for the primitive extension array of an object of this shape. Equal to
+     * {@link #getPrimitiveArrayCapacity()} unless extension arrays are
+     * {@linkplain ObjectStorageOptions#PresizeExtensionArrays pre-sized}.
+     *
+     * @since 0.27
+     */
+    public final int getPreferredPrimitiveArrayCapacity() {
+        return preferredCapacity(primitiveArrayCapacity, root.expectedPrimitiveArrayCapacity);
+    }
+
+    private static int preferredCapacity(int capacity, int expectedCapacity) {
+        if (ObjectStorageOptions.PresizeExtensionArrays && capacity != 0 && expectedCapacity > capacity) {
+            return Math.max(capacity, Math.min(expectedCapacity, ObjectStorageOptions.PresizeExtensionArraysLimit));
+        }
+        return capacity;
+    }
+
+    private void updateExpectedCapacity(int objectCapacity, int primitiveCapacity) {
+        assert this == root;
+        if (objectCapacity > expectedObjectArrayCapacity) {
+            expectedObjectArrayCapacity = objectCapacity;
+        }
+        if (primitiveCapacity > expectedPrimitiveArrayCapacity) {
+            expectedPrimitiveArrayCapacity = primitiveCapacity;
+        }
+    }
+
     /** @since 0.17 or earlier */
     public final int getPrimitiveArraySize() {
         return primitiveArraySize;
@@ -301,44 +362,143 @@ public abstract class ShapeImpl extends Shape {
     }
 
     private void addTransitionInternal(Transition transition, ShapeImpl successor) {
+        Object value = ObjectStorageOptions.WeakTransitions ? new WeakReference<>(successor) : successor;
         Object prev;
         Object next;
         do {
             prev = TRANSITION_MAP_UPDATER.get(this);
             if (prev == null) {
                 invalidateLeafAssumption();
-                next = new AbstractMap.SimpleImmutableEntry<>(transition, successor);
+                next = new AbstractMap.SimpleImmutableEntry<>(transition, value);
             } else if (prev instanceof Map.Entry<?, ?>) {
-                @SuppressWarnings("unchecked")
-                Map.Entry<Transition, ShapeImpl> entry = (Map.Entry<Transition, ShapeImpl>) prev;
-                ConcurrentHashMap<Transition, ShapeImpl> map = new ConcurrentHashMap<>();
-                map.put(entry.getKey(), entry.getValue());
-                map.put(transition, successor);
-                next = map;
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) prev;
+                if (unwrapSuccessor(entry.getValue()) == null || entry.getKey().equals(transition)) {
+                    next = new AbstractMap.SimpleImmutableEntry<>(transition, value);
+                } else {
+                    next = new Object[]{entry.getKey(), entry.getValue(), transition, value};
+                }
+            } else if (prev instanceof Object[]) {
+                next = addToSmallMap((Object[]) prev, transition, value);
             } else {
                 assert prev instanceof Map<?, ?>;
                 @SuppressWarnings("unchecked")
-                Map<Transition, ShapeImpl> map = (Map<Transition, ShapeImpl>) prev;
-                map.put(transition, successor);
+                Map<Transition, Object> map = (Map<Transition, Object>) prev;
+                if (ObjectStorageOptions.WeakTransitions) {
+                    map.values().removeIf(v -> unwrapSuccessor(v) == null);
+                }
+                map.put(transition, value);
                 break;
             }
         } while (!TRANSITION_MAP_UPDATER.compareAndSet(this, prev, next));
     }
 
+    /**
+     * Copies the small map with the new entry added and replaced or cleared entries dropped,
+     * upgrading to a {@link ConcurrentHashMap} if the small map is full.
+     */
+    private static Object addToSmallMap(Object[] entries, Transition transition, Object value) {
+        Object[] copy = new Object[entries.length + 2];
+        int length = 0;
+        for (int i = 0; i < entries.length; i += 2) {
+            if (unwrapSuccessor(entries[i + 1]) != null && !entries[i].equals(transition)) {
+                copy[length++] = entries[i];
+                copy[length++] = entries[i + 1];
+            }
+        }
+        copy[length++] = transition;
+        copy[length++] = value;
+        if (length / 2 > SMALL_TRANSITION_MAP_LIMIT) {
+            ConcurrentHashMap<Transition, Object> map = new ConcurrentHashMap<>();
+            for (int i = 0; i < length; i += 2) {
+                map.put((Transition) copy[i], copy[i + 1]);
+            }
+            return map;
+        }
+        return length == copy.length ? copy : Arrays.copyOf(copy, length);
+    }
+
+    private static ShapeImpl unwrapSuccessor(Object value) {
+        if (value instanceof WeakReference<?>) {
+            return (ShapeImpl) ((WeakReference<?>) value).get();
+        }
+        return (ShapeImpl) value;
+    }
+
     /** @since 0.17 or earlier */
     public final Map<Transition, ShapeImpl> getTransitionMapForRead() {
         Object trans = transitionMap;
         if (trans == null) {
             return Collections.<Transition, ShapeImpl> emptyMap();
         } else if (trans instanceof Map.Entry<?, ?>) {
-            @SuppressWarnings("unchecked")
-            Map.Entry<Transition, ShapeImpl> entry = (Map.Entry<Transition, ShapeImpl>) trans;
-            return Collections.singletonMap(entry.getKey(), entry.getValue());
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) trans;
+            ShapeImpl successor = unwrapSuccessor(entry.getValue());
+            if (successor == null) {
+                return Collections.<Transition, ShapeImpl> emptyMap();
+            }
+            return Collections.singletonMap((Transition) entry.getKey(), successor);
+        } else if (trans instanceof Object[]) {
+            Object[] entries = (Object[]) trans;
+            Map<Transition, ShapeImpl> map = new LinkedHashMap<>();
+            for (int i = 0; i < entries.length; i += 2) {
+                ShapeImpl successor = unwrapSuccessor(entries[i + 1]);
+                if (successor != null) {
+                    map.put((Transition) entries[i], successor);
+                }
+            }
+            return map;
         } else {
             assert trans instanceof Map<?, ?>;
             @SuppressWarnings("unchecked")
-            Map<Transition, ShapeImpl> map = (Map<Transition, ShapeImpl>) trans;
-            return map;
+            Map<Transition, Object> map = (Map<Transition, Object>) trans;
+            if (!ObjectStorageOptions.WeakTransitions) {
+                @SuppressWarnings("unchecked")
+                Map<Transition, ShapeImpl> strongMap = (Map<Transition, ShapeImpl>) (Map<Transition, ?>) map;
+                return strongMap;
+            }
+            Map<Transition, ShapeImpl> copy = new LinkedHashMap<>();
+            for (Map.Entry<Transition, Object> entry : map.entrySet()) {
+                ShapeImpl successor = unwrapSuccessor(entry.getValue());
+                if (successor != null) {
+                    copy.put(entry.getKey(), successor);
+                }
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * Representation of a {@linkplain #getTransitionMapRepresentation() transition map}.
+     *
+     * @since 0.27
+     */
+    public enum TransitionMapRepresentation {
+        /** No transitions. */
+        EMPTY,
+        /** A single immutable entry. */
+        SINGLE,
+        /** An immutable array of up to {@code SMALL_TRANSITION_MAP_LIMIT} entries. */
+        SMALL,
+        /** A mutable map. */
+        LARGE
+    }
+
+    /**
+     * Returns how the transitions of this shape are currently represented. Unlike
+     * {@link #getTransitionMapForRead()} this does not allocate.
+     *
+     * @since 0.27
+     */
+    public final TransitionMapRepresentation getTransitionMapRepresentation() {
+        Object trans = transitionMap;
+        if (trans == null) {
+            return TransitionMapRepresentation.EMPTY;
+        } else if (trans instanceof Map.Entry<?, ?>) {
+            return TransitionMapRepresentation.SINGLE;
+        } else if (trans instanceof Object[]) {
+            return TransitionMapRepresentation.SMALL;
+        } else {
+            assert trans instanceof Map<?, ?>;
+            return TransitionMapRepresentation.LARGE;
         }
     }
 
@@ -347,18 +507,25 @@ public abstract class ShapeImpl extends Shape {
         if (trans == null) {
             return null;
         } else if (trans instanceof Map.Entry<?, ?>) {
-            @SuppressWarnings("unchecked")
-            Map.Entry<Transition, ShapeImpl> entry = (Map.Entry<Transition, ShapeImpl>) trans;
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) trans;
             if (entry.getKey().equals(transition)) {
-                return entry.getValue();
+                return unwrapSuccessor(entry.getValue());
             } else {
                 return null;
             }
+        } else if (trans instanceof Object[]) {
+            Object[] entries = (Object[]) trans;
+            for (int i = 0; i < entries.length; i += 2) {
+                if (entries[i].equals(transition)) {
+                    return unwrapSuccessor(entries[i + 1]);
+                }
+            }
+            return null;
         } else {
             assert trans instanceof Map<?, ?>;
             @SuppressWarnings("unchecked")
-            Map<Transition, ShapeImpl> map = (Map<Transition, ShapeImpl>) trans;
-            return map.get(transition);
+            Map<Transition, Object> map = (Map<Transition, Object>) trans;
+            return unwrapSuccessor(map.get(transition));
         }
     }
 
@@ -830,14 +997,33 @@ public abstract class ShapeImpl extends Shape {
     @TruffleBoundary
     @Override
     public final boolean hasTransitionWithKey(Object key) {
-        for (Transition transition : getTransitionMapForRead().keySet()) {
-            if (transition instanceof PropertyTransition) {
-                if (((PropertyTransition) transition).getProperty().getKey().equals(key)) {
+        Object trans = transitionMap;
+        if (trans == null) {
+            return false;
+        } else if (trans instanceof Map.Entry<?, ?>) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) trans;
+            return isTransitionWithKey(entry.getKey(), entry.getValue(), key);
+        } else if (trans instanceof Object[]) {
+            Object[] entries = (Object[]) trans;
+            for (int i = 0; i < entries.length; i += 2) {
+                if (isTransitionWithKey(entries[i], entries[i + 1], key)) {
+                    return true;
+                }
+            }
+            return false;
+        } else {
+            assert trans instanceof Map<?, ?>;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) trans).entrySet()) {
+                if (isTransitionWithKey(entry.getKey(), entry.getValue(), key)) {
                     return true;
                 }
             }
+            return false;
         }
-        return false;
+    }
+
+    private static boolean isTransitionWithKey(Object transition, Object successor, Object key) {
+        return transition instanceof PropertyTransition && ((PropertyTransition) transition).getProperty().getKey().equals(key) && unwrapSuccessor(successor) != null;
     }
 
     /**
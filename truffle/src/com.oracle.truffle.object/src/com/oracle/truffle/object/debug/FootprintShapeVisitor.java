@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.object.debug;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ShapeImpl;
+import com.oracle.truffle.object.Transition;
+
+/**
+ * Summarizes the footprint of the shape trees reachable from the visited shapes: the number of
+ * shapes and transitions, how the transition maps are represented, and how many shapes are
+ * obsolete.
+ *
+ * @since 0.27
+ */
+@SuppressWarnings("deprecation")
+public class FootprintShapeVisitor extends com.oracle.truffle.object.DebugShapeVisitor<FootprintShapeVisitor> {
+
+    private final Set<Shape> visited = new HashSet<>();
+    private int rootShapes;
+    private int invalidShapes;
+    private int maxDepth;
+    private long transitions;
+    private long propertyMapEntries;
+    private int leafShapes;
+    private int singleTransitionShapes;
+    private int smallTransitionMapShapes;
+    private int largeTransitionMapShapes;
+
+    public FootprintShapeVisitor() {
+    }
+
+    @Override
+    public FootprintShapeVisitor visitShape(Shape shape, Map<? extends Transition, ? extends Shape> transitionMap) {
+        if (!visited.add(shape)) {
+            return this;
+        }
+
+        if (shape.getParent() == null) {
+            rootShapes++;
+        }
+        if (!shape.isValid()) {
+            invalidShapes++;
+        }
+        ShapeImpl shapeImpl = (ShapeImpl) shape;
+        maxDepth = Math.max(maxDepth, shapeImpl.getDepth());
+        propertyMapEntries += shapeImpl.getPropertyMap().size();
+
+        transitions += transitionMap.size();
+        switch (shapeImpl.getTransitionMapRepresentation()) {
+            case EMPTY:
+                leafShapes++;
+                break;
+            case SINGLE:
+                singleTransitionShapes++;
+                break;
+            case SMALL:
+                smallTransitionMapShapes++;
+                break;
+            case LARGE:
+                largeTransitionMapShapes++;
+                break;
+        }
+
+        for (Shape successor : transitionMap.values()) {
+            this.visitShape(successor);
+        }
+        return this;
+    }
+
+    public int getShapeCount() {
+        return visited.size();
+    }
+
+    public long getTransitionCount() {
+        return transitions;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("shape trees: ").append(rootShapes).append('\n');
+        sb.append("shapes: ").append(visited.size()).append(" (obsolete: ").append(invalidShapes).append(", max depth: ").append(maxDepth).append(")\n");
+        sb.append("transitions: ").append(transitions).append('\n');
+        sb.append("transition maps: ").append(leafShapes).append(" empty, ").append(singleTransitionShapes).append(" single, ");
+        sb.append(smallTransitionMapShapes).append(" small, ").append(largeTransitionMapShapes).append(" large\n");
+        sb.append("properties (summed over shapes): ").append(propertyMapEntries).append('\n');
+        return sb.toString();
+    }
+}
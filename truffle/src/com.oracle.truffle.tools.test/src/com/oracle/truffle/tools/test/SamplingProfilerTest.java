@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.test;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.instrumentation.test.AbstractInstrumentationTest;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.tools.SamplingProfiler;
+import com.oracle.truffle.tools.SamplingProfiler.CallTreeNode;
+
+public class SamplingProfilerTest extends AbstractInstrumentationTest {
+
+    private SamplingProfiler sampler;
+
+    // Checkstyle: stop
+    private final Source source = lines("ROOT(",
+                    "DEFINE(foo,ROOT(EXPRESSION)),",
+                    "DEFINE(bar,ROOT(LOOP(10  , CALL(foo)))),",
+                    "DEFINE(baz,ROOT(LOOP(10  , CALL(bar)))),",
+                    "CALL(baz),CALL(baz)",
+                    ")");
+    // Checkstyle: resume
+
+    @Before
+    public void setupSampler() {
+        sampler = SamplingProfiler.find(engine);
+        Assert.assertNotNull(sampler);
+        sampler.setPeriod(1);
+    }
+
+    private void evalUntilSampled() throws IOException {
+        for (int i = 0; i < 100000 && !sampler.hasData(); i++) {
+            assertEvalOut(source, "");
+        }
+    }
+
+    @Test
+    public void testSampling() throws IOException {
+        Assert.assertFalse(sampler.isCollecting());
+        Assert.assertFalse(sampler.hasData());
+        Assert.assertEquals(1, sampler.getPeriod());
+
+        sampler.setCollecting(true);
+        Assert.assertTrue(sampler.isCollecting());
+
+        evalUntilSampled();
+        Assert.assertTrue(sampler.hasData());
+
+        Collection<CallTreeNode> roots = sampler.getRootNodes();
+        Assert.assertEquals(1, roots.size());
+        CallTreeNode root = roots.iterator().next();
+        Assert.assertEquals("", root.getName());
+        Assert.assertNull(root.getParent());
+        Assert.assertTrue(root.getTotalSampleCount() > 0);
+        Assert.assertTrue(root.getTotalSampleCount() <= sampler.getSampleCount());
+        for (CallTreeNode child : root.getChildren()) {
+            Assert.assertEquals("baz", child.getName());
+            Assert.assertSame(root, child.getParent());
+            Assert.assertTrue(child.getTotalSampleCount() <= root.getTotalSampleCount());
+        }
+
+        sampler.setCollecting(false);
+        long samples = sampler.getSampleCount();
+        assertEvalOut(source, "");
+        Assert.assertEquals(samples, sampler.getSampleCount());
+
+        sampler.printFlatHistogram(new PrintStream(out));
+        sampler.printCallTree(new PrintStream(out));
+        String o = getOut();
+        Assert.assertTrue(o != null && o.trim().length() > 0);
+
+        sampler.clearData();
+        Assert.assertFalse(sampler.hasData());
+        Assert.assertEquals(0, sampler.getRootNodes().size());
+    }
+
+    @Test
+    public void testSetMIME() {
+        Assert.assertNull(sampler.getMimeTypes());
+
+        String[] mimeTypes = new String[]{"testMIMEType1", "testMIMEType2"};
+        sampler.setMimeTypes(mimeTypes);
+        Assert.assertArrayEquals(mimeTypes, sampler.getMimeTypes());
+
+        sampler.setMimeTypes(new String[0]);
+        Assert.assertNull(sampler.getMimeTypes());
+    }
+
+    @Test
+    public void testMIMEFilter() throws IOException {
+        sampler.setMimeTypes(new String[]{"foo"});
+        sampler.setCollecting(true);
+        for (int i = 0; i < 1000; i++) {
+            assertEvalOut(source, "");
+        }
+        Assert.assertFalse(sampler.hasData());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPeriod() {
+        sampler.setPeriod(0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDisposeError() throws NoSuchMethodException, SecurityException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+        sampler.setCollecting(true);
+
+        Method m = SamplingProfiler.class.getDeclaredMethod("dispose");
+        m.setAccessible(true);
+        m.invoke(sampler);
+
+        sampler.setCollecting(false);
+    }
+}
@@ -0,0 +1,710 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleRuntime;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter.Builder;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter.SourcePredicate;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.nodes.NodeCost;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.vm.PolyglotEngine;
+import com.oracle.truffle.api.vm.PolyglotRuntime;
+
+/**
+ * Low-overhead, statistical CPU profiling of guest language code.
+ * <p>
+ * Unlike the {@link Profiler}, which counts and times every invocation, the sampling profiler
+ * periodically takes a snapshot of the guest language stacks of all threads executing guest code
+ * and aggregates the snapshots into a {@linkplain #getRootNodes() call tree}. Since
+ * {@link TruffleRuntime#iterateFrames} can only walk the stack of the current thread, every thread
+ * maintains a cheap shadow stack of the {@linkplain StandardTags.RootTag roots} it is executing,
+ * which a background thread reads without synchronization. A sample may therefore occasionally be
+ * inconsistent, which is acceptable for statistical results. The only cost on the executing
+ * threads is a push and a pop per root invocation, which keeps the overhead low enough to leave
+ * the profiler on in production.
+ * <p>
+ * Results are provided in two forms:
+ * <ul>
+ * <li>A {@linkplain #getRootNodes() call tree} of sample counts indexed by {@link SourceSection};
+ * and</li>
+ * <li>Textual {@linkplain #printFlatHistogram(PrintStream) flat} and
+ * {@linkplain #printCallTree(PrintStream) tree} displays, intended for demonstrations or simple
+ * command line tools, whose format is subject to change at any time.</li>
+ * </ul>
+ *
+ * @since 0.27
+ */
+public final class SamplingProfiler {
+
+    /**
+     * Finds the sampling profiler associated with given engine. There is at most one sampling
+     * profiler associated with any {@link PolyglotEngine}.
+     *
+     * @param engine the engine to find the sampling profiler for
+     * @return an instance of associated sampling profiler, never <code>null</code>
+     * @since 0.27
+     */
+    public static SamplingProfiler find(PolyglotEngine engine) {
+        PolyglotRuntime.Instrument instrument = engine.getRuntime().getInstruments().get(SamplingProfilerInstrument.ID);
+        if (instrument == null) {
+            throw new IllegalStateException();
+        }
+        return instrument.lookup(SamplingProfiler.class);
+    }
+
+    private static final long DEFAULT_PERIOD = 10;
+
+    private final Instrumenter instrumenter;
+
+    private boolean isCollecting;
+
+    private long period = DEFAULT_PERIOD;
+
+    private String[] mimeTypes;
+
+    private EventBinding<?> binding;
+
+    private Timer samplerThread;
+
+    private final ConcurrentHashMap<Thread, ShadowStack> stacks = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<SourceSection, ProfiledRoot> profiledRoots = new ConcurrentHashMap<>();
+
+    /*
+     * Only the sampler thread adds samples to the call tree. Clearing the data replaces the tree.
+     */
+    private volatile CallTreeNode callTree = new CallTreeNode(null, null);
+
+    private final Object callTreeLock = new Object();
+
+    private volatile long sampleCount;
+
+    private final SourcePredicate notInternal = new SourcePredicate() {
+
+        public boolean test(Source source) {
+            return !source.isInternal();
+        }
+
+    };
+
+    private boolean disposed;
+
+    SamplingProfiler(Instrumenter instrumenter) {
+        this.instrumenter = instrumenter;
+    }
+
+    void dispose() {
+        if (!disposed) {
+            stopSampling();
+            if (binding != null) {
+                binding.dispose();
+                binding = null;
+            }
+            stacks.clear();
+            disposed = true;
+        }
+    }
+
+    /**
+     * Controls whether samples are being collected, {@code false} by default.
+     * <p>
+     * Any collected data remains available while collecting is turned off. Unless explicitly
+     * {@linkplain #clearData() cleared}, previously collected data will be included when collection
+     * resumes.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized void setCollecting(boolean isCollecting) {
+        checkNotDisposed();
+        if (this.isCollecting != isCollecting) {
+            this.isCollecting = isCollecting;
+            reset();
+        }
+    }
+
+    /**
+     * Are samples currently being collected (default {@code false})?
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized boolean isCollecting() {
+        checkNotDisposed();
+        return isCollecting;
+    }
+
+    /**
+     * Sets the time in milliseconds between two samples, {@value #DEFAULT_PERIOD} by default.
+     *
+     * @throws IllegalArgumentException if {@code period} is not positive
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized void setPeriod(long period) {
+        checkNotDisposed();
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive: " + period);
+        }
+        if (this.period != period) {
+            this.period = period;
+            if (isCollecting) {
+                stopSampling();
+                startSampling();
+            }
+        }
+    }
+
+    /**
+     * Gets the time in milliseconds between two samples.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized long getPeriod() {
+        checkNotDisposed();
+        return period;
+    }
+
+    /**
+     * Replaces the list of MIME types for which samples are being collected, {@code null} for
+     * <strong>ANY</strong>.
+     *
+     * @param newTypes new list of MIME types, {@code null} or an empty list matches any MIME type.
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized void setMimeTypes(String[] newTypes) {
+        checkNotDisposed();
+        mimeTypes = newTypes != null && newTypes.length > 0 ? newTypes : null;
+        reset();
+    }
+
+    /**
+     * Gets MIME types for which samples are being {@linkplain #isCollecting() collected}.
+     *
+     * @return MIME types matching sources being profiled; {@code null} matches <strong>ANY</strong>
+     *         MIME type.
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public synchronized String[] getMimeTypes() {
+        checkNotDisposed();
+        return mimeTypes == null ? null : Arrays.copyOf(mimeTypes, mimeTypes.length);
+    }
+
+    /**
+     * Gets the number of samples collected since the last time data was {@linkplain #clearData()
+     * cleared}. Only snapshots of threads that were executing guest code are counted.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public long getSampleCount() {
+        checkNotDisposed();
+        return sampleCount;
+    }
+
+    /**
+     * Is any data currently collected?
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public boolean hasData() {
+        return getSampleCount() > 0;
+    }
+
+    /**
+     * Resets all collected data.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public void clearData() {
+        checkNotDisposed();
+        synchronized (callTreeLock) {
+            callTree = new CallTreeNode(null, null);
+            sampleCount = 0;
+        }
+    }
+
+    /**
+     * Gets the roots of the call tree, i.e., the outermost guest language roots that were sampled.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public Collection<CallTreeNode> getRootNodes() {
+        checkNotDisposed();
+        return callTree.getChildren();
+    }
+
+    private void checkNotDisposed() {
+        if (disposed) {
+            throw new IllegalStateException("disposed profiler");
+        }
+    }
+
+    // Reconfigure what's being collected; does not affect collected data
+    private void reset() {
+        stopSampling();
+        if (binding != null) {
+            binding.dispose();
+            binding = null;
+        }
+        stacks.clear();
+        if (isCollecting) {
+            final Builder filterBuilder = SourceSectionFilter.newBuilder();
+            if (mimeTypes != null) {
+                filterBuilder.mimeTypeIs(mimeTypes);
+            }
+            final SourceSectionFilter filter = filterBuilder.tagIs(StandardTags.RootTag.class).sourceIs(notInternal).build();
+            binding = instrumenter.attachFactory(filter, new ExecutionEventNodeFactory() {
+                public ExecutionEventNode create(EventContext context) {
+                    return new ShadowStackNode(SamplingProfiler.this, getProfiledRoot(context));
+                }
+            });
+            startSampling();
+        }
+    }
+
+    private ProfiledRoot getProfiledRoot(EventContext context) {
+        SourceSection sourceSection = context.getInstrumentedSourceSection();
+        ProfiledRoot root = profiledRoots.get(sourceSection);
+        if (root == null) {
+            final RootNode rootNode = context.getInstrumentedNode().getRootNode();
+            root = new ProfiledRoot(sourceSection, rootNode == null ? "<unknown>" : rootNode.getName());
+            ProfiledRoot existing = profiledRoots.putIfAbsent(sourceSection, root);
+            if (existing != null) {
+                root = existing;
+            }
+        }
+        return root;
+    }
+
+    private void startSampling() {
+        assert samplerThread == null;
+        samplerThread = new Timer("Sampling Profiler", true);
+        samplerThread.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                takeSamples();
+            }
+        }, period, period);
+    }
+
+    private void stopSampling() {
+        if (samplerThread != null) {
+            samplerThread.cancel();
+            samplerThread = null;
+        }
+    }
+
+    private void takeSamples() {
+        synchronized (callTreeLock) {
+            CallTreeNode tree = callTree;
+            for (Iterator<ShadowStack> iterator = stacks.values().iterator(); iterator.hasNext();) {
+                ShadowStack stack = iterator.next();
+                if (!stack.thread.isAlive()) {
+                    iterator.remove();
+                    continue;
+                }
+                if (addSample(tree, stack)) {
+                    sampleCount++;
+                }
+            }
+        }
+    }
+
+    private static boolean addSample(CallTreeNode tree, ShadowStack stack) {
+        ProfiledRoot[] roots = stack.roots;
+        int depth = Math.min(stack.depth, roots.length);
+        CallTreeNode node = tree;
+        for (int i = 0; i < depth; i++) {
+            ProfiledRoot root = roots[i];
+            if (root == null) {
+                break;
+            }
+            node = node.getOrAddChild(root);
+            node.totalSamples++;
+        }
+        if (node == tree) {
+            // the thread is not executing guest code
+            return false;
+        }
+        node.selfSamples++;
+        return true;
+    }
+
+    @TruffleBoundary
+    ShadowStack getStack(Thread thread) {
+        ShadowStack stack = stacks.get(thread);
+        if (stack == null) {
+            stack = new ShadowStack(thread);
+            ShadowStack existing = stacks.putIfAbsent(thread, stack);
+            if (existing != null) {
+                stack = existing;
+            }
+        }
+        return stack;
+    }
+
+    /**
+     * Prints a flat histogram of the collected samples, format subject to change. The self count
+     * of a root is the number of samples in which it was executing; the total count is the number
+     * of samples in which it was on the stack.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public void printFlatHistogram(PrintStream out) {
+        checkNotDisposed();
+        Map<SourceSection, long[]> flat = new HashMap<>();
+        Map<SourceSection, String> names = new HashMap<>();
+        collectFlat(callTree, new HashSet<SourceSection>(), flat, names);
+
+        List<Map.Entry<SourceSection, long[]>> entries = new ArrayList<>(flat.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<SourceSection, long[]>>() {
+            @Override
+            public int compare(Map.Entry<SourceSection, long[]> o1, Map.Entry<SourceSection, long[]> o2) {
+                return Long.compare(o2.getValue()[0], o1.getValue()[0]);
+            }
+        });
+
+        long samples = sampleCount;
+        out.println(String.format("Truffle sampling profiler flat histogram (%d samples, period %dms)", samples, period));
+        out.println(String.format("%12s | %7s | %12s | %7s | %-15s | %s ", "Self", "Self%", "Total", "Total%", "Name", "Source"));
+        for (Map.Entry<SourceSection, long[]> entry : entries) {
+            long self = entry.getValue()[0];
+            long total = entry.getValue()[1];
+            out.println(String.format("%12d | %6.1f%% | %12d | %6.1f%% | %-15s | %s", self, percent(self, samples), total, percent(total, samples), names.get(entry.getKey()),
+                            getShortDescription(entry.getKey())));
+        }
+        out.println();
+    }
+
+    /*
+     * Samples in which a root occurs recursively are only counted once towards its total count.
+     */
+    private static void collectFlat(CallTreeNode node, Set<SourceSection> onPath, Map<SourceSection, long[]> flat, Map<SourceSection, String> names) {
+        for (CallTreeNode child : node.getChildren()) {
+            SourceSection section = child.getSourceSection();
+            long[] counts = flat.get(section);
+            if (counts == null) {
+                counts = new long[2];
+                flat.put(section, counts);
+                names.put(section, child.getName());
+            }
+            counts[0] += child.getSelfSampleCount();
+            boolean outermost = onPath.add(section);
+            if (outermost) {
+                counts[1] += child.getTotalSampleCount();
+            }
+            collectFlat(child, onPath, flat, names);
+            if (outermost) {
+                onPath.remove(section);
+            }
+        }
+    }
+
+    /**
+     * Prints the call tree of the collected samples, format subject to change.
+     *
+     * @throws IllegalStateException if disposed
+     * @since 0.27
+     */
+    public void printCallTree(PrintStream out) {
+        checkNotDisposed();
+        long samples = sampleCount;
+        out.println(String.format("Truffle sampling profiler call tree (%d samples, period %dms)", samples, period));
+        out.println(String.format("%12s | %7s | %12s | %7s | %s ", "Self", "Self%", "Total", "Total%", "Name (Source)"));
+        printCallTree(out, callTree, 0, samples);
+        out.println();
+    }
+
+    private static void printCallTree(PrintStream out, CallTreeNode node, int level, long samples) {
+        List<CallTreeNode> children = new ArrayList<>(node.getChildren());
+        Collections.sort(children, new Comparator<CallTreeNode>() {
+            @Override
+            public int compare(CallTreeNode o1, CallTreeNode o2) {
+                return Long.compare(o2.getTotalSampleCount(), o1.getTotalSampleCount());
+            }
+        });
+        StringBuilder indent = new StringBuilder();
+        for (int i = 0; i < level; i++) {
+            indent.append("  ");
+        }
+        for (CallTreeNode child : children) {
+            long self = child.getSelfSampleCount();
+            long total = child.getTotalSampleCount();
+            out.println(String.format("%12d | %6.1f%% | %12d | %6.1f%% | %s%s (%s)", self, percent(self, samples), total, percent(total, samples), indent, child.getName(),
+                            getShortDescription(child.getSourceSection())));
+            printCallTree(out, child, level + 1, samples);
+        }
+    }
+
+    private static double percent(long count, long samples) {
+        return samples == 0 ? 0.0 : count * 100.0 / samples;
+    }
+
+    // custom version of SourceSection#getShortDescription
+    private static String getShortDescription(SourceSection sourceSection) {
+        StringBuilder b = new StringBuilder();
+        b.append(sourceSection.getSource().getName());
+        b.append(":");
+        if (sourceSection.getStartLine() == sourceSection.getEndLine()) {
+            b.append(sourceSection.getStartLine());
+        } else {
+            b.append(sourceSection.getStartLine()).append("-").append(sourceSection.getEndLine());
+        }
+        return b.toString();
+    }
+
+    /**
+     * A guest language root as recorded on the shadow stacks. There is exactly one instance per
+     * source section, so that all nodes instrumenting the same root push the same object.
+     */
+    static final class ProfiledRoot {
+        final SourceSection sourceSection;
+        final String name;
+
+        ProfiledRoot(SourceSection sourceSection, String name) {
+            this.sourceSection = sourceSection;
+            this.name = name;
+        }
+    }
+
+    /**
+     * The roots a single thread is currently executing. Only the owning thread writes to the
+     * stack; the sampler thread reads it without synchronization.
+     */
+    static final class ShadowStack {
+        private static final int INITIAL_CAPACITY = 64;
+
+        final Thread thread;
+        ProfiledRoot[] roots = new ProfiledRoot[INITIAL_CAPACITY];
+        int depth;
+
+        ShadowStack(Thread thread) {
+            this.thread = thread;
+        }
+
+        void push(ProfiledRoot root) {
+            int d = depth;
+            ProfiledRoot[] r = roots;
+            if (d >= r.length) {
+                r = grow();
+            }
+            r[d] = root;
+            depth = d + 1;
+        }
+
+        void pop(ProfiledRoot root) {
+            int d = depth - 1;
+            // ignore unbalanced returns, e.g. of roots entered before collecting was enabled
+            if (d >= 0 && roots[d] == root) {
+                depth = d;
+            }
+        }
+
+        @TruffleBoundary
+        private ProfiledRoot[] grow() {
+            roots = Arrays.copyOf(roots, roots.length * 2);
+            return roots;
+        }
+    }
+
+    private static final class ShadowStackNode extends ExecutionEventNode {
+
+        private final SamplingProfiler profiler;
+        private final ProfiledRoot root;
+        @CompilationFinal private ShadowStack cachedStack;
+        @CompilationFinal private boolean multipleThreads;
+
+        ShadowStackNode(SamplingProfiler profiler, ProfiledRoot root) {
+            this.profiler = profiler;
+            this.root = root;
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            getStack().push(root);
+        }
+
+        @Override
+        protected void onReturnValue(VirtualFrame frame, Object result) {
+            getStack().pop(root);
+        }
+
+        @Override
+        protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+            getStack().pop(root);
+        }
+
+        private ShadowStack getStack() {
+            Thread current = Thread.currentThread();
+            if (!multipleThreads) {
+                ShadowStack stack = cachedStack;
+                if (stack != null && stack.thread == current) {
+                    return stack;
+                }
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                if (stack == null) {
+                    stack = profiler.getStack(current);
+                    cachedStack = stack;
+                    return stack;
+                }
+                multipleThreads = true;
+            }
+            return profiler.getStack(current);
+        }
+
+        @Override
+        public NodeCost getCost() {
+            return NodeCost.NONE;
+        }
+    }
+
+    /**
+     * A node in the call tree of the collected samples. Each node stands for a guest language root
+     * reached through the sequence of roots from the tree root to the node.
+     *
+     * @since 0.27
+     */
+    public static final class CallTreeNode {
+
+        private final ProfiledRoot root;
+        private final CallTreeNode parent;
+        private final Map<ProfiledRoot, CallTreeNode> children = new ConcurrentHashMap<>();
+        private volatile long selfSamples;
+        private volatile long totalSamples;
+
+        CallTreeNode(CallTreeNode parent, ProfiledRoot root) {
+            this.parent = parent;
+            this.root = root;
+        }
+
+        CallTreeNode getOrAddChild(ProfiledRoot childRoot) {
+            CallTreeNode child = children.get(childRoot);
+            if (child == null) {
+                child = new CallTreeNode(this, childRoot);
+                children.put(childRoot, child);
+            }
+            return child;
+        }
+
+        /**
+         * The guest language root this node stands for.
+         *
+         * @since 0.27
+         */
+        public SourceSection getSourceSection() {
+            return root.sourceSection;
+        }
+
+        /**
+         * The name of the method/procedure this node stands for.
+         *
+         * @since 0.27
+         */
+        public String getName() {
+            return root.name;
+        }
+
+        /**
+         * The caller of this node or {@code null} if this is an outermost root.
+         *
+         * @since 0.27
+         */
+        public CallTreeNode getParent() {
+            return parent.root == null ? null : parent;
+        }
+
+        /**
+         * The nodes called from this node.
+         *
+         * @since 0.27
+         */
+        public Collection<CallTreeNode> getChildren() {
+            return Collections.unmodifiableCollection(children.values());
+        }
+
+        /**
+         * Number of samples in which this node was the innermost root.
+         *
+         * @since 0.27
+         */
+        public long getSelfSampleCount() {
+            return selfSamples;
+        }
+
+        /**
+         * Number of samples in which this node was on the stack.
+         *
+         * @since 0.27
+         */
+        public long getTotalSampleCount() {
+            return totalSamples;
+        }
+
+        /**
+         * @since 0.27
+         */
+        @Override
+        public String toString() {
+            return root == null ? "<root>" : root.name + " (" + getShortDescription(root.sourceSection) + ")";
+        }
+    }
+}